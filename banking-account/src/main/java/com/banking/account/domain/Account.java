@@ -1,24 +1,54 @@
 package com.banking.account.domain;
 
 import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Currency;
 import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
 import com.banking.core.exception.InsufficientFundsException;
 import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.IdGenerators;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Represents a bank account with balance and account details.
+ * <p>
+ * The balance is a single {@code long} of minor units updated with compare-and-set, so concurrent
+ * deposits and withdrawals never lose updates and never block each other. A withdrawal checks
+ * for sufficient funds against the exact value it replaces.
+ * <p>
+ * The {@code try} variants report ordinary declines as a {@link TransactionOutcome} instead of an
+ * exception, for callers where declines are routine.
  */
 public class Account {
+    private static final VarHandle BALANCE;
+    private static final long SUBTRACTED = Long.MIN_VALUE; // no balance is this low
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balanceMinorUnits", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final String accountId;
     private final String customerId;
     private final AccountType accountType;
-    private Money balance;
-    private boolean active;
+    private final Currency currency;
+    private volatile long balanceMinorUnits; // scaled by the currency's minor units
+    private volatile boolean active;
 
     public Account(String customerId, AccountType accountType, Money initialBalance) {
+        this(IdGenerators.getDefault().nextId(), customerId, accountType, initialBalance);
+    }
+
+    public Account(String accountId, String customerId, AccountType accountType, Money initialBalance) {
+        if (accountId == null || accountId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Account ID cannot be null or empty");
+        }
         if (customerId == null || customerId.trim().isEmpty()) {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
@@ -29,10 +59,11 @@ public class Account {
             throw new IllegalArgumentException("Initial balance cannot be null");
         }
         
-        this.accountId = UUID.randomUUID().toString();
+        this.accountId = accountId;
         this.customerId = customerId;
         this.accountType = accountType;
-        this.balance = initialBalance;
+        this.currency = initialBalance.currency();
+        this.balanceMinorUnits = initialBalance.minorUnits();
         this.active = true;
     }
 
@@ -40,10 +71,22 @@ public class Account {
         this.accountId = accountId;
         this.customerId = customerId;
         this.accountType = accountType;
-        this.balance = balance;
+        this.currency = balance.currency();
+        this.balanceMinorUnits = balance.minorUnits();
         this.active = active;
     }
 
+    /**
+     * For subclasses that keep the balance and status elsewhere; they must override every method
+     * that reads or changes either.
+     */
+    protected Account(String accountId, String customerId, AccountType accountType, Currency currency) {
+        this.accountId = accountId;
+        this.customerId = customerId;
+        this.accountType = accountType;
+        this.currency = currency;
+    }
+
     public String getAccountId() {
         return accountId;
     }
@@ -57,7 +100,7 @@ public class Account {
     }
 
     public Money getBalance() {
-        return balance;
+        return Money.ofMinor(balanceMinorUnits, currency);
     }
 
     public boolean isActive() {
@@ -65,24 +108,113 @@ public class Account {
     }
 
     public void deposit(Money amount) {
+        validateDeposit(amount);
+        long delta = amount.minorUnits();
+        long current = balanceMinorUnits;
+        while (!BALANCE.weakCompareAndSet(this, current, Math.addExact(current, delta))) {
+            Thread.onSpinWait();
+            current = balanceMinorUnits;
+        }
+    }
+
+    /**
+     * Deposits like {@link #deposit}, but reports an inactive account or a currency mismatch as an
+     * outcome instead of throwing.
+     *
+     * @throws IllegalArgumentException if the amount is null or not positive
+     */
+    public TransactionOutcome tryDeposit(Money amount) {
+        TransactionOutcome outcome = checkDeposit(amount);
+        if (outcome == TransactionOutcome.OK) {
+            deposit(amount);
+        }
+        return outcome;
+    }
+
+    /**
+     * Checks everything {@link #deposit} checks without changing the balance, so multi-step
+     * operations can reject a deposit before moving any money.
+     */
+    public void validateDeposit(Money amount) {
         validateAccount();
-        if (amount == null || amount.getAmount().compareTo(java.math.BigDecimal.ZERO) <= 0) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        if (amount.currency() != currency) {
+            throw new IllegalArgumentException("Cannot add different currencies");
+        }
+    }
+
+    /**
+     * Same checks as {@link #validateDeposit}, reported as an outcome.
+     *
+     * @throws IllegalArgumentException if the amount is null or not positive
+     */
+    public TransactionOutcome checkDeposit(Money amount) {
+        if (amount == null || amount.signum() <= 0) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
-        this.balance = this.balance.add(amount);
+        if (!isActive()) {
+            return TransactionOutcome.INACTIVE;
+        }
+        return amount.currency() != currency ? TransactionOutcome.CURRENCY_MISMATCH : TransactionOutcome.OK;
     }
 
     public void withdraw(Money amount) {
         validateAccount();
-        if (amount == null || amount.getAmount().compareTo(java.math.BigDecimal.ZERO) <= 0) {
+        if (amount == null || amount.signum() <= 0) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
-        if (this.balance.isLessThan(amount)) {
+        if (amount.currency() != currency) {
+            throw new IllegalArgumentException("Cannot compare different currencies");
+        }
+        long shortBalance = subtractFromBalance(amount.minorUnits());
+        if (shortBalance != SUBTRACTED) {
             throw new InsufficientFundsException(
-                String.format("Insufficient funds. Balance: %s, Requested: %s", balance, amount)
+                String.format("Insufficient funds. Balance: %s, Requested: %s",
+                    Money.ofMinor(shortBalance, currency), amount)
             );
         }
-        this.balance = this.balance.subtract(amount);
+    }
+
+    /**
+     * Withdraws like {@link #withdraw}, but reports an inactive account, a currency mismatch or
+     * insufficient funds as an outcome instead of throwing, so a decline allocates nothing. The
+     * balance changes only on {@link TransactionOutcome#OK}.
+     *
+     * @throws IllegalArgumentException if the amount is null or not positive
+     */
+    public TransactionOutcome tryWithdraw(Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive");
+        }
+        if (!isActive()) {
+            return TransactionOutcome.INACTIVE;
+        }
+        if (amount.currency() != currency) {
+            return TransactionOutcome.CURRENCY_MISMATCH;
+        }
+        return subtractFromBalance(amount.minorUnits()) == SUBTRACTED
+            ? TransactionOutcome.OK : TransactionOutcome.INSUFFICIENT_FUNDS;
+    }
+
+    /**
+     * Credits back an amount previously withdrawn from this account, e.g. when the other leg of a
+     * transfer fails. Unlike {@link #deposit} it succeeds even if the account was deactivated since.
+     */
+    public void reverseWithdrawal(Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Reversed amount must be positive");
+        }
+        if (amount.currency() != currency) {
+            throw new IllegalArgumentException("Cannot add different currencies");
+        }
+        long delta = amount.minorUnits();
+        long current = balanceMinorUnits;
+        while (!BALANCE.weakCompareAndSet(this, current, Math.addExact(current, delta))) {
+            Thread.onSpinWait();
+            current = balanceMinorUnits;
+        }
     }
 
     public void deactivate() {
@@ -93,6 +225,21 @@ public class Account {
         this.active = true;
     }
 
+    // Returns SUBTRACTED, or the balance that was too small
+    private long subtractFromBalance(long delta) {
+        long current = balanceMinorUnits;
+        while (true) {
+            if (current < delta) {
+                return current;
+            }
+            if (BALANCE.weakCompareAndSet(this, current, current - delta)) {
+                return SUBTRACTED;
+            }
+            Thread.onSpinWait();
+            current = balanceMinorUnits;
+        }
+    }
+
     private void validateAccount() {
         if (!active) {
             throw new InvalidAccountException("Account " + accountId + " is not active");
@@ -102,7 +249,8 @@ public class Account {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        // Accounts are equal by id whether they are plain objects or table views
+        if (!(o instanceof Account)) return false;
         Account account = (Account) o;
         return Objects.equals(accountId, account.accountId);
     }
@@ -115,7 +263,7 @@ public class Account {
     @Override
     public String toString() {
         return String.format("Account{id='%s', customerId='%s', type=%s, balance=%s, active=%s}",
-                accountId, customerId, accountType, balance, active);
+                accountId, customerId, accountType, getBalance(), isActive());
     }
 }
 
@@ -0,0 +1,25 @@
+package com.banking.account.service;
+
+import com.banking.account.domain.Account;
+
+/**
+ * Callback for account lifecycle changes made through {@link AccountService}.
+ * <p>
+ * Listeners run synchronously on the calling thread before the service method returns, so a
+ * listener may, for example, make the change durable before it is acknowledged.
+ */
+public interface AccountListener {
+
+    /**
+     * Called before the new account can be looked up, so no other operation has touched it yet.
+     * Throwing aborts the account's creation.
+     */
+    void onAccountOpened(Account account);
+
+    /**
+     * Called after an account was activated or deactivated, while its lock stripe is still held,
+     * so notifications for one account arrive in the order the changes were applied.
+     */
+    default void onAccountStatusChanged(Account account) {
+    }
+}
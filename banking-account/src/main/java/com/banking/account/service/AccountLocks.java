@@ -0,0 +1,118 @@
+package com.banking.account.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks guarding multi-account operations.
+ * <p>
+ * Each account id maps to one of a fixed number of stripes. Operations spanning two accounts
+ * always acquire the stripes in ascending stripe order, so they cannot deadlock with each other,
+ * and accounts that share a stripe are locked only once.
+ */
+public class AccountLocks {
+    private static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final LongAdder contended = new LongAdder();
+
+    public AccountLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public AccountLocks(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a positive power of two");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    public void withLock(String accountId, Runnable action) {
+        ReentrantLock lock = stripes[stripeOf(accountId)];
+        acquire(lock);
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withLocks(String firstAccountId, String secondAccountId, Supplier<T> action) {
+        int first = stripeOf(firstAccountId);
+        int second = stripeOf(secondAccountId);
+        ReentrantLock outer = stripes[Math.min(first, second)];
+        ReentrantLock inner = stripes[Math.max(first, second)];
+        acquire(outer);
+        try {
+            if (inner == outer) {
+                return action.get();
+            }
+            acquire(inner);
+            try {
+                return action.get();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    /**
+     * Runs the action holding the stripes of every given account, each acquired once and in
+     * ascending stripe order like {@link #withLocks(String, String, Supplier)}.
+     */
+    public <T> T withLocks(Collection<String> accountIds, Supplier<T> action) {
+        int[] held = new int[accountIds.size()];
+        int count = 0;
+        for (String accountId : accountIds) {
+            held[count++] = stripeOf(accountId);
+        }
+        Arrays.sort(held);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || held[distinct - 1] != held[i]) {
+                held[distinct++] = held[i];
+            }
+        }
+        int locked = 0;
+        try {
+            while (locked < distinct) {
+                acquire(stripes[held[locked]]);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            while (locked > 0) {
+                stripes[held[--locked]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Number of stripe acquisitions that found the stripe held and had to wait.
+     */
+    public long getContendedAcquisitions() {
+        return contended.sum();
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (!lock.tryLock()) {
+            contended.increment();
+            lock.lock();
+        }
+    }
+
+    int stripeOf(String accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -1,60 +1,229 @@
 package com.banking.account.service;
 
 import com.banking.account.domain.Account;
+import com.banking.account.table.AccountTable;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
 import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.IdGenerator;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.metrics.LatencyHistogram;
+import com.banking.core.metrics.MetricsRegistry;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Service for managing bank accounts.
+ * <p>
+ * Accounts live in an {@link AccountTable}; the {@link Account}s handed out are live views of
+ * table rows. Hot paths can resolve an id to its handle once with {@link #getHandle} and work on
+ * the table directly.
  */
 public class AccountService {
-    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final AccountTable table = new AccountTable();
+    private final AccountLocks locks = new AccountLocks();
+    private final IdGenerator idGenerator;
+    private final List<AccountListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Instruments instruments = new Instruments(new MetricsRegistry());
+
+    public AccountService() {
+        this(IdGenerators.getDefault());
+    }
+
+    public AccountService(IdGenerator idGenerator) {
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("IdGenerator cannot be null");
+        }
+        this.idGenerator = idGenerator;
+    }
+
+    public void addListener(AccountListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Records account operation latencies ({@code account.create}, {@code account.status-change}),
+     * rejections of this service's own operations by exception ({@code account.rejected.<exception>};
+     * misses through {@link #getHandle} are counted by the calling service), the account count and
+     * the table's contention counters in the given registry from now on.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("MetricsRegistry cannot be null");
+        }
+        this.instruments = new Instruments(metrics);
+    }
+
+    public MetricsRegistry getMetrics() {
+        return instruments.registry;
+    }
 
     public Account createAccount(String customerId, AccountType accountType, Money initialBalance) {
-        Account account = new Account(customerId, accountType, initialBalance);
-        accounts.put(account.getAccountId(), account);
-        return account;
+        Instruments current = instruments;
+        long start = System.nanoTime();
+        try {
+            // Validates the arguments before anything is stored
+            Account account = new Account(idGenerator.nextId(), customerId, accountType, initialBalance);
+            // Notified before the account is reachable, so listeners see its opening balance
+            for (AccountListener listener : listeners) {
+                listener.onAccountOpened(account);
+            }
+            Account created = table.view(register(account));
+            current.create.recordSince(start);
+            return created;
+        } catch (RuntimeException e) {
+            current.rejected(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Re-registers an account recovered from storage, without notifying listeners.
+     */
+    public void restoreAccount(Account account) {
+        register(account);
     }
 
     public Account getAccount(String accountId) {
-        Account account = accounts.get(accountId);
-        if (account == null) {
+        return table.view(lookup(accountId));
+    }
+
+    /**
+     * Resolves an account id to its {@link AccountTable} handle. A miss is not counted here but by
+     * the caller's own rejection metrics, so an operation of another service is counted once.
+     *
+     * @throws InvalidAccountException if there is no such account
+     */
+    public int getHandle(String accountId) {
+        int handle = table.find(accountId);
+        if (handle == AccountTable.NOT_FOUND) {
             throw new InvalidAccountException("Account not found: " + accountId);
         }
-        return account;
+        return handle;
+    }
+
+    public AccountTable getTable() {
+        return table;
     }
 
     public List<Account> getAccountsByCustomer(String customerId) {
-        List<Account> customerAccounts = new ArrayList<>();
-        for (Account account : accounts.values()) {
-            if (account.getCustomerId().equals(customerId)) {
-                customerAccounts.add(account);
-            }
+        int[] handles = table.customerAccounts(customerId);
+        List<Account> customerAccounts = new ArrayList<>(handles.length);
+        for (int handle : handles) {
+            customerAccounts.add(table.view(handle));
         }
         return customerAccounts;
     }
 
+    /**
+     * Balance totals over a customer's accounts, one per currency, kept up to date by every balance
+     * change rather than summed on request.
+     */
+    public List<Money> getCustomerBalances(String customerId) {
+        return table.customerBalances(customerId);
+    }
+
     public List<Account> getAllAccounts() {
-        return new ArrayList<>(accounts.values());
+        return table.views();
+    }
+
+    /**
+     * Returns up to {@code limit} accounts in creation order, starting just after
+     * {@code afterAccountId}, or from the first account if it is {@code null}. Accounts are never
+     * removed, so walking the pages visits every account exactly once.
+     *
+     * @throws InvalidAccountException if {@code afterAccountId} does not exist
+     */
+    public List<Account> getAccountsAfter(String afterAccountId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        int from = afterAccountId == null ? 0 : lookup(afterAccountId) + 1;
+        int to = (int) Math.min(table.size(), (long) from + limit);
+        List<Account> accounts = new ArrayList<>(Math.max(0, to - from));
+        for (int handle = from; handle < to; handle++) {
+            accounts.add(table.view(handle));
+        }
+        return accounts;
     }
 
     public void deactivateAccount(String accountId) {
-        Account account = getAccount(accountId);
-        account.deactivate();
+        setActive(accountId, false);
     }
 
     public void activateAccount(String accountId) {
-        Account account = getAccount(accountId);
-        account.activate();
+        setActive(accountId, true);
+    }
+
+    /**
+     * Locks used to make multi-account operations atomic with respect to each other and to
+     * account status changes made through this service.
+     */
+    public AccountLocks getLocks() {
+        return locks;
     }
 
     public Money getBalance(String accountId) {
-        Account account = getAccount(accountId);
-        return account.getBalance();
+        return table.balance(lookup(accountId));
+    }
+
+    /**
+     * {@link #getHandle}, counting a miss as a rejection of this service's operation.
+     */
+    private int lookup(String accountId) {
+        try {
+            return getHandle(accountId);
+        } catch (InvalidAccountException e) {
+            instruments.rejected(e);
+            throw e;
+        }
     }
-}
 
+    private int register(Account account) {
+        return table.add(account.getAccountId(), account.getCustomerId(), account.getAccountType(),
+            account.getBalance(), account.isActive());
+    }
+
+    private void setActive(String accountId, boolean active) {
+        Instruments current = instruments;
+        long start = System.nanoTime();
+        int handle = lookup(accountId);
+        locks.withLock(accountId, () -> {
+            table.setActive(handle, active);
+            if (!listeners.isEmpty()) {
+                Account account = table.view(handle);
+                for (AccountListener listener : listeners) {
+                    listener.onAccountStatusChanged(account);
+                }
+            }
+        });
+        current.statusChange.recordSince(start);
+    }
+
+    /**
+     * Metrics of one registry, looked up once so that operations only update them.
+     */
+    private final class Instruments {
+        final MetricsRegistry registry;
+        final LatencyHistogram create;
+        final LatencyHistogram statusChange;
+
+        Instruments(MetricsRegistry registry) {
+            this.registry = registry;
+            this.create = registry.timer("account.create");
+            this.statusChange = registry.timer("account.status-change");
+            registry.gauge("account.count", table::size);
+            registry.gauge("account.balance-cas-retries", table::getCasRetries);
+            registry.gauge("account.lock-contention", locks::getContendedAcquisitions);
+        }
+
+        void rejected(RuntimeException e) {
+            registry.counter("account.rejected." + e.getClass().getSimpleName()).increment();
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package com.banking.account.table;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.TimeOrderedIdGenerator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compact store for accounts, addressed by dense {@code int} handles.
+ * <p>
+ * Balances, currencies, types and status live in chunked primitive columns, so an account costs
+ * about 34 bytes and no objects: a {@code long} balance, a dictionary-encoded currency, type and
+ * status bytes, the account id packed into a {@code long} (time-ordered ids; other ids are kept as
+ * strings), a customer handle and the slot of its customer's total, plus its slot in the id index. String ids are resolved through
+ * an open-addressing table, so a lookup decodes the id once instead of hashing and comparing
+ * strings.
+ * <p>
+ * Balance updates are lock-free compare-and-set on the balance column, with the same checks and
+ * messages as {@link Account}. Each customer's balance total per currency is kept alongside and
+ * moved by the same amount right after every successful update, so totals cost one atomic add
+ * instead of a walk over the customer's accounts. Columns grow by whole chunks, so existing rows never move and reads
+ * need no lock. Adding accounts is serialized; each customer's account handles and total slots
+ * are copy-on-write arrays, replaced only after the new account is published, so customer
+ * queries take no lock either. {@link #view} wraps a handle as a live
+ * {@link Account} for callers that need one.
+ */
+public final class AccountTable {
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CURRENCIES = 256;
+    private static final int TOTALS_CHUNK_SHIFT = 10;
+    private static final int TOTALS_CHUNK_MASK = (1 << TOTALS_CHUNK_SHIFT) - 1;
+    private static final long STRING_ID = -1;
+    private static final int EMPTY = 0; // index slots hold handle + 1
+    private static final long SUBTRACTED = Long.MIN_VALUE; // no balance is this low
+    private static final AccountType[] TYPES = AccountType.values();
+
+    /**
+     * Returned by {@link #find} for an unknown id.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private volatile Columns columns = new Columns(0);
+    private volatile int[] index = new int[1 << 10];
+    private volatile int size;
+
+    // Written under the lock; entries a handle refers to are published with the handle
+    private final Currency[] currencyDictionary = new Currency[MAX_CURRENCIES];
+    private final Map<Currency, Integer> currencyCodes = new HashMap<>();
+    private final Map<String, Customer> customers = new ConcurrentHashMap<>();
+    private volatile String[] customerIds = new String[1024];
+    // Balance total per (customer, currency) slot, in chunks that never move once added
+    private volatile long[][] totals = new long[0][];
+    private final Map<Long, Integer> totalSlots = new HashMap<>();
+    private final Object lock = new Object();
+    private final LongAdder casRetries = new LongAdder();
+
+    /**
+     * Adds an account and returns its handle.
+     *
+     * @throws IllegalArgumentException if an account with this id already exists
+     */
+    public int add(String accountId, String customerId, AccountType accountType, Money balance, boolean active) {
+        synchronized (lock) {
+            if (find(accountId) != NOT_FOUND) {
+                throw new IllegalArgumentException("Account already exists: " + accountId);
+            }
+            int handle = size;
+            Columns current = columns;
+            if ((handle & CHUNK_MASK) == 0) {
+                current = current.withChunk(handle >>> CHUNK_SHIFT);
+                columns = current;
+            }
+            int chunk = handle >>> CHUNK_SHIFT;
+            int slot = handle & CHUNK_MASK;
+            long packedId = packId(accountId);
+            current.ids[chunk][slot] = packedId;
+            if (packedId == STRING_ID) {
+                if (current.stringIds[chunk] == null) {
+                    current.stringIds[chunk] = new String[CHUNK_SIZE];
+                }
+                current.stringIds[chunk][slot] = accountId;
+            }
+            byte currency = currencyCode(balance.currency());
+            Customer customer = customerOf(customerId);
+            int totalSlot = totalSlot(customer.handle, currency);
+            current.currencies[chunk][slot] = currency;
+            current.types[chunk][slot] = (byte) accountType.ordinal();
+            current.customers[chunk][slot] = customer.handle;
+            current.totalSlots[chunk][slot] = totalSlot;
+            current.balances[chunk][slot] = balance.minorUnits();
+            addToTotal(totalSlot, balance.minorUnits());
+            current.active[chunk][slot] = (byte) (active ? 1 : 0);
+            // Published by the index and size writes below, after every column is filled in
+            insert(handle);
+            size = handle + 1;
+            customer.add(handle, totalSlot, currency);
+            return handle;
+        }
+    }
+
+    /**
+     * Returns the handle of an account, or {@link #NOT_FOUND}.
+     */
+    public int find(String accountId) {
+        if (accountId == null) {
+            return NOT_FOUND;
+        }
+        long packedId = packId(accountId);
+        int[] table = index;
+        int mask = table.length - 1;
+        for (int position = hash(packedId, accountId) & mask; ; position = (position + 1) & mask) {
+            int entry = (int) INTS.getAcquire(table, position);
+            if (entry == EMPTY) {
+                return NOT_FOUND;
+            }
+            // Read after the entry, so the columns include its chunk
+            Columns current = columns;
+            int handle = entry - 1;
+            long stored = current.ids[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK];
+            if (packedId != STRING_ID ? stored == packedId
+                    : stored == STRING_ID && accountId.equals(current.stringIds[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK])) {
+                return handle;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of balance updates that had to retry because another thread changed the balance
+     * (or, rarely, spuriously); a measure of contention on hot accounts.
+     */
+    public long getCasRetries() {
+        return casRetries.sum();
+    }
+
+    public String accountId(int handle) {
+        Columns current = columns;
+        long packedId = current.ids[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK];
+        return packedId == STRING_ID
+            ? current.stringIds[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK]
+            : TimeOrderedIdGenerator.format(packedId);
+    }
+
+    public String customerId(int handle) {
+        return customerIds[columns.customers[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK]];
+    }
+
+    public AccountType accountType(int handle) {
+        return TYPES[columns.types[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK]];
+    }
+
+    public Currency currency(int handle) {
+        return currencyDictionary[columns.currencies[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK] & 0xFF];
+    }
+
+    public long balanceMinorUnits(int handle) {
+        return (long) LONGS.getVolatile(columns.balances[handle >>> CHUNK_SHIFT], handle & CHUNK_MASK);
+    }
+
+    public Money balance(int handle) {
+        return Money.ofMinor(balanceMinorUnits(handle), currency(handle));
+    }
+
+    public boolean isActive(int handle) {
+        return (byte) BYTES.getVolatile(columns.active[handle >>> CHUNK_SHIFT], handle & CHUNK_MASK) != 0;
+    }
+
+    public void setActive(int handle, boolean active) {
+        BYTES.setVolatile(columns.active[handle >>> CHUNK_SHIFT], handle & CHUNK_MASK, (byte) (active ? 1 : 0));
+    }
+
+    /**
+     * Handles of a customer's accounts in creation order; empty for an unknown customer.
+     */
+    public int[] customerAccounts(String customerId) {
+        Customer customer = customers.get(customerId);
+        return customer == null ? new int[0] : customer.accounts.clone();
+    }
+
+    /**
+     * A customer's balance totals, one per currency they hold, in the order the currencies were
+     * first seen; empty for an unknown customer. Each total includes inactive accounts and is
+     * exact once concurrent balance updates have finished.
+     */
+    public List<Money> customerBalances(String customerId) {
+        Customer customer = customers.get(customerId);
+        if (customer == null) {
+            return new ArrayList<>();
+        }
+        int[] slots = customer.totalSlots;
+        long[][] currentTotals = totals;
+        List<Money> balances = new ArrayList<>(slots.length);
+        for (int i = 0; i < slots.length; i += 2) {
+            int totalSlot = slots[i];
+            long total = (long) LONGS.getVolatile(currentTotals[totalSlot >>> TOTALS_CHUNK_SHIFT], totalSlot & TOTALS_CHUNK_MASK);
+            balances.add(Money.ofMinor(total, currencyDictionary[slots[i + 1]]));
+        }
+        return balances;
+    }
+
+    public void deposit(int handle, Money amount) {
+        validateDeposit(handle, amount);
+        addToBalance(handle, amount.minorUnits());
+    }
+
+    /**
+     * Same as {@link Account#tryDeposit}.
+     */
+    public TransactionOutcome tryDeposit(int handle, Money amount) {
+        TransactionOutcome outcome = checkDeposit(handle, amount);
+        if (outcome == TransactionOutcome.OK) {
+            addToBalance(handle, amount.minorUnits());
+        }
+        return outcome;
+    }
+
+    /**
+     * Same checks as {@link Account#validateDeposit}.
+     */
+    public void validateDeposit(int handle, Money amount) {
+        validateActive(handle);
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        if (amount.currency() != currency(handle)) {
+            throw new IllegalArgumentException("Cannot add different currencies");
+        }
+    }
+
+    /**
+     * Same as {@link Account#checkDeposit}.
+     */
+    public TransactionOutcome checkDeposit(int handle, Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive");
+        }
+        if (!isActive(handle)) {
+            return TransactionOutcome.INACTIVE;
+        }
+        return amount.currency() != currency(handle) ? TransactionOutcome.CURRENCY_MISMATCH : TransactionOutcome.OK;
+    }
+
+    public void withdraw(int handle, Money amount) {
+        validateActive(handle);
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive");
+        }
+        Currency currency = currency(handle);
+        if (amount.currency() != currency) {
+            throw new IllegalArgumentException("Cannot compare different currencies");
+        }
+        long shortBalance = subtractFromBalance(handle, amount.minorUnits());
+        if (shortBalance != SUBTRACTED) {
+            throw new InsufficientFundsException(
+                String.format("Insufficient funds. Balance: %s, Requested: %s",
+                    Money.ofMinor(shortBalance, currency), amount)
+            );
+        }
+    }
+
+    /**
+     * Same as {@link Account#tryWithdraw}.
+     */
+    public TransactionOutcome tryWithdraw(int handle, Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive");
+        }
+        if (!isActive(handle)) {
+            return TransactionOutcome.INACTIVE;
+        }
+        if (amount.currency() != currency(handle)) {
+            return TransactionOutcome.CURRENCY_MISMATCH;
+        }
+        return subtractFromBalance(handle, amount.minorUnits()) == SUBTRACTED
+            ? TransactionOutcome.OK : TransactionOutcome.INSUFFICIENT_FUNDS;
+    }
+
+    /**
+     * Same as {@link Account#reverseWithdrawal}: credits back a withdrawn amount even if the
+     * account was deactivated since.
+     */
+    public void reverseWithdrawal(int handle, Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Reversed amount must be positive");
+        }
+        if (amount.currency() != currency(handle)) {
+            throw new IllegalArgumentException("Cannot add different currencies");
+        }
+        addToBalance(handle, amount.minorUnits());
+    }
+
+    /**
+     * Takes back a deposited amount that was never committed, even if the account was deactivated
+     * or has spent the money since; the balance may then go negative until that spending is
+     * undone as well.
+     */
+    public void reverseDeposit(int handle, Money amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Reversed amount must be positive");
+        }
+        if (amount.currency() != currency(handle)) {
+            throw new IllegalArgumentException("Cannot subtract different currencies");
+        }
+        addToBalance(handle, -amount.minorUnits());
+    }
+
+    /**
+     * Returns a live {@link Account} backed by this table.
+     */
+    public Account view(int handle) {
+        return new TableAccount(this, handle);
+    }
+
+    /**
+     * Live views of every account, in handle order.
+     */
+    public List<Account> views() {
+        int count = size;
+        List<Account> accounts = new ArrayList<>(count);
+        for (int handle = 0; handle < count; handle++) {
+            accounts.add(view(handle));
+        }
+        return accounts;
+    }
+
+    // Returns SUBTRACTED, or the balance that was too small
+    private long subtractFromBalance(int handle, long delta) {
+        long[] balances = columns.balances[handle >>> CHUNK_SHIFT];
+        int slot = handle & CHUNK_MASK;
+        long current = (long) LONGS.getVolatile(balances, slot);
+        while (true) {
+            if (current < delta) {
+                return current;
+            }
+            if (LONGS.weakCompareAndSet(balances, slot, current, current - delta)) {
+                addToTotal(totalSlotOf(handle), -delta);
+                return SUBTRACTED;
+            }
+            casRetries.increment();
+            Thread.onSpinWait();
+            current = (long) LONGS.getVolatile(balances, slot);
+        }
+    }
+
+    private void addToBalance(int handle, long delta) {
+        long[] balances = columns.balances[handle >>> CHUNK_SHIFT];
+        int slot = handle & CHUNK_MASK;
+        long current = (long) LONGS.getVolatile(balances, slot);
+        while (!LONGS.weakCompareAndSet(balances, slot, current, Math.addExact(current, delta))) {
+            casRetries.increment();
+            Thread.onSpinWait();
+            current = (long) LONGS.getVolatile(balances, slot);
+        }
+        addToTotal(totalSlotOf(handle), delta);
+    }
+
+    private int totalSlotOf(int handle) {
+        return columns.totalSlots[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK];
+    }
+
+    private void addToTotal(int totalSlot, long delta) {
+        LONGS.getAndAdd(totals[totalSlot >>> TOTALS_CHUNK_SHIFT], totalSlot & TOTALS_CHUNK_MASK, delta);
+    }
+
+    // Called under the lock
+    private int totalSlot(int customer, byte currency) {
+        long key = (long) customer << 8 | (currency & 0xFF);
+        Integer existing = totalSlots.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int totalSlot = totalSlots.size();
+        if ((totalSlot & TOTALS_CHUNK_MASK) == 0) {
+            long[][] grown = Arrays.copyOf(totals, (totalSlot >>> TOTALS_CHUNK_SHIFT) + 1);
+            grown[totalSlot >>> TOTALS_CHUNK_SHIFT] = new long[TOTALS_CHUNK_MASK + 1];
+            totals = grown;
+        }
+        totalSlots.put(key, totalSlot);
+        return totalSlot;
+    }
+
+    private void validateActive(int handle) {
+        if (!isActive(handle)) {
+            throw new InvalidAccountException("Account " + accountId(handle) + " is not active");
+        }
+    }
+
+    private void insert(int handle) {
+        int[] table = index;
+        // Keep the load factor under one half so probe sequences stay short
+        if ((handle + 1) * 2 > table.length) {
+            table = new int[table.length * 2];
+            for (int existing = 0; existing < handle; existing++) {
+                place(table, existing);
+            }
+        }
+        place(table, handle);
+        index = table;
+    }
+
+    private void place(int[] table, int handle) {
+        Columns current = columns;
+        long packedId = current.ids[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK];
+        String accountId = packedId == STRING_ID ? current.stringIds[handle >>> CHUNK_SHIFT][handle & CHUNK_MASK] : null;
+        int mask = table.length - 1;
+        int position = hash(packedId, accountId) & mask;
+        while (table[position] != EMPTY) {
+            position = (position + 1) & mask;
+        }
+        INTS.setRelease(table, position, handle + 1);
+    }
+
+    private Customer customerOf(String customerId) {
+        Customer existing = customers.get(customerId);
+        if (existing != null) {
+            return existing;
+        }
+        int handle = customers.size();
+        if (handle == customerIds.length) {
+            customerIds = Arrays.copyOf(customerIds, handle * 2);
+        }
+        customerIds[handle] = customerId;
+        Customer customer = new Customer(handle);
+        customers.put(customerId, customer);
+        return customer;
+    }
+
+    private byte currencyCode(Currency currency) {
+        Integer code = currencyCodes.get(currency);
+        if (code != null) {
+            return (byte) (int) code;
+        }
+        if (currencyCodes.size() == MAX_CURRENCIES) {
+            throw new IllegalStateException("More than " + MAX_CURRENCIES + " currencies in one table");
+        }
+        int next = currencyCodes.size();
+        currencyDictionary[next] = currency;
+        currencyCodes.put(currency, next);
+        return (byte) next;
+    }
+
+    // Packs only the canonical upper-case form, so accountId(handle) returns the id as given
+    private static long packId(String accountId) {
+        if (!TimeOrderedIdGenerator.isValid(accountId)) {
+            return STRING_ID;
+        }
+        for (int i = 0; i < accountId.length(); i++) {
+            if (accountId.charAt(i) >= 'a') {
+                return STRING_ID;
+            }
+        }
+        return TimeOrderedIdGenerator.parse(accountId);
+    }
+
+    private static int hash(long packedId, String accountId) {
+        long mixed = (packedId == STRING_ID ? accountId.hashCode() : packedId) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * Chunk directories for every column; replaced, never mutated, when a chunk is added.
+     */
+    private static final class Columns {
+        final long[][] balances;
+        final long[][] ids;
+        final String[][] stringIds;
+        final int[][] customers;
+        final int[][] totalSlots;
+        final byte[][] currencies;
+        final byte[][] types;
+        final byte[][] active;
+
+        Columns(int chunks) {
+            this(new long[chunks][], new long[chunks][], new String[chunks][], new int[chunks][], new int[chunks][],
+                new byte[chunks][], new byte[chunks][], new byte[chunks][]);
+        }
+
+        private Columns(long[][] balances, long[][] ids, String[][] stringIds, int[][] customers, int[][] totalSlots,
+                        byte[][] currencies, byte[][] types, byte[][] active) {
+            this.balances = balances;
+            this.ids = ids;
+            this.stringIds = stringIds;
+            this.customers = customers;
+            this.totalSlots = totalSlots;
+            this.currencies = currencies;
+            this.types = types;
+            this.active = active;
+        }
+
+        Columns withChunk(int chunk) {
+            int length = Math.max(balances.length, chunk + 1);
+            Columns grown = new Columns(Arrays.copyOf(balances, length), Arrays.copyOf(ids, length),
+                Arrays.copyOf(stringIds, length), Arrays.copyOf(customers, length), Arrays.copyOf(totalSlots, length),
+                Arrays.copyOf(currencies, length), Arrays.copyOf(types, length), Arrays.copyOf(active, length));
+            grown.balances[chunk] = new long[CHUNK_SIZE];
+            grown.ids[chunk] = new long[CHUNK_SIZE];
+            grown.customers[chunk] = new int[CHUNK_SIZE];
+            grown.totalSlots[chunk] = new int[CHUNK_SIZE];
+            grown.currencies[chunk] = new byte[CHUNK_SIZE];
+            grown.types[chunk] = new byte[CHUNK_SIZE];
+            grown.active[chunk] = new byte[CHUNK_SIZE];
+            return grown;
+        }
+    }
+
+    /**
+     * A customer's accounts and total slots. Only the adding thread, under the lock, replaces the
+     * arrays; readers use whichever array they read, which is never modified afterwards.
+     */
+    private static final class Customer {
+        private static final int[] NONE = new int[0];
+
+        final int handle;
+        volatile int[] accounts = NONE;
+        // Pairs of (total slot, currency code)
+        volatile int[] totalSlots = NONE;
+
+        Customer(int handle) {
+            this.handle = handle;
+        }
+
+        void add(int account, int totalSlot, byte currency) {
+            int[] handles = Arrays.copyOf(accounts, accounts.length + 1);
+            handles[handles.length - 1] = account;
+            accounts = handles;
+            int[] slots = totalSlots;
+            for (int i = 0; i < slots.length; i += 2) {
+                if (slots[i] == totalSlot) {
+                    return;
+                }
+            }
+            slots = Arrays.copyOf(slots, slots.length + 2);
+            slots[slots.length - 2] = totalSlot;
+            slots[slots.length - 1] = currency & 0xFF;
+            totalSlots = slots;
+        }
+    }
+}
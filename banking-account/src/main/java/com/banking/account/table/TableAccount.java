@@ -0,0 +1,75 @@
+package com.banking.account.table;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
+
+/**
+ * Live {@link Account} view of one {@link AccountTable} row. Every balance and status operation
+ * goes straight to the table, so views never go stale and several views of one row agree.
+ */
+final class TableAccount extends Account {
+    private final AccountTable table;
+    private final int handle;
+
+    TableAccount(AccountTable table, int handle) {
+        super(table.accountId(handle), table.customerId(handle), table.accountType(handle), table.currency(handle));
+        this.table = table;
+        this.handle = handle;
+    }
+
+    @Override
+    public Money getBalance() {
+        return table.balance(handle);
+    }
+
+    @Override
+    public boolean isActive() {
+        return table.isActive(handle);
+    }
+
+    @Override
+    public void deposit(Money amount) {
+        table.deposit(handle, amount);
+    }
+
+    @Override
+    public void validateDeposit(Money amount) {
+        table.validateDeposit(handle, amount);
+    }
+
+    @Override
+    public TransactionOutcome tryDeposit(Money amount) {
+        return table.tryDeposit(handle, amount);
+    }
+
+    @Override
+    public TransactionOutcome checkDeposit(Money amount) {
+        return table.checkDeposit(handle, amount);
+    }
+
+    @Override
+    public void withdraw(Money amount) {
+        table.withdraw(handle, amount);
+    }
+
+    @Override
+    public TransactionOutcome tryWithdraw(Money amount) {
+        return table.tryWithdraw(handle, amount);
+    }
+
+    @Override
+    public void reverseWithdrawal(Money amount) {
+        table.reverseWithdrawal(handle, amount);
+    }
+
+    @Override
+    public void deactivate() {
+        table.setActive(handle, false);
+    }
+
+    @Override
+    public void activate() {
+        table.setActive(handle, true);
+    }
+}
@@ -2,9 +2,16 @@ package com.banking.account.domain;
 
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
 import com.banking.core.exception.InsufficientFundsException;
 import com.banking.core.exception.InvalidAccountException;
 import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountTest {
@@ -45,5 +52,73 @@ class AccountTest {
         assertFalse(account.isActive());
         assertThrows(InvalidAccountException.class, () -> account.deposit(new Money(50.0, "USD")));
     }
-}
 
+    @Test
+    void testTryOperationsReportDeclinesWithoutThrowing() {
+        Account account = new Account("CUST001", AccountType.SAVINGS, Money.ofMinor(10_000, "USD"));
+        assertEquals(TransactionOutcome.INSUFFICIENT_FUNDS, account.tryWithdraw(Money.ofMinor(15_000, "USD")));
+        assertEquals(TransactionOutcome.CURRENCY_MISMATCH, account.tryWithdraw(Money.ofMinor(100, "EUR")));
+        assertEquals(TransactionOutcome.CURRENCY_MISMATCH, account.tryDeposit(Money.ofMinor(100, "EUR")));
+        assertEquals(Money.ofMinor(10_000, "USD"), account.getBalance());
+
+        assertEquals(TransactionOutcome.OK, account.tryWithdraw(Money.ofMinor(3_000, "USD")));
+        assertEquals(TransactionOutcome.OK, account.tryDeposit(Money.ofMinor(500, "USD")));
+        assertEquals(Money.ofMinor(7_500, "USD"), account.getBalance());
+
+        account.deactivate();
+        assertEquals(TransactionOutcome.INACTIVE, account.tryWithdraw(Money.ofMinor(100, "USD")));
+        assertEquals(TransactionOutcome.INACTIVE, account.checkDeposit(Money.ofMinor(100, "USD")));
+        assertThrows(IllegalArgumentException.class, () -> account.tryWithdraw(Money.ofMinor(0, "USD")));
+    }
+
+    @Test
+    void testConcurrentUpdatesAreNotLost() throws InterruptedException {
+        Account account = new Account("CUST001", AccountType.SAVINGS, Money.ofMinor(0, "USD"));
+        int threads = 8;
+        int operations = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < operations; i++) {
+                    account.deposit(Money.ofMinor(3, "USD"));
+                    account.withdraw(Money.ofMinor(1, "USD"));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(2L * threads * operations, account.getBalance().minorUnits());
+    }
+
+    @Test
+    void testConcurrentWithdrawalsNeverOverdraw() throws InterruptedException {
+        Account account = new Account("CUST001", AccountType.SAVINGS, Money.ofMinor(1_000, "USD"));
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2_000; i++) {
+            executor.execute(() -> {
+                try {
+                    account.withdraw(Money.ofMinor(1, "USD"));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientFundsException expected) {
+                    // the balance ran out
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1_000, succeeded.get());
+        assertEquals(0, account.getBalance().minorUnits());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
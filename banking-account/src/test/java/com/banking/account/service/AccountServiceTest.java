@@ -4,8 +4,13 @@ import com.banking.account.domain.Account;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
 import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.metrics.MetricsRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountServiceTest {
@@ -37,6 +42,24 @@ class AccountServiceTest {
         assertThrows(InvalidAccountException.class, () -> accountService.getAccount("NON_EXISTENT"));
     }
 
+    @Test
+    void testMetricsCountCreationsAndMisses() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        accountService.setMetrics(metrics);
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        accountService.deactivateAccount(account.getAccountId());
+        assertThrows(InvalidAccountException.class, () -> accountService.getAccount("NON_EXISTENT"));
+        assertThrows(IllegalArgumentException.class, () ->
+            accountService.createAccount("", AccountType.SAVINGS, new Money(1.0, "USD")));
+
+        assertEquals(1, metrics.getTimers().get("account.create").getCount());
+        assertEquals(1, metrics.getTimers().get("account.status-change").getCount());
+        assertEquals(1L, metrics.getCounters().get("account.rejected.InvalidAccountException"));
+        assertEquals(1L, metrics.getCounters().get("account.rejected.IllegalArgumentException"));
+        assertEquals(1L, metrics.getGauges().get("account.count"));
+        assertEquals(0L, metrics.getGauges().get("account.lock-contention"));
+    }
+
     @Test
     void testGetAccountsByCustomer() {
         accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
@@ -46,5 +69,28 @@ class AccountServiceTest {
         var customerAccounts = accountService.getAccountsByCustomer("CUST001");
         assertEquals(2, customerAccounts.size());
     }
-}
 
+    @Test
+    void testGetAccountsByUnknownCustomer() {
+        assertTrue(accountService.getAccountsByCustomer("NOBODY").isEmpty());
+    }
+
+    @Test
+    void testCustomerIndexUnderConcurrentInserts() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            String customerId = "CUST" + (i % 10);
+            executor.execute(() -> accountService.createAccount(customerId, AccountType.SAVINGS, new Money(1.0, "USD")));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (int c = 0; c < 10; c++) {
+            var customerAccounts = accountService.getAccountsByCustomer("CUST" + c);
+            assertEquals(100, customerAccounts.size());
+            for (Account account : customerAccounts) {
+                assertEquals("CUST" + c, account.getCustomerId());
+            }
+        }
+    }
+}
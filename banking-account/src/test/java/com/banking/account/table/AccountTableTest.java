@@ -0,0 +1,171 @@
+package com.banking.account.table;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTableTest {
+
+    private final AccountTable table = new AccountTable();
+    private final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(3);
+
+    @Test
+    void testFindsTimeOrderedAndArbitraryIdsAcrossChunks() {
+        int count = 150_000;
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i % 10 == 0 ? "LEGACY-" + i : idGenerator.nextId();
+            assertEquals(i, table.add(ids[i], "CUST" + (i % 100), AccountType.SAVINGS, Money.ofMinor(i, "USD"), true));
+        }
+
+        assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            int handle = table.find(ids[i]);
+            assertEquals(i, handle);
+            assertEquals(ids[i], table.accountId(handle));
+            assertEquals("CUST" + (i % 100), table.customerId(handle));
+            assertEquals(Money.ofMinor(i, "USD"), table.balance(handle));
+        }
+        assertEquals(AccountTable.NOT_FOUND, table.find(idGenerator.nextId()));
+        assertEquals(AccountTable.NOT_FOUND, table.find("LEGACY-1"));
+        assertEquals(AccountTable.NOT_FOUND, table.find(ids[1].toLowerCase()));
+        assertEquals(count / 100, table.customerAccounts("CUST7").length);
+    }
+
+    @Test
+    void testRejectsDuplicateIds() {
+        String id = idGenerator.nextId();
+        table.add(id, "CUST1", AccountType.CHECKING, Money.ofMinor(0, "EUR"), true);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> table.add(id, "CUST2", AccountType.CHECKING, Money.ofMinor(0, "EUR"), true));
+    }
+
+    @Test
+    void testBalanceOperationsMatchAccountRules() {
+        int handle = table.add(idGenerator.nextId(), "CUST1", AccountType.CHECKING, Money.ofMinor(1_000, "GBP"), true);
+
+        table.deposit(handle, Money.ofMinor(500, "GBP"));
+        table.withdraw(handle, Money.ofMinor(300, "GBP"));
+        assertEquals(Money.ofMinor(1_200, "GBP"), table.balance(handle));
+
+        assertThrows(InsufficientFundsException.class, () -> table.withdraw(handle, Money.ofMinor(5_000, "GBP")));
+        assertThrows(IllegalArgumentException.class, () -> table.deposit(handle, Money.ofMinor(1, "USD")));
+        assertThrows(IllegalArgumentException.class, () -> table.deposit(handle, Money.ofMinor(0, "GBP")));
+
+        table.setActive(handle, false);
+        assertThrows(InvalidAccountException.class, () -> table.deposit(handle, Money.ofMinor(1, "GBP")));
+        table.reverseWithdrawal(handle, Money.ofMinor(300, "GBP"));
+        assertEquals(Money.ofMinor(1_500, "GBP"), table.balance(handle));
+    }
+
+    @Test
+    void testViewsAreLive() {
+        int handle = table.add(idGenerator.nextId(), "CUST1", AccountType.SAVINGS, Money.ofMinor(100, "USD"), true);
+        Account first = table.view(handle);
+        Account second = table.view(handle);
+
+        first.deposit(Money.ofMinor(50, "USD"));
+        second.deactivate();
+
+        assertEquals(Money.ofMinor(150, "USD"), second.getBalance());
+        assertFalse(first.isActive());
+        assertEquals(first, second);
+        assertEquals(AccountType.SAVINGS, first.getAccountType());
+    }
+
+    @Test
+    void testConcurrentDepositsAndInsertsAreNotLost() throws InterruptedException {
+        int hot = table.add(idGenerator.nextId(), "CUST0", AccountType.CHECKING, Money.ofMinor(0, "USD"), true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    table.deposit(hot, Money.ofMinor(1, "USD"));
+                    if (i % 10 == 0) {
+                        String id = idGenerator.nextId();
+                        table.add(id, "CUST1", AccountType.SAVINGS, Money.ofMinor(0, "USD"), true);
+                        assertNotEquals(AccountTable.NOT_FOUND, table.find(id));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, table.balanceMinorUnits(hot));
+        assertEquals(8_000, table.customerAccounts("CUST1").length);
+    }
+
+    @Test
+    void testCustomerBalancesFollowEveryBalanceChange() throws InterruptedException {
+        int usd = table.add(idGenerator.nextId(), "CUST1", AccountType.CHECKING, Money.ofMinor(1_000, "USD"), true);
+        int eur = table.add(idGenerator.nextId(), "CUST1", AccountType.SAVINGS, Money.ofMinor(500, "EUR"), true);
+        int other = table.add(idGenerator.nextId(), "CUST2", AccountType.SAVINGS, Money.ofMinor(7, "USD"), true);
+        int usd2 = table.add(idGenerator.nextId(), "CUST1", AccountType.SAVINGS, Money.ofMinor(250, "USD"), false);
+        table.withdraw(eur, Money.ofMinor(100, "EUR"));
+        table.reverseWithdrawal(usd2, Money.ofMinor(50, "USD"));
+        assertThrows(InsufficientFundsException.class, () -> table.withdraw(other, Money.ofMinor(8, "USD")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    table.deposit(usd, Money.ofMinor(2, "USD"));
+                    table.withdraw(usd, Money.ofMinor(1, "USD"));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(List.of(Money.ofMinor(1_000 + 40_000 + 300, "USD"), Money.ofMinor(400, "EUR")),
+            table.customerBalances("CUST1"));
+        assertEquals(List.of(Money.ofMinor(7, "USD")), table.customerBalances("CUST2"));
+        assertTrue(table.customerBalances("NOBODY").isEmpty());
+    }
+
+    @Test
+    void testCustomerQueriesOnlySeeCompleteAccountsWhileAdding() throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> problem = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && problem.get() == null) {
+                int[] handles = table.customerAccounts("CUST1");
+                for (int handle : handles) {
+                    if (handle >= table.size() || !"CUST1".equals(table.customerId(handle))
+                            || table.balanceMinorUnits(handle) != 100) {
+                        problem.set("Incomplete account " + handle);
+                    }
+                }
+                List<Money> totals = table.customerBalances("CUST1");
+                if (!totals.isEmpty() && totals.get(0).minorUnits() < handles.length * 100L) {
+                    problem.set("Total behind the accounts listed before it");
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20_000; i++) {
+            table.add(idGenerator.nextId(), "CUST" + (i % 2), AccountType.SAVINGS, Money.ofMinor(100, "USD"), true);
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(problem.get());
+        assertEquals(10_000, table.customerAccounts("CUST1").length);
+        assertEquals(List.of(Money.ofMinor(1_000_000, "USD")), table.customerBalances("CUST1"));
+    }
+}
@@ -0,0 +1,154 @@
+package com.banking.api.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit on requests in flight that follows observed latency, in the style of a gradient limiter.
+ * <p>
+ * Latencies are averaged over windows of at least 100ms. A slow moving average of those windows
+ * stands for the latency the service has when it is not queueing. Once per window the limit is
+ * scaled by {@code min(1, 2 * long / short)}: while a window's latency stays within twice the
+ * long-term latency the limit grows by a fifth of its square root, and beyond that it shrinks, by
+ * up to a tenth per window. The limit only grows in windows that used at least half of it, so idle
+ * periods do not inflate it.
+ * <p>
+ * Bulk requests may only take up a share of the limit, so the rest stays available to
+ * interactive requests.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // A window may be this many times slower than usual before the limit shrinks
+    private static final double TOLERANCE = 2.0;
+    // Windows over which the long-term latency moves
+    private static final double LONG_WINDOWS = 50;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double bulkShare;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final LongSupplier nanoClock;
+    private volatile double limit;
+    private volatile long windowStart;
+    // Guarded by updateLock
+    private double longLatency;
+
+    /**
+     * @param bulkShare fraction of the limit that bulk requests may occupy
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double bulkShare) {
+        this(initialLimit, minLimit, maxLimit, bulkShare, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double bulkShare, LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (bulkShare <= 0 || bulkShare > 1) {
+            throw new IllegalArgumentException("Bulk share must be in (0, 1]");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.bulkShare = bulkShare;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Takes a slot if the limit allows it. Every successful call must be followed by one
+     * {@link #release} call.
+     */
+    public boolean tryAcquire(boolean bulk) {
+        double current = limit;
+        int allowed = bulk ? Math.max(1, (int) (current * bulkShare)) : (int) current;
+        while (true) {
+            int taken = inFlight.get();
+            if (taken >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(taken, taken + 1)) {
+                if (taken + 1 > peakInFlight.get()) {
+                    peakInFlight.accumulateAndGet(taken + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a slot, with the latency of the request that held it.
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        latencySum.add(latencyNanos);
+        latencyCount.increment();
+        long now = nanoClock.getAsLong();
+        if (now - windowStart >= WINDOW_NANOS) {
+            update(now);
+        }
+    }
+
+    /**
+     * Returns a slot without a latency sample, for requests whose latency says nothing about load,
+     * such as responses that keep streaming after the handler returns.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private void update(long now) {
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - windowStart < WINDOW_NANOS) {
+                return;
+            }
+            windowStart = now;
+            long count = latencyCount.sumThenReset();
+            long sum = latencySum.sumThenReset();
+            int peak = peakInFlight.getAndSet(inFlight.get());
+            if (count < MIN_WINDOW_SAMPLES) {
+                return;
+            }
+            double shortLatency = Math.max(1, (double) sum / count);
+            if (longLatency == 0) {
+                longLatency = shortLatency;
+            } else {
+                longLatency += (shortLatency - longLatency) / LONG_WINDOWS;
+            }
+            if (longLatency > shortLatency * TOLERANCE) {
+                // Load has passed; let the baseline come back down faster than it rose
+                longLatency *= 0.95;
+            }
+            double current = limit;
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatency / shortLatency));
+            if (gradient == 1.0 && peak < current / 2) {
+                return;
+            }
+            double target = current * gradient + Math.sqrt(current);
+            double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
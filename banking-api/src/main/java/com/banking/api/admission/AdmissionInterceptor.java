@@ -0,0 +1,104 @@
+package com.banking.api.admission;
+
+import com.banking.core.metrics.MetricsRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits API requests before any controller work: the request must fit under the
+ * {@link AdaptiveConcurrencyLimit}, and its client, identified by remote address, must have tokens
+ * in its {@link ClientRateLimiter} bucket. Anything else is answered 429 at once, with a
+ * {@code Retry-After} of when the client's bucket will cover the request, or one second when the
+ * service as a whole is at its limit.
+ * <p>
+ * Requests mapped to the batch endpoint cost {@code batchCost} tokens and count as bulk against
+ * the concurrency limit. Streaming responses hold their slot only until the handler returns.
+ * Behind a proxy, set {@code server.forward-headers-strategy} so that the remote address is the
+ * client's rather than the proxy's, or every client shares one bucket.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+    private static final String START_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".start";
+    private static final long RETRY_AFTER_SECONDS_AT_LIMIT = 1;
+    private static final String BATCH_PATTERN = "/api/transactions/batch";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final int batchCost;
+    private final LongAdder rateRejections;
+    private final LongAdder concurrencyRejections;
+
+    public AdmissionInterceptor(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimit concurrencyLimit,
+                                int batchCost, MetricsRegistry metrics) {
+        if (rateLimiter == null) {
+            throw new IllegalArgumentException("ClientRateLimiter cannot be null");
+        }
+        if (concurrencyLimit == null) {
+            throw new IllegalArgumentException("AdaptiveConcurrencyLimit cannot be null");
+        }
+        if (batchCost < 1 || batchCost > rateLimiter.getBurst()) {
+            throw new IllegalArgumentException("Batch cost must be between 1 and the burst size");
+        }
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.batchCost = batchCost;
+        this.rateRejections = metrics.counter("http.admission.rejected.rate");
+        this.concurrencyRejections = metrics.counter("http.admission.rejected.concurrency");
+        metrics.gauge("http.admission.limit", concurrencyLimit::getLimit);
+        metrics.gauge("http.admission.in-flight", concurrencyLimit::getInFlight);
+        metrics.gauge("http.admission.clients", rateLimiter::getClientCount);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async results are dispatched again; the request was admitted the first time
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        boolean bulk = BATCH_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        // Slot first, so a request turned away because the service is full spends none of the client's tokens
+        if (!concurrencyLimit.tryAcquire(bulk)) {
+            concurrencyRejections.increment();
+            reject(response, RETRY_AFTER_SECONDS_AT_LIMIT);
+            return false;
+        }
+        long waitNanos = rateLimiter.tryAcquire(request.getRemoteAddr(), bulk ? batchCost : 1);
+        if (waitNanos > 0) {
+            concurrencyLimit.release();
+            rateRejections.increment();
+            reject(response, Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            concurrencyLimit.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            concurrencyLimit.release(System.nanoTime() - (Long) start);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+}
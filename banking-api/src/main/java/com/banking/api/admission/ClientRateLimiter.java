@@ -0,0 +1,98 @@
+package com.banking.api.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client request rates, as one {@link TokenBucket} per client id.
+ * <p>
+ * At most {@code maxClients} buckets are kept. When a new client would exceed that, buckets that
+ * have refilled completely are dropped, since a new bucket would be the same; if every bucket is
+ * still in use, further new clients share one overflow bucket until some refill. Sweeps run at
+ * most once a second.
+ */
+public class ClientRateLimiter {
+    // A sweep walks every bucket, so many new clients at once trigger one per interval at most
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxClients;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow;
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final LongSupplier nanoClock;
+    private volatile long lastSweep;
+
+    /**
+     * @param ratePerSecond tokens each client regains per second
+     * @param burst         tokens a client can spend at once
+     * @param maxClients    clients tracked individually
+     */
+    public ClientRateLimiter(double ratePerSecond, int burst, int maxClients) {
+        this(ratePerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double ratePerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Rate, burst and max clients must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        this.overflow = new TokenBucket(ratePerSecond, burst, nanoClock.getAsLong());
+        this.lastSweep = nanoClock.getAsLong() - SWEEP_INTERVAL_NANOS;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public int getClientCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Charges {@code cost} tokens to the client.
+     *
+     * @return 0 if admitted, otherwise the nanoseconds until the client can afford the cost
+     */
+    public long tryAcquire(String clientId, int cost) {
+        long now = nanoClock.getAsLong();
+        return bucketOf(clientId, now).tryTake(cost, now);
+    }
+
+    private TokenBucket bucketOf(String clientId, long now) {
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients && !sweep(now)) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(clientId, id -> new TokenBucket(ratePerSecond, burst, now));
+    }
+
+    // Returns whether there is room for a new client
+    private boolean sweep(long now) {
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS || !sweepLock.tryLock()) {
+            return buckets.size() < maxClients;
+        }
+        try {
+            lastSweep = now;
+            for (Iterator<TokenBucket> it = buckets.values().iterator(); it.hasNext(); ) {
+                if (it.next().isFull(now)) {
+                    it.remove();
+                }
+            }
+            return buckets.size() < maxClients;
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.banking.api.admission;
+
+/**
+ * Token bucket of one client: refills continuously at a fixed rate up to its capacity.
+ */
+final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double tokensPerSecond, double capacity, long now) {
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes {@code cost} tokens if there are enough.
+     *
+     * @return 0 if they were taken, otherwise the nanoseconds until there will be enough
+     */
+    synchronized long tryTake(double cost, long now) {
+        refill(now);
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((cost - tokens) / tokensPerNano));
+    }
+
+    /**
+     * Whether the bucket has been idle long enough to be indistinguishable from a new one.
+     */
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
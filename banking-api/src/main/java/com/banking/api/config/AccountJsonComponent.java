@@ -0,0 +1,34 @@
+package com.banking.api.config;
+
+import com.banking.account.domain.Account;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Renders an {@link Account} as the API's account representation, HTML-escaping client-supplied
+ * text. The account type and currency code are identifiers and need no escaping.
+ */
+@JsonComponent
+public class AccountJsonComponent {
+
+    public static final JsonFields<Account> FIELDS = new JsonFields<Account>()
+        .field("accountId", (gen, account) -> JsonValues.writeEscaped(gen, account.getAccountId()))
+        .field("customerId", (gen, account) -> JsonValues.writeEscaped(gen, account.getCustomerId()))
+        .field("accountType", (gen, account) -> gen.writeString(account.getAccountType().name()))
+        .field("balance", (gen, account) -> JsonValues.writeAmount(gen, account.getBalance()))
+        .field("currency", (gen, account) -> gen.writeString(account.getBalance().currency().getCode()))
+        .field("active", (gen, account) -> gen.writeBoolean(account.isActive()));
+
+    private static final long ALL_FIELDS = FIELDS.all();
+
+    public static class Serializer extends JsonSerializer<Account> {
+        @Override
+        public void serialize(Account value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            FIELDS.write(gen, value, ALL_FIELDS);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.api.config;
+
+import com.banking.core.domain.Currency;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Maps {@link Currency} to and from its ISO-4217 code. Deserialization resolves the code straight
+ * from the parser's character buffer, so request parsing does not allocate currency Strings.
+ */
+@JsonComponent
+public class CurrencyJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Currency> {
+        @Override
+        public void serialize(Currency value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeString(value.getCode());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Currency> {
+        @Override
+        public Currency deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.hasToken(JsonToken.VALUE_STRING)) {
+                return (Currency) ctxt.handleUnexpectedToken(Currency.class, p);
+            }
+            try {
+                return Currency.of(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            } catch (IllegalArgumentException e) {
+                throw ctxt.weirdStringException(p.getText(), Currency.class, "not an ISO-4217 currency code");
+            }
+        }
+    }
+}
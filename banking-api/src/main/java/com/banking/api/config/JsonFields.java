@@ -0,0 +1,89 @@
+package com.banking.api.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The JSON fields of a response type, in output order, each written straight from the domain
+ * object to the generator. Field names are pre-encoded, and a bit mask selects the fields to write
+ * so that projections share the writers of the full representation.
+ */
+public final class JsonFields<T> {
+    private static final int MAX_FIELDS = Long.SIZE;
+
+    private final List<SerializedString> names = new ArrayList<>();
+    private final List<FieldWriter<T>> writers = new ArrayList<>();
+
+    @FunctionalInterface
+    public interface FieldWriter<T> {
+        void write(JsonGenerator gen, T value) throws IOException;
+    }
+
+    public JsonFields<T> field(String name, FieldWriter<T> writer) {
+        if (names.size() == MAX_FIELDS) {
+            throw new IllegalStateException("At most " + MAX_FIELDS + " fields are supported");
+        }
+        names.add(new SerializedString(name));
+        writers.add(writer);
+        return this;
+    }
+
+    /**
+     * Mask selecting every field.
+     */
+    public long all() {
+        return names.size() == MAX_FIELDS ? -1L : (1L << names.size()) - 1;
+    }
+
+    /**
+     * Parses a comma-separated list of field names into a mask. Fields are always written in
+     * declaration order, whatever order they are listed in.
+     *
+     * @throws IllegalArgumentException if the list is empty or names an unknown field
+     */
+    public long select(String fieldList) {
+        long mask = 0;
+        for (String name : fieldList.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int index = indexOf(trimmed);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed);
+            }
+            mask |= 1L << index;
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("Field list cannot be empty");
+        }
+        return mask;
+    }
+
+    /**
+     * Writes {@code value} as an object holding the fields in {@code mask}.
+     */
+    public void write(JsonGenerator gen, T value, long mask) throws IOException {
+        gen.writeStartObject(value);
+        for (int i = 0; i < names.size(); i++) {
+            if ((mask & 1L << i) != 0) {
+                gen.writeFieldName(names.get(i));
+                writers.get(i).write(gen, value);
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).getValue().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,138 @@
+package com.banking.api.config;
+
+import com.banking.core.domain.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes response values to a generator exactly as the former response beans rendered them, but
+ * without building the intermediate Strings: HTML-escaped text, amounts as the JSON form of
+ * {@link Money#toDouble()} and timestamps as {@link LocalDateTime#toString()}.
+ */
+public final class JsonValues {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100};
+    // Below 10^7 Double.toString uses plain notation, and for scales 0 and 2 its digits are
+    // exactly those of the decimal amount (checked exhaustively for scale 2)
+    private static final long PLAIN_NOTATION_LIMIT = 10_000_000L;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[40]);
+
+    private JsonValues() {
+    }
+
+    /**
+     * Writes {@code value} HTML-escaped, or {@code null}. Only text with characters that
+     * {@link StringEscapeUtils#escapeHtml4} changes is copied, so ids and plain descriptions are
+     * written as they are.
+     */
+    public static void writeEscaped(JsonGenerator gen, String value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (needsEscaping(value)) {
+            gen.writeString(StringEscapeUtils.escapeHtml4(value));
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    public static void writeAmount(JsonGenerator gen, Money amount) throws IOException {
+        int scale = amount.scale();
+        long minorUnits = amount.minorUnits();
+        if (scale != 0 && scale != 2 || minorUnits <= -PLAIN_NOTATION_LIMIT * POWERS_OF_TEN[scale]
+                || minorUnits >= PLAIN_NOTATION_LIMIT * POWERS_OF_TEN[scale]) {
+            gen.writeNumber(amount.toDouble());
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int end = buffer.length;
+        long units = Math.abs(minorUnits);
+        long fraction = units % POWERS_OF_TEN[scale];
+        if (fraction == 0) {
+            buffer[--end] = '0';
+        } else {
+            // Trailing zeros of the fraction are dropped, as in Double.toString
+            boolean trailing = true;
+            for (int i = 0; i < scale; i++) {
+                int digit = (int) (fraction % 10);
+                fraction /= 10;
+                if (digit != 0 || !trailing) {
+                    buffer[--end] = (char) ('0' + digit);
+                    trailing = false;
+                }
+            }
+        }
+        buffer[--end] = '.';
+        end = writeDigits(buffer, end, units / POWERS_OF_TEN[scale]);
+        if (minorUnits < 0) {
+            buffer[--end] = '-';
+        }
+        gen.writeNumber(buffer, end, buffer.length - end);
+    }
+
+    public static void writeTimestamp(JsonGenerator gen, LocalDateTime timestamp) throws IOException {
+        int year = timestamp.getYear();
+        if (year < 1000 || year > 9999) {
+            // Signed or zero-padded years; never contains characters that need escaping
+            gen.writeString(timestamp.toString());
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = 0;
+        length = pad(buffer, length, year, 4);
+        buffer[length++] = '-';
+        length = pad(buffer, length, timestamp.getMonthValue(), 2);
+        buffer[length++] = '-';
+        length = pad(buffer, length, timestamp.getDayOfMonth(), 2);
+        buffer[length++] = 'T';
+        length = pad(buffer, length, timestamp.getHour(), 2);
+        buffer[length++] = ':';
+        length = pad(buffer, length, timestamp.getMinute(), 2);
+        int second = timestamp.getSecond();
+        int nano = timestamp.getNano();
+        if (second > 0 || nano > 0) {
+            buffer[length++] = ':';
+            length = pad(buffer, length, second, 2);
+            if (nano > 0) {
+                buffer[length++] = '.';
+                if (nano % 1_000_000 == 0) {
+                    length = pad(buffer, length, nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    length = pad(buffer, length, nano / 1000, 6);
+                } else {
+                    length = pad(buffer, length, nano, 9);
+                }
+            }
+        }
+        gen.writeString(buffer, 0, length);
+    }
+
+    private static boolean needsEscaping(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // escapeHtml4 only replaces these and characters beyond ASCII
+            if (c >= 0x80 || c == '&' || c == '<' || c == '>' || c == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Writes value right-aligned ending before end; returns the new start
+    private static int writeDigits(char[] buffer, int end, long value) {
+        do {
+            buffer[--end] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    private static int pad(char[] buffer, int start, int value, int width) {
+        for (int i = start + width - 1; i >= start; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return start + width;
+    }
+}
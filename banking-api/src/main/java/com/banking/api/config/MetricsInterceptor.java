@@ -0,0 +1,51 @@
+package com.banking.api.config;
+
+import com.banking.core.metrics.MetricsRegistry;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Times every API request per endpoint ({@code http.<METHOD> <path pattern>}) and counts responses
+ * by status class ({@code http.responses.2xx}, ...). Streaming requests are timed until their
+ * response completes, not just until the handler returns.
+ */
+public class MetricsInterceptor implements AsyncHandlerInterceptor {
+    private static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".start";
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MetricsRegistry metrics;
+
+    public MetricsInterceptor(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async requests pass through again when their result is dispatched; keep the first start
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        metrics.timer("http." + request.getMethod() + " " + (pattern != null ? pattern : "unmatched"))
+            .recordSince((Long) start);
+        int statusClass = response.getStatus() / 100;
+        if (statusClass >= 1 && statusClass <= STATUS_CLASSES.length) {
+            metrics.counter("http.responses." + STATUS_CLASSES[statusClass - 1]).increment();
+        }
+        if (ex != null) {
+            metrics.counter("http.errors." + ex.getClass().getSimpleName()).increment();
+        }
+    }
+}
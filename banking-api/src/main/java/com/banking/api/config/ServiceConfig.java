@@ -1,20 +1,213 @@
 package com.banking.api.config;
 
 import com.banking.account.service.AccountService;
+import com.banking.api.admission.AdaptiveConcurrencyLimit;
+import com.banking.api.admission.AdmissionInterceptor;
+import com.banking.api.admission.ClientRateLimiter;
+import com.banking.core.domain.AccountType;
+import com.banking.core.id.IdGenerator;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.core.metrics.MetricsRegistry;
+import com.banking.transaction.aggregate.TransactionAggregates;
+import com.banking.transaction.interest.ForegroundThrottle;
+import com.banking.transaction.interest.InterestAccrualEngine;
+import com.banking.transaction.interest.InterestAccrualScheduler;
+import com.banking.transaction.interest.InterestRateSchedule;
+import com.banking.transaction.journal.AccountCheckpointer;
+import com.banking.transaction.journal.JournalRecovery;
+import com.banking.transaction.journal.TransactionJournal;
+import com.banking.transaction.service.IdempotencyCache;
+import com.banking.transaction.service.TransactionSequencer;
 import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.store.ColumnarTransactionStore;
+import com.banking.transaction.store.InMemoryTransactionStore;
+import com.banking.transaction.store.TieredTransactionStore;
+import com.banking.transaction.store.TransactionStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+
 @Configuration
 public class ServiceConfig {
 
     @Bean
-    public AccountService accountService() {
-        return new AccountService();
+    public IdGenerator idGenerator(@Value("${banking.node-id:0}") int nodeId) {
+        return new TimeOrderedIdGenerator(nodeId);
+    }
+
+    @Bean
+    public MetricsRegistry metricsRegistry() {
+        return new MetricsRegistry();
+    }
+
+    @Bean
+    public AccountService accountService(IdGenerator idGenerator, MetricsRegistry metricsRegistry) {
+        AccountService accountService = new AccountService(idGenerator);
+        accountService.setMetrics(metricsRegistry);
+        return accountService;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.journal.enabled", havingValue = "true")
+    public TransactionJournal transactionJournal(
+            @Value("${banking.journal.path:data/transactions.journal}") String path,
+            @Value("${banking.journal.max-batch-delay-micros:1000}") long maxBatchDelayMicros,
+            @Value("${banking.journal.max-batch-records:4096}") int maxBatchRecords,
+            @Value("${banking.journal.max-segment-bytes:67108864}") long maxSegmentBytes) {
+        return new TransactionJournal(Paths.get(path), Duration.ofNanos(maxBatchDelayMicros * 1000),
+            maxBatchRecords, maxSegmentBytes);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.journal.enabled", havingValue = "true")
+    public AccountCheckpointer accountCheckpointer(
+            TransactionJournal journal,
+            TransactionStore transactionStore,
+            @Value("${banking.snapshot.dir:data/snapshots}") String snapshotDir,
+            @Value("${banking.snapshot.interval-seconds:300}") long intervalSeconds) {
+        AccountCheckpointer checkpointer = new AccountCheckpointer(journal, Paths.get(snapshotDir));
+        if (transactionStore instanceof TieredTransactionStore) {
+            // Other stores keep history only in memory, so they need the whole journal
+            checkpointer.setHistoryPositions(((TieredTransactionStore) transactionStore)::getJournalPosition);
+        }
+        checkpointer.start(Duration.ofSeconds(intervalSeconds));
+        return checkpointer;
+    }
+
+    @Bean
+    public TransactionStore transactionStore(
+            @Value("${banking.transaction-store:memory}") String type,
+            @Value("${banking.history.dir:data/history}") String historyDir,
+            @Value("${banking.history.seal-interval-seconds:600}") long sealIntervalSeconds,
+            MetricsRegistry metricsRegistry) {
+        switch (type) {
+            case "memory":
+                return new InMemoryTransactionStore();
+            case "columnar":
+                return new ColumnarTransactionStore();
+            case "tiered":
+                TieredTransactionStore store = new TieredTransactionStore(Paths.get(historyDir));
+                store.start(Duration.ofSeconds(sealIntervalSeconds));
+                metricsRegistry.gauge("transaction.store-in-memory", store::getInMemorySize);
+                return store;
+            default:
+                throw new IllegalArgumentException("Unknown banking.transaction-store: " + type);
+        }
+    }
+
+    @Bean
+    public TransactionService transactionService(AccountService accountService, IdGenerator idGenerator,
+                                                 TransactionStore transactionStore,
+                                                 ObjectProvider<TransactionJournal> journalProvider,
+                                                 MetricsRegistry metricsRegistry,
+                                                 @Value("${banking.snapshot.dir:data/snapshots}") String snapshotDir,
+                                                 @Value("${banking.idempotency.max-keys:100000}") int idempotencyMaxKeys,
+                                                 @Value("${banking.idempotency.ttl-seconds:86400}") long idempotencyTtlSeconds) {
+        TransactionService transactionService = new TransactionService(accountService, idGenerator, transactionStore);
+        transactionService.setIdempotencyCache(new IdempotencyCache(idempotencyMaxKeys, Duration.ofSeconds(idempotencyTtlSeconds)));
+        transactionService.setMetrics(metricsRegistry);
+        TransactionJournal journal = journalProvider.getIfAvailable();
+        if (journal != null) {
+            // Rebuild state before anything can write to the journal again
+            TieredTransactionStore tiered = transactionStore instanceof TieredTransactionStore
+                ? (TieredTransactionStore) transactionStore : null;
+            JournalRecovery.recover(journal.getFile(), Paths.get(snapshotDir),
+                tiered == null ? 0 : tiered.getJournalPosition(), accountService, transactionService);
+            if (tiered != null) {
+                // Only now is everything below the journal's applied position in the store
+                tiered.setJournalPositions(journal::getAppliedPosition);
+            }
+            accountService.addListener(journal);
+            transactionService.setJournal(journal);
+        }
+        return transactionService;
+    }
+
+    /**
+     * Seeded from the history the store holds at startup within the kept periods, then kept
+     * current as a listener.
+     */
+    @Bean
+    public TransactionAggregates transactionAggregates(AccountService accountService,
+                                                       TransactionService transactionService) {
+        TransactionAggregates aggregates = new TransactionAggregates(accountService);
+        aggregates.seed(transactionService);
+        transactionService.addListener(aggregates);
+        return aggregates;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.sequencer.enabled", havingValue = "true")
+    public TransactionSequencer transactionSequencer(
+            TransactionService transactionService,
+            @Value("${banking.sequencer.partitions:0}") int partitions,
+            @Value("${banking.sequencer.ring-capacity:1024}") int ringCapacity,
+            @Value("${banking.sequencer.max-submit-wait-millis:1000}") long maxSubmitWaitMillis) {
+        int partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        TransactionSequencer sequencer = new TransactionSequencer(transactionService, partitionCount, ringCapacity,
+            Duration.ofMillis(maxSubmitWaitMillis));
+        transactionService.setSequencer(sequencer);
+        return sequencer;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.interest.enabled", havingValue = "true")
+    public InterestAccrualEngine interestAccrualEngine(
+            AccountService accountService, TransactionService transactionService, MetricsRegistry metricsRegistry,
+            @Value("${banking.interest.rate.savings:0}") BigDecimal savingsRate,
+            @Value("${banking.interest.rate.checking:0}") BigDecimal checkingRate,
+            @Value("${banking.interest.rate.current:0}") BigDecimal currentRate,
+            @Value("${banking.interest.rate.fixed-deposit:0}") BigDecimal fixedDepositRate,
+            @Value("${banking.interest.state-dir:data/interest}") String stateDir,
+            @Value("${banking.interest.parallelism:0}") int parallelism,
+            @Value("${banking.interest.target-p99-millis:50}") long targetP99Millis) {
+        Map<AccountType, BigDecimal> rates = new EnumMap<>(AccountType.class);
+        rates.put(AccountType.SAVINGS, savingsRate);
+        rates.put(AccountType.CHECKING, checkingRate);
+        rates.put(AccountType.CURRENT, currentRate);
+        rates.put(AccountType.FIXED_DEPOSIT, fixedDepositRate);
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+            new InterestRateSchedule(rates), Paths.get(stateDir), threads);
+        engine.setThrottle(new ForegroundThrottle(metricsRegistry, Duration.ofMillis(targetP99Millis)));
+        return engine;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.interest.enabled", havingValue = "true")
+    public InterestAccrualScheduler interestAccrualScheduler(
+            InterestAccrualEngine engine,
+            @Value("${banking.interest.run-at:01:00}") String runAt) {
+        InterestAccrualScheduler scheduler = new InterestAccrualScheduler(engine);
+        scheduler.start(LocalTime.parse(runAt));
+        return scheduler;
     }
 
+    /**
+     * Registered on the API by {@link WebConfig}.
+     */
     @Bean
-    public TransactionService transactionService(AccountService accountService) {
-        return new TransactionService(accountService);
+    @ConditionalOnProperty(name = "banking.admission.enabled", havingValue = "true")
+    public AdmissionInterceptor admissionInterceptor(
+            MetricsRegistry metricsRegistry,
+            @Value("${banking.admission.client-rate-per-second:50}") double clientRate,
+            @Value("${banking.admission.client-burst:100}") int clientBurst,
+            @Value("${banking.admission.max-clients:100000}") int maxClients,
+            @Value("${banking.admission.batch-cost:20}") int batchCost,
+            @Value("${banking.admission.initial-limit:64}") int initialLimit,
+            @Value("${banking.admission.min-limit:8}") int minLimit,
+            @Value("${banking.admission.max-limit:512}") int maxLimit,
+            @Value("${banking.admission.bulk-share:0.5}") double bulkShare) {
+        return new AdmissionInterceptor(new ClientRateLimiter(clientRate, clientBurst, maxClients),
+            new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, bulkShare), batchCost, metricsRegistry);
     }
-}
\ No newline at end of file
+}
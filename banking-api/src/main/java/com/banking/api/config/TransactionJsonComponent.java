@@ -0,0 +1,36 @@
+package com.banking.api.config;
+
+import com.banking.transaction.domain.Transaction;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Renders a {@link Transaction} as the API's transaction representation, HTML-escaping ids and the
+ * description. The type, currency code and timestamp cannot contain characters that need escaping.
+ */
+@JsonComponent
+public class TransactionJsonComponent {
+
+    public static final JsonFields<Transaction> FIELDS = new JsonFields<Transaction>()
+        .field("transactionId", (gen, transaction) -> JsonValues.writeEscaped(gen, transaction.getTransactionId()))
+        .field("accountId", (gen, transaction) -> JsonValues.writeEscaped(gen, transaction.getAccountId()))
+        .field("type", (gen, transaction) -> gen.writeString(transaction.getType().name()))
+        .field("amount", (gen, transaction) -> JsonValues.writeAmount(gen, transaction.getAmount()))
+        .field("currency", (gen, transaction) -> gen.writeString(transaction.getAmount().currency().getCode()))
+        .field("timestamp", (gen, transaction) -> JsonValues.writeTimestamp(gen, transaction.getTimestamp()))
+        .field("description", (gen, transaction) -> JsonValues.writeEscaped(gen, transaction.getDescription()))
+        .field("relatedAccountId", (gen, transaction) -> JsonValues.writeEscaped(gen, transaction.getRelatedAccountId()));
+
+    private static final long ALL_FIELDS = FIELDS.all();
+
+    public static class Serializer extends JsonSerializer<Transaction> {
+        @Override
+        public void serialize(Transaction value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            FIELDS.write(gen, value, ALL_FIELDS);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.banking.api.config;
 
+import com.banking.api.admission.AdmissionInterceptor;
+import com.banking.core.metrics.MetricsRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -8,6 +11,14 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final MetricsRegistry metricsRegistry;
+    private final ObjectProvider<AdmissionInterceptor> admissionInterceptor;
+
+    public WebConfig(MetricsRegistry metricsRegistry, ObjectProvider<AdmissionInterceptor> admissionInterceptor) {
+        this.metricsRegistry = metricsRegistry;
+        this.admissionInterceptor = admissionInterceptor;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/**")
@@ -20,7 +31,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Content-Security-Policy");
+                .exposedHeaders("Content-Security-Policy", "X-Next-Cursor", "Retry-After");
     }
 
     @Override
@@ -32,5 +43,9 @@ public class WebConfig implements WebMvcConfigurer {
                 return true;
             }
         });
+        registry.addInterceptor(new MetricsInterceptor(metricsRegistry)).addPathPatterns("/api/**");
+        // After metrics, so rejected requests are still counted; metrics stay readable under overload
+        admissionInterceptor.ifAvailable(interceptor ->
+            registry.addInterceptor(interceptor).addPathPatterns("/api/**").excludePathPatterns("/api/metrics"));
     }
 }
\ No newline at end of file
@@ -3,61 +3,164 @@ package com.banking.api.controller;
 import com.banking.account.domain.Account;
 import com.banking.account.service.AccountService;
 import com.banking.api.dto.AccountCreateRequest;
-import com.banking.api.dto.AccountResponse;
+import com.banking.api.dto.AccountSummaryResponse;
+import com.banking.api.dto.CustomerSummaryResponse;
+import com.banking.api.config.AccountJsonComponent;
+import com.banking.api.stream.NdjsonWriter;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.transaction.aggregate.TransactionAggregates;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.apache.commons.text.StringEscapeUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    // Accounts read and written per flush while streaming
+    private static final int STREAM_PAGE_SIZE = 512;
+
     private final AccountService accountService;
+    private final TransactionAggregates transactionAggregates;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     @Autowired
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, TransactionAggregates transactionAggregates,
+                             ObjectMapper objectMapper,
+                             @Value("${banking.pagination.default-limit:100}") int defaultPageSize,
+                             @Value("${banking.pagination.max-limit:1000}") int maxPageSize) {
         this.accountService = accountService;
+        this.transactionAggregates = transactionAggregates;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PostMapping
-    public ResponseEntity<AccountResponse> createAccount(@RequestBody AccountCreateRequest request) {
+    public ResponseEntity<Account> createAccount(@RequestBody AccountCreateRequest request) {
         Account account = accountService.createAccount(
             request.getCustomerId(),
             AccountType.valueOf(request.getAccountType()),
             new Money(request.getInitialBalance(), request.getCurrency())
         );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(account));
+        return ResponseEntity.status(HttpStatus.CREATED).body(account);
     }
 
     @GetMapping("/{accountId}")
-    public ResponseEntity<AccountResponse> getAccount(@PathVariable String accountId) {
+    public ResponseEntity<Account> getAccount(@PathVariable String accountId) {
         Account account = accountService.getAccount(accountId);
-        return ResponseEntity.ok(toResponse(account));
+        return ResponseEntity.ok(account);
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<AccountResponse>> getAccountsByCustomer(@PathVariable String customerId) {
+    public ResponseEntity<List<Account>> getAccountsByCustomer(@PathVariable String customerId) {
         List<Account> accounts = accountService.getAccountsByCustomer(customerId);
-        List<AccountResponse> responses = accounts.stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok(accounts);
+    }
+
+    /**
+     * The customer's balance totals per currency, maintained on every balance change.
+     */
+    @GetMapping("/customer/{customerId}/summary")
+    public ResponseEntity<CustomerSummaryResponse> getCustomerSummary(@PathVariable String customerId) {
+        CustomerSummaryResponse response = new CustomerSummaryResponse();
+        response.setCustomerId(customerId);
+        response.setBalances(accountService.getCustomerBalances(customerId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Transaction counts and totals by type for the day and month of {@code date} (ISO, default
+     * today), read from incrementally maintained aggregates. Unknown accounts get 404.
+     */
+    @GetMapping("/{accountId}/summary")
+    public ResponseEntity<AccountSummaryResponse> getAccountSummary(@PathVariable String accountId,
+                                                                    @RequestParam(required = false) String date) {
+        AccountSummaryResponse response = new AccountSummaryResponse();
+        try {
+            LocalDate day = date == null ? LocalDate.now() : LocalDate.parse(date);
+            response.setDay(transactionAggregates.getDailySummary(accountId, day));
+            response.setMonth(transactionAggregates.getMonthlySummary(accountId, YearMonth.from(day)));
+            response.setDate(day.toString());
+        } catch (InvalidAccountException e) {
+            return ResponseEntity.notFound().build();
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        response.setAccountId(accountId);
+        return ResponseEntity.ok(response);
     }
 
+    /**
+     * Lists accounts in creation order. With {@code limit} or {@code after} the result is one page
+     * of at most {@code limit} accounts (default {@code banking.pagination.default-limit}) following
+     * account {@code after}; the cursor of the next page, if any, is in the {@code X-Next-Cursor}
+     * header. {@code fields} restricts each entry to the listed fields.
+     */
     @GetMapping
-    public ResponseEntity<List<AccountResponse>> getAllAccounts() {
-        List<Account> accounts = accountService.getAllAccounts();
-        List<AccountResponse> responses = accounts.stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<Object> getAllAccounts(@RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(required = false) String fields) {
+        Function<List<Account>, Object> body;
+        int pageSize;
+        try {
+            if (fields != null) {
+                long mask = AccountJsonComponent.FIELDS.select(fields);
+                body = accounts -> new FieldProjection<>(AccountJsonComponent.FIELDS, mask, accounts);
+            } else {
+                body = accounts -> accounts;
+            }
+            pageSize = Pages.limit(limit, defaultPageSize, maxPageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit == null && after == null) {
+            return ResponseEntity.ok(body.apply(accountService.getAllAccounts()));
+        }
+        List<Account> page;
+        try {
+            // One extra account tells whether a next page exists
+            page = accountService.getAccountsAfter(after, pageSize + 1);
+        } catch (InvalidAccountException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return Pages.respond(page, pageSize, Account::getAccountId, body);
+    }
+
+    /**
+     * Same content as {@link #getAllAccounts} as newline-delimited JSON, written a page at a time
+     * in creation order, so memory use and time to first byte do not depend on the account count.
+     */
+    @GetMapping(value = "/stream", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamAllAccounts() {
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                List<Account> page = accountService.getAccountsAfter(null, STREAM_PAGE_SIZE);
+                while (!page.isEmpty()) {
+                    for (Account account : page) {
+                        writer.write(account);
+                    }
+                    writer.flush();
+                    page = accountService.getAccountsAfter(page.get(page.size() - 1).getAccountId(), STREAM_PAGE_SIZE);
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE)).body(body);
     }
 
     @GetMapping("/{accountId}/balance")
@@ -65,15 +168,4 @@ public class AccountController {
         Money balance = accountService.getBalance(accountId);
         return ResponseEntity.ok(balance);
     }
-
-    private AccountResponse toResponse(Account account) {
-        AccountResponse response = new AccountResponse();
-        response.setAccountId(StringEscapeUtils.escapeHtml4(account.getAccountId()));
-        response.setCustomerId(StringEscapeUtils.escapeHtml4(account.getCustomerId()));
-        response.setAccountType(StringEscapeUtils.escapeHtml4(account.getAccountType().name()));
-        response.setBalance(account.getBalance().getAmount().doubleValue());
-        response.setCurrency(StringEscapeUtils.escapeHtml4(account.getBalance().getCurrency()));
-        response.setActive(account.isActive());
-        return response;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.banking.api.controller;
+
+import com.banking.api.dto.CsrfTokenResponse;
+import com.banking.api.security.CsrfTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/api/csrf-token")
+public class CsrfController {
+
+    private final CsrfTokenService csrfTokenService;
+
+    @Autowired
+    public CsrfController(CsrfTokenService csrfTokenService) {
+        this.csrfTokenService = csrfTokenService;
+    }
+
+    /**
+     * Issues a token for the {@code X-CSRF-TOKEN} header of transaction writes, also setting it as
+     * the cookie the header is checked against.
+     */
+    @GetMapping
+    public ResponseEntity<CsrfTokenResponse> issueToken(HttpServletResponse servletResponse) {
+        CsrfTokenResponse response = new CsrfTokenResponse();
+        response.setToken(csrfTokenService.issue(servletResponse));
+        response.setHeaderName(CsrfTokenService.HEADER);
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.api.controller;
+
+import com.banking.api.config.JsonFields;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A list body restricted to the fields a client selected with a {@code fields=} parameter. Items
+ * are written with the same field writers as the full representation, so unselected fields cost
+ * nothing and selected ones render identically.
+ */
+final class FieldProjection<T> extends JsonSerializable.Base {
+    private final JsonFields<T> fields;
+    private final long mask;
+    private final List<T> items;
+
+    FieldProjection(JsonFields<T> fields, long mask, List<T> items) {
+        this.fields = fields;
+        this.mask = mask;
+        this.items = items;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray(items, items.size());
+        for (T item : items) {
+            fields.write(gen, item, mask);
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers,
+                                  TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+}
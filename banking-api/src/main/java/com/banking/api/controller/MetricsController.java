@@ -0,0 +1,53 @@
+package com.banking.api.controller;
+
+import com.banking.api.dto.MetricsResponse;
+import com.banking.api.dto.TimerResponse;
+import com.banking.core.metrics.LatencyHistogram;
+import com.banking.core.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final MetricsRegistry metricsRegistry;
+
+    @Autowired
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * Latency percentiles since startup for every endpoint and service operation, plus counters
+     * and gauges, each sorted by name.
+     */
+    @GetMapping
+    public ResponseEntity<MetricsResponse> getMetrics() {
+        Map<String, TimerResponse> timers = new TreeMap<>();
+        metricsRegistry.getTimers().forEach((name, snapshot) -> timers.put(name, toResponse(snapshot)));
+        MetricsResponse response = new MetricsResponse();
+        response.setTimers(timers);
+        response.setCounters(metricsRegistry.getCounters());
+        response.setGauges(metricsRegistry.getGauges());
+        return ResponseEntity.ok(response);
+    }
+
+    private TimerResponse toResponse(LatencyHistogram.Snapshot snapshot) {
+        TimerResponse response = new TimerResponse();
+        response.setCount(snapshot.getCount());
+        response.setMeanMicros(snapshot.getMean() / 1000);
+        response.setP50Micros(snapshot.getValueAtPercentile(50) / 1000.0);
+        response.setP90Micros(snapshot.getValueAtPercentile(90) / 1000.0);
+        response.setP99Micros(snapshot.getValueAtPercentile(99) / 1000.0);
+        response.setP999Micros(snapshot.getValueAtPercentile(99.9) / 1000.0);
+        response.setMaxMicros(snapshot.getMax() / 1000.0);
+        return response;
+    }
+}
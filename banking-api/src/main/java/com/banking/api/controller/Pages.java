@@ -0,0 +1,42 @@
+package com.banking.api.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination shared by the listing endpoints. A page is the body array; when more items
+ * follow, the id to pass as {@code after} for the next page is returned in {@link #NEXT_CURSOR_HEADER}.
+ */
+final class Pages {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Pages() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code requested} is outside {@code 1..maxLimit}
+     */
+    static int limit(Integer requested, int defaultLimit, int maxLimit) {
+        int limit = requested != null ? requested : defaultLimit;
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        return limit;
+    }
+
+    /**
+     * Responds with a page fetched with one item more than {@code limit}; the extra item is not
+     * returned and only shows that a next page exists.
+     */
+    static <T> ResponseEntity<Object> respond(List<T> fetched, int limit, Function<T, String> cursor,
+                                              Function<List<T>, Object> body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (fetched.size() > limit) {
+            response.header(NEXT_CURSOR_HEADER, cursor.apply(fetched.get(limit - 1)));
+            return response.body(body.apply(fetched.subList(0, limit)));
+        }
+        return response.body(body.apply(fetched));
+    }
+}
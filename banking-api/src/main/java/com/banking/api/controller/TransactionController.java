@@ -1,110 +1,356 @@
 package com.banking.api.controller;
 
+import com.banking.api.config.TransactionJsonComponent;
+import com.banking.api.dto.BatchItemResponse;
+import com.banking.api.dto.BatchOperationRequest;
+import com.banking.api.dto.BatchTransactionRequest;
+import com.banking.api.dto.BatchTransactionResponse;
+import com.banking.api.dto.DeclinedResponse;
 import com.banking.api.dto.TransactionRequest;
-import com.banking.api.dto.TransactionResponse;
+import com.banking.api.security.CsrfTokenService;
+import com.banking.api.stream.NdjsonWriter;
+import com.banking.api.stream.SubscriberLimitException;
+import com.banking.api.stream.TransactionEventPublisher;
 import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InvalidAccountException;
 import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.BatchOperation;
+import com.banking.transaction.service.BatchResult;
+import com.banking.transaction.service.IdempotencyCache;
+import com.banking.transaction.service.IdempotencyKeyReusedException;
+import com.banking.transaction.service.SequencerFullException;
+import com.banking.transaction.service.TransactionResult;
 import com.banking.transaction.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.text.StringEscapeUtils;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    // Transactions fetched and written per round trip to the store while streaming
+    private static final int STREAM_PAGE_SIZE = 256;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    // Declines are routine and their responses constant, so they are built once
+    private static final Map<TransactionOutcome, ResponseEntity<Object>> DECLINED = new EnumMap<>(TransactionOutcome.class);
+
+    static {
+        DECLINED.put(TransactionOutcome.INSUFFICIENT_FUNDS, declined(HttpStatus.UNPROCESSABLE_ENTITY, TransactionOutcome.INSUFFICIENT_FUNDS));
+        DECLINED.put(TransactionOutcome.INACTIVE, declined(HttpStatus.CONFLICT, TransactionOutcome.INACTIVE));
+        DECLINED.put(TransactionOutcome.CURRENCY_MISMATCH, declined(HttpStatus.BAD_REQUEST, TransactionOutcome.CURRENCY_MISMATCH));
+    }
+
+    private static final ResponseEntity<Object> KEY_REUSED =
+        ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(new DeclinedResponse("IDEMPOTENCY_KEY_REUSED"));
+    // The sequencer queue stayed full; nothing was applied, so the request can be retried
+    private static final ResponseEntity<Object> BUSY =
+        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+
     private final TransactionService transactionService;
+    private final TransactionEventPublisher eventPublisher;
+    private final CsrfTokenService csrfTokenService;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchOperations;
+    private final int defaultPageSize;
+    private final int maxPageSize;
     private final List<String> allowedOrigins = List.of("https://example.com", "https://banking.com");
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, TransactionEventPublisher eventPublisher,
+                                 CsrfTokenService csrfTokenService, ObjectMapper objectMapper,
+                                 @Value("${banking.batch.max-operations:10000}") int maxBatchOperations,
+                                 @Value("${banking.pagination.default-limit:100}") int defaultPageSize,
+                                 @Value("${banking.pagination.max-limit:1000}") int maxPageSize) {
         this.transactionService = transactionService;
+        this.eventPublisher = eventPublisher;
+        this.csrfTokenService = csrfTokenService;
+        this.objectMapper = objectMapper;
+        this.maxBatchOperations = maxBatchOperations;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
+    /**
+     * Declined deposits, withdrawals and transfers answer with their outcome: 422 for insufficient
+     * funds, 409 for an inactive account and 400 for a currency mismatch.
+     * <p>
+     * With an {@code Idempotency-Key} header, a retry returns the first request's response
+     * instead of executing again, for as long as this replica remembers the key
+     * ({@code banking.idempotency.*}). Reusing a key for a different request is a 422.
+     */
     @PostMapping("/deposit")
-    public ResponseEntity<TransactionResponse> deposit(@RequestBody TransactionRequest request, HttpServletRequest servletRequest) {
+    public ResponseEntity<Object> deposit(@RequestBody TransactionRequest request,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                          HttpServletRequest servletRequest) {
         if (!validateOrigin(servletRequest) || !validateCsrfToken(servletRequest)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        Transaction transaction = transactionService.deposit(
-            request.getAccountId(),
-            new Money(request.getAmount(), request.getCurrency()),
-            sanitizeInput(request.getDescription())
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction));
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return respond(transactionService.tryDeposit(
+                request.getAccountId(),
+                new Money(request.getAmount(), request.getCurrency()),
+                sanitizeInput(request.getDescription()),
+                idempotencyKey
+            ));
+        } catch (IdempotencyKeyReusedException e) {
+            return KEY_REUSED;
+        } catch (SequencerFullException e) {
+            return BUSY;
+        }
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<TransactionResponse> withdraw(@RequestBody TransactionRequest request, HttpServletRequest servletRequest) {
+    public ResponseEntity<Object> withdraw(@RequestBody TransactionRequest request,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                           HttpServletRequest servletRequest) {
         if (!validateOrigin(servletRequest) || !validateCsrfToken(servletRequest)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        Transaction transaction = transactionService.withdraw(
-            request.getAccountId(),
-            new Money(request.getAmount(), request.getCurrency()),
-            sanitizeInput(request.getDescription())
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction));
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return respond(transactionService.tryWithdraw(
+                request.getAccountId(),
+                new Money(request.getAmount(), request.getCurrency()),
+                sanitizeInput(request.getDescription()),
+                idempotencyKey
+            ));
+        } catch (IdempotencyKeyReusedException e) {
+            return KEY_REUSED;
+        } catch (SequencerFullException e) {
+            return BUSY;
+        }
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<TransactionResponse> transfer(@RequestBody TransactionRequest request, HttpServletRequest servletRequest) {
+    public ResponseEntity<Object> transfer(@RequestBody TransactionRequest request,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                           HttpServletRequest servletRequest) {
         if (!validateOrigin(servletRequest) || !validateCsrfToken(servletRequest)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        Transaction transaction = transactionService.transfer(
-            request.getFromAccountId(),
-            request.getToAccountId(),
-            new Money(request.getAmount(), request.getCurrency()),
-            sanitizeInput(request.getDescription())
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction));
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return respond(transactionService.tryTransfer(
+                request.getFromAccountId(),
+                request.getToAccountId(),
+                new Money(request.getAmount(), request.getCurrency()),
+                sanitizeInput(request.getDescription()),
+                idempotencyKey
+            ));
+        } catch (IdempotencyKeyReusedException e) {
+            return KEY_REUSED;
+        } catch (SequencerFullException e) {
+            return BUSY;
+        }
     }
 
+    /**
+     * Applies up to {@code banking.batch.max-operations} deposits, withdrawals and transfers in one
+     * call. Items succeed or fail individually, so the response is 200 with a result per item.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponse> batch(@RequestBody BatchTransactionRequest request, HttpServletRequest servletRequest) {
+        if (!validateOrigin(servletRequest) || !validateCsrfToken(servletRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<BatchOperationRequest> items = request.getOperations();
+        if (items == null || items.isEmpty() || items.size() > maxBatchOperations) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<BatchOperation> operations = new ArrayList<>(items.size());
+        String[] rejected = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                operations.add(toOperation(items.get(i)));
+            } catch (RuntimeException e) {
+                // Reported against the item; the service skips null operations
+                rejected[i] = e.getMessage();
+                operations.add(null);
+            }
+        }
+        List<BatchResult> results = transactionService.processBatch(operations, request.isNetTransfers());
+
+        BatchTransactionResponse response = new BatchTransactionResponse();
+        List<BatchItemResponse> itemResponses = new ArrayList<>(results.size());
+        int succeeded = 0;
+        for (int i = 0; i < results.size(); i++) {
+            BatchResult result = results.get(i);
+            BatchItemResponse item = new BatchItemResponse();
+            item.setIndex(i);
+            if (result.isSuccess()) {
+                succeeded++;
+                item.setStatus(result.isNetted() ? "NETTED" : "COMPLETED");
+                if (result.getTransaction() != null) {
+                    item.setTransaction(result.getTransaction());
+                }
+            } else {
+                item.setStatus("FAILED");
+                item.setError(sanitizeInput(rejected[i] != null ? rejected[i] : result.getError()));
+            }
+            itemResponses.add(item);
+        }
+        response.setSucceeded(succeeded);
+        response.setFailed(results.size() - succeeded);
+        response.setResults(itemResponses);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Lists the account's transactions newest first. With {@code limit} or {@code after} the result
+     * is one page of at most {@code limit} transactions (default
+     * {@code banking.pagination.default-limit}) older than transaction {@code after}; the cursor of
+     * the next page, if any, is in the {@code X-Next-Cursor} header. {@code fields} restricts each
+     * entry to the listed fields.
+     */
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<List<TransactionResponse>> getTransactionsByAccount(@PathVariable String accountId, HttpServletRequest servletRequest) {
+    public ResponseEntity<Object> getTransactionsByAccount(@PathVariable String accountId,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) String fields,
+                                                           HttpServletRequest servletRequest) {
+        if (!validateOrigin(servletRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Function<List<Transaction>, Object> body;
+        int pageSize;
+        try {
+            if (fields != null) {
+                long mask = TransactionJsonComponent.FIELDS.select(fields);
+                body = transactions -> new FieldProjection<>(TransactionJsonComponent.FIELDS, mask, transactions);
+            } else {
+                body = transactions -> transactions;
+            }
+            pageSize = Pages.limit(limit, defaultPageSize, maxPageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit == null && after == null) {
+            return ResponseEntity.ok(body.apply(transactionService.getTransactionsByAccount(accountId)));
+        }
+        List<Transaction> page;
+        try {
+            // One extra transaction tells whether a next page exists
+            page = after == null ? transactionService.getLatestTransactions(accountId, pageSize + 1)
+                : transactionService.getTransactionsBefore(accountId, after, pageSize + 1);
+        } catch (IllegalArgumentException e) {
+            // Unknown cursor, or one from another account's history
+            return ResponseEntity.badRequest().build();
+        }
+        return Pages.respond(page, pageSize, Transaction::getTransactionId, body);
+    }
+
+    /**
+     * Same content as {@link #getTransactionsByAccount} as newline-delimited JSON, read from the
+     * store a page at a time and flushed after each page, so memory use and time to first byte do
+     * not depend on the size of the history.
+     */
+    @GetMapping(value = "/account/{accountId}/stream", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByAccount(@PathVariable String accountId, HttpServletRequest servletRequest) {
         if (!validateOrigin(servletRequest)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        List<Transaction> transactions = transactionService.getTransactionsByAccount(accountId);
-        List<TransactionResponse> responses = transactions.stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                List<Transaction> page = transactionService.getLatestTransactions(accountId, STREAM_PAGE_SIZE);
+                while (!page.isEmpty()) {
+                    for (Transaction transaction : page) {
+                        writer.write(transaction);
+                    }
+                    writer.flush();
+                    if (page.size() < STREAM_PAGE_SIZE) {
+                        break;
+                    }
+                    String cursor = page.get(page.size() - 1).getTransactionId();
+                    page = transactionService.getTransactionsBefore(accountId, cursor, STREAM_PAGE_SIZE);
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE)).body(body);
+    }
+
+    /**
+     * Live tail of the account's transactions as server-sent events, starting from now. Unknown
+     * accounts get 404, and a subscriber past the per-account or total limit
+     * ({@code banking.stream.sse-max-subscribers*}) gets 503 with {@code Retry-After}.
+     */
+    @GetMapping(value = "/account/{accountId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> transactionEvents(@PathVariable String accountId, HttpServletRequest servletRequest) {
+        if (!validateOrigin(servletRequest)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(eventPublisher.subscribe(accountId));
+        } catch (InvalidAccountException e) {
+            return ResponseEntity.notFound().build();
+        } catch (SubscriberLimitException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
     }
 
     @GetMapping("/{transactionId}")
-    public ResponseEntity<TransactionResponse> getTransaction(@PathVariable String transactionId, HttpServletRequest servletRequest) {
+    public ResponseEntity<Transaction> getTransaction(@PathVariable String transactionId, HttpServletRequest servletRequest) {
         if (!validateOrigin(servletRequest)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         Transaction transaction = transactionService.getTransaction(transactionId);
-        return ResponseEntity.ok(toResponse(transaction));
+        return ResponseEntity.ok(transaction);
+    }
+
+    private static ResponseEntity<Object> declined(HttpStatus status, TransactionOutcome outcome) {
+        return ResponseEntity.status(status).body(new DeclinedResponse(outcome.name()));
+    }
+
+    private static ResponseEntity<Object> respond(TransactionResult result) {
+        if (result.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(result.getTransaction());
+        }
+        return DECLINED.get(result.getOutcome());
+    }
+
+    private BatchOperation toOperation(BatchOperationRequest item) {
+        if (item.getType() == null) {
+            throw new IllegalArgumentException("Operation type cannot be null");
+        }
+        TransactionType type = TransactionType.valueOf(item.getType());
+        String accountId = type == TransactionType.TRANSFER && item.getFromAccountId() != null
+            ? item.getFromAccountId() : item.getAccountId();
+        return new BatchOperation(type, accountId, item.getToAccountId(),
+            new Money(item.getAmount(), item.getCurrency()), sanitizeInput(item.getDescription()));
     }
 
-    private TransactionResponse toResponse(Transaction transaction) {
-        TransactionResponse response = new TransactionResponse();
-        response.setTransactionId(sanitizeInput(transaction.getTransactionId()));
-        response.setAccountId(sanitizeInput(transaction.getAccountId()));
-        response.setType(sanitizeInput(transaction.getType().name()));
-        response.setAmount(transaction.getAmount().getAmount().doubleValue());
-        response.setCurrency(sanitizeInput(transaction.getAmount().getCurrency()));
-        response.setTimestamp(sanitizeInput(transaction.getTimestamp().toString()));
-        response.setDescription(sanitizeInput(transaction.getDescription()));
-        response.setRelatedAccountId(sanitizeInput(transaction.getRelatedAccountId()));
-        return response;
+    private static boolean isValidIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey == null
+            || (!idempotencyKey.isEmpty() && idempotencyKey.length() <= IdempotencyCache.MAX_KEY_LENGTH);
     }
 
     private boolean validateCsrfToken(HttpServletRequest request) {
-        String csrfToken = request.getHeader("X-CSRF-TOKEN");
-        String sessionToken = (String) request.getSession().getAttribute("CSRF_TOKEN");
-        return csrfToken != null && csrfToken.equals(sessionToken);
+        return csrfTokenService.isValid(request);
     }
 
     private boolean validateOrigin(HttpServletRequest request) {
@@ -1,10 +1,14 @@
 package com.banking.api.dto;
 
+import com.banking.core.domain.Currency;
+
+import java.math.BigDecimal;
+
 public class AccountCreateRequest {
     private String customerId;
     private String accountType;
-    private double initialBalance;
-    private String currency;
+    private BigDecimal initialBalance;
+    private Currency currency;
 
     public String getCustomerId() {
         return customerId;
@@ -22,19 +26,19 @@ public class AccountCreateRequest {
         this.accountType = accountType;
     }
 
-    public double getInitialBalance() {
+    public BigDecimal getInitialBalance() {
         return initialBalance;
     }
 
-    public void setInitialBalance(double initialBalance) {
+    public void setInitialBalance(BigDecimal initialBalance) {
         this.initialBalance = initialBalance;
     }
 
-    public String getCurrency() {
+    public Currency getCurrency() {
         return currency;
     }
 
-    public void setCurrency(String currency) {
+    public void setCurrency(Currency currency) {
         this.currency = currency;
     }
 }
@@ -0,0 +1,42 @@
+package com.banking.api.dto;
+
+import com.banking.transaction.aggregate.PeriodSummary;
+
+public class AccountSummaryResponse {
+    private String accountId;
+    private String date;
+    private PeriodSummary day;
+    private PeriodSummary month;
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public PeriodSummary getDay() {
+        return day;
+    }
+
+    public void setDay(PeriodSummary day) {
+        this.day = day;
+    }
+
+    public PeriodSummary getMonth() {
+        return month;
+    }
+
+    public void setMonth(PeriodSummary month) {
+        this.month = month;
+    }
+}
@@ -0,0 +1,17 @@
+package com.banking.api.dto;
+
+/**
+ * One item of a batch: a {@link TransactionRequest} plus its type ({@code DEPOSIT},
+ * {@code WITHDRAWAL} or {@code TRANSFER}).
+ */
+public class BatchOperationRequest extends TransactionRequest {
+    private String type;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,24 @@
+package com.banking.api.dto;
+
+import java.util.List;
+
+public class BatchTransactionRequest {
+    private boolean netTransfers;
+    private List<BatchOperationRequest> operations;
+
+    public boolean isNetTransfers() {
+        return netTransfers;
+    }
+
+    public void setNetTransfers(boolean netTransfers) {
+        this.netTransfers = netTransfers;
+    }
+
+    public List<BatchOperationRequest> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperationRequest> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,33 @@
+package com.banking.api.dto;
+
+import java.util.List;
+
+public class BatchTransactionResponse {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResponse> results;
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchItemResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchItemResponse> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.api.dto;
+
+public class CsrfTokenResponse {
+    private String token;
+    private String headerName;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    public void setHeaderName(String headerName) {
+        this.headerName = headerName;
+    }
+}
@@ -0,0 +1,26 @@
+package com.banking.api.dto;
+
+import com.banking.core.domain.Money;
+
+import java.util.List;
+
+public class CustomerSummaryResponse {
+    private String customerId;
+    private List<Money> balances;
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public List<Money> getBalances() {
+        return balances;
+    }
+
+    public void setBalances(List<Money> balances) {
+        this.balances = balances;
+    }
+}
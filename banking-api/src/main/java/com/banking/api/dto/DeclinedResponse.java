@@ -0,0 +1,20 @@
+package com.banking.api.dto;
+
+public class DeclinedResponse {
+    private String outcome;
+
+    public DeclinedResponse() {
+    }
+
+    public DeclinedResponse(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,33 @@
+package com.banking.api.dto;
+
+import java.util.Map;
+
+public class MetricsResponse {
+    private Map<String, TimerResponse> timers;
+    private Map<String, Long> counters;
+    private Map<String, Long> gauges;
+
+    public Map<String, TimerResponse> getTimers() {
+        return timers;
+    }
+
+    public void setTimers(Map<String, TimerResponse> timers) {
+        this.timers = timers;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public void setCounters(Map<String, Long> counters) {
+        this.counters = counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public void setGauges(Map<String, Long> gauges) {
+        this.gauges = gauges;
+    }
+}
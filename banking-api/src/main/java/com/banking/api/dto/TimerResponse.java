@@ -0,0 +1,67 @@
+package com.banking.api.dto;
+
+public class TimerResponse {
+    private long count;
+    private double meanMicros;
+    private double p50Micros;
+    private double p90Micros;
+    private double p99Micros;
+    private double p999Micros;
+    private double maxMicros;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public void setMeanMicros(double meanMicros) {
+        this.meanMicros = meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public void setP50Micros(double p50Micros) {
+        this.p50Micros = p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public void setP90Micros(double p90Micros) {
+        this.p90Micros = p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public void setP99Micros(double p99Micros) {
+        this.p99Micros = p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public void setP999Micros(double p999Micros) {
+        this.p999Micros = p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    public void setMaxMicros(double maxMicros) {
+        this.maxMicros = maxMicros;
+    }
+}
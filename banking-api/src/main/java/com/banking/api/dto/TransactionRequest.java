@@ -1,11 +1,15 @@
 package com.banking.api.dto;
 
+import com.banking.core.domain.Currency;
+
+import java.math.BigDecimal;
+
 public class TransactionRequest {
     private String accountId;
     private String fromAccountId;
     private String toAccountId;
-    private double amount;
-    private String currency;
+    private BigDecimal amount;
+    private Currency currency;
     private String description;
 
     public String getAccountId() {
@@ -32,19 +36,19 @@ public class TransactionRequest {
         this.toAccountId = toAccountId;
     }
 
-    public double getAmount() {
+    public BigDecimal getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
 
-    public String getCurrency() {
+    public Currency getCurrency() {
         return currency;
     }
 
-    public void setCurrency(String currency) {
+    public void setCurrency(Currency currency) {
         this.currency = currency;
     }
 
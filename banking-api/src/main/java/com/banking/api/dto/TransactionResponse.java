@@ -1,77 +0,0 @@
-package com.banking.api.dto;
-
-public class TransactionResponse {
-    private String transactionId;
-    private String accountId;
-    private String type;
-    private double amount;
-    private String currency;
-    private String timestamp;
-    private String description;
-    private String relatedAccountId;
-
-    public String getTransactionId() {
-        return transactionId;
-    }
-
-    public void setTransactionId(String transactionId) {
-        this.transactionId = transactionId;
-    }
-
-    public String getAccountId() {
-        return accountId;
-    }
-
-    public void setAccountId(String accountId) {
-        this.accountId = accountId;
-    }
-
-    public String getType() {
-        return type;
-    }
-
-    public void setType(String type) {
-        this.type = type;
-    }
-
-    public double getAmount() {
-        return amount;
-    }
-
-    public void setAmount(double amount) {
-        this.amount = amount;
-    }
-
-    public String getCurrency() {
-        return currency;
-    }
-
-    public void setCurrency(String currency) {
-        this.currency = currency;
-    }
-
-    public String getTimestamp() {
-        return timestamp;
-    }
-
-    public void setTimestamp(String timestamp) {
-        this.timestamp = timestamp;
-    }
-
-    public String getDescription() {
-        return description;
-    }
-
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
-    public String getRelatedAccountId() {
-        return relatedAccountId;
-    }
-
-    public void setRelatedAccountId(String relatedAccountId) {
-        this.relatedAccountId = relatedAccountId;
-    }
-}
-
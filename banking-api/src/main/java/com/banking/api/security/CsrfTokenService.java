@@ -0,0 +1,152 @@
+package com.banking.api.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Issues and checks CSRF tokens without server-side state.
+ * <p>
+ * A token is an expiry time and a random nonce, signed with HMAC-SHA256 under
+ * {@code banking.csrf.secret}. It is handed out both in the response body and in an HttpOnly
+ * cookie; a write must echo it in the {@value #HEADER} header, and is accepted if the header
+ * matches the cookie, the signature is valid and the token has not expired (signed double-submit).
+ * Any replica sharing the secret can validate any request, so neither sessions nor sticky routing
+ * are needed.
+ */
+@Component
+public class CsrfTokenService {
+    public static final String HEADER = "X-CSRF-TOKEN";
+    public static final String COOKIE = "CSRF-TOKEN";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int NONCE_BYTES = 16;
+    private static final int PAYLOAD_BYTES = Long.BYTES + NONCE_BYTES;
+    private static final int SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final boolean secureCookie;
+    private final SecureRandom random = new SecureRandom();
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public CsrfTokenService(@Value("${banking.csrf.secret:}") String secret,
+                            @Value("${banking.csrf.ttl-seconds:3600}") long ttlSeconds,
+                            @Value("${banking.csrf.secure-cookie:false}") boolean secureCookie) {
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("CSRF token lifetime must be positive");
+        }
+        byte[] secretBytes;
+        if (secret == null || secret.isEmpty()) {
+            // Tokens then only validate on this process
+            secretBytes = new byte[SECRET_BYTES];
+            random.nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.secureCookie = secureCookie;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Creates a token and sets it as the CSRF cookie of {@code response}.
+     */
+    public String issue(HttpServletResponse response) {
+        String token = createToken(System.currentTimeMillis() + ttlMillis);
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, token)
+            .httpOnly(true)
+            .secure(secureCookie)
+            .sameSite("Strict")
+            .path("/api")
+            .maxAge(Duration.ofMillis(ttlMillis))
+            .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        return token;
+    }
+
+    /**
+     * Whether {@code request} carries a valid, unexpired token in both the header and the cookie.
+     */
+    public boolean isValid(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        String cookie = cookieValue(request);
+        if (header == null || cookie == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(header.getBytes(StandardCharsets.US_ASCII), cookie.getBytes(StandardCharsets.US_ASCII))
+            && isValid(header, System.currentTimeMillis());
+    }
+
+    private String createToken(long expiresAtMillis) {
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        ByteBuffer.wrap(payload).putLong(expiresAtMillis);
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        System.arraycopy(nonce, 0, payload, Long.BYTES, NONCE_BYTES);
+        return ENCODER.encodeToString(payload) + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    private boolean isValid(String token, long nowMillis) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(sign(payload), signature)) {
+            return false;
+        }
+        return ByteBuffer.wrap(payload).getLong() > nowMillis;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static String cookieValue(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.banking.api.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes values as newline-delimited JSON, one document per line, straight to the response stream.
+ * <p>
+ * Nothing is buffered beyond the generator's own buffer, so memory stays constant however many
+ * values are written, and a slow client blocks the writer instead of growing a buffer.
+ */
+public final class NdjsonWriter implements Closeable {
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    public NdjsonWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated explicitly, and flushing is left to the caller
+        this.generator.setRootValueSeparator(null);
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(Object value) throws IOException {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Pushes everything written so far to the client.
+     */
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.api.stream;
+
+/**
+ * Thrown when an event stream cannot be opened because the account, or the process as a whole,
+ * already has as many subscribers as {@link TransactionEventPublisher} allows.
+ */
+public class SubscriberLimitException extends RuntimeException {
+    public SubscriberLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,234 @@
+package com.banking.api.stream;
+
+import com.banking.account.service.AccountService;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionListener;
+import com.banking.transaction.service.TransactionService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes newly recorded transactions to server-sent-event subscribers of an account.
+ * <p>
+ * Notifications only enqueue: each subscriber has a bounded queue drained by a small dispatcher
+ * pool, so a slow client never delays the transaction that triggered the event. A subscriber whose
+ * queue fills up is sent an {@code overflow} event and disconnected rather than buffered without
+ * bound; it can re-read the history it missed and subscribe again.
+ * <p>
+ * Every subscriber holds an open connection and a queue, so their number is capped per account
+ * and in total; past either cap {@link #subscribe(String)} refuses instead of opening a stream.
+ */
+@Component
+public class TransactionEventPublisher implements TransactionListener, DisposableBean {
+    static final String EVENT_NAME = "transaction";
+    static final String OVERFLOW_EVENT_NAME = "overflow";
+
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final int maxSubscribersPerAccount;
+    private final int maxSubscribers;
+    private final ExecutorService dispatcher;
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public TransactionEventPublisher(TransactionService transactionService, AccountService accountService,
+                                     @Value("${banking.stream.sse-queue-capacity:256}") int queueCapacity,
+                                     @Value("${banking.stream.sse-timeout-seconds:1800}") long timeoutSeconds,
+                                     @Value("${banking.stream.sse-threads:2}") int threads,
+                                     @Value("${banking.stream.sse-max-subscribers-per-account:16}") int maxSubscribersPerAccount,
+                                     @Value("${banking.stream.sse-max-subscribers:1024}") int maxSubscribers) {
+        if (queueCapacity <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("SSE queue capacity and thread count must be positive");
+        }
+        if (maxSubscribersPerAccount <= 0 || maxSubscribers <= 0) {
+            throw new IllegalArgumentException("SSE subscriber limits must be positive");
+        }
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+        this.maxSubscribersPerAccount = maxSubscribersPerAccount;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutSeconds * 1000;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "transaction-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionService.addListener(this);
+    }
+
+    /**
+     * Opens an event stream of the account's transactions from now on, each sent as a JSON
+     * {@code transaction} event whose id is the transaction id.
+     *
+     * @throws com.banking.core.exception.InvalidAccountException if there is no such account
+     * @throws SubscriberLimitException if the account or the process has no subscriber slot left
+     */
+    public SseEmitter subscribe(String accountId) {
+        accountService.getHandle(accountId);
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitException("Too many event subscribers: " + maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(accountId, emitter);
+        try {
+            // Per-key atomic, so a subscriber is never added to a list that is being dropped
+            subscribers.compute(accountId, (id, accountSubscribers) -> {
+                List<Subscriber> updated = accountSubscribers != null ? accountSubscribers : new CopyOnWriteArrayList<>();
+                if (updated.size() >= maxSubscribersPerAccount) {
+                    throw new SubscriberLimitException("Too many event subscribers for account " + accountId
+                        + ": " + maxSubscribersPerAccount);
+                }
+                updated.add(subscriber);
+                return updated;
+            });
+        } catch (SubscriberLimitException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(error -> subscriber.remove());
+        return emitter;
+    }
+
+    /**
+     * Number of open event streams across all accounts.
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void onTransactionRecorded(Transaction transaction) {
+        deliver(transaction.getAccountId(), transaction);
+        String relatedAccountId = transaction.getRelatedAccountId();
+        if (relatedAccountId != null && !relatedAccountId.equals(transaction.getAccountId())) {
+            deliver(relatedAccountId, transaction);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        transactionService.removeListener(this);
+        for (List<Subscriber> accountSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : accountSubscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        dispatcher.shutdownNow();
+    }
+
+    private void deliver(String accountId, Transaction transaction) {
+        List<Subscriber> accountSubscribers = subscribers.get(accountId);
+        if (accountSubscribers != null) {
+            for (Subscriber subscriber : accountSubscribers) {
+                subscriber.offer(transaction);
+            }
+        }
+    }
+
+    /**
+     * One open event stream. At most one dispatcher task drains it at a time, so events are sent
+     * in the order they were recorded.
+     */
+    private final class Subscriber implements Runnable {
+        private final String accountId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Transaction> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        Subscriber(String accountId, SseEmitter emitter) {
+            this.accountId = accountId;
+            this.emitter = emitter;
+        }
+
+        void offer(Transaction transaction) {
+            if (closed || overflowed) {
+                return;
+            }
+            if (!queue.offer(transaction)) {
+                overflowed = true;
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Transaction transaction;
+                while (!closed && (transaction = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                        .id(transaction.getTransactionId())
+                        .name(EVENT_NAME)
+                        .data(transaction, MediaType.APPLICATION_JSON));
+                }
+                if (overflowed && !closed) {
+                    emitter.send(SseEmitter.event().name(OVERFLOW_EVENT_NAME).data("queue capacity exceeded"));
+                    close();
+                }
+            } catch (IOException | RuntimeException e) {
+                // The client went away or the emitter already completed
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed && (overflowed || !queue.isEmpty())) {
+                schedule();
+            }
+        }
+
+        void remove() {
+            closed = true;
+            // Completion, timeout and errors can each call this; the slot is released once
+            if (!removed.compareAndSet(false, true)) {
+                return;
+            }
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(accountId, (id, accountSubscribers) -> {
+                accountSubscribers.remove(this);
+                return accountSubscribers.isEmpty() ? null : accountSubscribers;
+            });
+        }
+
+        private void close() {
+            remove();
+            queue.clear();
+            emitter.complete();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+    }
+}
@@ -111,11 +111,23 @@ function confirmAction() {
     hideConfirmModal();
 }
 
+// CSRF token sent with every write; the server also sets it as a cookie to check the header against
+let csrfToken = null;
+
+async function getCsrfToken(refresh = false) {
+    if (!csrfToken || refresh) {
+        const response = await fetch(`${API_BASE_URL}/csrf-token`, { credentials: 'same-origin' });
+        csrfToken = (await response.json()).token;
+    }
+    return csrfToken;
+}
+
 // API Helper
 async function apiCall(endpoint, method = 'GET', body = null) {
     try {
         const options = {
             method,
+            credentials: 'same-origin',
             headers: {
                 'Content-Type': 'application/json',
             }
@@ -123,7 +135,15 @@ async function apiCall(endpoint, method = 'GET', body = null) {
         if (body) {
             options.body = JSON.stringify(body);
         }
-        const response = await fetch(`${API_BASE_URL}${endpoint}`, options);
+        if (method !== 'GET') {
+            options.headers['X-CSRF-TOKEN'] = await getCsrfToken();
+        }
+        let response = await fetch(`${API_BASE_URL}${endpoint}`, options);
+        if (response.status === 403 && method !== 'GET') {
+            // The token may have expired; retry once with a fresh one
+            options.headers['X-CSRF-TOKEN'] = await getCsrfToken(true);
+            response = await fetch(`${API_BASE_URL}${endpoint}`, options);
+        }
         if (!response.ok) {
             const errorText = await response.text();
             let errorMessage = `HTTP error! status: ${response.status}`;
@@ -0,0 +1,104 @@
+package com.banking.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testBulkRequestsOnlyTakeTheirShare() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 0.3, clock::get);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire(true));
+        }
+        assertFalse(limit.tryAcquire(true));
+        for (int i = 0; i < 7; i++) {
+            assertTrue(limit.tryAcquire(false));
+        }
+        assertFalse(limit.tryAcquire(false));
+        assertEquals(10, limit.getInFlight());
+
+        limit.release();
+        assertEquals(9, limit.getInFlight());
+        assertTrue(limit.tryAcquire(false));
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 1, clock::get);
+        for (int i = 0; i < 20; i++) {
+            window(limit, limit.getLimit(), TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 20, "limit " + grown);
+
+        for (int i = 0; i < 5; i++) {
+            window(limit, 10, TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        int shrunk = limit.getLimit();
+        assertTrue(shrunk < grown, "limit " + shrunk);
+    }
+
+    @Test
+    void testLimitStaysWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(6, 5, 7, 1, clock::get);
+        for (int i = 0; i < 10; i++) {
+            window(limit, limit.getLimit(), TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(7, limit.getLimit());
+        for (int i = 0; i < 10; i++) {
+            window(limit, 5, TimeUnit.MILLISECONDS.toNanos(1000));
+        }
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void testIdleWindowsDoNotRaiseTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 5, 100, 1, clock::get);
+        for (int i = 0; i < 20; i++) {
+            window(limit, 10, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void testWindowsWithTooFewSamplesAreIgnored() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 100, 1, clock::get);
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 8; j++) {
+                assertTrue(limit.tryAcquire(false));
+            }
+            clock.addAndGet(WINDOW);
+            for (int j = 0; j < 8; j++) {
+                limit.release(TimeUnit.SECONDS.toNanos(j % 2 == 0 ? 10 : 0));
+            }
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    // Holds concurrent requests at once, in enough rounds for the window to count, then ends the window
+    private void window(AdaptiveConcurrencyLimit limit, int concurrent, long latencyNanos) {
+        int rounds = (10 + concurrent - 1) / concurrent;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < concurrent; i++) {
+                assertTrue(limit.tryAcquire(false));
+            }
+            for (int i = 1; i < concurrent; i++) {
+                limit.release(latencyNanos);
+            }
+            if (round == rounds - 1) {
+                clock.addAndGet(WINDOW);
+            }
+            limit.release(latencyNanos);
+        }
+        assertEquals(0, limit.getInFlight());
+    }
+}
@@ -0,0 +1,47 @@
+package com.banking.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(100 * SECOND);
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 100, clock::get);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1", 1));
+        }
+        assertEquals(SECOND / 10, limiter.tryAcquire("10.0.0.1", 1));
+        assertEquals(0, limiter.tryAcquire("10.0.0.2", 5));
+        assertEquals(2, limiter.getClientCount());
+
+        clock.addAndGet(SECOND / 10);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 1));
+        assertTrue(limiter.tryAcquire("10.0.0.1", 1) > 0);
+    }
+
+    @Test
+    void testNewClientsShareOverflowUntilIdleBucketsAreSwept() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 2, clock::get);
+        assertEquals(0, limiter.tryAcquire("a", 5));
+        assertEquals(0, limiter.tryAcquire("b", 5));
+
+        // Both tracked clients are still refilling, so newcomers share one bucket
+        assertEquals(0, limiter.tryAcquire("c", 5));
+        assertTrue(limiter.tryAcquire("d", 1) > 0);
+        assertEquals(2, limiter.getClientCount());
+
+        // Once a and b have refilled completely they are dropped to make room
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire("e", 1));
+        assertEquals(1, limiter.getClientCount());
+    }
+}
@@ -0,0 +1,36 @@
+package com.banking.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTakesWhileTokensLastAndReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(2, 4, 0);
+        assertEquals(0, bucket.tryTake(3, 0));
+        assertEquals(SECOND, bucket.tryTake(3, 0));
+        // A refused request takes nothing
+        assertEquals(0, bucket.tryTake(1, 0));
+        assertEquals(SECOND / 2, bucket.tryTake(1, 0));
+        assertEquals(0, bucket.tryTake(1, SECOND / 2));
+    }
+
+    @Test
+    void testRefillsUpToCapacityOnly() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        assertEquals(0, bucket.tryTake(2, 0));
+        assertFalse(bucket.isFull(SECOND));
+        assertTrue(bucket.isFull(10 * SECOND));
+        assertEquals(0, bucket.tryTake(2, 10 * SECOND));
+        assertTrue(bucket.tryTake(1, 10 * SECOND) > 0);
+        // A clock read that lags an earlier one does not refill or drain
+        assertTrue(bucket.tryTake(1, 9 * SECOND) > 0);
+        assertEquals(0, bucket.tryTake(1, 11 * SECOND));
+    }
+}
@@ -0,0 +1,102 @@
+package com.banking.api.config;
+
+import com.banking.core.domain.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonValuesTest {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    @Test
+    void testAmountsMatchDoubleToString() {
+        for (String currency : new String[] {"JPY", "USD", "KWD"}) {
+            for (long minorUnits : amountsAround(Money.ofMinor(1, currency).scale())) {
+                Money amount = Money.ofMinor(minorUnits, currency);
+                assertEquals(Double.toString(amount.toDouble()), render(gen -> JsonValues.writeAmount(gen, amount)),
+                    () -> amount + " in " + currency);
+            }
+        }
+    }
+
+    @Test
+    void testTimestampsMatchLocalDateTimeToString() {
+        List<LocalDateTime> timestamps = List.of(
+            LocalDateTime.of(2025, 3, 1, 9, 30),
+            LocalDateTime.of(2025, 3, 1, 9, 30, 0, 1),
+            LocalDateTime.of(2025, 3, 1, 9, 30, 5),
+            LocalDateTime.of(2025, 12, 31, 23, 59, 59, 120_000_000),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 5, 123_456_000),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 5, 123_456_789),
+            LocalDateTime.of(2025, 1, 2, 0, 0, 0, 100),
+            LocalDateTime.of(1000, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999),
+            LocalDateTime.of(999, 6, 15, 12, 0, 1),
+            LocalDateTime.of(10_000, 6, 15, 12, 0),
+            LocalDateTime.of(0, 1, 1, 0, 0),
+            LocalDateTime.of(-44, 3, 15, 12, 0, 0, 500_000_000));
+        for (LocalDateTime timestamp : timestamps) {
+            assertEquals('"' + timestamp.toString() + '"', render(gen -> JsonValues.writeTimestamp(gen, timestamp)));
+        }
+    }
+
+    @Test
+    void testEscapedTextMatchesEscapeHtml4() {
+        String[] values = {"", "plain description", "ACC-123", "a & b", "<script>alert(1)</script>", "say \"hi\"",
+            "it's", "café", "Zürich → Genève", "日本語", "emoji 😀", "tab\tand\nnewline", "&amp; already"};
+        for (String value : values) {
+            assertEquals(render(gen -> gen.writeString(StringEscapeUtils.escapeHtml4(value))),
+                render(gen -> JsonValues.writeEscaped(gen, value)), value);
+        }
+        assertEquals("null", render(gen -> JsonValues.writeEscaped(gen, null)));
+    }
+
+    // Small values, every fraction shape, both sides of 10^7 whole units and a random sample
+    private static List<Long> amountsAround(int scale) {
+        long unit = (long) Math.pow(10, scale);
+        long limit = 10_000_000L * unit;
+        List<Long> amounts = new ArrayList<>();
+        for (long value = 0; value <= 2 * unit + 1; value++) {
+            amounts.add(value);
+        }
+        for (long value : new long[] {10 * unit + 1, 12_345, 100_000 * unit + unit / 2, limit - 1, limit, limit + 1,
+                limit - unit, limit + unit, 123_456_789L * unit + 7, Long.MAX_VALUE / 2}) {
+            amounts.add(value);
+        }
+        Random random = new Random(18);
+        for (int i = 0; i < 20_000; i++) {
+            amounts.add((long) (random.nextDouble() * 2 * limit));
+        }
+        int positives = amounts.size();
+        for (int i = 0; i < positives; i++) {
+            amounts.add(-amounts.get(i));
+        }
+        return amounts;
+    }
+
+    private static String render(Writer writer) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = FACTORY.createGenerator(out)) {
+            writer.write(gen);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private interface Writer {
+        void write(JsonGenerator gen) throws IOException;
+    }
+}
@@ -0,0 +1,116 @@
+package com.banking.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrfTokenServiceTest {
+
+    private static final String SECRET = "shared-test-secret";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final CsrfTokenService service = new CsrfTokenService(SECRET, 3600, false);
+
+    @Test
+    void testIssuedTokenIsValidAndSetAsCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String token = service.issue(response);
+
+        String setCookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertTrue(setCookie.startsWith(CsrfTokenService.COOKIE + "=" + token + ";"));
+        assertTrue(setCookie.contains("HttpOnly"));
+        assertTrue(setCookie.contains("SameSite=Strict"));
+        assertTrue(service.isValid(request(token, token)));
+    }
+
+    @Test
+    void testTamperedSignatureIsRejected() {
+        String token = service.issue(new MockHttpServletResponse());
+        byte[] signature = DECODER.decode(token.substring(token.indexOf('.') + 1));
+        signature[0] ^= 1;
+        String tampered = token.substring(0, token.indexOf('.') + 1) + ENCODER.encodeToString(signature);
+        assertFalse(service.isValid(request(tampered, tampered)));
+    }
+
+    @Test
+    void testTamperedExpiryIsRejected() {
+        String token = service.issue(new MockHttpServletResponse());
+        byte[] payload = DECODER.decode(token.substring(0, token.indexOf('.')));
+        ByteBuffer.wrap(payload).putLong(0, Long.MAX_VALUE);
+        String tampered = ENCODER.encodeToString(payload) + token.substring(token.indexOf('.'));
+        assertFalse(service.isValid(request(tampered, tampered)));
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() throws Exception {
+        String expired = signedToken(System.currentTimeMillis() - 1000);
+        String current = signedToken(System.currentTimeMillis() + 60_000);
+        assertFalse(service.isValid(request(expired, expired)));
+        // Same construction with a future expiry, so only the expiry differs
+        assertTrue(service.isValid(request(current, current)));
+    }
+
+    @Test
+    void testHeaderMustMatchCookie() {
+        String first = service.issue(new MockHttpServletResponse());
+        String second = service.issue(new MockHttpServletResponse());
+        assertFalse(service.isValid(request(first, second)));
+        assertFalse(service.isValid(request(second, first)));
+    }
+
+    @Test
+    void testMissingCookieOrHeaderIsRejected() {
+        String token = service.issue(new MockHttpServletResponse());
+        assertFalse(service.isValid(request(token, null)));
+        assertFalse(service.isValid(request(null, token)));
+    }
+
+    @Test
+    void testMalformedTokensAreRejected() {
+        for (String malformed : new String[] {"", "no-dot", "!!!.###", "AAAA.", ".AAAA", "a.b.c"}) {
+            assertFalse(service.isValid(request(malformed, malformed)), malformed);
+        }
+    }
+
+    @Test
+    void testTokenValidatesOnAnotherInstanceWithTheSameSecretOnly() {
+        String token = service.issue(new MockHttpServletResponse());
+        assertTrue(new CsrfTokenService(SECRET, 60, true).isValid(request(token, token)));
+        assertFalse(new CsrfTokenService("another-secret", 3600, false).isValid(request(token, token)));
+        // Without a configured secret each instance generates its own
+        CsrfTokenService random = new CsrfTokenService("", 3600, false);
+        String local = random.issue(new MockHttpServletResponse());
+        assertTrue(random.isValid(request(local, local)));
+        assertFalse(new CsrfTokenService("", 3600, false).isValid(request(local, local)));
+    }
+
+    private static MockHttpServletRequest request(String header, String cookie) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions/deposit");
+        if (header != null) {
+            request.addHeader(CsrfTokenService.HEADER, header);
+        }
+        if (cookie != null) {
+            request.setCookies(new Cookie(CsrfTokenService.COOKIE, cookie));
+        }
+        return request;
+    }
+
+    // Same layout as the service's tokens: expiry and nonce, then their HMAC under the secret
+    private static String signedToken(long expiresAtMillis) throws Exception {
+        byte[] payload = ByteBuffer.allocate(Long.BYTES + 16).putLong(expiresAtMillis).array();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return ENCODER.encodeToString(payload) + '.' + ENCODER.encodeToString(mac.doFinal(payload));
+    }
+}
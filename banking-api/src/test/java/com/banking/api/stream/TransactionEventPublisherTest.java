@@ -0,0 +1,65 @@
+package com.banking.api.stream;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionEventPublisherTest {
+
+    private final AccountService accountService = new AccountService();
+    private final TransactionEventPublisher publisher =
+        new TransactionEventPublisher(new TransactionService(accountService), accountService, 16, 60, 1, 2, 3);
+
+    @AfterEach
+    void tearDown() {
+        publisher.destroy();
+    }
+
+    @Test
+    void testUnknownAccountIsRejectedWithoutTakingASlot() {
+        assertThrows(InvalidAccountException.class, () -> publisher.subscribe("MISSING"));
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test
+    void testSubscribersAreCappedPerAccountAndInTotal() {
+        String first = open().getAccountId();
+        String second = open().getAccountId();
+        publisher.subscribe(first);
+        publisher.subscribe(first);
+        assertThrows(SubscriberLimitException.class, () -> publisher.subscribe(first));
+        publisher.subscribe(second);
+        assertThrows(SubscriberLimitException.class, () -> publisher.subscribe(second));
+        assertEquals(3, publisher.getSubscriberCount());
+    }
+
+    @Test
+    void testClosedSubscriberFreesItsSlot() throws InterruptedException {
+        Account account = open();
+        SseEmitter emitter = publisher.subscribe(account.getAccountId());
+        publisher.subscribe(account.getAccountId());
+        emitter.complete();
+        // The next send to the completed emitter fails, which drops its subscriber
+        publisher.onTransactionRecorded(
+            new Transaction(account.getAccountId(), TransactionType.DEPOSIT, Money.ofMinor(100, "USD"), "event"));
+        for (int i = 0; i < 200 && publisher.getSubscriberCount() > 1; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, publisher.getSubscriberCount());
+        assertNotNull(publisher.subscribe(account.getAccountId()));
+    }
+
+    private Account open() {
+        return accountService.createAccount("CUST001", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+    }
+}
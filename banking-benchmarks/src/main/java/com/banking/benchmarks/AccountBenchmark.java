@@ -0,0 +1,51 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Account#deposit} and {@link Account#withdraw} on an account owned by the
+ * benchmark thread.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountBenchmark {
+
+    private Account account;
+    private Money amount;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // Large enough that withdrawals never run dry within an iteration
+        account = new Account("BENCH", AccountType.CHECKING, Money.ofMinor(Long.MAX_VALUE / 2, "USD"));
+        amount = Money.ofMinor(1, "USD");
+    }
+
+    @Benchmark
+    public void deposit() {
+        account.deposit(amount);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        account.withdraw(amount);
+    }
+}
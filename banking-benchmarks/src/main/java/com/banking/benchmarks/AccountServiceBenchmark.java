@@ -0,0 +1,58 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AccountService#getAccountsByCustomer} with {@code accountsPerCustomer} accounts each,
+ * as the total number of accounts grows.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int accountCount;
+
+    @Param({"3"})
+    public int accountsPerCustomer;
+
+    private AccountService accountService;
+    private int customerCount;
+
+    @Setup
+    public void setUp() {
+        accountService = new AccountService();
+        customerCount = Math.max(1, accountCount / accountsPerCustomer);
+        Money openingBalance = Money.ofMinor(10_000, "USD");
+        for (int i = 0; i < accountCount; i++) {
+            accountService.createAccount("CUST" + (i % customerCount), AccountType.SAVINGS, openingBalance);
+        }
+    }
+
+    @Benchmark
+    public List<Account> getAccountsByCustomer() {
+        return accountService.getAccountsByCustomer("CUST" + ThreadLocalRandom.current().nextInt(customerCount));
+    }
+}
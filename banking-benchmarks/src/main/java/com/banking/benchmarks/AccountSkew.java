@@ -0,0 +1,34 @@
+package com.banking.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Access patterns used to pick accounts in the multi-threaded benchmarks.
+ */
+public enum AccountSkew {
+    /** Every account is equally likely. */
+    UNIFORM,
+    /** 90% of operations hit the hottest 1% of accounts (at least one account). */
+    HOTSPOT;
+
+    private static final int HOT_PERCENT = 90;
+
+    public int pick(int accountCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (this == HOTSPOT && random.nextInt(100) < HOT_PERCENT) {
+            return random.nextInt(Math.max(1, accountCount / 100));
+        }
+        return random.nextInt(accountCount);
+    }
+
+    /**
+     * Picks an account different from {@code other}; requires at least two accounts.
+     */
+    public int pickOther(int accountCount, int other) {
+        int index = pick(accountCount);
+        while (index == other) {
+            index = ThreadLocalRandom.current().nextInt(accountCount);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.journal.TransactionJournal;
+import com.banking.transaction.service.BatchOperation;
+import com.banking.transaction.service.BatchResult;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bulk feed of {@code batchSize} transfers among a pool of accounts, applied one
+ * {@link TransactionService#transfer} call at a time ({@code SINGLE}) or with one
+ * {@link TransactionService#processBatch} call, with and without netting and with and without a
+ * journal. Scores are per feed, so throughputs compare directly.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BatchTransactionBenchmark {
+
+    private static final long OPENING_BALANCE = 1_000_000_000L;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @Param({"100"})
+    public int accountCount;
+
+    @Param({"SINGLE", "BATCH", "NETTED"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private TransactionService transactionService;
+    private List<BatchOperation> operations;
+    private TransactionJournal journal;
+    private Path journalFile;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        String[] accountIds = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountIds[i] = accountService.createAccount(
+                "CUST" + i, AccountType.CHECKING, Money.ofMinor(OPENING_BALANCE, "USD")).getAccountId();
+        }
+        Random random = new Random(42);
+        operations = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int from = random.nextInt(accountCount);
+            int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+            operations.add(BatchOperation.transfer(accountIds[from], accountIds[to],
+                Money.ofMinor(1 + random.nextInt(1_000), "USD"), "feed"));
+        }
+        if (journaled) {
+            journalFile = Files.createTempFile("batch-bench", ".journal");
+            journal = new TransactionJournal(journalFile, Duration.ofNanos(500_000));
+            transactionService.setJournal(journal);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            Files.deleteIfExists(journalFile);
+            journal = null;
+        }
+    }
+
+    @Benchmark
+    public Object applyFeed() {
+        if ("SINGLE".equals(mode)) {
+            for (BatchOperation operation : operations) {
+                transactionService.transfer(operation.getAccountId(), operation.getToAccountId(),
+                    operation.getAmount(), operation.getDescription());
+            }
+            return operations;
+        }
+        List<BatchResult> results = transactionService.processBatch(operations, "NETTED".equals(mode));
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.benchmarks;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.TransactionJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable append throughput of {@link TransactionJournal} with many concurrent committers,
+ * for several group-commit latency budgets. Point {@code java.io.tmpdir} at the disk under test.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"0", "500", "2000"})
+    public long maxBatchDelayMicros;
+
+    private Path file;
+    private TransactionJournal journal;
+    private Transaction transaction;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("journal-bench", ".journal");
+        journal = new TransactionJournal(file, Duration.ofNanos(maxBatchDelayMicros * 1000));
+        transaction = new Transaction("BENCH-ACCOUNT", TransactionType.DEPOSIT, Money.ofMinor(100, "USD"), "bench");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void appendDurably() {
+        journal.appendDurably(transaction);
+    }
+}
@@ -0,0 +1,64 @@
+package com.banking.benchmarks;
+
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of {@link Money} arithmetic, comparison and conversion.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private Money left;
+    private Money right;
+    private BigDecimal decimal;
+
+    @Setup
+    public void setUp() {
+        left = new Money(new BigDecimal("1234.56"), "USD");
+        right = new Money(new BigDecimal("78.90"), "USD");
+        decimal = new BigDecimal("42.17");
+    }
+
+    @Benchmark
+    public Money add() {
+        return left.add(right);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return left.subtract(right);
+    }
+
+    @Benchmark
+    public boolean isLessThan() {
+        return left.isLessThan(right);
+    }
+
+    @Benchmark
+    public Money fromBigDecimal() {
+        return new Money(decimal, "USD");
+    }
+
+    @Benchmark
+    public BigDecimal toBigDecimal() {
+        return left.getAmount();
+    }
+}
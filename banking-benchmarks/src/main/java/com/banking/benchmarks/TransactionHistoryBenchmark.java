@@ -0,0 +1,110 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.core.id.IdGenerators;
+import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.store.ColumnarTransactionStore;
+import com.banking.transaction.store.InMemoryTransactionStore;
+import com.banking.transaction.store.TieredTransactionStore;
+import com.banking.transaction.store.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionService#getTransactionsByAccount} as the stored history grows while the
+ * per-account history stays at {@code transactionsPerAccount} entries, for the object-per-record
+ * store, the columnar store and the tiered store with all history sealed to disk. The GC profiler
+ * that {@link BenchmarkMain} attaches reports allocation; compare heap after setup for footprint.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TransactionHistoryBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int storedTransactions;
+
+    @Param({"20"})
+    public int transactionsPerAccount;
+
+    @Param({"MEMORY", "COLUMNAR", "TIERED"})
+    public String store;
+
+    private TransactionService transactionService;
+    private String[] accountIds;
+    private Path historyDirectory;
+
+    @Setup
+    public void setUp() throws IOException {
+        AccountService accountService = new AccountService();
+        TransactionStore transactionStore;
+        if ("TIERED".equals(store)) {
+            historyDirectory = Files.createTempDirectory("history-benchmark");
+            transactionStore = new TieredTransactionStore(historyDirectory);
+        } else {
+            transactionStore = "COLUMNAR".equals(store) ? new ColumnarTransactionStore() : new InMemoryTransactionStore();
+        }
+        transactionService = new TransactionService(accountService, IdGenerators.getDefault(), transactionStore);
+        int accountCount = Math.max(1, storedTransactions / transactionsPerAccount);
+        accountIds = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountIds[i] = accountService.createAccount(
+                "CUST" + i, AccountType.SAVINGS, Money.ofMinor(0, "USD")).getAccountId();
+        }
+        Money amount = Money.ofMinor(100, "USD");
+        for (int i = 0; i < storedTransactions; i++) {
+            transactionService.deposit(accountIds[i % accountCount], amount, "seed");
+        }
+        if (transactionStore instanceof TieredTransactionStore) {
+            ((TieredTransactionStore) transactionStore).seal();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (historyDirectory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(historyDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsByAccount() {
+        String accountId = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        return transactionService.getTransactionsByAccount(accountId);
+    }
+}
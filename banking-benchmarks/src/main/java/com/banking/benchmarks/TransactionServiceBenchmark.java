@@ -0,0 +1,102 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionResult;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionService} deposit, withdraw and transfer throughput, and the cost of a declined
+ * withdrawal with and without an exception. Run with {@code -t N}
+ * to scale the number of concurrent callers; {@code skew} selects uniform or hot-account access.
+ * <p>
+ * The service is rebuilt every iteration because it retains every transaction it records.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+
+    @Param({"1000"})
+    public int accountCount;
+
+    @Param({"UNIFORM", "HOTSPOT"})
+    public AccountSkew skew;
+
+    private TransactionService transactionService;
+    private String[] accountIds;
+    private Money amount;
+    private Money overdraft;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        accountIds = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            Account account = accountService.createAccount(
+                "CUST" + (i % 100), AccountType.CHECKING, Money.ofMinor(Long.MAX_VALUE / 4, "USD"));
+            accountIds[i] = account.getAccountId();
+        }
+        amount = Money.ofMinor(100, "USD");
+        overdraft = Money.ofMinor(Long.MAX_VALUE, "USD");
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return transactionService.deposit(accountIds[skew.pick(accountCount)], amount, "bench");
+    }
+
+    @Benchmark
+    public Transaction withdraw() {
+        return transactionService.withdraw(accountIds[skew.pick(accountCount)], amount, "bench");
+    }
+
+    /**
+     * A withdrawal declined for insufficient funds, reported by exception.
+     */
+    @Benchmark
+    public Object declinedWithdraw() {
+        try {
+            return transactionService.withdraw(accountIds[skew.pick(accountCount)], overdraft, "bench");
+        } catch (InsufficientFundsException e) {
+            return e;
+        }
+    }
+
+    /**
+     * The same decline reported as a {@link TransactionResult}.
+     */
+    @Benchmark
+    public TransactionResult declinedTryWithdraw() {
+        return transactionService.tryWithdraw(accountIds[skew.pick(accountCount)], overdraft, "bench");
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        int from = skew.pick(accountCount);
+        int to = skew.pickOther(accountCount, from);
+        return transactionService.transfer(accountIds[from], accountIds[to], amount, "bench");
+    }
+}
@@ -0,0 +1,100 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionSequencer;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput with every available core issuing transfers, over random ({@code UNIFORM})
+ * and hot-spot account pairs, executed either on the calling threads under striped locks or by the
+ * partitioned single-writer {@link TransactionSequencer}. Each iteration ends by checking that the total balance across all
+ * accounts is unchanged, so a lost or duplicated leg fails the run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class TransferContentionBenchmark {
+
+    private static final long OPENING_BALANCE = 1_000_000_000L;
+
+    @Param({"16", "10000"})
+    public int accountCount;
+
+    @Param({"UNIFORM", "HOTSPOT"})
+    public AccountSkew skew;
+
+    @Param({"LOCKS", "SEQUENCER"})
+    public String engine;
+
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private TransactionSequencer sequencer;
+    private String[] accountIds;
+    private Money amount;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        accountIds = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountIds[i] = accountService.createAccount(
+                "CUST" + i, AccountType.CHECKING, Money.ofMinor(OPENING_BALANCE, "USD")).getAccountId();
+        }
+        amount = Money.ofMinor(100, "USD");
+        if ("SEQUENCER".equals(engine)) {
+            sequencer = new TransactionSequencer(transactionService, Runtime.getRuntime().availableProcessors(), 1024);
+            transactionService.setSequencer(sequencer);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyConservation() {
+        if (sequencer != null) {
+            sequencer.close();
+            sequencer = null;
+        }
+        long total = 0;
+        for (String accountId : accountIds) {
+            total += accountService.getBalance(accountId).minorUnits();
+        }
+        if (total != OPENING_BALANCE * accountCount) {
+            throw new IllegalStateException("Money was created or destroyed: total=" + total);
+        }
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        int from = skew.pick(accountCount);
+        int to = skew.pickOther(accountCount, from);
+        try {
+            return transactionService.transfer(accountIds[from], accountIds[to], amount, "contention");
+        } catch (InsufficientFundsException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.banking.core.domain;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Canonical ISO-4217 currency.
+ * <p>
+ * Exactly one instance exists per code, so currencies are compared by identity. Lookups by
+ * three-letter code go through a flat table indexed by the packed letters and allocate nothing,
+ * which lets parsers resolve a currency straight from their character buffers.
+ */
+public final class Currency {
+    private static final int CODE_LENGTH = 3;
+    private static final int CACHED_WHOLE_UNITS = 100;
+
+    private static final Currency[] BY_PACKED_CODE = new Currency[26 * 26 * 26];
+    private static final Map<String, Currency> BY_CODE;
+
+    static {
+        Map<String, Currency> byCode = new TreeMap<>();
+        for (java.util.Currency jdkCurrency : java.util.Currency.getAvailableCurrencies()) {
+            String code = jdkCurrency.getCurrencyCode();
+            int packed = pack(code, 0, code.length());
+            if (packed < 0) {
+                continue;
+            }
+            Currency currency = new Currency(code, Math.max(jdkCurrency.getDefaultFractionDigits(), 0));
+            BY_PACKED_CODE[packed] = currency;
+            byCode.put(code, currency);
+        }
+        BY_CODE = Collections.unmodifiableMap(byCode);
+    }
+
+    public static final Currency USD = of("USD");
+    public static final Currency EUR = of("EUR");
+    public static final Currency GBP = of("GBP");
+
+    private final String code;
+    private final int scale;
+    private final long minorPerUnit;
+    private final Money zero;
+    // Lazily filled; racing writers store equal immutable values, so no synchronization is needed
+    private final Money[] wholeUnits = new Money[CACHED_WHOLE_UNITS + 1];
+
+    private Currency(String code, int scale) {
+        this.code = code;
+        this.scale = scale;
+        long factor = 1;
+        for (int i = 0; i < scale; i++) {
+            factor *= 10;
+        }
+        this.minorPerUnit = factor;
+        this.zero = new Money(0L, this);
+    }
+
+    /**
+     * Returns the canonical instance for an ISO-4217 code (case-insensitive).
+     */
+    public static Currency of(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            throw new IllegalArgumentException("Currency cannot be null or empty");
+        }
+        Currency currency = lookup(code, 0, code.length());
+        if (currency == null) {
+            throw new IllegalArgumentException("Unknown currency: " + code);
+        }
+        return currency;
+    }
+
+    /**
+     * Resolves a currency from a slice of a character buffer without materializing a String.
+     */
+    public static Currency of(char[] chars, int offset, int length) {
+        int packed = pack(chars, offset, length);
+        Currency currency = packed < 0 ? null : BY_PACKED_CODE[packed];
+        if (currency == null) {
+            throw new IllegalArgumentException("Unknown currency: " + new String(chars, offset, length));
+        }
+        return currency;
+    }
+
+    public static boolean isKnown(String code) {
+        return code != null && lookup(code, 0, code.length()) != null;
+    }
+
+    public static Map<String, Currency> all() {
+        return BY_CODE;
+    }
+
+    private static Currency lookup(CharSequence code, int offset, int length) {
+        int packed = pack(code, offset, length);
+        return packed < 0 ? null : BY_PACKED_CODE[packed];
+    }
+
+    private static int pack(CharSequence code, int offset, int length) {
+        if (length != CODE_LENGTH) {
+            return -1;
+        }
+        int packed = 0;
+        for (int i = offset; i < offset + CODE_LENGTH; i++) {
+            int letter = letterIndex(code.charAt(i));
+            if (letter < 0) {
+                return -1;
+            }
+            packed = packed * 26 + letter;
+        }
+        return packed;
+    }
+
+    private static int pack(char[] chars, int offset, int length) {
+        if (length != CODE_LENGTH || offset < 0 || offset + length > chars.length) {
+            return -1;
+        }
+        int packed = 0;
+        for (int i = offset; i < offset + CODE_LENGTH; i++) {
+            int letter = letterIndex(chars[i]);
+            if (letter < 0) {
+                return -1;
+            }
+            packed = packed * 26 + letter;
+        }
+        return packed;
+    }
+
+    private static int letterIndex(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Number of minor-unit digits, e.g. 2 for USD and 0 for JPY.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    long minorPerUnit() {
+        return minorPerUnit;
+    }
+
+    Money zero() {
+        return zero;
+    }
+
+    /**
+     * Returns a shared instance for zero and small whole amounts, or {@code null} if not cached.
+     */
+    Money cached(long minorUnits) {
+        if (minorUnits == 0) {
+            return zero;
+        }
+        if (minorUnits < 0 || minorUnits % minorPerUnit != 0) {
+            return null;
+        }
+        long units = minorUnits / minorPerUnit;
+        if (units > CACHED_WHOLE_UNITS) {
+            return null;
+        }
+        int index = (int) units;
+        Money money = wholeUnits[index];
+        if (money == null) {
+            money = new Money(minorUnits, this);
+            wholeUnits[index] = money;
+        }
+        return money;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
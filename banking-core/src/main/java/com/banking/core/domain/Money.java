@@ -1,64 +1,153 @@
 package com.banking.core.domain;
 
 import java.math.BigDecimal;
-import java.util.Objects;
+import java.math.RoundingMode;
 
 /**
  * Value object representing monetary amounts.
+ * <p>
+ * The amount is held as a {@code long} count of minor units (for example cents) of a canonical
+ * {@link Currency}, so arithmetic never allocates intermediate {@link BigDecimal}s and currency
+ * checks are reference comparisons. All arithmetic is overflow-checked and conversion to and
+ * from {@link BigDecimal} is lossless.
+ * <p>
+ * The raw accessors ({@link #minorUnits()}, {@link #scale()}, {@link #signum()},
+ * {@link #currency()}) deliberately do not follow bean naming so that serializers introspecting
+ * getters see the same {@code amount}/{@code currency} shape as before.
  */
 public class Money {
-    private final BigDecimal amount;
-    private final String currency;
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
 
-    public Money(BigDecimal amount, String currency) {
+    private final long minorUnits;
+    private final Currency currency;
+
+    public Money(BigDecimal amount, Currency currency) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
-        if (currency == null || currency.trim().isEmpty()) {
+        if (currency == null) {
             throw new IllegalArgumentException("Currency cannot be null or empty");
         }
-        this.amount = amount;
+        this.minorUnits = toMinorUnits(amount, currency);
         this.currency = currency;
     }
 
+    public Money(BigDecimal amount, String currency) {
+        this(amount, Currency.of(currency));
+    }
+
     public Money(double amount, String currency) {
         this(BigDecimal.valueOf(amount), currency);
     }
 
+    Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * Creates an amount directly from minor units, e.g. {@code ofMinor(150, Currency.USD)} is 1.50 USD.
+     * Zero and small whole amounts are served from a per-currency cache.
+     */
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency cannot be null or empty");
+        }
+        Money cached = currency.cached(minorUnits);
+        return cached != null ? cached : new Money(minorUnits, currency);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return ofMinor(minorUnits, Currency.of(currency));
+    }
+
+    public static Money zero(Currency currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency cannot be null or empty");
+        }
+        return currency.zero();
+    }
+
     public BigDecimal getAmount() {
-        return amount;
+        return BigDecimal.valueOf(minorUnits, currency.getScale());
     }
 
     public String getCurrency() {
+        return currency.getCode();
+    }
+
+    public Currency currency() {
         return currency;
     }
 
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public int scale() {
+        return currency.getScale();
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    /**
+     * Returns the amount as a {@code double}; identical to {@code getAmount().doubleValue()}.
+     */
+    public double toDouble() {
+        int scale = currency.getScale();
+        if (scale == 0) {
+            return minorUnits;
+        }
+        if (Math.abs(minorUnits) < (1L << 53) && scale < POWERS_OF_TEN.length) {
+            // Both operands are exact doubles, so the quotient is the correctly rounded value
+            return minorUnits / (double) POWERS_OF_TEN[scale];
+        }
+        return getAmount().doubleValue();
+    }
+
+    public boolean isSameCurrency(Money other) {
+        return this.currency == other.currency;
+    }
+
     public Money add(Money other) {
-        if (!this.currency.equals(other.currency)) {
+        if (!isSameCurrency(other)) {
             throw new IllegalArgumentException("Cannot add different currencies");
         }
-        return new Money(this.amount.add(other.amount), this.currency);
+        return ofMinor(Math.addExact(this.minorUnits, other.minorUnits), currency);
     }
 
     public Money subtract(Money other) {
-        if (!this.currency.equals(other.currency)) {
+        if (!isSameCurrency(other)) {
             throw new IllegalArgumentException("Cannot subtract different currencies");
         }
-        return new Money(this.amount.subtract(other.amount), this.currency);
+        return ofMinor(Math.subtractExact(this.minorUnits, other.minorUnits), currency);
     }
 
     public boolean isGreaterThan(Money other) {
-        if (!this.currency.equals(other.currency)) {
+        if (!isSameCurrency(other)) {
             throw new IllegalArgumentException("Cannot compare different currencies");
         }
-        return this.amount.compareTo(other.amount) > 0;
+        return this.minorUnits > other.minorUnits;
     }
 
     public boolean isLessThan(Money other) {
-        if (!this.currency.equals(other.currency)) {
+        if (!isSameCurrency(other)) {
             throw new IllegalArgumentException("Cannot compare different currencies");
         }
-        return this.amount.compareTo(other.amount) < 0;
+        return this.minorUnits < other.minorUnits;
+    }
+
+    private static long toMinorUnits(BigDecimal amount, Currency currency) {
+        try {
+            return amount.setScale(currency.getScale(), RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                String.format("Amount %s cannot be represented exactly in %s", amount.toPlainString(), currency));
+        }
     }
 
     @Override
@@ -66,17 +155,16 @@ public class Money {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return Objects.equals(amount, money.amount) && Objects.equals(currency, money.currency);
+        return minorUnits == money.minorUnits && currency == money.currency;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount, currency);
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
     }
 
     @Override
     public String toString() {
-        return amount + " " + currency;
+        return getAmount().toPlainString() + " " + currency;
     }
 }
-
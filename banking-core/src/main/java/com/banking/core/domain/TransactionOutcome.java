@@ -0,0 +1,22 @@
+package com.banking.core.domain;
+
+/**
+ * How a balance change ended, for the non-throwing {@code try} operations.
+ * <p>
+ * Each value stands for the exception the throwing operation would raise; ordinary declines are
+ * reported this way so they cost no message formatting or stack trace. Invalid arguments and
+ * unknown accounts are still thrown.
+ */
+public enum TransactionOutcome {
+    OK,
+    /** Would have thrown {@link com.banking.core.exception.InsufficientFundsException}. */
+    INSUFFICIENT_FUNDS,
+    /** An account involved is deactivated. */
+    INACTIVE,
+    /** The amount's currency is not the account's. */
+    CURRENCY_MISMATCH;
+
+    public boolean isSuccess() {
+        return this == OK;
+    }
+}
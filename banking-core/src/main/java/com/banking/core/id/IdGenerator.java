@@ -0,0 +1,12 @@
+package com.banking.core.id;
+
+/**
+ * Source of unique identifiers for accounts and transactions.
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns a new identifier in its external String form.
+     */
+    String nextId();
+}
@@ -0,0 +1,27 @@
+package com.banking.core.id;
+
+/**
+ * Holds the process-wide default {@link IdGenerator}, used by domain constructors that are not
+ * given an explicit id.
+ * <p>
+ * The default is a {@link TimeOrderedIdGenerator} whose node id comes from the
+ * {@code banking.node.id} system property (0 if unset).
+ */
+public final class IdGenerators {
+    private static volatile IdGenerator defaultGenerator =
+        new TimeOrderedIdGenerator(Integer.getInteger("banking.node.id", 0));
+
+    private IdGenerators() {
+    }
+
+    public static IdGenerator getDefault() {
+        return defaultGenerator;
+    }
+
+    public static void setDefault(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("IdGenerator cannot be null");
+        }
+        defaultGenerator = generator;
+    }
+}
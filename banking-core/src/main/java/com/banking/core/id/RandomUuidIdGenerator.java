@@ -0,0 +1,14 @@
+package com.banking.core.id;
+
+import java.util.UUID;
+
+/**
+ * Generates random 36-character UUIDs, the original id format.
+ */
+public class RandomUuidIdGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,158 @@
+package com.banking.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * <p>
+ * Values below 64 get a bucket each; above that every power of two is split into 32 buckets, so a
+ * recorded value is known to within about 3% up to the largest trackable value of about 18
+ * minutes (larger values are clamped). Recording is a single atomic increment on one of several
+ * stripes, chosen by thread, so concurrent recorders rarely touch the same cache lines; snapshots
+ * sum the stripes.
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+    private static final long MAX_VALUE = (1L << 40) - 1;
+    static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+    // Per stripe, after the buckets
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int MAX_STRIPES = 8;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        int stripeCount = Integer.highestOneBit(Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Records one value, typically a duration in nanoseconds. Negative values count as zero.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, MAX_VALUE));
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        stripe.getAndIncrement(bucketOf(clamped));
+        stripe.getAndAdd(SUM, clamped);
+        long max = stripe.get(MAX);
+        while (clamped > max && !stripe.weakCompareAndSetVolatile(MAX, max, clamped)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Point-in-time totals. Values recorded while the snapshot is taken may be partly included.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM);
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return new Snapshot(counts, sum, max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // value >>> shift falls in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        int shift = 64 - Long.numberOfLeadingZeros(value) - LINEAR_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // Largest value that falls in the bucket
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int offset = bucket - LINEAR_BUCKETS;
+        int shift = offset / SUB_BUCKETS + 1;
+        long subBucket = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long sum, long max) {
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            this.counts = counts;
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * The values recorded between {@code earlier} and this snapshot of the same histogram. The
+         * maximum cannot be windowed and stays this snapshot's, so it bounds percentiles only loosely.
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] window = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                window[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            }
+            return new Snapshot(window, Math.max(0, sum - earlier.sum), max);
+        }
+
+        /**
+         * The value below or at which {@code percentile} percent of recorded values fall, to
+         * within bucket precision and never above the maximum; 0 if nothing was recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.banking.core.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Named timers, counters and gauges. Metrics are created on first use and live as long as the
+ * registry; updating one takes no lock, so components can look them up once and keep them on for
+ * every call.
+ */
+public class MetricsRegistry {
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Latency histogram for durations in nanoseconds.
+     */
+    public LatencyHistogram timer(String name) {
+        LatencyHistogram timer = name != null ? timers.get(name) : null;
+        return timer != null ? timer : timers.computeIfAbsent(requireName(name), key -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name) {
+        LongAdder counter = name != null ? counters.get(name) : null;
+        return counter != null ? counter : counters.computeIfAbsent(requireName(name), key -> new LongAdder());
+    }
+
+    /**
+     * Registers a value read when metrics are reported, such as a store size. Replaces any gauge
+     * of the same name.
+     */
+    public void gauge(String name, LongSupplier value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Gauge value cannot be null");
+        }
+        gauges.put(requireName(name), value);
+    }
+
+    public SortedMap<String, LatencyHistogram.Snapshot> getTimers() {
+        SortedMap<String, LatencyHistogram.Snapshot> snapshot = new TreeMap<>();
+        timers.forEach((name, timer) -> snapshot.put(name, timer.snapshot()));
+        return snapshot;
+    }
+
+    public SortedMap<String, Long> getCounters() {
+        SortedMap<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    public SortedMap<String, Long> getGauges() {
+        SortedMap<String, Long> snapshot = new TreeMap<>();
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsLong()));
+        return snapshot;
+    }
+
+    private static String requireName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Metric name cannot be null or empty");
+        }
+        return name;
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.core.domain;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyTest {
+
+    @Test
+    void testCanonicalInstances() {
+        assertSame(Currency.USD, Currency.of("USD"));
+        assertSame(Currency.USD, Currency.of("usd"));
+        assertSame(Currency.EUR, Currency.of("xEURx".toCharArray(), 1, 3));
+    }
+
+    @Test
+    void testScale() {
+        assertEquals(2, Currency.USD.getScale());
+        assertEquals(0, Currency.of("JPY").getScale());
+        assertEquals(3, Currency.of("KWD").getScale());
+    }
+
+    @Test
+    void testUnknownCurrency() {
+        assertThrows(IllegalArgumentException.class, () -> Currency.of("ZZZ"));
+        assertThrows(IllegalArgumentException.class, () -> Currency.of("US"));
+        assertThrows(IllegalArgumentException.class, () -> new Money(10.0, "DOLLARS"));
+        assertFalse(Currency.isKnown("ZZZ"));
+    }
+
+    @Test
+    void testCommonMoneyValuesAreShared() {
+        assertSame(Money.zero(Currency.USD), Money.ofMinor(0, Currency.USD));
+        assertSame(Money.ofMinor(5000, Currency.USD), Money.ofMinor(5000, "USD"));
+        Money sum = Money.ofMinor(2500, Currency.USD).add(Money.ofMinor(2500, Currency.USD));
+        assertSame(Money.ofMinor(5000, Currency.USD), sum);
+    }
+}
@@ -1,6 +1,8 @@
 package com.banking.core.domain;
 
 import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MoneyTest {
@@ -36,5 +38,31 @@ class MoneyTest {
         assertThrows(IllegalArgumentException.class, () -> usd.add(eur));
         assertThrows(IllegalArgumentException.class, () -> usd.subtract(eur));
     }
-}
 
+    @Test
+    void testMinorUnitRepresentation() {
+        Money money = new Money(new BigDecimal("100.5"), "USD");
+        assertEquals(10050, money.minorUnits());
+        assertEquals(2, money.scale());
+        assertEquals(new BigDecimal("100.50"), money.getAmount());
+        assertEquals(money, Money.ofMinor(10050, "USD"));
+        assertEquals(0, new Money(new BigDecimal("1500"), "JPY").scale());
+    }
+
+    @Test
+    void testToDoubleMatchesBigDecimal() {
+        Money money = Money.ofMinor(123456789, "USD");
+        assertEquals(money.getAmount().doubleValue(), money.toDouble());
+    }
+
+    @Test
+    void testExcessPrecisionRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Money(new BigDecimal("1.005"), "USD"));
+    }
+
+    @Test
+    void testOverflowIsChecked() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, "USD");
+        assertThrows(ArithmeticException.class, () -> max.add(Money.ofMinor(1, "USD")));
+    }
+}
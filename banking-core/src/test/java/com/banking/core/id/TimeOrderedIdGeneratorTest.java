@@ -0,0 +1,74 @@
+package com.banking.core.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testIdsIncreaseAndSortAsStrings() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+        List<String> ids = new ArrayList<>();
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextLongId();
+            assertTrue(id > previous);
+            previous = id;
+            ids.add(TimeOrderedIdGenerator.format(id));
+        }
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(ids, sorted);
+    }
+
+    @Test
+    void testRoundTripAndComponents() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(42);
+        long before = System.currentTimeMillis();
+        long id = generator.nextLongId();
+        String text = TimeOrderedIdGenerator.format(id);
+
+        assertEquals(TimeOrderedIdGenerator.STRING_LENGTH, text.length());
+        assertEquals(id, TimeOrderedIdGenerator.parse(text));
+        assertEquals(id, TimeOrderedIdGenerator.parse(text.toLowerCase()));
+        assertEquals(42, TimeOrderedIdGenerator.nodeId(id));
+        assertTrue(TimeOrderedIdGenerator.timestampMillis(id) >= before);
+    }
+
+    @Test
+    void testInvalidIdsRejected() {
+        assertFalse(TimeOrderedIdGenerator.isValid("123e4567-e89b-12d3-a456-426614174000"));
+        assertFalse(TimeOrderedIdGenerator.isValid("0000000000OOO"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.parse("ZZZZZZZZZZZZZ"));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1024));
+    }
+
+    @Test
+    void testUniqueAcrossThreads() throws InterruptedException {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                Set<String> local = new HashSet<>();
+                for (int i = 0; i < 20_000; i++) {
+                    local.add(generator.nextId());
+                }
+                ids.addAll(local);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(160_000, ids.size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.banking.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndWithinThreePercent() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            long lowest = previousHighest + 1;
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(lowest));
+            assertEquals(bucket, LatencyHistogram.bucketOf(highest));
+            assertTrue(highest - lowest <= Math.max(0, lowest / 32), "bucket " + bucket);
+            previousHighest = highest;
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMax());
+        assertEquals(5_000_500, snapshot.getMean(), 0.001);
+        assertWithinPrecision(5_000_000, snapshot.getValueAtPercentile(50));
+        assertWithinPrecision(9_900_000, snapshot.getValueAtPercentile(99));
+        assertEquals(10_000_000, snapshot.getValueAtPercentile(100));
+        assertWithinPrecision(1000, snapshot.getValueAtPercentile(0));
+    }
+
+    @Test
+    void testEmptyAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+        assertEquals(0, histogram.snapshot().getMean());
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals((1L << 40) - 1, snapshot.getMax());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(101));
+    }
+
+    @Test
+    void testWindowSinceEarlierSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(50_000);
+        }
+        LatencyHistogram.Snapshot earlier = histogram.snapshot();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000);
+        }
+        LatencyHistogram.Snapshot window = histogram.snapshot().since(earlier);
+        assertEquals(10, window.getCount());
+        assertEquals(1_000, window.getMean(), 0.001);
+        assertWithinPrecision(1_000, window.getValueAtPercentile(99));
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(i % 1000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(400_000, snapshot.getCount());
+        assertEquals(999, snapshot.getMax());
+        assertEquals(499.5, snapshot.getMean(), 0.001);
+    }
+
+    @Test
+    void testRegistryReturnsSameMetricForName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.timer("a"), registry.timer("a"));
+        registry.counter("c").add(3);
+        registry.counter("c").increment();
+        registry.gauge("g", () -> 42);
+        registry.timer("a").record(10);
+
+        assertEquals(4L, registry.getCounters().get("c"));
+        assertEquals(42L, registry.getGauges().get("g"));
+        assertEquals(1, registry.getTimers().get("a").getCount());
+        assertThrows(IllegalArgumentException.class, () -> registry.counter(" "));
+        assertThrows(IllegalArgumentException.class, () -> registry.timer(null));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32 + 1, "expected ~" + expected + " but was " + actual);
+    }
+}
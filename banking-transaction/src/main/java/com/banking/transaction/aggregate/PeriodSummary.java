@@ -0,0 +1,97 @@
+package com.banking.transaction.aggregate;
+
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An account's transaction counts and totals over one day or month.
+ * <p>
+ * A transfer counts under {@link TransactionType#TRANSFER} for both of its accounts; the debit and
+ * credit totals tell the directions apart.
+ */
+public final class PeriodSummary {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Currency currency;
+    // Count and total in minor units per type, then debits and credits
+    private final long[] values;
+
+    PeriodSummary(Currency currency, long[] values) {
+        this.currency = currency;
+        this.values = values;
+    }
+
+    static int countIndex(TransactionType type) {
+        return type.ordinal() * 2;
+    }
+
+    static int totalIndex(TransactionType type) {
+        return type.ordinal() * 2 + 1;
+    }
+
+    static int debitsIndex() {
+        return TYPES.length * 2;
+    }
+
+    static int creditsIndex() {
+        return TYPES.length * 2 + 1;
+    }
+
+    static int size() {
+        return TYPES.length * 2 + 2;
+    }
+
+    public String getCurrency() {
+        return currency.getCode();
+    }
+
+    public long getTransactionCount() {
+        long count = 0;
+        for (TransactionType type : TYPES) {
+            count += values[countIndex(type)];
+        }
+        return count;
+    }
+
+    public long getCount(TransactionType type) {
+        return values[countIndex(type)];
+    }
+
+    public Money getTotal(TransactionType type) {
+        return Money.ofMinor(values[totalIndex(type)], currency);
+    }
+
+    public Map<TransactionType, Long> getCounts() {
+        Map<TransactionType, Long> counts = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TYPES) {
+            counts.put(type, values[countIndex(type)]);
+        }
+        return counts;
+    }
+
+    public Map<TransactionType, Money> getTotals() {
+        Map<TransactionType, Money> totals = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TYPES) {
+            totals.put(type, getTotal(type));
+        }
+        return totals;
+    }
+
+    /**
+     * Withdrawals and outgoing transfers.
+     */
+    public Money getDebitTotal() {
+        return Money.ofMinor(values[debitsIndex()], currency);
+    }
+
+    /**
+     * Deposits, interest credits and incoming transfers.
+     */
+    public Money getCreditTotal() {
+        return Money.ofMinor(values[creditsIndex()], currency);
+    }
+}
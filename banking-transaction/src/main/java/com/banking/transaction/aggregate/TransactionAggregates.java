@@ -0,0 +1,176 @@
+package com.banking.transaction.aggregate;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionListener;
+import com.banking.transaction.service.TransactionService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-account daily and monthly transaction counts and totals by {@link TransactionType},
+ * maintained as transactions are recorded so that summaries are read, not computed.
+ * <p>
+ * Register it as a {@link TransactionListener}; it must see every transaction exactly once, so
+ * feed it existing history with {@link #seed} before registering, not after. Each account keeps its last
+ * {@value #DAYS_KEPT} days and {@value #MONTHS_KEPT} months in rings indexed by day and month,
+ * allocated on its first transaction; recording one transaction updates two buckets under the
+ * account's own monitor, and reading a summary copies one. Periods are bucketed by transaction
+ * timestamp.
+ */
+public class TransactionAggregates implements TransactionListener {
+    static final int DAYS_KEPT = 64;
+    static final int MONTHS_KEPT = 24;
+
+    private final AccountService accountService;
+    private final Map<String, AccountAggregates> accounts = new ConcurrentHashMap<>();
+
+    public TransactionAggregates(AccountService accountService) {
+        if (accountService == null) {
+            throw new IllegalArgumentException("AccountService cannot be null");
+        }
+        this.accountService = accountService;
+    }
+
+    /**
+     * Feeds in the service's stored transactions that fall in a kept period; older history is not
+     * read.
+     */
+    public void seed(TransactionService transactionService) {
+        transactionService.forEachTransactionSince(retainedSince(LocalDate.now()), this::onTransactionRecorded);
+    }
+
+    /**
+     * Start of the oldest period kept on the given day: the first day of the oldest kept month,
+     * which is always before the oldest kept day.
+     */
+    static LocalDateTime retainedSince(LocalDate today) {
+        return YearMonth.from(today).minusMonths(MONTHS_KEPT - 1).atDay(1).atStartOfDay();
+    }
+
+    @Override
+    public void onTransactionRecorded(Transaction transaction) {
+        TransactionType type = transaction.getType();
+        boolean debit = type == TransactionType.WITHDRAWAL || type == TransactionType.TRANSFER;
+        aggregatesOf(transaction.getAccountId(), transaction).record(transaction, debit);
+        if (type == TransactionType.TRANSFER && transaction.getRelatedAccountId() != null) {
+            aggregatesOf(transaction.getRelatedAccountId(), transaction).record(transaction, false);
+        }
+    }
+
+    /**
+     * @throws InvalidAccountException  if there is no such account
+     * @throws IllegalArgumentException if the day is no longer, or not yet, kept
+     */
+    public PeriodSummary getDailySummary(String accountId, LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        long day = date.toEpochDay();
+        long today = LocalDate.now().toEpochDay();
+        if (day <= today - DAYS_KEPT || day > today + 1) {
+            throw new IllegalArgumentException("Daily aggregates are kept for the last " + DAYS_KEPT + " days");
+        }
+        return summarize(accountId, false, day);
+    }
+
+    /**
+     * @throws InvalidAccountException  if there is no such account
+     * @throws IllegalArgumentException if the month is no longer, or not yet, kept
+     */
+    public PeriodSummary getMonthlySummary(String accountId, YearMonth month) {
+        if (month == null) {
+            throw new IllegalArgumentException("Month cannot be null");
+        }
+        long index = monthIndex(month.getYear(), month.getMonthValue());
+        long current = monthIndex(LocalDate.now().getYear(), LocalDate.now().getMonthValue());
+        if (index <= current - MONTHS_KEPT || index > current + 1) {
+            throw new IllegalArgumentException("Monthly aggregates are kept for the last " + MONTHS_KEPT + " months");
+        }
+        return summarize(accountId, true, index);
+    }
+
+    private PeriodSummary summarize(String accountId, boolean monthly, long key) {
+        AccountAggregates aggregates = accounts.get(accountId);
+        if (aggregates == null) {
+            Currency currency = accountService.getTable().currency(accountService.getHandle(accountId));
+            return new PeriodSummary(currency, new long[PeriodSummary.size()]);
+        }
+        return new PeriodSummary(aggregates.currency, aggregates.copy(monthly, key));
+    }
+
+    private AccountAggregates aggregatesOf(String accountId, Transaction transaction) {
+        AccountAggregates aggregates = accounts.get(accountId);
+        return aggregates != null ? aggregates
+            : accounts.computeIfAbsent(accountId, id -> new AccountAggregates(transaction.getAmount().currency()));
+    }
+
+    private static long monthIndex(int year, int month) {
+        return year * 12L + month - 1;
+    }
+
+    private static final class AccountAggregates {
+        final Currency currency;
+        final long[][] days = new long[DAYS_KEPT][];
+        final long[] dayKeys = new long[DAYS_KEPT];
+        final long[][] months = new long[MONTHS_KEPT][];
+        final long[] monthKeys = new long[MONTHS_KEPT];
+
+        AccountAggregates(Currency currency) {
+            this.currency = currency;
+        }
+
+        synchronized void record(Transaction transaction, boolean debit) {
+            LocalDate date = transaction.getTimestamp().toLocalDate();
+            long minorUnits = transaction.getAmount().minorUnits();
+            add(bucket(days, dayKeys, date.toEpochDay()), transaction.getType(), minorUnits, debit);
+            add(bucket(months, monthKeys, monthIndex(date.getYear(), date.getMonthValue())),
+                transaction.getType(), minorUnits, debit);
+        }
+
+        synchronized long[] copy(boolean monthly, long key) {
+            long[][] buckets = monthly ? months : days;
+            long[] keys = monthly ? monthKeys : dayKeys;
+            int slot = (int) Math.floorMod(key, (long) buckets.length);
+            if (buckets[slot] == null || keys[slot] != key) {
+                return new long[PeriodSummary.size()];
+            }
+            return buckets[slot].clone();
+        }
+
+        // Returns null for a period older than the one now occupying its slot
+        private static long[] bucket(long[][] buckets, long[] keys, long key) {
+            int slot = (int) Math.floorMod(key, (long) buckets.length);
+            long[] bucket = buckets[slot];
+            if (bucket == null) {
+                bucket = new long[PeriodSummary.size()];
+                buckets[slot] = bucket;
+                keys[slot] = key;
+            } else if (keys[slot] != key) {
+                if (keys[slot] > key) {
+                    return null;
+                }
+                Arrays.fill(bucket, 0);
+                keys[slot] = key;
+            }
+            return bucket;
+        }
+
+        private static void add(long[] bucket, TransactionType type, long minorUnits, boolean debit) {
+            if (bucket == null) {
+                return;
+            }
+            bucket[PeriodSummary.countIndex(type)]++;
+            bucket[PeriodSummary.totalIndex(type)] += minorUnits;
+            bucket[debit ? PeriodSummary.debitsIndex() : PeriodSummary.creditsIndex()] += minorUnits;
+        }
+    }
+}
@@ -2,10 +2,10 @@ package com.banking.transaction.domain;
 
 import com.banking.core.domain.Money;
 import com.banking.core.domain.TransactionType;
+import com.banking.core.id.IdGenerators;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Represents a banking transaction.
@@ -17,9 +17,29 @@ public class Transaction {
     private final Money amount;
     private final LocalDateTime timestamp;
     private final String description;
-    private String relatedAccountId; // For transfer transactions
+    private final String relatedAccountId; // For transfer transactions
 
     public Transaction(String accountId, TransactionType type, Money amount, String description) {
+        this(IdGenerators.getDefault().nextId(), accountId, type, amount, description, null);
+    }
+
+    public Transaction(String accountId, TransactionType type, Money amount, String description, String relatedAccountId) {
+        this(IdGenerators.getDefault().nextId(), accountId, type, amount, description, relatedAccountId);
+    }
+
+    public Transaction(String transactionId, String accountId, TransactionType type, Money amount,
+                       String description, String relatedAccountId) {
+        this(transactionId, accountId, type, amount, LocalDateTime.now(), description, relatedAccountId);
+    }
+
+    /**
+     * Recreates a transaction exactly as it was recorded, e.g. when reading it back from storage.
+     */
+    public Transaction(String transactionId, String accountId, TransactionType type, Money amount,
+                       LocalDateTime timestamp, String description, String relatedAccountId) {
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Transaction ID cannot be null or empty");
+        }
         if (accountId == null || accountId.trim().isEmpty()) {
             throw new IllegalArgumentException("Account ID cannot be null or empty");
         }
@@ -29,17 +49,16 @@ public class Transaction {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Timestamp cannot be null");
+        }
         
-        this.transactionId = UUID.randomUUID().toString();
+        this.transactionId = transactionId;
         this.accountId = accountId;
         this.type = type;
         this.amount = amount;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
         this.description = description != null ? description : "";
-    }
-
-    public Transaction(String accountId, TransactionType type, Money amount, String description, String relatedAccountId) {
-        this(accountId, type, amount, description);
         this.relatedAccountId = relatedAccountId;
     }
 
@@ -0,0 +1,14 @@
+package com.banking.transaction.interest;
+
+/**
+ * Thrown when the progress of an interest accrual run cannot be recorded or read back.
+ */
+public class AccrualException extends RuntimeException {
+    public AccrualException(String message) {
+        super(message);
+    }
+
+    public AccrualException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,65 @@
+package com.banking.transaction.interest;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one {@link InterestAccrualEngine#run} call.
+ */
+public final class AccrualResult {
+    private final LocalDate accrualDate;
+    private final boolean alreadyCompleted;
+    private final boolean resumed;
+    private final long credited;
+    private final long alreadyCredited;
+    private final long failed;
+
+    AccrualResult(LocalDate accrualDate, boolean alreadyCompleted, boolean resumed,
+                  long credited, long alreadyCredited, long failed) {
+        this.accrualDate = accrualDate;
+        this.alreadyCompleted = alreadyCompleted;
+        this.resumed = resumed;
+        this.credited = credited;
+        this.alreadyCredited = alreadyCredited;
+        this.failed = failed;
+    }
+
+    public LocalDate getAccrualDate() {
+        return accrualDate;
+    }
+
+    /**
+     * Whether an earlier run had already completed this accrual date, so nothing was done.
+     */
+    public boolean isAlreadyCompleted() {
+        return alreadyCompleted;
+    }
+
+    /**
+     * Whether this run picked up an earlier run of the same date that did not complete.
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Accounts credited by this run.
+     */
+    public long getCredited() {
+        return credited;
+    }
+
+    /**
+     * Accounts skipped because an earlier, interrupted run had already credited them.
+     */
+    public long getAlreadyCredited() {
+        return alreadyCredited;
+    }
+
+    /**
+     * Accounts whose credit was rejected, e.g. because they were deactivated during the run or the
+     * journal failed. The date is then not marked completed, so running it again retries them.
+     */
+    public long getFailed() {
+        return failed;
+    }
+}
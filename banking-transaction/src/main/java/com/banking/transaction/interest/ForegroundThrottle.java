@@ -0,0 +1,92 @@
+package com.banking.transaction.interest;
+
+import com.banking.core.metrics.LatencyHistogram;
+import com.banking.core.metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Slows background work down while foreground transactions are slow.
+ * <p>
+ * At most every 100ms, the p99 of the deposits, withdrawals and transfers recorded since the
+ * previous check is compared with a target. While it is above the target, the pause taken before
+ * each unit of background work doubles, up to one second; once it is back under, the pause halves
+ * until it disappears. Checks with too few foreground samples to judge count as healthy.
+ */
+public class ForegroundThrottle {
+    static final String[] FOREGROUND_TIMERS = {"transaction.deposit", "transaction.withdraw", "transaction.transfer"};
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MIN_SAMPLES = 20;
+
+    private final LatencyHistogram[] timers;
+    private final LatencyHistogram.Snapshot[] previous;
+    private final long targetNanos;
+    private final AtomicLong nextCheck;
+    private volatile long delayNanos;
+
+    /**
+     * @param metrics   the registry the foreground {@code TransactionService} records into
+     * @param targetP99 foreground p99 latency above which background work backs off
+     */
+    public ForegroundThrottle(MetricsRegistry metrics, Duration targetP99) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("MetricsRegistry cannot be null");
+        }
+        if (targetP99 == null || targetP99.isNegative() || targetP99.isZero()) {
+            throw new IllegalArgumentException("Target latency must be positive");
+        }
+        this.timers = new LatencyHistogram[FOREGROUND_TIMERS.length];
+        this.previous = new LatencyHistogram.Snapshot[FOREGROUND_TIMERS.length];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = metrics.timer(FOREGROUND_TIMERS[i]);
+            previous[i] = timers[i].snapshot();
+        }
+        this.targetNanos = targetP99.toNanos();
+        this.nextCheck = new AtomicLong(System.nanoTime() + CHECK_INTERVAL_NANOS);
+    }
+
+    /**
+     * Called before each unit of background work; waits for the current pause, if any.
+     */
+    public void pace() {
+        long now = System.nanoTime();
+        long next = nextCheck.get();
+        if (now - next >= 0 && nextCheck.compareAndSet(next, now + CHECK_INTERVAL_NANOS)) {
+            check();
+        }
+        long delay = delayNanos;
+        if (delay > 0) {
+            LockSupport.parkNanos(this, delay);
+        }
+    }
+
+    /**
+     * The pause currently taken before each unit of background work.
+     */
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    synchronized void check() {
+        boolean slow = false;
+        for (int i = 0; i < timers.length; i++) {
+            LatencyHistogram.Snapshot current = timers[i].snapshot();
+            LatencyHistogram.Snapshot window = current.since(previous[i]);
+            previous[i] = current;
+            if (window.getCount() >= MIN_SAMPLES && window.getValueAtPercentile(99) > targetNanos) {
+                slow = true;
+            }
+        }
+        long delay = delayNanos;
+        if (slow) {
+            delayNanos = Math.min(MAX_DELAY_NANOS, Math.max(MIN_DELAY_NANOS, delay * 2));
+        } else {
+            delayNanos = delay / 2 < MIN_DELAY_NANOS ? 0 : delay / 2;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.banking.transaction.interest;
+
+import com.banking.account.service.AccountService;
+import com.banking.account.table.AccountTable;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.BatchOperation;
+import com.banking.transaction.service.BatchResult;
+import com.banking.transaction.service.TransactionService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Credits interest to every eligible account as {@link TransactionType#INTEREST_CREDIT}
+ * transactions, for one accrual date at a time.
+ * <p>
+ * Accounts are walked by {@link AccountTable} handle: the handle range is split with fork/join
+ * into partitions that a dedicated pool of {@code parallelism} threads accrues in parallel, so
+ * request threads are never borrowed. Each partition reads balances straight from the table,
+ * computes accruals with the {@link InterestRateSchedule} and posts them through
+ * {@link TransactionService#creditInterest} in small batches, so a batch holds few lock stripes
+ * and shares journal group commits. An optional {@link ForegroundThrottle} pauses before each
+ * batch while foreground latency is over target.
+ * <p>
+ * A run is idempotent per accrual date. With a state directory, a marker is made durable before
+ * the first credit and another once every credit is; a completed date is never run again, and a
+ * run that was interrupted is resumed by checking each account's history for the date's credit
+ * before crediting it. Without a state directory completion is only remembered in memory, so every
+ * first run in a process checks history. Across a restart that history is only complete when the
+ * {@link TransactionService} was rebuilt by
+ * {@link com.banking.transaction.journal.JournalRecovery}, which restores the credits from the
+ * journal along with the balances they changed.
+ * <p>
+ * {@link InterestAccrualScheduler} runs the engine daily.
+ */
+public class InterestAccrualEngine {
+    private static final int DEFAULT_PARTITION_SIZE = 4096;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final String MARKER_PREFIX = "interest-";
+
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final InterestRateSchedule schedule;
+    private final Path stateDirectory;
+    private final int parallelism;
+    private final int partitionSize;
+    private final int batchSize;
+    private final Set<LocalDate> completed = ConcurrentHashMap.newKeySet();
+    private volatile ForegroundThrottle throttle;
+
+    /**
+     * Accrues on half the available cores.
+     *
+     * @param stateDirectory where run markers are kept, or {@code null} to keep them in memory
+     */
+    public InterestAccrualEngine(AccountService accountService, TransactionService transactionService,
+                                 InterestRateSchedule schedule, Path stateDirectory) {
+        this(accountService, transactionService, schedule, stateDirectory,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * @param stateDirectory where run markers are kept, or {@code null} to keep them in memory
+     * @param parallelism    threads accruing at once
+     */
+    public InterestAccrualEngine(AccountService accountService, TransactionService transactionService,
+                                 InterestRateSchedule schedule, Path stateDirectory, int parallelism) {
+        this(accountService, transactionService, schedule, stateDirectory, parallelism,
+            DEFAULT_PARTITION_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param partitionSize accounts below which the handle range is no longer split
+     * @param batchSize     credits posted per {@link TransactionService#creditInterest} call
+     */
+    InterestAccrualEngine(AccountService accountService, TransactionService transactionService,
+                          InterestRateSchedule schedule, Path stateDirectory,
+                          int parallelism, int partitionSize, int batchSize) {
+        if (accountService == null) {
+            throw new IllegalArgumentException("AccountService cannot be null");
+        }
+        if (transactionService == null) {
+            throw new IllegalArgumentException("TransactionService cannot be null");
+        }
+        if (schedule == null) {
+            throw new IllegalArgumentException("InterestRateSchedule cannot be null");
+        }
+        if (parallelism < 1 || partitionSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Parallelism, partition size and batch size must be positive");
+        }
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.schedule = schedule;
+        this.stateDirectory = stateDirectory;
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Paces every following run with the given throttle. Pass {@code null} to run at full speed.
+     */
+    public void setThrottle(ForegroundThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    public InterestRateSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Credits interest for the {@code days} days ending on {@code accrualDate}, on each active
+     * account's balance as read during the run, to every account that existed when the run
+     * started. Returns once every credit is durable. Running a date again does nothing once a run of
+     * it credited every account; after a run with failed credits, running it again credits only
+     * the accounts still missing that date's interest.
+     *
+     * @throws AccrualException if the run's progress cannot be recorded; the run can be retried
+     */
+    public synchronized AccrualResult run(LocalDate accrualDate, int days) {
+        if (accrualDate == null) {
+            throw new IllegalArgumentException("Accrual date cannot be null");
+        }
+        if (accrualDate.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot accrue interest for a future date: " + accrualDate);
+        }
+        if (days < 1 || days > 366) {
+            throw new IllegalArgumentException("Days must be between 1 and 366");
+        }
+        if (completed.contains(accrualDate) || hasMarker(accrualDate, "completed")) {
+            completed.add(accrualDate);
+            return new AccrualResult(accrualDate, true, false, 0, 0, 0);
+        }
+        boolean resumed = hasMarker(accrualDate, "started");
+        writeMarker(accrualDate, "started");
+
+        Run run = new Run(accrualDate, days, stateDirectory == null || resumed);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Partition(run, 0, accountService.getTable().size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        // With a failed credit the date stays started, so the next run resumes it with history checks
+        if (run.failed.sum() == 0) {
+            writeMarker(accrualDate, "completed");
+            completed.add(accrualDate);
+        }
+        return new AccrualResult(accrualDate, false, resumed,
+            run.credited.sum(), run.alreadyCredited.sum(), run.failed.sum());
+    }
+
+    static String descriptionOf(LocalDate accrualDate) {
+        return "Interest accrual for " + accrualDate;
+    }
+
+    private void accrue(Run run, int from, int to) {
+        AccountTable table = accountService.getTable();
+        List<BatchOperation> credits = new ArrayList<>(batchSize);
+        for (int handle = from; handle < to; handle++) {
+            AccountType accountType = table.accountType(handle);
+            if (!schedule.accrues(accountType) || !table.isActive(handle)) {
+                continue;
+            }
+            long interest = schedule.accrue(accountType, table.balanceMinorUnits(handle), run.days);
+            if (interest == 0) {
+                continue;
+            }
+            String accountId = table.accountId(handle);
+            if (run.checkHistory && isCredited(accountId, run)) {
+                run.alreadyCredited.increment();
+                continue;
+            }
+            credits.add(BatchOperation.interestCredit(accountId, Money.ofMinor(interest, table.currency(handle)),
+                run.description));
+            if (credits.size() == batchSize) {
+                post(run, credits);
+                credits.clear();
+            }
+        }
+        if (!credits.isEmpty()) {
+            post(run, credits);
+        }
+    }
+
+    private void post(Run run, List<BatchOperation> credits) {
+        ForegroundThrottle currentThrottle = throttle;
+        if (currentThrottle != null) {
+            currentThrottle.pace();
+        }
+        for (BatchResult result : transactionService.creditInterest(credits)) {
+            (result.isSuccess() ? run.credited : run.failed).increment();
+        }
+    }
+
+    // Runs of a date never start before it, so its credit can only be that recent
+    private boolean isCredited(String accountId, Run run) {
+        List<Transaction> recent = transactionService.getTransactionsBetween(
+            accountId, run.accrualDate.atStartOfDay(), LocalDateTime.now().plusDays(1));
+        for (Transaction transaction : recent) {
+            if (transaction.getType() == TransactionType.INTEREST_CREDIT
+                    && transaction.getDescription().equals(run.description)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasMarker(LocalDate accrualDate, String state) {
+        return stateDirectory != null && Files.exists(markerOf(accrualDate, state));
+    }
+
+    private void writeMarker(LocalDate accrualDate, String state) {
+        if (stateDirectory == null) {
+            return;
+        }
+        Path marker = markerOf(accrualDate, state);
+        try {
+            Files.createDirectories(stateDirectory);
+            try (FileChannel channel = FileChannel.open(marker, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new AccrualException("Cannot write interest accrual marker " + marker, e);
+        }
+    }
+
+    private Path markerOf(LocalDate accrualDate, String state) {
+        return stateDirectory.resolve(MARKER_PREFIX + accrualDate + "." + state);
+    }
+
+    /**
+     * State shared by the partitions of one run.
+     */
+    private static final class Run {
+        final LocalDate accrualDate;
+        final int days;
+        final String description;
+        // Set when an earlier run may already have credited some accounts
+        final boolean checkHistory;
+        final LongAdder credited = new LongAdder();
+        final LongAdder alreadyCredited = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        Run(LocalDate accrualDate, int days, boolean checkHistory) {
+            this.accrualDate = accrualDate;
+            this.days = days;
+            this.description = descriptionOf(accrualDate);
+            this.checkHistory = checkHistory;
+        }
+    }
+
+    private final class Partition extends RecursiveAction {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        Partition(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= partitionSize) {
+                accrue(run, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Partition(run, from, middle), new Partition(run, middle, to));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.banking.transaction.interest;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an {@link InterestAccrualEngine} at month end: each accrual covers the whole month that
+ * just ended and is posted on its last day, so each account's interest is rounded down to minor
+ * units once a month rather than every day.
+ * <p>
+ * The scheduler checks every day at its run time, and once as soon as it starts, whether the
+ * previous month is due. A run missed or interrupted while the process was down is therefore
+ * completed on restart, and checking a month that already completed costs nothing. Months before
+ * the previous one are not caught up.
+ */
+public class InterestAccrualScheduler implements Closeable {
+    private final InterestAccrualEngine engine;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+    private volatile AccrualResult lastResult;
+    private volatile RuntimeException lastFailure;
+
+    public InterestAccrualScheduler(InterestAccrualEngine engine) {
+        this(engine, Clock.systemDefaultZone());
+    }
+
+    InterestAccrualScheduler(InterestAccrualEngine engine, Clock clock) {
+        if (engine == null) {
+            throw new IllegalArgumentException("InterestAccrualEngine cannot be null");
+        }
+        this.engine = engine;
+        this.clock = clock;
+    }
+
+    /**
+     * Accrues the previous month if it is due, now and then every day at {@code runAt}, in the
+     * clock's time zone, on a background thread until {@link #close()}.
+     */
+    public synchronized void start(LocalTime runAt) {
+        if (runAt == null) {
+            throw new IllegalArgumentException("Run time cannot be null");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Scheduler already started");
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "interest-accrual");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The next day's run is a one-shot delayed task, which shutdown would otherwise wait for
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        scheduler = executor;
+        scheduler.execute(this::runQuietly);
+        scheduleNext(runAt);
+    }
+
+    /**
+     * Accrues the interest of the month before the current one, dated its last day, unless that
+     * date already completed.
+     */
+    public AccrualResult runDue() {
+        YearMonth month = YearMonth.now(clock).minusMonths(1);
+        AccrualResult result = engine.run(month.atEndOfMonth(), month.lengthOfMonth());
+        lastResult = result;
+        return result;
+    }
+
+    /**
+     * Result of the most recent run, or {@code null} if none finished yet.
+     */
+    public AccrualResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Failure of the most recent scheduled run, or {@code null} if it succeeded.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops scheduled runs, waiting for one in progress to finish.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            current.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static Duration delayUntil(ZonedDateTime now, LocalTime runAt) {
+        ZonedDateTime next = now.with(runAt);
+        if (!next.isAfter(now)) {
+            next = now.plusDays(1).with(runAt);
+        }
+        return Duration.between(now, next);
+    }
+
+    // Rescheduled one run at a time, so days stay aligned to the wall clock across DST changes
+    private synchronized void scheduleNext(LocalTime runAt) {
+        if (scheduler == null) {
+            return;
+        }
+        long millis = delayUntil(ZonedDateTime.now(clock), runAt).toMillis();
+        scheduler.schedule(() -> {
+            runQuietly();
+            scheduleNext(runAt);
+        }, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runQuietly() {
+        try {
+            runDue();
+            lastFailure = null;
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run resumes the date if it is still due
+            lastFailure = e;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.transaction.interest;
+
+import com.banking.core.domain.AccountType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Annual interest rates per {@link AccountType}, accrued on the ACT/365 day count.
+ * <p>
+ * Rates are fractions ({@code 0.035} is 3.5%) with at most nine decimal places and are held as
+ * billionths, so accruing is integer arithmetic on minor units: {@code balance * rate * days / 365},
+ * rounded down so that interest is never over-credited. The remainder is dropped, so a period
+ * should be accrued in one call: posting day by day would lose up to a minor unit a day and leave
+ * small balances earning nothing. Types without a rate earn nothing.
+ */
+public final class InterestRateSchedule {
+    private static final int RATE_SCALE = 9;
+    private static final long DENOMINATOR = 365 * 1_000_000_000L;
+    private static final AccountType[] TYPES = AccountType.values();
+
+    // Per AccountType ordinal, in billionths per year
+    private final long[] rates = new long[TYPES.length];
+
+    /**
+     * @param annualRates non-negative annual rate per account type; missing types earn nothing
+     */
+    public InterestRateSchedule(Map<AccountType, BigDecimal> annualRates) {
+        if (annualRates == null) {
+            throw new IllegalArgumentException("Annual rates cannot be null");
+        }
+        for (Map.Entry<AccountType, BigDecimal> entry : annualRates.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new IllegalArgumentException("Account type cannot be null");
+            }
+            BigDecimal rate = entry.getValue();
+            if (rate == null || rate.signum() < 0) {
+                throw new IllegalArgumentException("Interest rate for " + entry.getKey() + " must be non-negative");
+            }
+            if (rate.stripTrailingZeros().scale() > RATE_SCALE) {
+                throw new IllegalArgumentException(
+                    "Interest rate for " + entry.getKey() + " has more than " + RATE_SCALE + " decimal places");
+            }
+            try {
+                rates[entry.getKey().ordinal()] = rate.movePointRight(RATE_SCALE).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Interest rate for " + entry.getKey() + " is too large");
+            }
+        }
+    }
+
+    public BigDecimal getAnnualRate(AccountType accountType) {
+        return BigDecimal.valueOf(rates[accountType.ordinal()], RATE_SCALE).stripTrailingZeros();
+    }
+
+    /**
+     * Whether any balance of this type can earn interest.
+     */
+    public boolean accrues(AccountType accountType) {
+        return rates[accountType.ordinal()] != 0;
+    }
+
+    /**
+     * Interest in minor units earned by a balance over {@code days} days; 0 for a balance that is
+     * not positive.
+     */
+    public long accrue(AccountType accountType, long balanceMinorUnits, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days cannot be negative");
+        }
+        long rate = rates[accountType.ordinal()];
+        if (balanceMinorUnits <= 0 || rate == 0 || days == 0) {
+            return 0;
+        }
+        long factor = Math.multiplyExact(rate, days);
+        long product = balanceMinorUnits * factor;
+        if (Math.multiplyHigh(balanceMinorUnits, factor) == 0 && product >= 0) {
+            return product / DENOMINATOR;
+        }
+        // Only huge balances overflow 63 bits here
+        return BigInteger.valueOf(balanceMinorUnits).multiply(BigInteger.valueOf(factor))
+            .divide(BigInteger.valueOf(DENOMINATOR)).longValueExact();
+    }
+}
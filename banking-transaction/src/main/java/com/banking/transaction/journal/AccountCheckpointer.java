@@ -0,0 +1,143 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Writes account snapshots from the journal rather than from live account state.
+ * <p>
+ * A checkpoint takes the latest snapshot, applies the journal records that became durable since
+ * it was taken and writes the result as a new snapshot. Live accounts are never read, so writers
+ * are never paused and the snapshot is exactly consistent with a journal position.
+ * <p>
+ * Given the {@link #setHistoryPositions(LongSupplier) journal position} below which transaction
+ * history is kept elsewhere, each checkpoint then retires the journal segments that neither the
+ * retained snapshots nor the history still need. Without one the history needs the whole journal,
+ * which is then never retired.
+ */
+public class AccountCheckpointer implements Closeable {
+    private static final int RETAINED_SNAPSHOTS = 2;
+
+    private final TransactionJournal journal;
+    private final Path snapshotDirectory;
+    private volatile LongSupplier historyPositions;
+    private ScheduledExecutorService scheduler;
+    private volatile RuntimeException lastFailure;
+
+    public AccountCheckpointer(TransactionJournal journal, Path snapshotDirectory) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        if (snapshotDirectory == null) {
+            throw new IllegalArgumentException("Snapshot directory cannot be null");
+        }
+        this.journal = journal;
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    /**
+     * Sets the source of the journal position before which transaction history no longer needs the
+     * journal, e.g. {@link com.banking.transaction.store.TieredTransactionStore#getJournalPosition()}.
+     */
+    public void setHistoryPositions(LongSupplier historyPositions) {
+        this.historyPositions = historyPositions;
+    }
+
+    /**
+     * Checkpoints every {@code interval} on a background thread until {@link #close()}.
+     */
+    public synchronized void start(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Checkpointer already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "account-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot covering the journal up to its current durable position, then retires the
+     * journal segments that are no longer needed.
+     *
+     * @return the new snapshot file, or {@code null} if nothing was journaled since the last one
+     */
+    public synchronized Path checkpoint() {
+        long target = journal.getDurablePosition();
+        AccountSnapshot previous = AccountSnapshot.latest(snapshotDirectory);
+        long from = previous == null ? 0 : previous.getJournalPosition();
+        if (target <= from) {
+            return null;
+        }
+        JournalTail tail = JournalTail.read(journal.getFile(), from, target, transaction -> { });
+        long count = (previous == null ? 0 : previous.size()) + tail.getOpenedAccounts().size();
+        Path file;
+        try (AccountSnapshot.Writer writer = AccountSnapshot.writer(snapshotDirectory, tail.getEndPosition(), count)) {
+            if (previous != null) {
+                previous.forEach(account -> writer.write(tail.apply(account)));
+            }
+            for (Account account : tail.getOpenedAccounts()) {
+                writer.write(tail.apply(account));
+            }
+            file = writer.commit();
+        }
+        AccountSnapshot.prune(snapshotDirectory, RETAINED_SNAPSHOTS);
+        LongSupplier history = historyPositions;
+        if (history != null) {
+            // Recovery falls back to an older snapshot if the latest is unreadable, so keep what the oldest needs
+            journal.retireBefore(Math.min(history.getAsLong(), AccountSnapshot.oldestPosition(snapshotDirectory)));
+        }
+        return file;
+    }
+
+    /**
+     * Failure of the most recent scheduled checkpoint, or {@code null} if it succeeded.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops scheduled checkpoints, waiting for one in progress to finish.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            current.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+            lastFailure = null;
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run retries from the last good snapshot
+            lastFailure = e;
+        }
+    }
+}
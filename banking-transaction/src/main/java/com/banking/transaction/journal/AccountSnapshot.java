@@ -0,0 +1,392 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Point-in-time image of every account, covering the journal up to {@link #getJournalPosition()}.
+ * <p>
+ * The file has a fixed layout so it can be memory-mapped and decoded sequentially without parsing:
+ * <pre>
+ * header  := magic:"BANKSNAP" version:int recordBytes:int count:long journalPosition:long
+ *            heapOffset:long heapBytes:long reserved[16]
+ * record  := balanceMinorUnits:long idOffset:long customerIdOffset:long idLength:short
+ *            customerIdLength:short currency:ascii[3] accountType:byte active:byte reserved[7]
+ * heap    := utf8 account and customer ids, addressed by the records' heap offsets
+ * </pre>
+ * Snapshots are written to a temporary file, forced and atomically renamed into place, so a
+ * snapshot file is either complete or absent.
+ */
+public final class AccountSnapshot {
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 40;
+    private static final long MAGIC = 0x42414E4B534E4150L; // "BANKSNAP"
+    private static final int VERSION = 1;
+    private static final String FILE_PREFIX = "snapshot-";
+    private static final String FILE_SUFFIX = ".snap";
+    // Mapped at a time while loading; far larger than any single record or id
+    private static final int WINDOW_BYTES = 64 << 20;
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+
+    private final Path file;
+    private final long count;
+    private final long journalPosition;
+    private final long heapOffset;
+    private final long heapBytes;
+
+    private AccountSnapshot(Path file, long count, long journalPosition, long heapOffset, long heapBytes) {
+        this.file = file;
+        this.count = count;
+        this.journalPosition = journalPosition;
+        this.heapOffset = heapOffset;
+        this.heapBytes = heapBytes;
+    }
+
+    /**
+     * Opens a snapshot file and validates its header.
+     *
+     * @throws JournalException if the file cannot be read or is not a valid snapshot
+     */
+    public static AccountSnapshot open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+                throw new JournalException("Not an account snapshot: " + file);
+            }
+            int version = header.getInt();
+            int recordBytes = header.getInt();
+            if (version != VERSION || recordBytes != RECORD_BYTES) {
+                throw new JournalException("Unsupported snapshot version " + version + ": " + file);
+            }
+            long count = header.getLong();
+            long journalPosition = header.getLong();
+            long heapOffset = header.getLong();
+            long heapBytes = header.getLong();
+            if (heapOffset != HEADER_BYTES + count * RECORD_BYTES || heapOffset + heapBytes != channel.size()) {
+                throw new JournalException("Truncated account snapshot: " + file);
+            }
+            return new AccountSnapshot(file, count, journalPosition, heapOffset, heapBytes);
+        } catch (IOException e) {
+            throw new JournalException("Cannot read snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Returns the most recent readable snapshot in the directory, or {@code null} if there is none.
+     */
+    public static AccountSnapshot latest(Path directory) {
+        List<Path> files = list(directory);
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                return open(files.get(i));
+            } catch (JournalException e) {
+                // Fall back to the previous snapshot
+            }
+        }
+        return null;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Number of accounts in the snapshot.
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Journal offset this snapshot includes every record up to; recovery replays from here.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * Decodes every account in file order.
+     */
+    public void forEach(Consumer<Account> action) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Window records = new Window(channel, HEADER_BYTES, heapOffset);
+            Window heap = new Window(channel, heapOffset, heapOffset + heapBytes);
+            byte[] scratch = new byte[64];
+            char[] currencyCode = new char[3];
+            for (long i = 0; i < count; i++) {
+                ByteBuffer record = records.at(HEADER_BYTES + i * RECORD_BYTES, RECORD_BYTES);
+                long balance = record.getLong();
+                long idOffset = record.getLong();
+                long customerIdOffset = record.getLong();
+                int idLength = Short.toUnsignedInt(record.getShort());
+                int customerIdLength = Short.toUnsignedInt(record.getShort());
+                for (int c = 0; c < currencyCode.length; c++) {
+                    currencyCode[c] = (char) record.get();
+                }
+                AccountType type = ACCOUNT_TYPES[record.get()];
+                boolean active = record.get() != 0;
+
+                if (scratch.length < Math.max(idLength, customerIdLength)) {
+                    scratch = new byte[Math.max(idLength, customerIdLength)];
+                }
+                String accountId = heap.string(heapOffset + idOffset, idLength, scratch);
+                String customerId = heap.string(heapOffset + customerIdOffset, customerIdLength, scratch);
+                Currency currency = Currency.of(currencyCode, 0, currencyCode.length);
+                action.accept(new Account(accountId, customerId, type, Money.ofMinor(balance, currency), active));
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot read snapshot " + file, e);
+        }
+    }
+
+    static Writer writer(Path directory, long journalPosition, long count) {
+        return new Writer(directory, journalPosition, count);
+    }
+
+    /**
+     * Deletes all but the {@code retained} most recent snapshots in the directory.
+     */
+    static void prune(Path directory, int retained) {
+        List<Path> files = list(directory);
+        for (int i = 0; i < files.size() - retained; i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                throw new JournalException("Cannot delete snapshot " + files.get(i), e);
+            }
+        }
+    }
+
+    /**
+     * Journal position of the oldest snapshot in the directory, zero if there is none.
+     */
+    static long oldestPosition(Path directory) {
+        List<Path> files = list(directory);
+        if (files.isEmpty()) {
+            return 0;
+        }
+        String name = files.get(0).getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Snapshot files in the directory, oldest first.
+     */
+    private static List<Path> list(Path directory) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot list snapshots in " + directory, e);
+        }
+        // Names embed the zero-padded journal position, so name order is age order
+        Collections.sort(files);
+        return files;
+    }
+
+    private static String fileName(long journalPosition) {
+        return String.format("%s%020d%s", FILE_PREFIX, journalPosition, FILE_SUFFIX);
+    }
+
+    /**
+     * Sliding read-only mapping over {@code [start, end)} of the file.
+     */
+    private static final class Window {
+        private final FileChannel channel;
+        private final long end;
+        private MappedByteBuffer buffer;
+        private long bufferStart;
+
+        Window(FileChannel channel, long start, long end) throws IOException {
+            this.channel = channel;
+            this.end = end;
+            map(start);
+        }
+
+        /**
+         * Returns the mapping positioned at {@code offset}, with at least {@code length} bytes remaining.
+         */
+        ByteBuffer at(long offset, int length) throws IOException {
+            if (offset < bufferStart || offset + length > bufferStart + buffer.capacity()) {
+                map(offset);
+            }
+            buffer.position((int) (offset - bufferStart));
+            return buffer;
+        }
+
+        String string(long offset, int length, byte[] scratch) throws IOException {
+            at(offset, length).get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void map(long offset) throws IOException {
+            bufferStart = offset;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_BYTES, end - offset));
+        }
+    }
+
+    /**
+     * Streams accounts into a new snapshot. Records and the id heap are buffered separately and
+     * written at their own offsets, so the file is produced in a single pass.
+     */
+    static final class Writer implements Closeable {
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        private final Path directory;
+        private final Path temporary;
+        private final long journalPosition;
+        private final long count;
+        private final FileChannel channel;
+        private final ByteBuffer records = ByteBuffer.allocateDirect(BUFFER_BYTES / RECORD_BYTES * RECORD_BYTES);
+        private final ByteBuffer heap = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final long heapOffset;
+        private long recordPosition = HEADER_BYTES;
+        private long heapPosition;
+        private long written;
+        private boolean committed;
+
+        private Writer(Path directory, long journalPosition, long count) {
+            this.directory = directory;
+            this.journalPosition = journalPosition;
+            this.count = count;
+            this.heapOffset = HEADER_BYTES + count * RECORD_BYTES;
+            this.heapPosition = heapOffset;
+            this.temporary = directory.resolve(fileName(journalPosition) + ".tmp");
+            try {
+                Files.createDirectories(directory);
+                this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new JournalException("Cannot create snapshot in " + directory, e);
+            }
+        }
+
+        void write(Account account) {
+            if (written == count) {
+                throw new IllegalStateException("Snapshot already holds " + count + " accounts");
+            }
+            byte[] accountId = utf8(account.getAccountId());
+            byte[] customerId = utf8(account.getCustomerId());
+            Money balance = account.getBalance();
+            try {
+                if (!records.hasRemaining()) {
+                    recordPosition = flush(records, recordPosition);
+                }
+                long idOffset = heapString(accountId);
+                long customerIdOffset = heapString(customerId);
+                records.putLong(balance.minorUnits());
+                records.putLong(idOffset);
+                records.putLong(customerIdOffset);
+                records.putShort((short) accountId.length);
+                records.putShort((short) customerId.length);
+                String code = balance.getCurrency();
+                for (int c = 0; c < 3; c++) {
+                    records.put((byte) code.charAt(c));
+                }
+                records.put((byte) account.getAccountType().ordinal());
+                records.put((byte) (account.isActive() ? 1 : 0));
+                records.position(records.position() + 7);
+            } catch (IOException e) {
+                throw new JournalException("Cannot write snapshot " + temporary, e);
+            }
+            written++;
+        }
+
+        /**
+         * Makes the snapshot durable and visible under its final name.
+         */
+        Path commit() {
+            if (written != count) {
+                throw new IllegalStateException("Snapshot expects " + count + " accounts but got " + written);
+            }
+            Path target = directory.resolve(fileName(journalPosition));
+            try {
+                recordPosition = flush(records, recordPosition);
+                heapPosition = flush(heap, heapPosition);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putLong(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putLong(count)
+                    .putLong(journalPosition).putLong(heapOffset).putLong(heapPosition - heapOffset);
+                header.position(HEADER_BYTES);
+                flush(header, 0);
+                channel.force(true);
+                channel.close();
+                try {
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                throw new JournalException("Cannot write snapshot " + target, e);
+            }
+            committed = true;
+            return target;
+        }
+
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            try {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                throw new JournalException("Cannot discard snapshot " + temporary, e);
+            }
+        }
+
+        private long heapString(byte[] value) throws IOException {
+            if (heap.remaining() < value.length) {
+                heapPosition = flush(heap, heapPosition);
+            }
+            long offset = heapPosition + heap.position() - heapOffset;
+            heap.put(value);
+            return offset;
+        }
+
+        private long flush(ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+            return position;
+        }
+
+        private static byte[] utf8(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Identifier too long for snapshot: " + bytes.length + " bytes");
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of journal records.
+ * <pre>
+ * record  := length:int crc32:int payload[length]
+ * payload := kind:byte body
+ * TRANSACTION body := epochSecond:long nano:int type:byte minorUnits:long currency:str
+ *                     transactionId:str accountId:str relatedAccountId:str description:str
+ * ACCOUNT_OPENED body := accountType:byte active:byte minorUnits:long currency:str
+ *                        accountId:str customerId:str
+ * ACCOUNT_STATUS body := active:byte accountId:str
+ * str     := byteLength:int (-1 for null) utf8[byteLength]
+ * </pre>
+ * Timestamps are the transaction's local date-time interpreted as UTC. The CRC covers the
+ * payload, so a torn write at the tail of the file is detected on read.
+ */
+final class JournalCodec {
+    static final int HEADER_BYTES = 8;
+    static final byte KIND_TRANSACTION = 1;
+    static final byte KIND_ACCOUNT_OPENED = 2;
+    static final byte KIND_ACCOUNT_STATUS = 3;
+
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(Transaction transaction) {
+        byte[] currency = bytes(transaction.getAmount().getCurrency());
+        byte[] transactionId = bytes(transaction.getTransactionId());
+        byte[] accountId = bytes(transaction.getAccountId());
+        byte[] relatedAccountId = bytes(transaction.getRelatedAccountId());
+        byte[] description = bytes(transaction.getDescription());
+        int payloadLength = 1 + 8 + 4 + 1 + 8
+            + sizeOf(currency) + sizeOf(transactionId) + sizeOf(accountId)
+            + sizeOf(relatedAccountId) + sizeOf(description);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        buffer.position(HEADER_BYTES);
+        LocalDateTime timestamp = transaction.getTimestamp();
+        buffer.put(KIND_TRANSACTION);
+        buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(timestamp.getNano());
+        buffer.put((byte) transaction.getType().ordinal());
+        buffer.putLong(transaction.getAmount().minorUnits());
+        put(buffer, currency);
+        put(buffer, transactionId);
+        put(buffer, accountId);
+        put(buffer, relatedAccountId);
+        put(buffer, description);
+        return frame(buffer, payloadLength);
+    }
+
+    static byte[] encodeAccountOpened(Account account) {
+        Money balance = account.getBalance();
+        byte[] currency = bytes(balance.getCurrency());
+        byte[] accountId = bytes(account.getAccountId());
+        byte[] customerId = bytes(account.getCustomerId());
+        int payloadLength = 1 + 1 + 1 + 8 + sizeOf(currency) + sizeOf(accountId) + sizeOf(customerId);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        buffer.position(HEADER_BYTES);
+        buffer.put(KIND_ACCOUNT_OPENED);
+        buffer.put((byte) account.getAccountType().ordinal());
+        buffer.put((byte) (account.isActive() ? 1 : 0));
+        buffer.putLong(balance.minorUnits());
+        put(buffer, currency);
+        put(buffer, accountId);
+        put(buffer, customerId);
+        return frame(buffer, payloadLength);
+    }
+
+    static byte[] encodeAccountStatus(String accountId, boolean active) {
+        byte[] id = bytes(accountId);
+        int payloadLength = 1 + 1 + sizeOf(id);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        buffer.position(HEADER_BYTES);
+        buffer.put(KIND_ACCOUNT_STATUS);
+        buffer.put((byte) (active ? 1 : 0));
+        put(buffer, id);
+        return frame(buffer, payloadLength);
+    }
+
+    static Transaction decodeTransaction(ByteBuffer payload) {
+        long epochSecond = payload.getLong();
+        int nano = payload.getInt();
+        TransactionType type = TRANSACTION_TYPES[payload.get()];
+        long minorUnits = payload.getLong();
+        Currency currency = Currency.of(string(payload));
+        String transactionId = string(payload);
+        String accountId = string(payload);
+        String relatedAccountId = string(payload);
+        String description = string(payload);
+        return new Transaction(transactionId, accountId, type, Money.ofMinor(minorUnits, currency),
+            LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC), description, relatedAccountId);
+    }
+
+    static Account decodeAccountOpened(ByteBuffer payload) {
+        AccountType type = ACCOUNT_TYPES[payload.get()];
+        boolean active = payload.get() != 0;
+        long minorUnits = payload.getLong();
+        Currency currency = Currency.of(string(payload));
+        String accountId = string(payload);
+        String customerId = string(payload);
+        return new Account(accountId, customerId, type, Money.ofMinor(minorUnits, currency), active);
+    }
+
+    static boolean decodeStatusActive(ByteBuffer payload) {
+        return payload.get() != 0;
+    }
+
+    static String decodeStatusAccountId(ByteBuffer payload) {
+        return string(payload);
+    }
+
+    static int crc(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static byte[] frame(ByteBuffer buffer, int payloadLength) {
+        ByteBuffer payload = ByteBuffer.wrap(buffer.array(), HEADER_BYTES, payloadLength);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(4, crc(payload));
+        return buffer.array();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,14 @@
+package com.banking.transaction.journal;
+
+/**
+ * Thrown when the transaction journal cannot read or durably write a record.
+ */
+public class JournalException extends RuntimeException {
+    public JournalException(String message) {
+        super(message);
+    }
+
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,188 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.transaction.domain.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sequential reader for journals written by {@link TransactionJournal}.
+ * <p>
+ * A journal is a run of segment files. The first keeps the journal's own name and later ones add
+ * the zero-padded position they start at, so positions are offsets into the journal as a whole
+ * and stay valid when older segments are retired. Reading stops at the first incomplete or
+ * corrupt record, which is where an interrupted write would have left the tail of the journal.
+ */
+public final class JournalReader {
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int POSITION_DIGITS = 20;
+
+    /**
+     * Receives records in the order they were made durable.
+     */
+    public interface Visitor {
+        /**
+         * @param endPosition file offset just past this record; replaying from it resumes after it
+         */
+        void onTransaction(Transaction transaction, long endPosition);
+
+        /**
+         * @param account the account as it was opened, with its opening balance
+         */
+        default void onAccountOpened(Account account, long endPosition) {
+        }
+
+        default void onAccountStatusChanged(String accountId, boolean active, long endPosition) {
+        }
+    }
+
+    private JournalReader() {
+    }
+
+    /**
+     * Replays every valid record at or after {@code fromPosition}.
+     *
+     * @return the offset just past the last valid record
+     */
+    public static long replay(Path file, long fromPosition, Visitor visitor) {
+        return replay(file, fromPosition, Long.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Replays valid records at or after {@code fromPosition} that end at or before
+     * {@code toPosition}, e.g. {@link TransactionJournal#getDurablePosition()} of a live journal.
+     *
+     * @return the offset just past the last record replayed
+     * @throws JournalException if the segment holding {@code fromPosition} has been retired
+     */
+    public static long replay(Path file, long fromPosition, long toPosition, Visitor visitor) {
+        NavigableMap<Long, Path> segments = segments(file);
+        if (segments.isEmpty()) {
+            return fromPosition;
+        }
+        if (fromPosition < segments.firstKey()) {
+            throw new JournalException("Journal " + file + " before offset " + segments.firstKey()
+                + " has been retired; cannot replay from " + fromPosition);
+        }
+        long position = fromPosition;
+        for (Map.Entry<Long, Path> segment : segments.tailMap(segments.floorKey(fromPosition), true).entrySet()) {
+            long start = segment.getKey();
+            Long next = segments.higherKey(start);
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                position = replay(channel, start, position, toPosition, visitor);
+            } catch (IOException e) {
+                throw new JournalException("Cannot read journal segment " + segment.getValue(), e);
+            }
+            // A segment that ends early is torn, and nothing after a gap may be replayed
+            if (next == null || position != next || position >= toPosition) {
+                break;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Position of the oldest record still in the journal, which is zero until segments are retired.
+     */
+    public static long startPosition(Path file) {
+        NavigableMap<Long, Path> segments = segments(file);
+        return segments.isEmpty() ? 0 : segments.firstKey();
+    }
+
+    /**
+     * Segment files of the journal by the position they start at.
+     */
+    static NavigableMap<Long, Path> segments(Path file) {
+        NavigableMap<Long, Path> segments = new TreeMap<>();
+        if (Files.exists(file)) {
+            segments.put(0L, file);
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return segments;
+        }
+        String prefix = file.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path segment : stream) {
+                String suffix = segment.getFileName().toString().substring(prefix.length());
+                if (suffix.length() == POSITION_DIGITS && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(suffix), file.resolveSibling(segment.getFileName()));
+                }
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot list journal segments of " + file, e);
+        }
+        return segments;
+    }
+
+    /**
+     * File of the segment that starts at {@code startPosition}.
+     */
+    static Path segmentFile(Path file, long startPosition) {
+        return startPosition == 0 ? file
+            : file.resolveSibling(String.format("%s.%0" + POSITION_DIGITS + "d", file.getFileName(), startPosition));
+    }
+
+    /**
+     * Replays one segment that starts at journal position {@code start}; positions are journal
+     * positions rather than offsets into the segment.
+     */
+    static long replay(FileChannel channel, long start, long fromPosition, long toPosition, Visitor visitor)
+            throws IOException {
+        long size = Math.min(start + channel.size(), toPosition);
+        long position = fromPosition;
+        ByteBuffer header = ByteBuffer.allocate(JournalCodec.HEADER_BYTES);
+        ByteBuffer payload = ByteBuffer.allocate(64 * 1024);
+        while (position + JournalCodec.HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position - start);
+            int length = header.getInt(0);
+            int crc = header.getInt(4);
+            long end = position + JournalCodec.HEADER_BYTES + length;
+            if (length <= 0 || length > MAX_RECORD_BYTES || end > size) {
+                break;
+            }
+            if (payload.capacity() < length) {
+                payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+            }
+            payload.clear().limit(length);
+            readFully(channel, payload, position - start + JournalCodec.HEADER_BYTES);
+            if (JournalCodec.crc(payload) != crc) {
+                break;
+            }
+            byte kind = payload.get();
+            if (kind == JournalCodec.KIND_TRANSACTION) {
+                visitor.onTransaction(JournalCodec.decodeTransaction(payload), end);
+            } else if (kind == JournalCodec.KIND_ACCOUNT_OPENED) {
+                visitor.onAccountOpened(JournalCodec.decodeAccountOpened(payload), end);
+            } else if (kind == JournalCodec.KIND_ACCOUNT_STATUS) {
+                boolean active = JournalCodec.decodeStatusActive(payload);
+                visitor.onAccountStatusChanged(JournalCodec.decodeStatusAccountId(payload), active, end);
+            } else {
+                throw new JournalException("Unknown journal record kind " + kind + " at offset " + position);
+            }
+            position = end;
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal at offset " + position);
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+}
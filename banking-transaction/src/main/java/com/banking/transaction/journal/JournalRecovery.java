@@ -0,0 +1,62 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.transaction.service.TransactionService;
+
+import java.nio.file.Path;
+
+/**
+ * Rebuilds in-memory state at startup from the latest account snapshot plus the journal tail.
+ * <p>
+ * Balances are restored directly rather than by re-running deposits and withdrawals: the snapshot
+ * supplies them up to its journal position and only records after it are applied. Transaction
+ * history is different, since the snapshot does not hold it: transactions are made queryable
+ * again from the history position on, or from the snapshot position if that is lower. A store
+ * that keeps its history in memory needs the whole journal, so its history position is zero,
+ * while a tiered store only needs what it had not sealed before the restart (see
+ * {@link com.banking.transaction.store.TieredTransactionStore#getJournalPosition()}). History older
+ * than the oldest segment still in the journal cannot be replayed and is skipped.
+ */
+public final class JournalRecovery {
+
+    private JournalRecovery() {
+    }
+
+    /**
+     * Restores accounts and every journaled transaction into empty services. Must run before the services
+     * are attached to the journal and before they accept requests.
+     *
+     * @return the journal position recovered up to
+     */
+    public static long recover(Path journalFile, Path snapshotDirectory,
+                               AccountService accountService, TransactionService transactionService) {
+        return recover(journalFile, snapshotDirectory, 0, accountService, transactionService);
+    }
+
+    /**
+     * Restores accounts and the journaled transactions from {@code historyPosition} on into empty
+     * services, for a transaction store that already holds the history before that position.
+     *
+     * @return the journal position recovered up to
+     */
+    public static long recover(Path journalFile, Path snapshotDirectory, long historyPosition,
+                               AccountService accountService, TransactionService transactionService) {
+        AccountSnapshot snapshot = AccountSnapshot.latest(snapshotDirectory);
+        long from = snapshot == null ? 0 : snapshot.getJournalPosition();
+        long historyFrom = Math.max(Math.min(historyPosition, from), JournalReader.startPosition(journalFile));
+        if (historyFrom < from) {
+            // Covered by the snapshot for balances, but not for history
+            JournalReader.replay(journalFile, historyFrom, from,
+                (transaction, end) -> transactionService.restoreTransaction(transaction));
+        }
+        JournalTail tail = JournalTail.read(journalFile, from, Long.MAX_VALUE, transactionService::restoreTransaction);
+        if (snapshot != null) {
+            snapshot.forEach(account -> accountService.restoreAccount(tail.apply(account)));
+        }
+        for (Account account : tail.getOpenedAccounts()) {
+            accountService.restoreAccount(tail.apply(account));
+        }
+        return tail.getEndPosition();
+    }
+}
@@ -0,0 +1,100 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Net effect on account state of the journal records after a snapshot: per-account balance
+ * deltas, the latest status of accounts that were activated or deactivated, and accounts opened.
+ * Deltas commute, so the order in which concurrent transactions reached the journal is irrelevant.
+ */
+final class JournalTail implements JournalReader.Visitor {
+    private final Map<String, Long> balanceDeltas = new HashMap<>();
+    private final Map<String, Boolean> statuses = new HashMap<>();
+    private final Map<String, Account> opened = new LinkedHashMap<>();
+    private final Consumer<Transaction> transactionSink;
+    private long endPosition;
+
+    private JournalTail(long fromPosition, Consumer<Transaction> transactionSink) {
+        this.endPosition = fromPosition;
+        this.transactionSink = transactionSink;
+    }
+
+    /**
+     * Reads the records in {@code [fromPosition, toPosition)}, passing each transaction to
+     * {@code transactionSink} as well.
+     */
+    static JournalTail read(Path journalFile, long fromPosition, long toPosition, Consumer<Transaction> transactionSink) {
+        JournalTail tail = new JournalTail(fromPosition, transactionSink);
+        tail.endPosition = JournalReader.replay(journalFile, fromPosition, toPosition, tail);
+        return tail;
+    }
+
+    @Override
+    public void onTransaction(Transaction transaction, long endPosition) {
+        long minorUnits = transaction.getAmount().minorUnits();
+        if (transaction.getType() == TransactionType.WITHDRAWAL) {
+            addDelta(transaction.getAccountId(), -minorUnits);
+        } else if (transaction.getType() == TransactionType.TRANSFER) {
+            addDelta(transaction.getAccountId(), -minorUnits);
+            addDelta(transaction.getRelatedAccountId(), minorUnits);
+        } else {
+            addDelta(transaction.getAccountId(), minorUnits);
+        }
+        transactionSink.accept(transaction);
+    }
+
+    @Override
+    public void onAccountOpened(Account account, long endPosition) {
+        opened.put(account.getAccountId(), account);
+    }
+
+    @Override
+    public void onAccountStatusChanged(String accountId, boolean active, long endPosition) {
+        statuses.put(accountId, active);
+    }
+
+    /**
+     * Offset just past the last record read; the position a snapshot built from this tail covers.
+     */
+    long getEndPosition() {
+        return endPosition;
+    }
+
+    /**
+     * Accounts opened within the tail, as opened, in journal order.
+     */
+    Collection<Account> getOpenedAccounts() {
+        return opened.values();
+    }
+
+    /**
+     * Returns the account with this tail applied, or the account itself if the tail did not touch it.
+     */
+    Account apply(Account account) {
+        Long delta = balanceDeltas.get(account.getAccountId());
+        Boolean active = statuses.get(account.getAccountId());
+        if (delta == null && active == null) {
+            return account;
+        }
+        Money balance = account.getBalance();
+        if (delta != null) {
+            balance = balance.add(Money.ofMinor(delta, balance.currency()));
+        }
+        return new Account(account.getAccountId(), account.getCustomerId(), account.getAccountType(),
+            balance, active == null ? account.isActive() : active);
+    }
+
+    private void addDelta(String accountId, long minorUnits) {
+        balanceDeltas.merge(accountId, minorUnits, Math::addExact);
+    }
+}
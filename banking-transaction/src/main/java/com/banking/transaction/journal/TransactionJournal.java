@@ -0,0 +1,465 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountListener;
+import com.banking.transaction.domain.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only binary journal of transactions with group commit.
+ * <p>
+ * Callers encode their record on their own thread and hand it to a single writer thread. The
+ * writer takes the first pending record, keeps collecting more for up to the configured batch
+ * delay (or until {@code maxBatchRecords} are pending), writes them with one {@link FileChannel}
+ * write and makes them durable with one {@code force}. Every caller in the batch is then released
+ * together, so one fsync is shared by as many transactions as arrive within the latency budget.
+ * A zero delay still batches whatever queued up while the previous fsync was running.
+ * <p>
+ * At most {@code 16 * maxBatchRecords} records wait for the writer; further callers block until
+ * it catches up, so a slow disk pushes back on callers instead of filling the heap.
+ * <p>
+ * A failed write or force is fatal: the file is truncated back to the last durable position and
+ * every later append is rejected, so the journal never holds a record whose caller was told it
+ * failed, nor records that follow a gap. Reopening the journal resumes after the failure.
+ * <p>
+ * On open, any torn record left at the end of the file by a crash is truncated away.
+ * <p>
+ * The journal is split into segment files (see {@link JournalReader}). Once the current segment
+ * reaches {@code maxSegmentBytes} the next batch starts a new one, so whole segments that nothing
+ * needs any more can be {@link #retireBefore(long) retired} while positions stay unchanged.
+ * <p>
+ * Registered as an {@link AccountListener}, the journal also records account openings and status
+ * changes, so the journal alone is enough to rebuild every account (see {@link JournalRecovery}).
+ */
+public class TransactionJournal implements AccountListener, Closeable {
+    private static final int DEFAULT_MAX_BATCH_RECORDS = 4096;
+    private static final int PENDING_BATCHES = 16;
+    private static final int WRITE_BUFFER_BYTES = 1024 * 1024;
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final PendingRecord SHUTDOWN = new PendingRecord(new byte[0], false);
+
+    private final Path file;
+    private final long maxBatchDelayNanos;
+    private final int maxBatchRecords;
+    private final long maxSegmentBytes;
+    // Start of every tracked record that is durable but not yet applied, by its end
+    private final NavigableMap<Long, Long> unapplied = new ConcurrentSkipListMap<>();
+    private final BlockingQueue<PendingRecord> pending;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+    private final Thread writer;
+    // Only the writer thread switches segments; close() reads the channel once the writer stopped
+    private FileChannel channel;
+    private long segmentStart;
+    private volatile boolean closed;
+    private volatile JournalException failure;
+    private volatile long durablePosition;
+
+    public TransactionJournal(Path file, Duration maxBatchDelay) {
+        this(file, maxBatchDelay, DEFAULT_MAX_BATCH_RECORDS);
+    }
+
+    public TransactionJournal(Path file, Duration maxBatchDelay, int maxBatchRecords) {
+        this(file, maxBatchDelay, maxBatchRecords, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    public TransactionJournal(Path file, Duration maxBatchDelay, int maxBatchRecords, long maxSegmentBytes) {
+        if (file == null) {
+            throw new IllegalArgumentException("Journal file cannot be null");
+        }
+        if (maxBatchDelay == null || maxBatchDelay.isNegative()) {
+            throw new IllegalArgumentException("Batch delay must be zero or positive");
+        }
+        if (maxBatchRecords <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (maxSegmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.file = file;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.maxBatchRecords = maxBatchRecords;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.pending = new LinkedBlockingQueue<>(maxBatchRecords * PENDING_BATCHES);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // Earlier segments were forced before the next one began, so only the last can be torn
+            NavigableMap<Long, Path> segments = JournalReader.segments(file);
+            this.segmentStart = segments.isEmpty() ? 0 : segments.lastKey();
+            this.channel = FileChannel.open(JournalReader.segmentFile(file, segmentStart),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validEnd = JournalReader.replay(channel, segmentStart, segmentStart, Long.MAX_VALUE,
+                (transaction, end) -> { });
+            channel.truncate(validEnd - segmentStart);
+            channel.position(validEnd - segmentStart);
+            this.durablePosition = validEnd;
+        } catch (IOException e) {
+            throw new JournalException("Cannot open journal " + file, e);
+        }
+        this.writer = new Thread(this::writeLoop, "transaction-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Queues a transaction for the next group commit.
+     *
+     * @return a future completed with the journal offset just past the record once it is durable
+     */
+    public CompletableFuture<Long> append(Transaction transaction) {
+        return append(JournalCodec.encode(transaction), false);
+    }
+
+    /**
+     * Like {@link #append(Transaction)}, but the record holds back {@link #getAppliedPosition()}
+     * until the caller passes the position the future completed with to {@link #markApplied(long)}.
+     */
+    public CompletableFuture<Long> appendTracked(Transaction transaction) {
+        return append(JournalCodec.encode(transaction), true);
+    }
+
+    /**
+     * Releases a record appended with {@link #appendTracked(Transaction)}, once the caller has
+     * applied it, e.g. made it queryable.
+     *
+     * @param endPosition the position the record's future completed with
+     */
+    public void markApplied(long endPosition) {
+        unapplied.remove(endPosition);
+    }
+
+    /**
+     * Position below which every record is durable and every tracked record has been marked
+     * applied. It never passes the start of a tracked record that is still being applied.
+     */
+    public long getAppliedPosition() {
+        // Entries are added before the durable position moves past them, so reading it first is safe
+        long durable = durablePosition;
+        Map.Entry<Long, Long> oldest = unapplied.firstEntry();
+        return oldest == null ? durable : Math.min(durable, oldest.getValue());
+    }
+
+    /**
+     * Deletes every segment that ends at or before {@code position}. The segment being written is
+     * always kept.
+     *
+     * @return the number of segments deleted
+     */
+    public int retireBefore(long position) {
+        NavigableMap<Long, Path> segments = JournalReader.segments(file);
+        int retired = 0;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long next = segments.higherKey(segment.getKey());
+            if (next == null || next > position) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segment.getValue());
+            } catch (IOException e) {
+                throw new JournalException("Cannot retire journal segment " + segment.getValue(), e);
+            }
+            retired++;
+        }
+        return retired;
+    }
+
+    /**
+     * Appends a transaction and blocks until the batch containing it is durable.
+     *
+     * @throws JournalException if the record could not be written or forced to disk
+     */
+    public void appendDurably(Transaction transaction) {
+        await(append(transaction));
+    }
+
+    /**
+     * Appends transactions and blocks until all of them are durable. They are queued together,
+     * so they share group commits instead of paying one each.
+     *
+     * @throws JournalException if a record could not be written or forced to disk
+     */
+    public void appendDurably(Collection<Transaction> transactions) {
+        List<CompletableFuture<Long>> durable = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            durable.add(append(transaction));
+        }
+        for (CompletableFuture<Long> future : durable) {
+            await(future);
+        }
+    }
+
+    @Override
+    public void onAccountOpened(Account account) {
+        await(append(JournalCodec.encodeAccountOpened(account), false));
+    }
+
+    @Override
+    public void onAccountStatusChanged(Account account) {
+        await(append(JournalCodec.encodeAccountStatus(account.getAccountId(), account.isActive()), false));
+    }
+
+    private CompletableFuture<Long> append(byte[] bytes, boolean tracked) {
+        if (closed) {
+            throw new JournalException("Journal " + file + " is closed");
+        }
+        JournalException failed = failure;
+        if (failed != null) {
+            throw rejectedAfter(failed);
+        }
+        PendingRecord record = new PendingRecord(bytes, tracked);
+        enqueue(record);
+        if (closed && pending.remove(record)) {
+            rejectClosed(record);
+        }
+        return record.durable;
+    }
+
+    // Blocks while the writer is a full queue behind
+    private void enqueue(PendingRecord record) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.put(record);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private JournalException rejectedAfter(JournalException failed) {
+        return new JournalException("Journal " + file + " stopped accepting records after a failed write", failed);
+    }
+
+    private static void await(CompletableFuture<Long> durable) {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof JournalException ? (JournalException) cause
+                : new JournalException("Journal write failed", cause);
+        }
+    }
+
+    /**
+     * Offset up to which the journal is known to be on stable storage.
+     */
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    /**
+     * Whether a write or force has failed, after which every append is rejected.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Stops accepting records, commits everything already queued and closes the file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        enqueue(SHUTDOWN);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new JournalException("Cannot close journal " + file, e);
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            collectBatch(batch);
+            int shutdownAt = batch.indexOf(SHUTDOWN);
+            if (shutdownAt >= 0) {
+                running = false;
+                List<PendingRecord> late = batch.subList(shutdownAt, batch.size());
+                late.forEach(TransactionJournal::rejectClosed);
+                late.clear();
+            }
+            JournalException failed = failure;
+            if (failed == null) {
+                commit(batch);
+            } else {
+                JournalException rejected = rejectedAfter(failed);
+                batch.forEach(record -> record.durable.completeExceptionally(rejected));
+            }
+            batch.clear();
+        }
+        // Anything that raced with close() is rejected rather than left hanging
+        PendingRecord orphan;
+        while ((orphan = pending.poll()) != null) {
+            rejectClosed(orphan);
+        }
+    }
+
+    // Waits for the first record, then gathers more within the latency budget
+    private void collectBatch(List<PendingRecord> batch) {
+        batch.add(takeUninterruptibly());
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        pending.drainTo(batch, maxBatchRecords - batch.size());
+        while (batch.size() < maxBatchRecords && !closed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingRecord next;
+            try {
+                next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // The writer is only stopped through close(); keep the latency budget
+                continue;
+            }
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            pending.drainTo(batch, maxBatchRecords - batch.size());
+        }
+    }
+
+    private PendingRecord takeUninterruptibly() {
+        while (true) {
+            try {
+                return pending.take();
+            } catch (InterruptedException e) {
+                // The writer is only stopped through close()
+            }
+        }
+    }
+
+    private static void rejectClosed(PendingRecord record) {
+        if (record != SHUTDOWN) {
+            record.durable.completeExceptionally(new JournalException("Journal is closed"));
+        }
+    }
+
+    private void commit(List<PendingRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (channel.position() >= maxSegmentBytes) {
+                startSegment();
+            }
+            long position = segmentStart + channel.position();
+            long[] ends = new long[batch.size()];
+            writeBuffer.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                byte[] bytes = batch.get(i).bytes;
+                if (writeBuffer.remaining() < bytes.length) {
+                    flushBuffer();
+                }
+                if (bytes.length > writeBuffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes));
+                } else {
+                    writeBuffer.put(bytes);
+                }
+                position += bytes.length;
+                ends[i] = position;
+            }
+            flushBuffer();
+            channel.force(false);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).tracked) {
+                    unapplied.put(ends[i], ends[i] - batch.get(i).bytes.length);
+                }
+            }
+            durablePosition = position;
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).durable.complete(ends[i]);
+            }
+        } catch (IOException | RuntimeException e) {
+            JournalException failed = new JournalException("Journal write to " + file + " failed", e);
+            // Part of the batch may have reached the file; none of it may survive a restart
+            try {
+                channel.truncate(durablePosition - segmentStart);
+                channel.position(durablePosition - segmentStart);
+                channel.force(false);
+            } catch (IOException | RuntimeException truncateFailure) {
+                failed.addSuppressed(truncateFailure);
+            }
+            failure = failed;
+            for (PendingRecord record : batch) {
+                record.durable.completeExceptionally(failed);
+            }
+        }
+    }
+
+    // The current segment is durable up to its end, so the next one starts at the durable position
+    private void startSegment() throws IOException {
+        long start = durablePosition;
+        FileChannel next = FileChannel.open(JournalReader.segmentFile(file, start),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel previous = channel;
+        channel = next;
+        segmentStart = start;
+        previous.close();
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class PendingRecord {
+        final byte[] bytes;
+        final boolean tracked;
+        final CompletableFuture<Long> durable = new CompletableFuture<>();
+
+        PendingRecord(byte[] bytes, boolean tracked) {
+            this.bytes = bytes;
+            this.tracked = tracked;
+        }
+    }
+}
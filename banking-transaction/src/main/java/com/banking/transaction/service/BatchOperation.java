@@ -0,0 +1,69 @@
+package com.banking.transaction.service;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+
+/**
+ * One deposit, withdrawal or transfer of a {@link TransactionService#processBatch batch}, or one
+ * interest credit of a {@link TransactionService#creditInterest} call.
+ * <p>
+ * Operations are not validated when built; an invalid operation fails on its own when the batch
+ * is processed, without affecting the rest.
+ */
+public class BatchOperation {
+    private final TransactionType type;
+    private final String accountId;
+    private final String toAccountId;
+    private final Money amount;
+    private final String description;
+
+    public BatchOperation(TransactionType type, String accountId, String toAccountId, Money amount, String description) {
+        this.type = type;
+        this.accountId = accountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.description = description;
+    }
+
+    public static BatchOperation deposit(String accountId, Money amount, String description) {
+        return new BatchOperation(TransactionType.DEPOSIT, accountId, null, amount, description);
+    }
+
+    public static BatchOperation withdrawal(String accountId, Money amount, String description) {
+        return new BatchOperation(TransactionType.WITHDRAWAL, accountId, null, amount, description);
+    }
+
+    public static BatchOperation transfer(String fromAccountId, String toAccountId, Money amount, String description) {
+        return new BatchOperation(TransactionType.TRANSFER, fromAccountId, toAccountId, amount, description);
+    }
+
+    public static BatchOperation interestCredit(String accountId, Money amount, String description) {
+        return new BatchOperation(TransactionType.INTEREST_CREDIT, accountId, null, amount, description);
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    /**
+     * The account deposited to, withdrawn from or credited, or the source of a transfer.
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * The destination of a transfer; {@code null} for other operations.
+     */
+    public String getToAccountId() {
+        return toAccountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,326 @@
+package com.banking.transaction.service;
+
+import com.banking.account.service.AccountService;
+import com.banking.account.table.AccountTable;
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.transaction.domain.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Executes one {@link TransactionService#processBatch} call.
+ * <p>
+ * The batch is first planned into units: an operation on its own or, when netting, every transfer
+ * between the same two accounts in the same currency combined into one net transfer at the
+ * position of the first. Accounts are resolved to handles while planning, then all units are
+ * applied under a single acquisition of every lock stripe they touch, and their transactions are
+ * journaled together. With a sequencer the units are instead submitted in order and awaited
+ * together.
+ */
+final class BatchProcessor {
+    private static final Unit[] NO_UNITS = new Unit[0];
+
+    private final TransactionService service;
+    private final AccountService accountService;
+    private final AccountTable table;
+    private final BatchResult[] results;
+    private final boolean interestCredits;
+
+    /**
+     * @param interestCredits whether the batch is made of interest credits, which are accepted in
+     *                        no other batch
+     */
+    BatchProcessor(TransactionService service, int size, boolean interestCredits) {
+        this.service = service;
+        this.accountService = service.getAccountService();
+        this.table = accountService.getTable();
+        this.results = new BatchResult[size];
+        this.interestCredits = interestCredits;
+    }
+
+    List<BatchResult> process(List<BatchOperation> operations, boolean netTransfers, TransactionSequencer sequencer) {
+        Unit[] units = plan(operations, netTransfers);
+        if (sequencer != null) {
+            applyThrough(sequencer, units);
+        } else {
+            applyUnderLocks(units);
+        }
+        for (Unit unit : units) {
+            for (int index : unit.items) {
+                results[index] = unit.error != null ? BatchResult.failed(unit.error)
+                    : BatchResult.completed(unit.transaction, unit.isNetted());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Unit[] plan(List<BatchOperation> operations, boolean netTransfers) {
+        List<Unit> units = new ArrayList<>(operations.size());
+        Map<Long, Unit> nets = netTransfers ? new HashMap<>() : null;
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            String problem = validate(operation);
+            if (problem != null) {
+                results[i] = BatchResult.failed(problem);
+                continue;
+            }
+            Unit unit = new Unit(operation, i);
+            try {
+                unit.account = accountService.getHandle(unit.accountId);
+                if (unit.type == TransactionType.TRANSFER) {
+                    unit.toAccount = accountService.getHandle(unit.toAccountId);
+                }
+            } catch (RuntimeException e) {
+                unit.error = e.getMessage();
+            }
+            if (nets == null || unit.type != TransactionType.TRANSFER || unit.error != null
+                    || unit.account == unit.toAccount) {
+                units.add(unit);
+                continue;
+            }
+            if (unit.amount.signum() <= 0) {
+                results[i] = BatchResult.failed("Transfer amount must be positive");
+                continue;
+            }
+            // Key on the unordered pair of handles so that A->B and B->A offset each other
+            long key = (long) Math.min(unit.account, unit.toAccount) << 32 | Math.max(unit.account, unit.toAccount);
+            Unit net = nets.get(key);
+            if (net == null) {
+                nets.put(key, unit);
+                units.add(unit);
+            } else if (net.amount.currency() != unit.amount.currency()) {
+                // Never nets across currencies; at most one of the two can match the accounts
+                units.add(unit);
+            } else {
+                net.net(unit);
+            }
+        }
+        for (Unit unit : units) {
+            unit.finishNetting();
+        }
+        return units.toArray(NO_UNITS);
+    }
+
+    private String validate(BatchOperation operation) {
+        if (operation == null) {
+            return "Operation cannot be null";
+        }
+        TransactionType type = operation.getType();
+        if (interestCredits ? type != TransactionType.INTEREST_CREDIT
+                : type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAWAL && type != TransactionType.TRANSFER) {
+            return "Unsupported batch operation: " + type;
+        }
+        if (operation.getAccountId() == null || operation.getAccountId().trim().isEmpty()) {
+            return "Account ID cannot be null or empty";
+        }
+        if (type == TransactionType.TRANSFER
+                && (operation.getToAccountId() == null || operation.getToAccountId().trim().isEmpty())) {
+            return "Destination account ID cannot be null or empty";
+        }
+        if (operation.getAmount() == null) {
+            return "Amount cannot be null";
+        }
+        return null;
+    }
+
+    private void applyUnderLocks(Unit[] units) {
+        List<String> lockedAccounts = new ArrayList<>(units.length * 2);
+        for (Unit unit : units) {
+            if (unit.error == null) {
+                lockedAccounts.add(unit.accountId);
+                if (unit.type == TransactionType.TRANSFER) {
+                    lockedAccounts.add(unit.toAccountId);
+                }
+            }
+        }
+
+        accountService.getLocks().withLocks(lockedAccounts, () -> {
+            for (Unit unit : units) {
+                if (unit.error == null) {
+                    try {
+                        apply(unit);
+                    } catch (RuntimeException e) {
+                        unit.error = e.getMessage();
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<Transaction> recorded = new ArrayList<>(units.length);
+        List<Unit> recordedUnits = new ArrayList<>(units.length);
+        for (Unit unit : units) {
+            if (unit.error == null && unit.amount.signum() != 0) {
+                unit.transaction = new Transaction(service.nextTransactionId(), unit.accountId, unit.type,
+                    unit.amount, unit.description, unit.type == TransactionType.TRANSFER ? unit.toAccountId : null);
+                recorded.add(unit.transaction);
+                recordedUnits.add(unit);
+            }
+        }
+        RuntimeException[] failures = service.recordAll(recorded);
+        if (failures != null) {
+            for (int i = 0; i < failures.length; i++) {
+                if (failures[i] != null) {
+                    Unit unit = recordedUnits.get(i);
+                    unit.transaction = null;
+                    unit.error = failures[i].getMessage();
+                }
+            }
+        }
+    }
+
+    private void apply(Unit unit) {
+        switch (unit.type) {
+            case DEPOSIT:
+            case INTEREST_CREDIT:
+                table.deposit(unit.account, unit.amount);
+                break;
+            case WITHDRAWAL:
+                table.withdraw(unit.account, unit.amount);
+                break;
+            default:
+                if (unit.isNetted() && unit.amount.signum() == 0) {
+                    validateOffsetting(unit);
+                    break;
+                }
+                // Same sequence as TransactionService#transfer, under locks already held
+                table.validateDeposit(unit.toAccount, unit.amount);
+                table.withdraw(unit.account, unit.amount);
+                try {
+                    table.deposit(unit.toAccount, unit.amount);
+                } catch (RuntimeException e) {
+                    table.reverseWithdrawal(unit.account, unit.amount);
+                    throw e;
+                }
+        }
+    }
+
+    // Transfers that cancel out move nothing, but must still be between live accounts of their currency
+    private void validateOffsetting(Unit unit) {
+        for (int handle : new int[] {unit.account, unit.toAccount}) {
+            if (!table.isActive(handle)) {
+                throw new InvalidAccountException("Account " + table.accountId(handle) + " is not active");
+            }
+            if (table.currency(handle) != unit.amount.currency()) {
+                throw new IllegalArgumentException("Cannot add different currencies");
+            }
+        }
+    }
+
+    private void applyThrough(TransactionSequencer sequencer, Unit[] units) {
+        List<CompletableFuture<Transaction>> pending = new ArrayList<>(units.length);
+        for (Unit unit : units) {
+            CompletableFuture<Transaction> result = null;
+            if (unit.error != null) {
+                pending.add(null);
+                continue;
+            }
+            try {
+                result = submit(sequencer, unit);
+            } catch (RuntimeException e) {
+                unit.error = e.getMessage();
+            }
+            pending.add(result);
+        }
+        for (int i = 0; i < units.length; i++) {
+            if (pending.get(i) != null) {
+                try {
+                    units[i].transaction = TransactionSequencer.await(pending.get(i));
+                } catch (RuntimeException e) {
+                    units[i].error = e.getMessage();
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Transaction> submit(TransactionSequencer sequencer, Unit unit) {
+        switch (unit.type) {
+            case DEPOSIT:
+                return sequencer.submitDeposit(unit.accountId, unit.amount, unit.description);
+            case WITHDRAWAL:
+                return sequencer.submitWithdrawal(unit.accountId, unit.amount, unit.description);
+            case INTEREST_CREDIT:
+                return sequencer.submitInterestCredit(unit.accountId, unit.amount, unit.description);
+            default:
+                if (unit.isNetted() && unit.amount.signum() == 0) {
+                    validateOffsetting(unit);
+                    return null;
+                }
+                return sequencer.submitTransfer(unit.accountId, unit.toAccountId, unit.amount, unit.description);
+        }
+    }
+
+    /**
+     * An operation, or several netted transfers, applied as one balance change.
+     */
+    private static final class Unit {
+        final TransactionType type;
+        String accountId;
+        String toAccountId;
+        Money amount;
+        String description;
+        int[] items;
+        int itemCount;
+        // Sum of netted transfers in the accountId -> toAccountId direction
+        long netMinorUnits;
+        int account = AccountTable.NOT_FOUND;
+        int toAccount = AccountTable.NOT_FOUND;
+        Transaction transaction;
+        String error;
+
+        Unit(BatchOperation operation, int index) {
+            this.type = operation.getType();
+            this.accountId = operation.getAccountId();
+            this.toAccountId = operation.getToAccountId();
+            this.amount = operation.getAmount();
+            this.description = operation.getDescription();
+            this.items = new int[] {index};
+            this.itemCount = 1;
+            this.netMinorUnits = amount.minorUnits();
+        }
+
+        void net(Unit transfer) {
+            if (itemCount == items.length) {
+                items = Arrays.copyOf(items, itemCount * 2);
+            }
+            items[itemCount++] = transfer.items[0];
+            long minorUnits = transfer.amount.minorUnits();
+            try {
+                netMinorUnits = Math.addExact(netMinorUnits, transfer.account == account ? minorUnits : -minorUnits);
+            } catch (ArithmeticException e) {
+                error = "Netted transfer amount overflows";
+            }
+        }
+
+        boolean isNetted() {
+            return itemCount > 1;
+        }
+
+        // Turns a netting group into one transfer in the direction money actually moves
+        void finishNetting() {
+            items = Arrays.copyOf(items, itemCount);
+            if (!isNetted()) {
+                return;
+            }
+            Currency currency = amount.currency();
+            if (netMinorUnits < 0) {
+                String fromId = toAccountId;
+                toAccountId = accountId;
+                accountId = fromId;
+                int from = toAccount;
+                toAccount = account;
+                account = from;
+            }
+            amount = Money.ofMinor(Math.abs(netMinorUnits), currency);
+            description = "Net settlement of " + itemCount + " transfers";
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.transaction.service;
+
+import com.banking.transaction.domain.Transaction;
+
+/**
+ * Outcome of one operation of a {@link TransactionService#processBatch batch}.
+ */
+public final class BatchResult {
+    private final Transaction transaction;
+    private final String error;
+    private final boolean netted;
+
+    private BatchResult(Transaction transaction, String error, boolean netted) {
+        this.transaction = transaction;
+        this.error = error;
+        this.netted = netted;
+    }
+
+    static BatchResult completed(Transaction transaction, boolean netted) {
+        return new BatchResult(transaction, null, netted);
+    }
+
+    static BatchResult failed(String error) {
+        return new BatchResult(null, error, false);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * The recorded transaction. For a netted transfer this is the net transfer shared by every
+     * transfer it combines, or {@code null} if they cancelled out; for a failure it is {@code null}.
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Why the operation was rejected, or {@code null} if it succeeded.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Whether the operation was a transfer combined with others between the same two accounts.
+     */
+    public boolean isNetted() {
+        return netted;
+    }
+}
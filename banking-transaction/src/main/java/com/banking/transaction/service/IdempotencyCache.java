@@ -0,0 +1,212 @@
+package com.banking.transaction.service;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of each operation submitted with an idempotency key, so that a retried
+ * request returns the original result instead of executing again.
+ * <p>
+ * Entries live in a concurrent map and, in insertion order, in a queue; because every entry lives
+ * for the same time, the queue is also in expiry order. Each insertion evicts from the head of the
+ * queue while the map holds more than {@code maxEntries} entries or the head has expired, so memory
+ * is bounded by entry count and age and eviction is O(1) per entry. A lookup is one map read.
+ * Entries that left the map early, because their operation threw or their key was reused after
+ * expiry, do not count against the bound; they are skipped at the head, and purged from the queue
+ * once it is twice the bound, so failing requests never push out remembered results.
+ * <p>
+ * The first request for a key executes; duplicates arriving while it runs wait for its result. A
+ * result is remembered whether the operation succeeded or was declined; an operation that throws
+ * is forgotten, so a retry executes again. Evicting an entry that is still in flight only means
+ * that a later duplicate executes again.
+ * <p>
+ * Keys are not scoped per client. The API identifies clients only by remote address, which a
+ * client retrying through another proxy, NAT mapping or network does not keep, and a retry under a
+ * new scope would execute again. Instead a key is tied to its request: reusing it for a different
+ * operation, account or amount is rejected rather than answered with the other request's result.
+ */
+public class IdempotencyCache {
+    /**
+     * Longest key accepted, so that entry count bounds memory.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    // Entries in the map; the bound eviction enforces
+    private final AtomicInteger live = new AtomicInteger();
+    // Entries in the queue, which include removed ones not yet reached
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Requests answered from the cache instead of executing.
+     */
+    public long getReplays() {
+        return replays.sum();
+    }
+
+    /**
+     * Runs the operation once per key and returns its result to every request with that key.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     * @throws IllegalArgumentException      if the key is empty or longer than {@link #MAX_KEY_LENGTH}
+     */
+    TransactionResult execute(String key, TransactionType type, String accountId, String toAccountId, Money amount,
+                              Supplier<TransactionResult> operation) {
+        if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        Entry entry = new Entry(key, type, accountId, toAccountId, amount, clock.getAsLong() + ttlNanos);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                live.incrementAndGet();
+                break;
+            }
+            if (existing.expiresAt - clock.getAsLong() > 0) {
+                if (!existing.matches(type, accountId, toAccountId, amount)) {
+                    throw new IdempotencyKeyReusedException("Idempotency key " + key + " was used for a different request");
+                }
+                replays.increment();
+                return awaitResult(existing.result);
+            }
+            remove(existing);
+        }
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        evict();
+
+        TransactionResult result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException | Error e) {
+            remove(entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        entry.result.complete(result);
+        return result;
+    }
+
+    // One thread evicts at a time, so the head it checks is the head it polls; others skip
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = clock.getAsLong();
+            Entry head;
+            while ((head = insertionOrder.peek()) != null
+                    && (!isLive(head) || live.get() > maxEntries || head.expiresAt - now <= 0)) {
+                insertionOrder.poll();
+                queued.decrementAndGet();
+                remove(head);
+            }
+            if (queued.get() > 2 * maxEntries) {
+                purgeRemoved();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // Walks the whole queue, but only once per maxEntries removed entries it can drop
+    private void purgeRemoved() {
+        for (Iterator<Entry> it = insertionOrder.iterator(); it.hasNext(); ) {
+            if (!isLive(it.next())) {
+                it.remove();
+                queued.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean isLive(Entry entry) {
+        return entries.get(entry.key) == entry;
+    }
+
+    private void remove(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            live.decrementAndGet();
+        }
+    }
+
+    // Rethrows the first request's failure unwrapped, as the service would have
+    private static TransactionResult awaitResult(CompletableFuture<TransactionResult> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final TransactionType type;
+        final String accountId;
+        final String toAccountId;
+        final Money amount;
+        final long expiresAt;
+        final CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+
+        Entry(String key, TransactionType type, String accountId, String toAccountId, Money amount, long expiresAt) {
+            this.key = key;
+            this.type = type;
+            this.accountId = accountId;
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean matches(TransactionType type, String accountId, String toAccountId, Money amount) {
+            return this.type == type && Objects.equals(this.accountId, accountId)
+                && Objects.equals(this.toAccountId, toAccountId) && Objects.equals(this.amount, amount);
+        }
+    }
+}
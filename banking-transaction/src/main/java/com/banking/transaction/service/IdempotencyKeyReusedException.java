@@ -0,0 +1,10 @@
+package com.banking.transaction.service;
+
+/**
+ * Thrown when an idempotency key that is still remembered arrives with a different request.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,95 @@
+package com.banking.transaction.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number that tells producers whether the slot is free for the
+ * lap they are on and tells the consumer whether it has been published, so producers only
+ * contend on one compare-and-set of the tail and the consumer never writes shared counters.
+ */
+final class RingBuffer<E> {
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findVarHandle(RingBuffer.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private volatile long tail;
+    private long head; // consumer thread only
+
+    RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element unless the buffer is full. Safe to call from any thread.
+     */
+    boolean offer(E element) {
+        long position = tail;
+        while (true) {
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (TAIL.weakCompareAndSet(this, position, position + 1)) {
+                    elements[index] = element;
+                    // Publishes the element to the consumer
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail;
+            } else if (lag < 0) {
+                return false;
+            } else {
+                position = tail;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest published element, or returns {@code null} if there is none. Must only
+     * be called from the single consumer thread.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        // Frees the slot for the producer one lap ahead
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * Whether {@link #poll()} would currently return {@code null}. Consumer thread only.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
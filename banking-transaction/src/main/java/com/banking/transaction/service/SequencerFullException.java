@@ -0,0 +1,11 @@
+package com.banking.transaction.service;
+
+/**
+ * Thrown when a {@link TransactionSequencer} worker's queue stays full for longer than the
+ * sequencer's submit wait, so the request is rejected without being applied.
+ */
+public class SequencerFullException extends RuntimeException {
+    public SequencerFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.banking.transaction.service;
+
+import com.banking.transaction.domain.Transaction;
+
+/**
+ * Callback for transactions recorded through {@link TransactionService}.
+ * <p>
+ * Called once the transaction is durable, on the thread that completed it, so implementations
+ * must hand work off rather than block. Exceptions thrown by a listener are only counted
+ * ({@code transaction.listener-failures}); the transaction has already happened.
+ */
+public interface TransactionListener {
+
+    void onTransactionRecorded(Transaction transaction);
+}
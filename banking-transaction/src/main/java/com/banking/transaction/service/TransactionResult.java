@@ -0,0 +1,56 @@
+package com.banking.transaction.service;
+
+import com.banking.core.domain.TransactionOutcome;
+import com.banking.transaction.domain.Transaction;
+
+/**
+ * Outcome of one of the {@code try} operations of {@link TransactionService}.
+ * <p>
+ * Declines are shared preallocated instances, one per {@link TransactionOutcome}, so rejecting a
+ * request allocates nothing.
+ */
+public final class TransactionResult {
+    private static final TransactionResult[] DECLINED = new TransactionResult[TransactionOutcome.values().length];
+
+    static {
+        for (TransactionOutcome outcome : TransactionOutcome.values()) {
+            if (outcome != TransactionOutcome.OK) {
+                DECLINED[outcome.ordinal()] = new TransactionResult(outcome, null);
+            }
+        }
+    }
+
+    private final TransactionOutcome outcome;
+    private final Transaction transaction;
+
+    private TransactionResult(TransactionOutcome outcome, Transaction transaction) {
+        this.outcome = outcome;
+        this.transaction = transaction;
+    }
+
+    static TransactionResult completed(Transaction transaction) {
+        return new TransactionResult(TransactionOutcome.OK, transaction);
+    }
+
+    static TransactionResult declined(TransactionOutcome outcome) {
+        if (outcome == TransactionOutcome.OK) {
+            throw new IllegalArgumentException("A declined result needs a failure outcome");
+        }
+        return DECLINED[outcome.ordinal()];
+    }
+
+    public boolean isSuccess() {
+        return outcome == TransactionOutcome.OK;
+    }
+
+    public TransactionOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * The recorded transaction, or {@code null} if the operation was declined.
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+}
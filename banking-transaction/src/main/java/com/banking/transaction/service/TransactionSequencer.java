@@ -0,0 +1,442 @@
+package com.banking.transaction.service;
+
+import com.banking.account.table.AccountTable;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional execution engine that gives every account a single owning thread.
+ * <p>
+ * Accounts are partitioned by table handle across single-threaded workers, each fed by a bounded
+ * lock-free {@link RingBuffer}. Deposits and withdrawals run on the owning worker without locks
+ * or contention. A transfer between partitions is a two-step handoff: the source's worker debits
+ * the source and passes the transfer to the destination's worker, which credits the destination;
+ * if the credit is rejected the transfer goes back to the source's worker to be refunded.
+ * <p>
+ * Attach it with {@link TransactionService#setSequencer}; the service's synchronous methods then
+ * submit here and wait. Status changes made through {@code AccountService} are not sequenced, so
+ * a transfer racing a deactivation is refunded rather than prevented.
+ * <p>
+ * A submitter that finds its worker's ring full spins briefly, then parks with a growing backoff;
+ * if the ring is still full after {@code maxSubmitWait} it gets a {@link SequencerFullException},
+ * so an overloaded sequencer sheds requests instead of stalling their threads indefinitely.
+ */
+public class TransactionSequencer implements Closeable {
+    private static final int SPINS_BEFORE_PARKING = 256;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final Duration DEFAULT_MAX_SUBMIT_WAIT = Duration.ofSeconds(1);
+    private static final int NO_ACCOUNT = -1;
+
+    private final TransactionService service;
+    private final Partition[] partitions;
+    private final long maxSubmitWaitNanos;
+    private volatile boolean closed;
+
+    /**
+     * @param partitionCount number of worker threads, typically the number of cores
+     * @param ringCapacity   requests each worker can have queued; a power of two
+     */
+    public TransactionSequencer(TransactionService service, int partitionCount, int ringCapacity) {
+        this(service, partitionCount, ringCapacity, DEFAULT_MAX_SUBMIT_WAIT);
+    }
+
+    /**
+     * @param maxSubmitWait longest a submitter waits for room in a full ring before failing
+     */
+    public TransactionSequencer(TransactionService service, int partitionCount, int ringCapacity,
+                                Duration maxSubmitWait) {
+        if (service == null) {
+            throw new IllegalArgumentException("TransactionService cannot be null");
+        }
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        if (maxSubmitWait == null || maxSubmitWait.isNegative()) {
+            throw new IllegalArgumentException("Max submit wait must be zero or positive");
+        }
+        this.service = service;
+        this.maxSubmitWaitNanos = maxSubmitWait.toNanos();
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, ringCapacity);
+        }
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
+    }
+
+    public CompletableFuture<Transaction> submitDeposit(String accountId, Money amount, String description) {
+        int handle = service.getAccountService().getHandle(accountId);
+        return submit(new Command(Step.DEPOSIT, accountId, handle, null, NO_ACCOUNT, amount, description));
+    }
+
+    public CompletableFuture<Transaction> submitWithdrawal(String accountId, Money amount, String description) {
+        int handle = service.getAccountService().getHandle(accountId);
+        return submit(new Command(Step.WITHDRAWAL, accountId, handle, null, NO_ACCOUNT, amount, description));
+    }
+
+    /**
+     * Like {@link #submitDeposit}, but an ordinary decline completes the result with the shared
+     * {@link Declined} for its outcome instead of a new exception.
+     */
+    CompletableFuture<Transaction> submitTryDeposit(String accountId, Money amount, String description) {
+        int handle = service.getAccountService().getHandle(accountId);
+        return submit(new Command(Step.DEPOSIT, accountId, handle, null, NO_ACCOUNT, amount, description, true));
+    }
+
+    CompletableFuture<Transaction> submitTryWithdrawal(String accountId, Money amount, String description) {
+        int handle = service.getAccountService().getHandle(accountId);
+        return submit(new Command(Step.WITHDRAWAL, accountId, handle, null, NO_ACCOUNT, amount, description, true));
+    }
+
+    CompletableFuture<Transaction> submitTryTransfer(String fromAccountId, String toAccountId, Money amount,
+                                                     String description) {
+        int fromHandle = service.getAccountService().getHandle(fromAccountId);
+        int toHandle = service.getAccountService().getHandle(toAccountId);
+        return submit(new Command(Step.DEBIT, fromAccountId, fromHandle, toAccountId, toHandle, amount, description,
+            true));
+    }
+
+    CompletableFuture<Transaction> submitInterestCredit(String accountId, Money amount, String description) {
+        int handle = service.getAccountService().getHandle(accountId);
+        return submit(new Command(Step.INTEREST_CREDIT, accountId, handle, null, NO_ACCOUNT, amount, description));
+    }
+
+    public CompletableFuture<Transaction> submitTransfer(String fromAccountId, String toAccountId, Money amount,
+                                                         String description) {
+        int fromHandle = service.getAccountService().getHandle(fromAccountId);
+        int toHandle = service.getAccountService().getHandle(toAccountId);
+        return submit(new Command(Step.DEBIT, fromAccountId, fromHandle, toAccountId, toHandle, amount, description));
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    TransactionService getService() {
+        return service;
+    }
+
+    /**
+     * Waits for a submitted request and rethrows its failure unwrapped, as the service would have.
+     * A {@link Declined} is rethrown as is.
+     */
+    static Transaction await(CompletableFuture<Transaction> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting requests, finishes every request already accepted and stops the workers.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : partitions) {
+            while (partition.outstanding.get() != 0) {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        boolean interrupted = false;
+        for (Partition partition : partitions) {
+            partition.stopping = true;
+            LockSupport.unpark(partition.thread);
+            while (partition.thread.isAlive()) {
+                try {
+                    partition.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Partition partitionOf(int handle) {
+        return partitions[handle % partitions.length];
+    }
+
+    private CompletableFuture<Transaction> submit(Command command) {
+        Partition partition = command.origin;
+        // Counted before the closed check so close() waits for every request that passes it
+        partition.outstanding.incrementAndGet();
+        if (closed) {
+            partition.outstanding.decrementAndGet();
+            throw new IllegalStateException("Transaction sequencer is closed");
+        }
+        int attempts = 0;
+        long backoff = MIN_BACKOFF_NANOS;
+        long deadline = 0;
+        while (!partition.ring.offer(command)) {
+            // Full: back off until the owning worker catches up, or give up
+            if (++attempts < SPINS_BEFORE_PARKING) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + maxSubmitWaitNanos;
+            } else if (now - deadline >= 0) {
+                partition.outstanding.decrementAndGet();
+                throw new SequencerFullException("Transaction sequencer " + partition.thread.getName()
+                    + " stayed full for " + TimeUnit.NANOSECONDS.toMillis(maxSubmitWaitNanos) + "ms");
+            }
+            LockSupport.parkNanos(Math.min(backoff, deadline - now));
+            backoff = Math.min(backoff * 2, PARK_NANOS);
+        }
+        partition.wake();
+        return command.result;
+    }
+
+    /**
+     * Failure of a {@code submitTry} request that was declined. One stackless instance exists per
+     * outcome; {@link CompletableFuture#join} rethrows it without wrapping.
+     */
+    static final class Declined extends CompletionException {
+        private static final Declined[] BY_OUTCOME = new Declined[TransactionOutcome.values().length];
+
+        static {
+            for (TransactionOutcome outcome : TransactionOutcome.values()) {
+                BY_OUTCOME[outcome.ordinal()] = new Declined(outcome);
+            }
+        }
+
+        final TransactionOutcome outcome;
+
+        private Declined(TransactionOutcome outcome) {
+            super(outcome.name(), null);
+            this.outcome = outcome;
+        }
+
+        static Declined of(TransactionOutcome outcome) {
+            return BY_OUTCOME[outcome.ordinal()];
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private enum Step {
+        DEPOSIT, WITHDRAWAL, INTEREST_CREDIT, DEBIT, CREDIT, REFUND
+    }
+
+    private final class Command {
+        final String accountId;
+        final int account;
+        final String counterpartyId;
+        final int counterparty;
+        final Money amount;
+        final String description;
+        final Partition origin;
+        // Declines are reported with a shared Declined instead of the table's exceptions
+        final boolean quiet;
+        final CompletableFuture<Transaction> result = new CompletableFuture<>();
+        Step step;
+        RuntimeException failure;
+
+        Command(Step step, String accountId, int account, String counterpartyId, int counterparty,
+                Money amount, String description) {
+            this(step, accountId, account, counterpartyId, counterparty, amount, description, false);
+        }
+
+        Command(Step step, String accountId, int account, String counterpartyId, int counterparty,
+                Money amount, String description, boolean quiet) {
+            this.step = step;
+            this.accountId = accountId;
+            this.account = account;
+            this.counterpartyId = counterpartyId;
+            this.counterparty = counterparty;
+            this.amount = amount;
+            this.description = description;
+            this.quiet = quiet;
+            this.origin = partitionOf(account);
+        }
+    }
+
+    private final class Partition implements Runnable {
+        final RingBuffer<Command> ring;
+        // Cross-partition steps; never bounded so two workers handing off to each other cannot deadlock
+        final Queue<Command> handoffs = new ConcurrentLinkedQueue<>();
+        final AtomicLong outstanding = new AtomicLong();
+        final Thread thread;
+        volatile boolean sleeping;
+        volatile boolean stopping;
+
+        Partition(int index, int ringCapacity) {
+            this.ring = new RingBuffer<>(ringCapacity);
+            this.thread = new Thread(this, "transaction-sequencer-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void handoff(Command command) {
+            handoffs.add(command);
+            wake();
+        }
+
+        void wake() {
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                Command command = handoffs.poll();
+                if (command == null) {
+                    command = ring.poll();
+                }
+                if (command != null) {
+                    execute(command);
+                    idle = 0;
+                } else if (stopping) {
+                    return;
+                } else if (++idle < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    // Re-checked after publishing the flag so a producer's wake-up cannot be missed
+                    if (handoffs.isEmpty() && ring.isEmpty() && !stopping) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private void execute(Command command) {
+            AccountTable table = service.getAccountService().getTable();
+            try {
+                switch (command.step) {
+                    case DEPOSIT:
+                        if (command.quiet) {
+                            TransactionOutcome outcome = table.tryDeposit(command.account, command.amount);
+                            if (outcome != TransactionOutcome.OK) {
+                                fail(command, Declined.of(outcome));
+                                break;
+                            }
+                        } else {
+                            table.deposit(command.account, command.amount);
+                        }
+                        commit(command, TransactionType.DEPOSIT, null);
+                        break;
+                    case WITHDRAWAL:
+                        if (command.quiet) {
+                            TransactionOutcome outcome = table.tryWithdraw(command.account, command.amount);
+                            if (outcome != TransactionOutcome.OK) {
+                                fail(command, Declined.of(outcome));
+                                break;
+                            }
+                        } else {
+                            table.withdraw(command.account, command.amount);
+                        }
+                        commit(command, TransactionType.WITHDRAWAL, null);
+                        break;
+                    case INTEREST_CREDIT:
+                        table.deposit(command.account, command.amount);
+                        commit(command, TransactionType.INTEREST_CREDIT, null);
+                        break;
+                    case DEBIT:
+                        // Reject up front anything the credit would reject
+                        if (command.quiet) {
+                            TransactionOutcome outcome = table.checkDeposit(command.counterparty, command.amount);
+                            if (outcome == TransactionOutcome.OK) {
+                                outcome = table.tryWithdraw(command.account, command.amount);
+                            }
+                            if (outcome != TransactionOutcome.OK) {
+                                fail(command, Declined.of(outcome));
+                                break;
+                            }
+                        } else {
+                            table.validateDeposit(command.counterparty, command.amount);
+                            table.withdraw(command.account, command.amount);
+                        }
+                        command.step = Step.CREDIT;
+                        Partition target = partitionOf(command.counterparty);
+                        if (target == this) {
+                            credit(command);
+                        } else {
+                            target.handoff(command);
+                        }
+                        break;
+                    case CREDIT:
+                        credit(command);
+                        break;
+                    case REFUND:
+                        table.reverseWithdrawal(command.account, command.amount);
+                        fail(command, command.failure);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown step " + command.step);
+                }
+            } catch (RuntimeException e) {
+                fail(command, e);
+            }
+        }
+
+        private void credit(Command command) {
+            AccountTable table = service.getAccountService().getTable();
+            try {
+                table.deposit(command.counterparty, command.amount);
+            } catch (RuntimeException e) {
+                if (command.origin == this) {
+                    table.reverseWithdrawal(command.account, command.amount);
+                    fail(command, e);
+                } else {
+                    command.failure = e;
+                    command.step = Step.REFUND;
+                    command.origin.handoff(command);
+                }
+                return;
+            }
+            commit(command, TransactionType.TRANSFER, command.counterpartyId);
+        }
+
+        private void commit(Command command, TransactionType type, String relatedAccountId) {
+            Transaction transaction = new Transaction(service.nextTransactionId(), command.accountId,
+                type, command.amount, command.description, relatedAccountId);
+            service.recordAsync(transaction).whenComplete((recorded, failure) -> {
+                if (failure != null) {
+                    command.result.completeExceptionally(
+                        failure instanceof CompletionException ? failure.getCause() : failure);
+                } else {
+                    command.result.complete(recorded);
+                }
+            });
+            command.origin.outstanding.decrementAndGet();
+        }
+
+        private void fail(Command command, RuntimeException failure) {
+            command.result.completeExceptionally(failure);
+            command.origin.outstanding.decrementAndGet();
+        }
+    }
+}
@@ -1,78 +1,458 @@
 package com.banking.transaction.service;
 
-import com.banking.account.domain.Account;
 import com.banking.account.service.AccountService;
+import com.banking.account.table.AccountTable;
 import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
 import com.banking.core.domain.TransactionType;
 import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.id.IdGenerator;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.metrics.LatencyHistogram;
+import com.banking.core.metrics.MetricsRegistry;
 import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.TransactionJournal;
+import com.banking.transaction.store.InMemoryTransactionStore;
+import com.banking.transaction.store.TransactionStore;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Service for processing banking transactions.
  */
 public class TransactionService {
+    private static final int DEFAULT_IDEMPOTENCY_ENTRIES = 100_000;
+    private static final Duration DEFAULT_IDEMPOTENCY_TTL = Duration.ofHours(24);
+
     private final AccountService accountService;
-    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final IdGenerator idGenerator;
+    private final TransactionStore store;
+    private final List<TransactionListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile TransactionJournal journal;
+    private volatile TransactionSequencer sequencer;
+    private volatile IdempotencyCache idempotencyCache = new IdempotencyCache(DEFAULT_IDEMPOTENCY_ENTRIES, DEFAULT_IDEMPOTENCY_TTL);
+    private volatile Instruments instruments;
 
     public TransactionService(AccountService accountService) {
+        this(accountService, IdGenerators.getDefault());
+    }
+
+    public TransactionService(AccountService accountService, IdGenerator idGenerator) {
+        this(accountService, idGenerator, new InMemoryTransactionStore());
+    }
+
+    public TransactionService(AccountService accountService, IdGenerator idGenerator, TransactionStore store) {
         if (accountService == null) {
             throw new IllegalArgumentException("AccountService cannot be null");
         }
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("IdGenerator cannot be null");
+        }
+        if (store == null) {
+            throw new IllegalArgumentException("TransactionStore cannot be null");
+        }
         this.accountService = accountService;
+        this.idGenerator = idGenerator;
+        this.store = store;
+        this.instruments = new Instruments(new MetricsRegistry());
+    }
+
+    /**
+     * Records operation latencies ({@code transaction.deposit}, {@code .withdraw}, {@code .transfer},
+     * {@code .batch}, {@code .interest-batch}), time spent waiting for the journal ({@code transaction.journal-wait}),
+     * rejections by exception ({@code transaction.rejected.<exception>}), declines by outcome
+     * ({@code transaction.declined.<outcome>}), transactions undone because the journal failed
+     * ({@code transaction.rolled-back}), exceptions thrown by listeners
+     * ({@code transaction.listener-failures}), remembered idempotency keys and replays
+     * ({@code transaction.idempotency-keys}, {@code .idempotent-replays}) and the store size in the
+     * given registry from now on.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("MetricsRegistry cannot be null");
+        }
+        this.instruments = new Instruments(metrics);
+    }
+
+    public MetricsRegistry getMetrics() {
+        return instruments.registry;
+    }
+
+    /**
+     * Makes every subsequent transaction durable in the given journal before it is returned to
+     * the caller. The journal append is the commit point: a transaction becomes queryable and is
+     * published only once durable, and if the append fails its balance changes are undone before
+     * the failure is thrown. Pass {@code null} to stop journaling.
+     */
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    public void addListener(TransactionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(TransactionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Routes {@link #deposit}, {@link #withdraw} and {@link #transfer} through a sequencer built
+     * for this service, which then owns all balance changes. Pass {@code null} to execute on the
+     * calling thread again.
+     */
+    public void setSequencer(TransactionSequencer sequencer) {
+        if (sequencer != null && sequencer.getService() != this) {
+            throw new IllegalArgumentException("Sequencer belongs to another TransactionService");
+        }
+        this.sequencer = sequencer;
+    }
+
+    /**
+     * Replaces the cache behind the idempotency-key variants of the {@code try} operations, which
+     * by default remembers {@value #DEFAULT_IDEMPOTENCY_ENTRIES} keys for a day. Pass {@code null}
+     * to stop deduplicating; keyed requests then always execute.
+     */
+    public void setIdempotencyCache(IdempotencyCache idempotencyCache) {
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
     }
 
     public Transaction deposit(String accountId, Money amount, String description) {
-        Account account = accountService.getAccount(accountId);
-        account.deposit(amount);
-        Transaction transaction = new Transaction(accountId, TransactionType.DEPOSIT, amount, description);
-        transactions.put(transaction.getTransactionId(), transaction);
-        return transaction;
+        Instruments current = instruments;
+        return current.time(current.deposit, () -> executeDeposit(accountId, amount, description));
     }
 
     public Transaction withdraw(String accountId, Money amount, String description) {
-        Account account = accountService.getAccount(accountId);
-        account.withdraw(amount);
-        Transaction transaction = new Transaction(accountId, TransactionType.WITHDRAWAL, amount, description);
-        transactions.put(transaction.getTransactionId(), transaction);
-        return transaction;
+        Instruments current = instruments;
+        return current.time(current.withdraw, () -> executeWithdrawal(accountId, amount, description));
     }
 
+    /**
+     * Moves money between two accounts atomically. Both accounts' lock stripes are held, in
+     * global stripe order, while the destination is validated, the source debited and the
+     * destination credited, so concurrent transfers cannot interleave and a rejected credit
+     * never leaves the source debited.
+     */
     public Transaction transfer(String fromAccountId, String toAccountId, Money amount, String description) {
-        Account fromAccount = accountService.getAccount(fromAccountId);
-        Account toAccount = accountService.getAccount(toAccountId);
+        Instruments current = instruments;
+        return current.time(current.transfer, () -> executeTransfer(fromAccountId, toAccountId, amount, description));
+    }
 
-        // Withdraw from source account
-        fromAccount.withdraw(amount);
-        
-        // Deposit to destination account
-        toAccount.deposit(amount);
+    /**
+     * Deposits like {@link #deposit}, but reports an inactive account or a currency mismatch as a
+     * declined result instead of throwing. Unknown accounts and invalid amounts still throw.
+     */
+    public TransactionResult tryDeposit(String accountId, Money amount, String description) {
+        Instruments current = instruments;
+        return current.timeResult(current.deposit, () -> executeTryDeposit(accountId, amount, description));
+    }
+
+    /**
+     * Withdraws like {@link #withdraw}, but reports insufficient funds, an inactive account or a
+     * currency mismatch as a declined result instead of throwing. Unknown accounts and invalid
+     * amounts still throw.
+     */
+    public TransactionResult tryWithdraw(String accountId, Money amount, String description) {
+        Instruments current = instruments;
+        return current.timeResult(current.withdraw, () -> executeTryWithdrawal(accountId, amount, description));
+    }
+
+    /**
+     * Transfers like {@link #transfer}, but reports insufficient funds, an inactive account or a
+     * currency mismatch on either side as a declined result instead of throwing. Unknown accounts
+     * and invalid amounts still throw.
+     */
+    public TransactionResult tryTransfer(String fromAccountId, String toAccountId, Money amount, String description) {
+        Instruments current = instruments;
+        return current.timeResult(current.transfer,
+            () -> executeTryTransfer(fromAccountId, toAccountId, amount, description));
+    }
+
+    /**
+     * {@link #tryDeposit(String, Money, String)} executed at most once per idempotency key: a
+     * retry returns the first request's result, waiting for it if it is still running. A
+     * {@code null} key executes unconditionally.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public TransactionResult tryDeposit(String accountId, Money amount, String description, String idempotencyKey) {
+        IdempotencyCache cache = idempotencyCache;
+        if (idempotencyKey == null || cache == null) {
+            return tryDeposit(accountId, amount, description);
+        }
+        return cache.execute(idempotencyKey, TransactionType.DEPOSIT, accountId, null, amount,
+            () -> tryDeposit(accountId, amount, description));
+    }
+
+    /**
+     * {@link #tryWithdraw(String, Money, String)} executed at most once per idempotency key, like
+     * {@link #tryDeposit(String, Money, String, String)}.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public TransactionResult tryWithdraw(String accountId, Money amount, String description, String idempotencyKey) {
+        IdempotencyCache cache = idempotencyCache;
+        if (idempotencyKey == null || cache == null) {
+            return tryWithdraw(accountId, amount, description);
+        }
+        return cache.execute(idempotencyKey, TransactionType.WITHDRAWAL, accountId, null, amount,
+            () -> tryWithdraw(accountId, amount, description));
+    }
+
+    /**
+     * {@link #tryTransfer(String, String, Money, String)} executed at most once per idempotency
+     * key, like {@link #tryDeposit(String, Money, String, String)}.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public TransactionResult tryTransfer(String fromAccountId, String toAccountId, Money amount, String description,
+                                         String idempotencyKey) {
+        IdempotencyCache cache = idempotencyCache;
+        if (idempotencyKey == null || cache == null) {
+            return tryTransfer(fromAccountId, toAccountId, amount, description);
+        }
+        return cache.execute(idempotencyKey, TransactionType.TRANSFER, fromAccountId, toAccountId, amount,
+            () -> tryTransfer(fromAccountId, toAccountId, amount, description));
+    }
+
+    private Transaction executeDeposit(String accountId, Money amount, String description) {
+        TransactionSequencer currentSequencer = sequencer;
+        if (currentSequencer != null) {
+            return TransactionSequencer.await(currentSequencer.submitDeposit(accountId, amount, description));
+        }
+        int handle = accountService.getHandle(accountId);
+        accountService.getTable().deposit(handle, amount);
+        Transaction transaction = new Transaction(idGenerator.nextId(), accountId, TransactionType.DEPOSIT, amount, description, null);
+        record(transaction);
+        return transaction;
+    }
+
+    private Transaction executeWithdrawal(String accountId, Money amount, String description) {
+        TransactionSequencer currentSequencer = sequencer;
+        if (currentSequencer != null) {
+            return TransactionSequencer.await(currentSequencer.submitWithdrawal(accountId, amount, description));
+        }
+        int handle = accountService.getHandle(accountId);
+        accountService.getTable().withdraw(handle, amount);
+        Transaction transaction = new Transaction(idGenerator.nextId(), accountId, TransactionType.WITHDRAWAL, amount, description, null);
+        record(transaction);
+        return transaction;
+    }
+
+    private Transaction executeTransfer(String fromAccountId, String toAccountId, Money amount, String description) {
+        TransactionSequencer currentSequencer = sequencer;
+        if (currentSequencer != null) {
+            return TransactionSequencer.await(
+                currentSequencer.submitTransfer(fromAccountId, toAccountId, amount, description));
+        }
+        AccountTable table = accountService.getTable();
+        int fromHandle = accountService.getHandle(fromAccountId);
+        int toHandle = accountService.getHandle(toAccountId);
+
+        accountService.getLocks().withLocks(fromAccountId, toAccountId, () -> {
+            // Reject up front anything the credit would reject
+            table.validateDeposit(toHandle, amount);
+            table.withdraw(fromHandle, amount);
+            try {
+                table.deposit(toHandle, amount);
+            } catch (RuntimeException e) {
+                // Only reachable when the destination changed outside the service's locks
+                table.reverseWithdrawal(fromHandle, amount);
+                throw e;
+            }
+            return null;
+        });
 
         // Create transaction record
         Transaction transaction = new Transaction(
+            idGenerator.nextId(),
             fromAccountId, 
             TransactionType.TRANSFER, 
             amount, 
             description,
             toAccountId
         );
-        transactions.put(transaction.getTransactionId(), transaction);
+        record(transaction);
         return transaction;
     }
 
+    private TransactionResult executeTryDeposit(String accountId, Money amount, String description) {
+        TransactionSequencer currentSequencer = sequencer;
+        if (currentSequencer != null) {
+            return awaitResult(currentSequencer.submitTryDeposit(accountId, amount, description));
+        }
+        int handle = accountService.getHandle(accountId);
+        TransactionOutcome outcome = accountService.getTable().tryDeposit(handle, amount);
+        if (outcome != TransactionOutcome.OK) {
+            return TransactionResult.declined(outcome);
+        }
+        Transaction transaction = new Transaction(idGenerator.nextId(), accountId, TransactionType.DEPOSIT, amount, description, null);
+        record(transaction);
+        return TransactionResult.completed(transaction);
+    }
+
+    private TransactionResult executeTryWithdrawal(String accountId, Money amount, String description) {
+        TransactionSequencer currentSequencer = sequencer;
+        if (currentSequencer != null) {
+            return awaitResult(currentSequencer.submitTryWithdrawal(accountId, amount, description));
+        }
+        int handle = accountService.getHandle(accountId);
+        TransactionOutcome outcome = accountService.getTable().tryWithdraw(handle, amount);
+        if (outcome != TransactionOutcome.OK) {
+            return TransactionResult.declined(outcome);
+        }
+        Transaction transaction = new Transaction(idGenerator.nextId(), accountId, TransactionType.WITHDRAWAL, amount, description, null);
+        record(transaction);
+        return TransactionResult.completed(transaction);
+    }
+
+    private TransactionResult executeTryTransfer(String fromAccountId, String toAccountId, Money amount,
+                                                 String description) {
+        TransactionSequencer currentSequencer = sequencer;
+        if (currentSequencer != null) {
+            return awaitResult(currentSequencer.submitTryTransfer(fromAccountId, toAccountId, amount, description));
+        }
+        AccountTable table = accountService.getTable();
+        int fromHandle = accountService.getHandle(fromAccountId);
+        int toHandle = accountService.getHandle(toAccountId);
+
+        TransactionOutcome outcome = accountService.getLocks().withLocks(fromAccountId, toAccountId, () -> {
+            TransactionOutcome checked = table.checkDeposit(toHandle, amount);
+            if (checked != TransactionOutcome.OK) {
+                return checked;
+            }
+            checked = table.tryWithdraw(fromHandle, amount);
+            if (checked != TransactionOutcome.OK) {
+                return checked;
+            }
+            try {
+                table.deposit(toHandle, amount);
+            } catch (RuntimeException e) {
+                // Only reachable when the destination changed outside the service's locks
+                table.reverseWithdrawal(fromHandle, amount);
+                throw e;
+            }
+            return TransactionOutcome.OK;
+        });
+        if (outcome != TransactionOutcome.OK) {
+            return TransactionResult.declined(outcome);
+        }
+        Transaction transaction = new Transaction(idGenerator.nextId(), fromAccountId, TransactionType.TRANSFER,
+            amount, description, toAccountId);
+        record(transaction);
+        return TransactionResult.completed(transaction);
+    }
+
+    private static TransactionResult awaitResult(CompletableFuture<Transaction> result) {
+        try {
+            return TransactionResult.completed(TransactionSequencer.await(result));
+        } catch (TransactionSequencer.Declined declined) {
+            return TransactionResult.declined(declined.outcome);
+        }
+    }
+
+    /**
+     * Applies a batch of deposits, withdrawals and transfers, paying the per-call costs once per
+     * batch: each account is looked up once, every lock stripe involved is acquired once, and the
+     * resulting transactions share journal group commits. With a sequencer the operations are
+     * submitted together and awaited together instead.
+     * <p>
+     * Each operation succeeds or fails on its own, and operations on the same account apply in
+     * batch order. With {@code netTransfers}, all transfers between the same two accounts in the
+     * same currency are combined into a single transfer of their net amount, applied at the
+     * position of the first of them; they then succeed or fail together and share its record.
+     *
+     * @return one result per operation, in batch order, once every transaction is durable
+     */
+    public List<BatchResult> processBatch(List<BatchOperation> operations, boolean netTransfers) {
+        if (operations == null) {
+            throw new IllegalArgumentException("Operations cannot be null");
+        }
+        Instruments current = instruments;
+        long start = System.nanoTime();
+        List<BatchResult> results = new BatchProcessor(this, operations.size(), false)
+            .process(operations, netTransfers, sequencer);
+        current.batch.recordSince(start);
+        for (BatchResult result : results) {
+            if (!result.isSuccess()) {
+                current.batchItemsFailed.increment();
+            }
+        }
+        current.batchItems.add(results.size());
+        return results;
+    }
+
+    /**
+     * Credits accrued interest as {@link TransactionType#INTEREST_CREDIT} transactions, each
+     * applied like a deposit, with the same locking, journaling and sequencer handling as
+     * {@link #processBatch}. Operations must be {@link BatchOperation#interestCredit} credits;
+     * anything else fails on its own.
+     *
+     * @return one result per credit, in order, once every transaction is durable
+     */
+    public List<BatchResult> creditInterest(List<BatchOperation> credits) {
+        if (credits == null) {
+            throw new IllegalArgumentException("Credits cannot be null");
+        }
+        Instruments current = instruments;
+        long start = System.nanoTime();
+        List<BatchResult> results = new BatchProcessor(this, credits.size(), true).process(credits, false, sequencer);
+        current.interestBatch.recordSince(start);
+        return results;
+    }
+
+    /**
+     * Returns the full history of an account (as source or counterparty), newest first.
+     */
     public List<Transaction> getTransactionsByAccount(String accountId) {
-        return transactions.values().stream()
-                .filter(t -> t.getAccountId().equals(accountId) || 
-                           (t.getRelatedAccountId() != null && t.getRelatedAccountId().equals(accountId)))
-                .sorted(Comparator.comparing(Transaction::getTimestamp).reversed())
-                .collect(Collectors.toList());
+        return getLatestTransactions(accountId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to {@code limit} of the account's most recent transactions, newest first.
+     */
+    public List<Transaction> getLatestTransactions(String accountId, int limit) {
+        return store.latest(accountId, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} of the account's transactions that are older than the cursor
+     * transaction, newest first. Use the last transaction of one page as the cursor of the next.
+     */
+    public List<Transaction> getTransactionsBefore(String accountId, String cursorTransactionId, int limit) {
+        Transaction cursor = getTransaction(cursorTransactionId);
+        List<Transaction> page = store.before(accountId, cursor, limit);
+        if (page == null) {
+            throw new IllegalArgumentException(
+                "Transaction " + cursorTransactionId + " does not belong to account " + accountId);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the account's transactions with {@code from <= timestamp < to}, newest first.
+     */
+    public List<Transaction> getTransactionsBetween(String accountId, LocalDateTime from, LocalDateTime to) {
+        return store.between(accountId, from, to, Integer.MAX_VALUE);
     }
 
     public Transaction getTransaction(String transactionId) {
-        Transaction transaction = transactions.get(transactionId);
+        Transaction transaction = store.get(transactionId);
         if (transaction == null) {
             throw new IllegalArgumentException("Transaction not found: " + transactionId);
         }
@@ -80,12 +460,252 @@ public class TransactionService {
     }
 
     public List<Transaction> getAllTransactions() {
-        return new ArrayList<>(transactions.values());
+        return store.getAll();
+    }
+
+    /**
+     * Passes every stored transaction with {@code timestamp >= since} to the action, in no
+     * particular order, without collecting them; older history is skipped as cheaply as the store
+     * allows.
+     */
+    public void forEachTransactionSince(LocalDateTime since, Consumer<Transaction> action) {
+        if (since == null || action == null) {
+            throw new IllegalArgumentException("Since and action cannot be null");
+        }
+        store.forEachSince(since, action);
     }
 
     public Money calculateAccountBalance(String accountId) {
-        Account account = accountService.getAccount(accountId);
-        return account.getBalance();
+        return accountService.getBalance(accountId);
+    }
+
+    /**
+     * Makes a transaction recovered from the journal queryable again. Balances are not touched
+     * and nothing is journaled; the caller restores account state separately.
+     */
+    public void restoreTransaction(Transaction transaction) {
+        if (transaction == null) {
+            throw new IllegalArgumentException("Transaction cannot be null");
+        }
+        index(transaction);
+    }
+
+    AccountService getAccountService() {
+        return accountService;
     }
-}
 
+    String nextTransactionId() {
+        return idGenerator.nextId();
+    }
+
+    /**
+     * Commits a transaction whose balance changes are applied, completing once it is durable
+     * without blocking the caller. If the journal fails, the changes are undone and the future
+     * fails.
+     */
+    CompletableFuture<Transaction> recordAsync(Transaction transaction) {
+        TransactionJournal currentJournal = journal;
+        if (currentJournal == null) {
+            commit(transaction);
+            return CompletableFuture.completedFuture(transaction);
+        }
+        CompletableFuture<Long> durable;
+        try {
+            durable = currentJournal.appendTracked(transaction);
+        } catch (RuntimeException e) {
+            rollback(transaction);
+            return CompletableFuture.failedFuture(e);
+        }
+        return durable.handle((position, failure) -> {
+            if (failure != null) {
+                rollback(transaction);
+                throw failure instanceof CompletionException ? (CompletionException) failure
+                    : new CompletionException(failure);
+            }
+            commit(currentJournal, transaction, position);
+            return transaction;
+        });
+    }
+
+    /**
+     * Commits transactions whose balance changes are applied, waiting until all of them are
+     * durable and sharing group commits. Each transaction commits or is undone on its own.
+     *
+     * @return the journal failure of each transaction that was undone, or {@code null} if every
+     * transaction committed
+     */
+    RuntimeException[] recordAll(List<Transaction> transactions) {
+        TransactionJournal currentJournal = journal;
+        if (currentJournal == null || transactions.isEmpty()) {
+            transactions.forEach(this::commit);
+            return null;
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> durable = new ArrayList<>(transactions.size());
+        RuntimeException[] failures = null;
+        for (Transaction transaction : transactions) {
+            try {
+                durable.add(currentJournal.appendTracked(transaction));
+            } catch (RuntimeException e) {
+                durable.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            long position;
+            try {
+                position = durable.get(i).join();
+            } catch (CompletionException e) {
+                rollback(transaction);
+                if (failures == null) {
+                    failures = new RuntimeException[transactions.size()];
+                }
+                failures[i] = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                continue;
+            }
+            commit(currentJournal, transaction, position);
+        }
+        instruments.journalWait.recordSince(start);
+        return failures;
+    }
+
+    private void record(Transaction transaction) {
+        TransactionJournal currentJournal = journal;
+        if (currentJournal == null) {
+            commit(transaction);
+            return;
+        }
+        long start = System.nanoTime();
+        long position;
+        try {
+            // Shares an fsync with every other transaction committed in the same batch
+            position = currentJournal.appendTracked(transaction).join();
+        } catch (RuntimeException e) {
+            rollback(transaction);
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+        instruments.journalWait.recordSince(start);
+        commit(currentJournal, transaction, position);
+    }
+
+    private void commit(Transaction transaction) {
+        index(transaction);
+        publish(transaction);
+    }
+
+    // Only once the transaction is in the store may the journal count it as applied
+    private void commit(TransactionJournal currentJournal, Transaction transaction, long position) {
+        try {
+            index(transaction);
+        } finally {
+            currentJournal.markApplied(position);
+        }
+        publish(transaction);
+    }
+
+    // Undoes the balance changes of a transaction that never became durable
+    private void rollback(Transaction transaction) {
+        AccountTable table = accountService.getTable();
+        int handle = table.find(transaction.getAccountId());
+        Money amount = transaction.getAmount();
+        switch (transaction.getType()) {
+            case WITHDRAWAL:
+                table.reverseWithdrawal(handle, amount);
+                break;
+            case TRANSFER:
+                table.reverseDeposit(table.find(transaction.getRelatedAccountId()), amount);
+                table.reverseWithdrawal(handle, amount);
+                break;
+            default:
+                table.reverseDeposit(handle, amount);
+        }
+        instruments.rolledBack.increment();
+    }
+
+    private void publish(Transaction transaction) {
+        for (TransactionListener listener : listeners) {
+            try {
+                listener.onTransactionRecorded(transaction);
+            } catch (RuntimeException e) {
+                // A failing listener must not turn a completed transaction into an error
+                instruments.listenerFailures.increment();
+            }
+        }
+    }
+
+    private void index(Transaction transaction) {
+        store.add(transaction);
+    }
+
+    /**
+     * Metrics of one registry, looked up once so that operations only update them.
+     */
+    private final class Instruments {
+        final MetricsRegistry registry;
+        final LatencyHistogram deposit;
+        final LatencyHistogram withdraw;
+        final LatencyHistogram transfer;
+        final LatencyHistogram batch;
+        final LatencyHistogram interestBatch;
+        final LatencyHistogram journalWait;
+        final LongAdder batchItems;
+        final LongAdder batchItemsFailed;
+        final LongAdder rolledBack;
+        final LongAdder listenerFailures;
+        final LongAdder[] declined = new LongAdder[TransactionOutcome.values().length];
+
+        Instruments(MetricsRegistry registry) {
+            this.registry = registry;
+            this.deposit = registry.timer("transaction.deposit");
+            this.withdraw = registry.timer("transaction.withdraw");
+            this.transfer = registry.timer("transaction.transfer");
+            this.batch = registry.timer("transaction.batch");
+            this.interestBatch = registry.timer("transaction.interest-batch");
+            this.journalWait = registry.timer("transaction.journal-wait");
+            this.batchItems = registry.counter("transaction.batch.operations");
+            this.batchItemsFailed = registry.counter("transaction.batch.operations-failed");
+            this.rolledBack = registry.counter("transaction.rolled-back");
+            this.listenerFailures = registry.counter("transaction.listener-failures");
+            for (TransactionOutcome outcome : TransactionOutcome.values()) {
+                declined[outcome.ordinal()] = registry.counter("transaction.declined." + outcome.name());
+            }
+            registry.gauge("transaction.store-size", store::size);
+            registry.gauge("transaction.idempotency-keys", () -> {
+                IdempotencyCache cache = idempotencyCache;
+                return cache == null ? 0 : cache.size();
+            });
+            registry.gauge("transaction.idempotent-replays", () -> {
+                IdempotencyCache cache = idempotencyCache;
+                return cache == null ? 0 : cache.getReplays();
+            });
+        }
+
+        TransactionResult timeResult(LatencyHistogram timer, Supplier<TransactionResult> operation) {
+            long start = System.nanoTime();
+            try {
+                TransactionResult result = operation.get();
+                timer.recordSince(start);
+                if (!result.isSuccess()) {
+                    declined[result.getOutcome().ordinal()].increment();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                registry.counter("transaction.rejected." + e.getClass().getSimpleName()).increment();
+                throw e;
+            }
+        }
+
+        Transaction time(LatencyHistogram timer, Supplier<Transaction> operation) {
+            long start = System.nanoTime();
+            try {
+                Transaction transaction = operation.get();
+                timer.recordSince(start);
+                return transaction;
+            } catch (RuntimeException e) {
+                registry.counter("transaction.rejected." + e.getClass().getSimpleName()).increment();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.banking.transaction.store;
+
+import com.banking.transaction.domain.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time-ordered transaction history of a single account.
+ * <p>
+ * Entries are kept oldest-first in a growable array. Appends normally land at the end; a
+ * transaction whose timestamp is older than the tail (two threads racing on the same account)
+ * is shifted back into place, so the array always stays sorted by timestamp and reads never sort.
+ * All reads return newest-first copies and touch only the entries they return, plus a binary
+ * search for cursor and range queries.
+ */
+final class AccountHistory {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Transaction[] entries = new Transaction[INITIAL_CAPACITY];
+    private int size;
+
+    synchronized void append(Transaction transaction) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        int position = size;
+        LocalDateTime timestamp = transaction.getTimestamp();
+        while (position > 0 && entries[position - 1].getTimestamp().isAfter(timestamp)) {
+            entries[position] = entries[position - 1];
+            position--;
+        }
+        entries[position] = transaction;
+        size++;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code limit} of the most recent transactions, newest first.
+     */
+    synchronized List<Transaction> latest(int limit) {
+        return newestFirst(size, 0, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} transactions older than {@code cursor}, newest first, or
+     * {@code null} if the cursor is not part of this history.
+     */
+    synchronized List<Transaction> before(Transaction cursor, int limit) {
+        int position = upperBound(cursor.getTimestamp()) - 1;
+        while (position >= 0 && entries[position] != cursor
+                && entries[position].getTimestamp().equals(cursor.getTimestamp())) {
+            position--;
+        }
+        if (position < 0 || entries[position] != cursor) {
+            return null;
+        }
+        return newestFirst(position, 0, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} transactions with {@code from <= timestamp < to}, newest first.
+     */
+    synchronized List<Transaction> between(LocalDateTime from, LocalDateTime to, int limit) {
+        return newestFirst(lowerBound(to), lowerBound(from), limit);
+    }
+
+    // Copies entries [low, high) newest first, stopping after limit entries
+    private List<Transaction> newestFirst(int high, int low, int limit) {
+        int count = Math.max(0, Math.min(high - low, limit));
+        List<Transaction> result = new ArrayList<>(count);
+        for (int i = high - 1; i >= high - count; i--) {
+            result.add(entries[i]);
+        }
+        return result;
+    }
+
+    // First index whose timestamp is not before the given time
+    private int lowerBound(LocalDateTime time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].getTimestamp().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index whose timestamp is after the given time
+    private int upperBound(LocalDateTime time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].getTimestamp().isAfter(time)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
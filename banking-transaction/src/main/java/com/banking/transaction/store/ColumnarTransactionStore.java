@@ -0,0 +1,503 @@
+package com.banking.transaction.store;
+
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.transaction.domain.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Transaction store that keeps records in struct-of-arrays form instead of as objects.
+ * <p>
+ * Each row is a {@code long} id, amount in minor units and epoch-microsecond timestamp, {@code int}
+ * handles for the account and related account, a type code, a dictionary-encoded currency and an
+ * {@code int} reference into a paged UTF-8 description heap: 38 bytes, plus about 7 bytes for the
+ * id index and 4 to 8 for the per-account indexes, with no per-row objects. Recently seen
+ * descriptions are stored once and shared. {@link Transaction}s are built only
+ * for the rows a query returns, and index scans compare timestamps straight from the column.
+ * <p>
+ * Transaction ids must be {@link TimeOrderedIdGenerator} ids, and timestamps are kept to the
+ * microsecond. Columns grow in fixed-size chunks, so growth never copies existing rows.
+ * <p>
+ * Adds are serialized on the store, and reads take no lock. The single writer fills a row
+ * completely before publishing it through the volatile row count, a per-account snapshot of
+ * index rows and a release store into the id table. Anything a reader reaches through those
+ * publications is therefore complete. Account indexes are only ever extended in place past their
+ * published length; an out-of-order insert goes into a copy. Queries never block adds or each
+ * other. A query sees every transaction whose add completed before it started, and possibly some
+ * that are being added concurrently.
+ */
+public class ColumnarTransactionStore implements TransactionStore {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int PAGE_SHIFT = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int MAX_PAGES = 1 << (31 - PAGE_SHIFT);
+    private static final int RECENT_DESCRIPTIONS = 1024;
+    private static final int NO_ACCOUNT = -1;
+    private static final int NO_DESCRIPTION = -1;
+    private static final int EMPTY = -1;
+    private static final int MAX_CURRENCIES = 256;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Columns, indexed by row >>> CHUNK_SHIFT then row & CHUNK_MASK; only the writer replaces them
+    private long[][] ids = new long[0][];
+    private long[][] amounts = new long[0][];
+    private long[][] timestamps = new long[0][];
+    private int[][] accounts = new int[0][];
+    private int[][] relatedAccounts = new int[0][];
+    private byte[][] types = new byte[0][];
+    private byte[][] currencies = new byte[0][];
+    private int[][] descriptions = new int[0][];
+    // Rows below it are complete; written after the row, so reading it first makes them visible
+    private volatile int size;
+
+    // Open addressing from transaction id to row; keys are read from the ids column. Slots are
+    // filled with release stores, and a grown table is published whole.
+    private volatile int[] rowsById = newTable(1 << 10);
+
+    // Account id dictionary; each account's rows are sorted by timestamp
+    private final Map<String, AccountIndex> accountsById = new ConcurrentHashMap<>();
+    private volatile AccountIndex[] accountsByHandle = new AccountIndex[64];
+    private int accountCount;
+
+    private final Currency[] currencyDictionary = new Currency[MAX_CURRENCIES];
+    private int currencyCount;
+
+    // Description heap: length-prefixed UTF-8 entries, referenced as page << PAGE_SHIFT | offset
+    private volatile byte[][] pages = new byte[0][];
+    private int pageFill = PAGE_SIZE;
+    private final Map<String, Integer> recentDescriptions =
+        new LinkedHashMap<String, Integer>(RECENT_DESCRIPTIONS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > RECENT_DESCRIPTIONS;
+            }
+        };
+
+    @Override
+    public synchronized void add(Transaction transaction) {
+        long id = parseId(transaction.getTransactionId());
+        if (find(id) != EMPTY) {
+            throw new IllegalArgumentException("Duplicate transaction id: " + transaction.getTransactionId());
+        }
+        int row = size;
+        if ((row & CHUNK_MASK) == 0) {
+            addChunk(row >>> CHUNK_SHIFT);
+        }
+        int chunk = row >>> CHUNK_SHIFT;
+        int slot = row & CHUNK_MASK;
+        Money amount = transaction.getAmount();
+        int account = handleOf(transaction.getAccountId());
+        String relatedAccountId = transaction.getRelatedAccountId();
+        int related = relatedAccountId == null ? NO_ACCOUNT : handleOf(relatedAccountId);
+
+        ids[chunk][slot] = id;
+        amounts[chunk][slot] = amount.minorUnits();
+        timestamps[chunk][slot] = toMicros(transaction.getTimestamp());
+        accounts[chunk][slot] = account;
+        relatedAccounts[chunk][slot] = related;
+        types[chunk][slot] = (byte) transaction.getType().ordinal();
+        currencies[chunk][slot] = currencyCode(amount.currency());
+        descriptions[chunk][slot] = storeDescription(transaction.getDescription());
+        size = row + 1;
+
+        appendToAccount(account, row);
+        if (related != NO_ACCOUNT && related != account) {
+            appendToAccount(related, row);
+        }
+        insertId(row);
+    }
+
+    @Override
+    public Transaction get(String transactionId) {
+        if (transactionId == null || !TimeOrderedIdGenerator.isValid(transactionId)) {
+            return null;
+        }
+        int row = find(TimeOrderedIdGenerator.parse(transactionId));
+        return row == EMPTY ? null : materialize(row);
+    }
+
+    @Override
+    public List<Transaction> getAll() {
+        int count = size;
+        List<Transaction> result = new ArrayList<>(count);
+        for (int row = 0; row < count; row++) {
+            result.add(materialize(row));
+        }
+        return result;
+    }
+
+    // Filters on the timestamp column, so older rows are never materialized
+    @Override
+    public void forEachSince(LocalDateTime since, Consumer<Transaction> action) {
+        long from = toMicros(since);
+        int count = size;
+        for (int row = 0; row < count; row++) {
+            if (timestamp(row) >= from) {
+                action.accept(materialize(row));
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public List<Transaction> latest(String accountId, int limit) {
+        AccountIndex index = accountsById.get(accountId);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        AccountRows rows = index.rows;
+        return newestFirst(rows, rows.count, 0, limit);
+    }
+
+    @Override
+    public List<Transaction> before(String accountId, Transaction cursor, int limit) {
+        AccountIndex index = accountsById.get(accountId);
+        if (index == null || !TimeOrderedIdGenerator.isValid(cursor.getTransactionId())) {
+            return null;
+        }
+        // Located within the account's own snapshot, so a cursor is found exactly when it is listed
+        long cursorId = TimeOrderedIdGenerator.parse(cursor.getTransactionId());
+        long cursorTime = toMicros(cursor.getTimestamp());
+        AccountRows rows = index.rows;
+        int position = upperBound(rows, cursorTime) - 1;
+        while (position >= 0 && id(rows.rows[position]) != cursorId && timestamp(rows.rows[position]) == cursorTime) {
+            position--;
+        }
+        if (position < 0 || id(rows.rows[position]) != cursorId) {
+            return null;
+        }
+        return newestFirst(rows, position, 0, limit);
+    }
+
+    @Override
+    public List<Transaction> between(String accountId, LocalDateTime from, LocalDateTime to, int limit) {
+        AccountIndex index = accountsById.get(accountId);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        AccountRows rows = index.rows;
+        return newestFirst(rows, lowerBound(rows, toMicros(to)), lowerBound(rows, toMicros(from)), limit);
+    }
+
+    private Transaction materialize(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        int slot = row & CHUNK_MASK;
+        int related = relatedAccounts[chunk][slot];
+        long micros = timestamps[chunk][slot];
+        AccountIndex[] byHandle = accountsByHandle;
+        return new Transaction(
+            TimeOrderedIdGenerator.format(ids[chunk][slot]),
+            byHandle[accounts[chunk][slot]].accountId,
+            TYPES[types[chunk][slot]],
+            Money.ofMinor(amounts[chunk][slot], currencyDictionary[currencies[chunk][slot] & 0xFF]),
+            LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC),
+            loadDescription(descriptions[chunk][slot]),
+            related == NO_ACCOUNT ? null : byHandle[related].accountId);
+    }
+
+    // Materializes rows [low, high) of an account's index newest first, stopping after limit rows
+    private List<Transaction> newestFirst(AccountRows accountRows, int high, int low, int limit) {
+        int count = Math.max(0, Math.min(high - low, limit));
+        List<Transaction> result = new ArrayList<>(count);
+        int[] rows = accountRows.rows;
+        for (int i = high - 1; i >= high - count; i--) {
+            result.add(materialize(rows[i]));
+        }
+        return result;
+    }
+
+    private long id(int row) {
+        return ids[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    private long timestamp(int row) {
+        return timestamps[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    // First index in the account's rows whose timestamp is not before the given time
+    private int lowerBound(AccountRows accountRows, long micros) {
+        int[] rows = accountRows.rows;
+        int low = 0;
+        int high = accountRows.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamp(rows[mid]) < micros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index in the account's rows whose timestamp is after the given time
+    private int upperBound(AccountRows accountRows, long micros) {
+        int[] rows = accountRows.rows;
+        int low = 0;
+        int high = accountRows.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamp(rows[mid]) > micros) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private void addChunk(int chunk) {
+        if (chunk == ids.length) {
+            int capacity = Math.max(16, chunk * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            accounts = Arrays.copyOf(accounts, capacity);
+            relatedAccounts = Arrays.copyOf(relatedAccounts, capacity);
+            types = Arrays.copyOf(types, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+        ids[chunk] = new long[CHUNK_SIZE];
+        amounts[chunk] = new long[CHUNK_SIZE];
+        timestamps[chunk] = new long[CHUNK_SIZE];
+        accounts[chunk] = new int[CHUNK_SIZE];
+        relatedAccounts[chunk] = new int[CHUNK_SIZE];
+        types[chunk] = new byte[CHUNK_SIZE];
+        currencies[chunk] = new byte[CHUNK_SIZE];
+        descriptions[chunk] = new int[CHUNK_SIZE];
+    }
+
+    private int handleOf(String accountId) {
+        AccountIndex existing = accountsById.get(accountId);
+        if (existing != null) {
+            return existing.handle;
+        }
+        int handle = accountCount++;
+        AccountIndex[] byHandle = accountsByHandle;
+        if (handle == byHandle.length) {
+            byHandle = Arrays.copyOf(byHandle, handle * 2);
+        }
+        AccountIndex index = new AccountIndex(accountId, handle);
+        byHandle[handle] = index;
+        accountsByHandle = byHandle;
+        accountsById.put(accountId, index);
+        return handle;
+    }
+
+    // Appends at the end, or inserts into a copy a row that is older than the account's newest one
+    private void appendToAccount(int handle, int row) {
+        AccountIndex index = accountsByHandle[handle];
+        AccountRows current = index.rows;
+        int[] rows = current.rows;
+        int count = current.count;
+        long time = timestamp(row);
+        if (count == 0 || timestamp(rows[count - 1]) <= time) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(4, count * 2));
+            }
+            // Past the published count, so no reader looks at this slot yet
+            rows[count] = row;
+        } else {
+            int position = upperBound(current, time);
+            int[] copy = new int[count == rows.length ? count * 2 : rows.length];
+            System.arraycopy(rows, 0, copy, 0, position);
+            copy[position] = row;
+            System.arraycopy(rows, position, copy, position + 1, count - position);
+            rows = copy;
+        }
+        index.rows = new AccountRows(rows, count + 1);
+    }
+
+    private byte currencyCode(Currency currency) {
+        for (int i = 0; i < currencyCount; i++) {
+            if (currencyDictionary[i] == currency) {
+                return (byte) i;
+            }
+        }
+        if (currencyCount == MAX_CURRENCIES) {
+            throw new IllegalStateException("More than " + MAX_CURRENCIES + " currencies in one store");
+        }
+        currencyDictionary[currencyCount] = currency;
+        return (byte) currencyCount++;
+    }
+
+    private int storeDescription(String description) {
+        if (description == null) {
+            return NO_DESCRIPTION;
+        }
+        Integer recent = recentDescriptions.get(description);
+        if (recent != null) {
+            return recent;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        int entryLength = varIntLength(bytes.length) + bytes.length;
+        if (PAGE_SIZE - pageFill < entryLength) {
+            if (pages.length == MAX_PAGES) {
+                throw new IllegalStateException("Description heap is full");
+            }
+            byte[][] grown = Arrays.copyOf(pages, pages.length + 1);
+            grown[pages.length] = new byte[Math.max(PAGE_SIZE, entryLength)];
+            pages = grown;
+            pageFill = 0;
+        }
+        byte[][] heap = pages;
+        int pageIndex = heap.length - 1;
+        byte[] page = heap[pageIndex];
+        int reference = (pageIndex << PAGE_SHIFT) | pageFill;
+        int position = pageFill;
+        for (int value = bytes.length; ; value >>>= 7) {
+            if ((value & ~0x7F) == 0) {
+                page[position++] = (byte) value;
+                break;
+            }
+            page[position++] = (byte) ((value & 0x7F) | 0x80);
+        }
+        System.arraycopy(bytes, 0, page, position, bytes.length);
+        // An oversized entry fills its own page
+        pageFill = page.length > PAGE_SIZE ? PAGE_SIZE : position + bytes.length;
+        recentDescriptions.put(description, reference);
+        return reference;
+    }
+
+    private String loadDescription(int reference) {
+        if (reference == NO_DESCRIPTION) {
+            return null;
+        }
+        byte[] page = pages[reference >>> PAGE_SHIFT];
+        int position = reference & (PAGE_SIZE - 1);
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = page[position++];
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return new String(page, position, length, StandardCharsets.UTF_8);
+    }
+
+    private static int varIntLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private int find(long id) {
+        int[] table = rowsById;
+        int mask = table.length - 1;
+        for (int index = hash(id) & mask; ; index = (index + 1) & mask) {
+            int row = (int) INTS.getAcquire(table, index);
+            if (row == EMPTY) {
+                return EMPTY;
+            }
+            if (ids[row >>> CHUNK_SHIFT][row & CHUNK_MASK] == id) {
+                return row;
+            }
+        }
+    }
+
+    private void insertId(int row) {
+        // Rows are added one at a time, so size doubles as the entry count; keep load under 3/4
+        int[] table = rowsById;
+        if (size * 4L > table.length * 3L) {
+            // Filled before it is published, so readers never see it partly built
+            int[] grown = newTable(table.length * 2);
+            for (int existing : table) {
+                if (existing != EMPTY) {
+                    place(grown, existing);
+                }
+            }
+            place(grown, row);
+            rowsById = grown;
+            return;
+        }
+        place(table, row);
+    }
+
+    private void place(int[] table, int row) {
+        int mask = table.length - 1;
+        int index = hash(id(row)) & mask;
+        while (table[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        INTS.setRelease(table, index, row);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int hash(long id) {
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private static long parseId(String transactionId) {
+        if (!TimeOrderedIdGenerator.isValid(transactionId)) {
+            throw new IllegalArgumentException(
+                "Columnar store requires time-ordered transaction ids: " + transactionId);
+        }
+        return TimeOrderedIdGenerator.parse(transactionId);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    /**
+     * Per-account index; its rows are replaced as a whole so readers see a consistent snapshot.
+     */
+    private static final class AccountIndex {
+        final String accountId;
+        final int handle;
+        volatile AccountRows rows = AccountRows.EMPTY;
+
+        AccountIndex(String accountId, int handle) {
+            this.accountId = accountId;
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * The first {@code count} entries of {@code rows}, which never change once published.
+     */
+    private static final class AccountRows {
+        static final AccountRows EMPTY = new AccountRows(new int[0], 0);
+
+        final int[] rows;
+        final int count;
+
+        AccountRows(int[] rows, int count) {
+            this.rows = rows;
+            this.count = count;
+        }
+    }
+}
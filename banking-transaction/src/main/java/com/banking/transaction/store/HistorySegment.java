@@ -0,0 +1,559 @@
+package com.banking.transaction.store;
+
+import com.banking.core.domain.Currency;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable file of sealed transactions, grouped per account, compressed and read through a
+ * read-only memory mapping.
+ * <pre>
+ * header    := magic:"BANKHIST" version:int accountCount:int transactionCount:long
+ *              directoryOffset:long idIndexOffset:long heapOffset:long
+ *              newestEpochSecond:long newestNano:int reserved[4]
+ * block     := deflate(entry*), one per account, oldest first
+ * entry     := epochSecond:long nano:int type:byte minorUnits:long currency:ascii[3]
+ *              transactionId:str accountId:str relatedAccountId:str description:str
+ * directory := per account, sorted by id: idOffset:int idLength:int blockOffset:long
+ *              blockBytes:int rawBytes:int count:int newestNano:int newestEpochSecond:long
+ * idIndex   := per transaction, ascending: idHash:int accountIndex:int
+ * heap      := utf8 account ids
+ * str       := byteLength:int (-1 for null) utf8[byteLength]
+ * </pre>
+ * A transfer is stored in the blocks of both accounts; the id index points at the source account.
+ * Queries inflate only the blocks of the account they ask about, and nothing but the mapping is
+ * kept on the heap. Segments are written to a temporary file, forced and atomically renamed, so a
+ * segment file is either complete or absent.
+ */
+final class HistorySegment implements TransactionStore {
+    static final int HEADER_BYTES = 64;
+    static final int DIRECTORY_BYTES = 40;
+    static final int ID_INDEX_BYTES = 8;
+    private static final long MAGIC = 0x42414E4B48495354L; // "BANKHIST"
+    private static final int VERSION = 1;
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".seg";
+    private static final int COMPRESSED_CHUNK_BYTES = 64 << 10;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // Oldest first; time-ordered ids break timestamp ties in creation order
+    private static final Comparator<Transaction> OLDEST_FIRST =
+        Comparator.comparing(Transaction::getTimestamp).thenComparing(Transaction::getTransactionId);
+
+    private final Path file;
+    private final MappedByteBuffer map;
+    private final int accountCount;
+    private final long transactionCount;
+    private final long directoryOffset;
+    private final long idIndexOffset;
+    private final long heapOffset;
+    private final LocalDateTime newest;
+
+    private HistorySegment(Path file, MappedByteBuffer map) {
+        this.file = file;
+        this.map = map;
+        if (map.capacity() < HEADER_BYTES || map.getLong(0) != MAGIC) {
+            throw new StoreException("Not a history segment: " + file);
+        }
+        if (map.getInt(8) != VERSION) {
+            throw new StoreException("Unsupported history segment version " + map.getInt(8) + ": " + file);
+        }
+        this.accountCount = map.getInt(12);
+        this.transactionCount = map.getLong(16);
+        this.directoryOffset = map.getLong(24);
+        this.idIndexOffset = map.getLong(32);
+        this.heapOffset = map.getLong(40);
+        this.newest = LocalDateTime.ofEpochSecond(map.getLong(48), map.getInt(56), ZoneOffset.UTC);
+        if (idIndexOffset != directoryOffset + (long) accountCount * DIRECTORY_BYTES
+                || heapOffset != idIndexOffset + transactionCount * ID_INDEX_BYTES
+                || heapOffset > map.capacity()) {
+            throw new StoreException("Truncated history segment: " + file);
+        }
+    }
+
+    /**
+     * Maps a segment file and validates its header.
+     *
+     * @throws StoreException if the file cannot be read or is not a valid segment
+     */
+    static HistorySegment open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new StoreException("History segment too large to map: " + file);
+            }
+            return new HistorySegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new StoreException("Cannot read history segment " + file, e);
+        }
+    }
+
+    /**
+     * Writes the transactions as segment number {@code sequence} in the directory and maps it.
+     */
+    static HistorySegment write(Path directory, long sequence, Collection<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            throw new IllegalArgumentException("Cannot seal an empty history segment");
+        }
+        Map<String, List<Transaction>> histories = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            histories.computeIfAbsent(transaction.getAccountId(), id -> new ArrayList<>()).add(transaction);
+            String related = transaction.getRelatedAccountId();
+            if (related != null && !related.equals(transaction.getAccountId())) {
+                histories.computeIfAbsent(related, id -> new ArrayList<>()).add(transaction);
+            }
+        }
+        Map<String, Integer> accountIndexes = new TreeMap<>();
+        for (String accountId : histories.keySet()) {
+            accountIndexes.put(accountId, accountIndexes.size());
+        }
+
+        Path target = directory.resolve(fileName(sequence));
+        Path temporary = directory.resolve(fileName(sequence) + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer directoryRecords = ByteBuffer.allocate(histories.size() * DIRECTORY_BYTES);
+                ByteArrayOutputStream heap = new ByteArrayOutputStream();
+                LocalDateTime newest = LocalDateTime.MIN;
+                long position = HEADER_BYTES;
+
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                DataOutputStream entries = new DataOutputStream(raw);
+                byte[] compressed = new byte[COMPRESSED_CHUNK_BYTES];
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try {
+                    for (Map.Entry<String, List<Transaction>> history : histories.entrySet()) {
+                        List<Transaction> sorted = history.getValue();
+                        sorted.sort(OLDEST_FIRST);
+                        raw.reset();
+                        for (Transaction transaction : sorted) {
+                            writeEntry(entries, transaction);
+                        }
+                        byte[] block = raw.toByteArray();
+                        deflater.reset();
+                        deflater.setInput(block);
+                        deflater.finish();
+                        long blockOffset = position;
+                        while (!deflater.finished()) {
+                            int length = deflater.deflate(compressed);
+                            position = writeFully(channel, ByteBuffer.wrap(compressed, 0, length), position);
+                        }
+
+                        byte[] accountId = history.getKey().getBytes(StandardCharsets.UTF_8);
+                        LocalDateTime last = sorted.get(sorted.size() - 1).getTimestamp();
+                        directoryRecords.putInt(heap.size()).putInt(accountId.length).putLong(blockOffset)
+                            .putInt((int) (position - blockOffset)).putInt(block.length).putInt(sorted.size())
+                            .putInt(last.getNano()).putLong(last.toEpochSecond(ZoneOffset.UTC));
+                        heap.write(accountId);
+                        if (last.isAfter(newest)) {
+                            newest = last;
+                        }
+                    }
+                } finally {
+                    deflater.end();
+                }
+
+                long directoryOffset = position;
+                directoryRecords.flip();
+                position = writeFully(channel, directoryRecords, position);
+
+                long[] keys = new long[transactions.size()];
+                int k = 0;
+                for (Transaction transaction : transactions) {
+                    keys[k++] = (long) hash(transaction.getTransactionId()) << 32
+                        | accountIndexes.get(transaction.getAccountId());
+                }
+                Arrays.sort(keys);
+                ByteBuffer idIndex = ByteBuffer.allocate(keys.length * ID_INDEX_BYTES);
+                for (long key : keys) {
+                    idIndex.putLong(key);
+                }
+                idIndex.flip();
+                long idIndexOffset = position;
+                position = writeFully(channel, idIndex, position);
+                long heapOffset = position;
+                position = writeFully(channel, ByteBuffer.wrap(heap.toByteArray()), position);
+                if (position > Integer.MAX_VALUE) {
+                    throw new StoreException("History segment exceeds 2 GB; seal more often: " + target);
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putLong(MAGIC).putInt(VERSION).putInt(histories.size()).putLong(keys.length)
+                    .putLong(directoryOffset).putLong(idIndexOffset).putLong(heapOffset)
+                    .putLong(newest.toEpochSecond(ZoneOffset.UTC)).putInt(newest.getNano());
+                header.position(HEADER_BYTES);
+                header.flip();
+                writeFully(channel, header, 0);
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new StoreException("Cannot write history segment " + target, e);
+        }
+        return open(target);
+    }
+
+    /**
+     * Segment files in the directory, oldest first.
+     */
+    static List<Path> list(Path directory) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new StoreException("Cannot list history segments in " + directory, e);
+        }
+        // Names embed the zero-padded sequence number, so name order is sealing order
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Sequence number a segment file was written under.
+     */
+    static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Timestamp of the newest transaction in the segment.
+     */
+    LocalDateTime newestTimestamp() {
+        return newest;
+    }
+
+    /**
+     * Timestamp of the account's newest transaction in the segment, or {@code null} if it has none.
+     * Reads only the directory.
+     */
+    LocalDateTime newestTimestamp(String accountId) {
+        int index = find(accountId);
+        return index < 0 ? null : newestTimestamp(index);
+    }
+
+    private LocalDateTime newestTimestamp(int index) {
+        int record = directoryRecord(index);
+        return LocalDateTime.ofEpochSecond(map.getLong(record + 32), map.getInt(record + 28), ZoneOffset.UTC);
+    }
+
+    /**
+     * Whether a transaction with this id was sealed into the segment.
+     */
+    boolean contains(String transactionId) {
+        return get(transactionId) != null;
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        throw new UnsupportedOperationException("History segments are immutable");
+    }
+
+    @Override
+    public Transaction get(String transactionId) {
+        int hash = hash(transactionId);
+        long low = 0;
+        long high = transactionCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if ((int) (idKey(mid) >> 32) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (long i = low; i < transactionCount && (int) (idKey(i) >> 32) == hash; i++) {
+            int accountIndex = (int) idKey(i);
+            for (Transaction transaction : decode(accountIndex)) {
+                if (transaction.getTransactionId().equals(transactionId)) {
+                    return transaction;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Transaction> getAll() {
+        List<Transaction> result = new ArrayList<>((int) Math.min(transactionCount, Integer.MAX_VALUE));
+        for (int index = 0; index < accountCount; index++) {
+            String accountId = accountId(index);
+            for (Transaction transaction : decode(index)) {
+                if (transaction.getAccountId().equals(accountId)) {
+                    result.add(transaction);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inflates only the blocks of accounts with a transaction at or after {@code since}, one at a
+     * time, and nothing if the whole segment is older.
+     */
+    @Override
+    public void forEachSince(LocalDateTime since, Consumer<Transaction> action) {
+        if (newest.isBefore(since)) {
+            return;
+        }
+        for (int index = 0; index < accountCount; index++) {
+            if (newestTimestamp(index).isBefore(since)) {
+                continue;
+            }
+            String accountId = accountId(index);
+            for (Transaction transaction : decode(index)) {
+                if (transaction.getAccountId().equals(accountId) && !transaction.getTimestamp().isBefore(since)) {
+                    action.accept(transaction);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return transactionCount;
+    }
+
+    @Override
+    public List<Transaction> latest(String accountId, int limit) {
+        int index = find(accountId);
+        if (index < 0) {
+            return new ArrayList<>();
+        }
+        Transaction[] history = decode(index);
+        return newestFirst(history, history.length, 0, limit);
+    }
+
+    @Override
+    public List<Transaction> before(String accountId, Transaction cursor, int limit) {
+        int index = find(accountId);
+        if (index < 0) {
+            return null;
+        }
+        Transaction[] history = decode(index);
+        for (int position = history.length - 1; position >= 0; position--) {
+            if (history[position].getTransactionId().equals(cursor.getTransactionId())) {
+                return newestFirst(history, position, 0, limit);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Transaction> between(String accountId, LocalDateTime from, LocalDateTime to, int limit) {
+        int index = find(accountId);
+        if (index < 0) {
+            return new ArrayList<>();
+        }
+        Transaction[] history = decode(index);
+        return newestFirst(history, lowerBound(history, to), lowerBound(history, from), limit);
+    }
+
+    // Binary search of the directory, which is sorted by account id
+    private int find(String accountId) {
+        int low = 0;
+        int high = accountCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = accountId(mid).compareTo(accountId);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String accountId(int index) {
+        int record = directoryRecord(index);
+        byte[] bytes = new byte[map.getInt(record + 4)];
+        ByteBuffer heap = map.duplicate();
+        heap.position((int) (heapOffset + map.getInt(record)));
+        heap.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Inflates an account's block into its transactions, oldest first
+    private Transaction[] decode(int index) {
+        int record = directoryRecord(index);
+        int blockOffset = (int) map.getLong(record + 8);
+        int blockBytes = map.getInt(record + 16);
+        byte[] raw = new byte[map.getInt(record + 20)];
+        Transaction[] history = new Transaction[map.getInt(record + 24)];
+
+        ByteBuffer block = map.duplicate();
+        block.position(blockOffset);
+        block.limit(blockOffset + blockBytes);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block);
+            int length = 0;
+            while (length < raw.length) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new StoreException("Corrupt block for account " + accountId(index) + " in " + file);
+                }
+                length += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new StoreException("Corrupt block for account " + accountId(index) + " in " + file, e);
+        } finally {
+            inflater.end();
+        }
+
+        ByteBuffer entries = ByteBuffer.wrap(raw);
+        char[] currencyCode = new char[3];
+        for (int i = 0; i < history.length; i++) {
+            long epochSecond = entries.getLong();
+            int nano = entries.getInt();
+            TransactionType type = TYPES[entries.get()];
+            long minorUnits = entries.getLong();
+            for (int c = 0; c < currencyCode.length; c++) {
+                currencyCode[c] = (char) entries.get();
+            }
+            String transactionId = string(entries);
+            String accountId = string(entries);
+            String relatedAccountId = string(entries);
+            String description = string(entries);
+            history[i] = new Transaction(transactionId, accountId, type,
+                Money.ofMinor(minorUnits, Currency.of(currencyCode, 0, currencyCode.length)),
+                LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC), description, relatedAccountId);
+        }
+        return history;
+    }
+
+    private int directoryRecord(int index) {
+        return (int) (directoryOffset + (long) index * DIRECTORY_BYTES);
+    }
+
+    private long idKey(long position) {
+        return map.getLong((int) (idIndexOffset + position * ID_INDEX_BYTES));
+    }
+
+    // Copies entries [low, high) newest first, stopping after limit entries
+    private static List<Transaction> newestFirst(Transaction[] history, int high, int low, int limit) {
+        int count = Math.max(0, Math.min(high - low, limit));
+        List<Transaction> result = new ArrayList<>(count);
+        for (int i = high - 1; i >= high - count; i--) {
+            result.add(history[i]);
+        }
+        return result;
+    }
+
+    // First index whose timestamp is not before the given time
+    private static int lowerBound(Transaction[] history, LocalDateTime time) {
+        int low = 0;
+        int high = history.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (history[mid].getTimestamp().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void writeEntry(DataOutputStream out, Transaction transaction) throws IOException {
+        LocalDateTime timestamp = transaction.getTimestamp();
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+        out.writeByte(transaction.getType().ordinal());
+        out.writeLong(transaction.getAmount().minorUnits());
+        out.writeBytes(transaction.getAmount().getCurrency());
+        writeString(out, transaction.getTransactionId());
+        writeString(out, transaction.getAccountId());
+        writeString(out, transaction.getRelatedAccountId());
+        writeString(out, transaction.getDescription());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    private static int hash(String transactionId) {
+        int h = transactionId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static String fileName(long sequence) {
+        return String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX);
+    }
+}
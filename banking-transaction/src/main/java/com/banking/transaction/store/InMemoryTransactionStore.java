@@ -0,0 +1,76 @@
+package com.banking.transaction.store;
+
+import com.banking.transaction.domain.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps every {@link Transaction} object, looked up by id and indexed per account.
+ */
+public class InMemoryTransactionStore implements TransactionStore {
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    // Per-account index covering both sides of transfers
+    private final Map<String, AccountHistory> histories = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(Transaction transaction) {
+        transactions.put(transaction.getTransactionId(), transaction);
+        historyOf(transaction.getAccountId()).append(transaction);
+        String relatedAccountId = transaction.getRelatedAccountId();
+        if (relatedAccountId != null && !relatedAccountId.equals(transaction.getAccountId())) {
+            historyOf(relatedAccountId).append(transaction);
+        }
+    }
+
+    @Override
+    public Transaction get(String transactionId) {
+        return transactions.get(transactionId);
+    }
+
+    @Override
+    public List<Transaction> getAll() {
+        return new ArrayList<>(transactions.values());
+    }
+
+    @Override
+    public void forEachSince(LocalDateTime since, Consumer<Transaction> action) {
+        for (Transaction transaction : transactions.values()) {
+            if (!transaction.getTimestamp().isBefore(since)) {
+                action.accept(transaction);
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return transactions.size();
+    }
+
+    @Override
+    public List<Transaction> latest(String accountId, int limit) {
+        AccountHistory history = histories.get(accountId);
+        return history == null ? new ArrayList<>() : history.latest(limit);
+    }
+
+    @Override
+    public List<Transaction> before(String accountId, Transaction cursor, int limit) {
+        AccountHistory history = histories.get(accountId);
+        return history == null ? null : history.before(cursor, limit);
+    }
+
+    @Override
+    public List<Transaction> between(String accountId, LocalDateTime from, LocalDateTime to, int limit) {
+        AccountHistory history = histories.get(accountId);
+        return history == null ? new ArrayList<>() : history.between(from, to, limit);
+    }
+
+    private AccountHistory historyOf(String accountId) {
+        AccountHistory history = histories.get(accountId);
+        return history != null ? history : histories.computeIfAbsent(accountId, id -> new AccountHistory());
+    }
+}
@@ -0,0 +1,14 @@
+package com.banking.transaction.store;
+
+/**
+ * Thrown when sealed transaction history cannot be written or read back.
+ */
+public class StoreException extends RuntimeException {
+    public StoreException(String message) {
+        super(message);
+    }
+
+    public StoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
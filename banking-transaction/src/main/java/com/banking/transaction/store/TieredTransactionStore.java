@@ -0,0 +1,406 @@
+package com.banking.transaction.store;
+
+import com.banking.transaction.domain.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Transaction store that keeps recent history in memory and moves older history to disk.
+ * <p>
+ * New transactions go to an in-memory generation. {@link #seal()}, run every seal interval once
+ * {@link #start(Duration) started}, swaps in an empty generation and writes the previous one to an
+ * immutable {@link HistorySegment} in the store's directory, after which its objects are garbage.
+ * The heap therefore holds at most about two intervals of transactions however long history grows,
+ * and segments are read through memory mapping. Queries merge every tier by timestamp; for equal
+ * timestamps the newer tier comes first.
+ * <p>
+ * Segments already in the directory are reopened on construction, so sealed history survives a
+ * restart. Transactions that are already sealed, such as those replayed from the journal during
+ * recovery, are not added again.
+ * <p>
+ * Given the {@link #setJournalPositions(LongSupplier) journal position} below which every
+ * transaction has been added, each seal also records the position its segments cover, so that
+ * recovery only needs the journal after {@link #getJournalPosition()} to rebuild the history.
+ */
+public class TieredTransactionStore implements TransactionStore, Closeable {
+    private static final Comparator<Transaction> NEWEST_FIRST =
+        Comparator.comparing(Transaction::getTimestamp).reversed();
+
+    private static final String POSITION_FILE = "journal.position";
+
+    private final Path directory;
+    // Adds hold the read side so that a generation is only sealed once no add is still writing to it
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private volatile Tiers tiers;
+    private long nextSequence;
+    private volatile LongSupplier journalPositions;
+    private volatile long journalPosition;
+    // Position covered by the generation being sealed, guarded by this
+    private long sealingPosition;
+    private ScheduledExecutorService scheduler;
+    private volatile RuntimeException lastFailure;
+
+    public TieredTransactionStore(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("History directory cannot be null");
+        }
+        this.directory = directory;
+        List<HistorySegment> segments = new ArrayList<>();
+        for (Path file : HistorySegment.list(directory)) {
+            segments.add(HistorySegment.open(file));
+            nextSequence = HistorySegment.sequenceOf(file) + 1;
+        }
+        this.tiers = new Tiers(new InMemoryTransactionStore(), null, segments.toArray(new HistorySegment[0]));
+        this.journalPosition = readJournalPosition(directory.resolve(POSITION_FILE));
+    }
+
+    /**
+     * Sets the source of the journal position below which every transaction has already been
+     * added to this store, read at each seal. Without one, seals record no position.
+     */
+    public void setJournalPositions(LongSupplier journalPositions) {
+        this.journalPositions = journalPositions;
+    }
+
+    /**
+     * Journal position below which every transaction is sealed, zero if none is known. Replaying
+     * the journal from here is enough to rebuild the history held in memory.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * Seals the in-memory generation every {@code interval} on a background thread until
+     * {@link #close()}.
+     */
+    public synchronized void start(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Seal interval must be positive");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Store already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "transaction-history-sealer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::sealQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Moves every transaction currently held in memory into a new segment. If writing fails the
+     * generation stays queryable in memory and the next call retries it.
+     *
+     * @return the new segment file, or {@code null} if there was nothing to seal
+     */
+    public synchronized Path seal() {
+        if (tiers.sealing == null) {
+            rotationLock.writeLock().lock();
+            try {
+                Tiers current = tiers;
+                if (current.hot.size() == 0) {
+                    return null;
+                }
+                // No add is in progress, so everything below the position is in the generation being sealed
+                LongSupplier positions = journalPositions;
+                sealingPosition = positions == null ? journalPosition : positions.getAsLong();
+                tiers = new Tiers(new InMemoryTransactionStore(), current.hot, current.segments);
+            } finally {
+                rotationLock.writeLock().unlock();
+            }
+        }
+        HistorySegment segment = HistorySegment.write(directory, nextSequence, tiers.sealing.getAll());
+        nextSequence++;
+        // Adds never replace the tiers, so publishing the segment needs no rotation lock
+        Tiers current = tiers;
+        HistorySegment[] segments = Arrays.copyOf(current.segments, current.segments.length + 1);
+        segments[segments.length - 1] = segment;
+        tiers = new Tiers(current.hot, null, segments);
+        if (sealingPosition > journalPosition) {
+            // Written after the segment, so a crash in between only leaves the position behind
+            writeJournalPosition(directory.resolve(POSITION_FILE), sealingPosition);
+            journalPosition = sealingPosition;
+        }
+        return segment.getFile();
+    }
+
+    /**
+     * Failure of the most recent scheduled seal, or {@code null} if it succeeded.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Number of transactions held in memory, including a generation that is being sealed.
+     */
+    public long getInMemorySize() {
+        Tiers current = tiers;
+        return current.hot.size() + (current.sealing == null ? 0 : current.sealing.size());
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        rotationLock.readLock().lock();
+        try {
+            Tiers current = tiers;
+            if (current.isSealed(transaction)) {
+                return;
+            }
+            current.hot.add(transaction);
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Transaction get(String transactionId) {
+        for (TransactionStore tier : tiers.newestFirst) {
+            Transaction transaction = tier.get(transactionId);
+            if (transaction != null) {
+                return transaction;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Transaction> getAll() {
+        List<Transaction> result = new ArrayList<>();
+        for (TransactionStore tier : tiers.newestFirst) {
+            result.addAll(tier.getAll());
+        }
+        return result;
+    }
+
+    /**
+     * Walks the tiers one at a time; segments entirely older than {@code since} are skipped
+     * without being read, and the others are inflated an account block at a time.
+     */
+    @Override
+    public void forEachSince(LocalDateTime since, Consumer<Transaction> action) {
+        for (TransactionStore tier : tiers.newestFirst) {
+            tier.forEachSince(since, action);
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (TransactionStore tier : tiers.newestFirst) {
+            size += tier.size();
+        }
+        return size;
+    }
+
+    @Override
+    public List<Transaction> latest(String accountId, int limit) {
+        List<Transaction> merged = new ArrayList<>();
+        for (TransactionStore tier : tiers.newestFirst) {
+            if (!isCovered(merged, limit, tier, accountId)) {
+                merge(merged, tier.latest(accountId, limit), limit);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public List<Transaction> before(String accountId, Transaction cursor, int limit) {
+        TransactionStore[] newestFirst = tiers.newestFirst;
+        int cursorTier = 0;
+        Transaction stored = null;
+        while (cursorTier < newestFirst.length
+                && (stored = newestFirst[cursorTier].get(cursor.getTransactionId())) == null) {
+            cursorTier++;
+        }
+        if (stored == null) {
+            return null;
+        }
+        // The tier's own instance, as in-memory tiers locate the cursor by identity
+        List<Transaction> merged = newestFirst[cursorTier].before(accountId, stored, limit);
+        if (merged == null) {
+            return null;
+        }
+        LocalDateTime time = cursor.getTimestamp();
+        for (int i = 0; i < newestFirst.length; i++) {
+            TransactionStore tier = newestFirst[i];
+            if (i == cursorTier || isCovered(merged, limit, tier, accountId)) {
+                continue;
+            }
+            // Ties with the cursor sort after it only in older tiers
+            LocalDateTime to = i < cursorTier ? time : time.plusNanos(1);
+            merge(merged, tier.between(accountId, LocalDateTime.MIN, to, limit), limit);
+        }
+        return merged;
+    }
+
+    @Override
+    public List<Transaction> between(String accountId, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Transaction> merged = new ArrayList<>();
+        for (TransactionStore tier : tiers.newestFirst) {
+            if (!isCovered(merged, limit, tier, accountId)) {
+                merge(merged, tier.between(accountId, from, to, limit), limit);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Stops scheduled sealing, waiting for a seal in progress to finish. Unsealed transactions
+     * stay in memory only.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            current.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long readJournalPosition(Path file) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+        } catch (IOException e) {
+            throw new StoreException("Cannot read " + file, e);
+        }
+    }
+
+    private static void writeJournalPosition(Path file, long position) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, position);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new StoreException("Cannot write " + file, e);
+        }
+    }
+
+    private void sealQuietly() {
+        try {
+            seal();
+            lastFailure = null;
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the unsealed generation stays in memory until a retry succeeds
+            lastFailure = e;
+        }
+    }
+
+    /**
+     * Whether a segment can be skipped because it holds nothing newer than the results so far.
+     * Only reads the segment's directory, so older segments are never inflated for recent pages.
+     */
+    private static boolean isCovered(List<Transaction> merged, int limit, TransactionStore tier, String accountId) {
+        if (!(tier instanceof HistorySegment)) {
+            return false;
+        }
+        LocalDateTime newest = ((HistorySegment) tier).newestTimestamp(accountId);
+        return newest == null
+            || merged.size() >= limit && (limit == 0 || !newest.isAfter(merged.get(limit - 1).getTimestamp()));
+    }
+
+    // Merges a newest-first page of an older tier into the results, keeping the first limit entries
+    private static void merge(List<Transaction> merged, List<Transaction> page, int limit) {
+        if (page.isEmpty()) {
+            return;
+        }
+        merged.addAll(page);
+        // Stable, so entries of newer tiers stay ahead of equal timestamps from older ones
+        merged.sort(NEWEST_FIRST);
+        if (merged.size() > limit) {
+            merged.subList(limit, merged.size()).clear();
+        }
+    }
+
+    /**
+     * Immutable view of the tiers, replaced as a whole so queries see a consistent set.
+     */
+    private static final class Tiers {
+        final InMemoryTransactionStore hot;
+        final InMemoryTransactionStore sealing;
+        final HistorySegment[] segments;
+        final TransactionStore[] newestFirst;
+        final LocalDateTime sealedUpTo;
+
+        Tiers(InMemoryTransactionStore hot, InMemoryTransactionStore sealing, HistorySegment[] segments) {
+            this.hot = hot;
+            this.sealing = sealing;
+            this.segments = segments;
+            List<TransactionStore> order = new ArrayList<>();
+            order.add(hot);
+            if (sealing != null) {
+                order.add(sealing);
+            }
+            LocalDateTime newest = null;
+            for (int i = segments.length - 1; i >= 0; i--) {
+                order.add(segments[i]);
+                if (newest == null || segments[i].newestTimestamp().isAfter(newest)) {
+                    newest = segments[i].newestTimestamp();
+                }
+            }
+            this.newestFirst = order.toArray(new TransactionStore[0]);
+            this.sealedUpTo = newest;
+        }
+
+        // Transactions newer than everything sealed cannot be in a segment, so live adds skip the lookup
+        boolean isSealed(Transaction transaction) {
+            if (sealedUpTo == null || transaction.getTimestamp().isAfter(sealedUpTo)) {
+                return false;
+            }
+            for (HistorySegment segment : segments) {
+                if (segment.contains(transaction.getTransactionId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.transaction.store;
+
+import com.banking.transaction.domain.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage and per-account indexing of recorded transactions.
+ * <p>
+ * A transaction is indexed under its account and, for transfers, under the related account too.
+ * Per-account queries return newest-first results ordered by transaction timestamp.
+ * Implementations are safe for concurrent use.
+ */
+public interface TransactionStore {
+
+    void add(Transaction transaction);
+
+    /**
+     * @return the transaction, or {@code null} if none has this id
+     */
+    Transaction get(String transactionId);
+
+    List<Transaction> getAll();
+
+    /**
+     * Passes every transaction with {@code timestamp >= since} to the action, in no particular
+     * order. Unlike {@link #getAll()}, stores skip what is older without materializing it where
+     * they can, and nothing is collected.
+     */
+    default void forEachSince(LocalDateTime since, Consumer<Transaction> action) {
+        for (Transaction transaction : getAll()) {
+            if (!transaction.getTimestamp().isBefore(since)) {
+                action.accept(transaction);
+            }
+        }
+    }
+
+    long size();
+
+    /**
+     * Returns up to {@code limit} of the account's most recent transactions, newest first.
+     */
+    List<Transaction> latest(String accountId, int limit);
+
+    /**
+     * Returns up to {@code limit} of the account's transactions older than {@code cursor}, newest
+     * first, or {@code null} if the cursor is not part of the account's history.
+     */
+    List<Transaction> before(String accountId, Transaction cursor, int limit);
+
+    /**
+     * Returns up to {@code limit} of the account's transactions with {@code from <= timestamp < to},
+     * newest first.
+     */
+    List<Transaction> between(String accountId, LocalDateTime from, LocalDateTime to, int limit);
+}
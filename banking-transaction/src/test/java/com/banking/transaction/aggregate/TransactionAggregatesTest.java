@@ -0,0 +1,105 @@
+package com.banking.transaction.aggregate;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.IdGenerators;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionAggregatesTest {
+
+    private final AccountService accountService = new AccountService();
+    private final TransactionService transactionService = new TransactionService(accountService);
+    private final TransactionAggregates aggregates = new TransactionAggregates(accountService);
+
+    @Test
+    void testDailyAndMonthlyTotalsFollowRecordedTransactions() {
+        transactionService.addListener(aggregates);
+        Account from = accountService.createAccount("CUST1", AccountType.CHECKING, Money.ofMinor(10_000, "USD"));
+        Account to = accountService.createAccount("CUST2", AccountType.SAVINGS, Money.ofMinor(0, "USD"));
+        transactionService.deposit(from.getAccountId(), Money.ofMinor(500, "USD"), "salary");
+        transactionService.withdraw(from.getAccountId(), Money.ofMinor(200, "USD"), "cash");
+        transactionService.withdraw(from.getAccountId(), Money.ofMinor(300, "USD"), "cash");
+        transactionService.transfer(from.getAccountId(), to.getAccountId(), Money.ofMinor(1_000, "USD"), "rent");
+
+        LocalDate today = LocalDate.now();
+        PeriodSummary day = aggregates.getDailySummary(from.getAccountId(), today);
+        assertEquals(4, day.getTransactionCount());
+        assertEquals(2, day.getCount(TransactionType.WITHDRAWAL));
+        assertEquals(Money.ofMinor(500, "USD"), day.getTotal(TransactionType.WITHDRAWAL));
+        assertEquals(Money.ofMinor(1_500, "USD"), day.getDebitTotal());
+        assertEquals(Money.ofMinor(500, "USD"), day.getCreditTotal());
+        assertEquals("USD", day.getCurrency());
+
+        PeriodSummary received = aggregates.getMonthlySummary(to.getAccountId(), YearMonth.from(today));
+        assertEquals(1, received.getCount(TransactionType.TRANSFER));
+        assertEquals(Money.ofMinor(1_000, "USD"), received.getCreditTotal());
+        assertEquals(Money.ofMinor(0, "USD"), received.getDebitTotal());
+
+        PeriodSummary yesterday = aggregates.getDailySummary(from.getAccountId(), today.minusDays(1));
+        assertEquals(0, yesterday.getTransactionCount());
+    }
+
+    @Test
+    void testPeriodsRollOverAndOldPeriodsAreRejected() {
+        Account account = accountService.createAccount("CUST1", AccountType.CHECKING, Money.ofMinor(0, "EUR"));
+        LocalDateTime now = LocalDateTime.now();
+        // Same ring slot as today, one ring length earlier: replaced by today's bucket
+        aggregates.onTransactionRecorded(deposit(account, now.minusDays(TransactionAggregates.DAYS_KEPT), 7));
+        aggregates.onTransactionRecorded(deposit(account, now, 100));
+        aggregates.onTransactionRecorded(deposit(account, now.minusDays(1), 40));
+        // Older than what now occupies its slot: dropped from the daily ring
+        aggregates.onTransactionRecorded(deposit(account, now.minusDays(TransactionAggregates.DAYS_KEPT), 9));
+
+        assertEquals(Money.ofMinor(100, "EUR"), aggregates.getDailySummary(account.getAccountId(), now.toLocalDate()).getCreditTotal());
+        assertEquals(Money.ofMinor(40, "EUR"),
+            aggregates.getDailySummary(account.getAccountId(), now.toLocalDate().minusDays(1)).getCreditTotal());
+        assertThrows(IllegalArgumentException.class, () ->
+            aggregates.getDailySummary(account.getAccountId(), now.toLocalDate().minusDays(TransactionAggregates.DAYS_KEPT)));
+        assertThrows(IllegalArgumentException.class, () ->
+            aggregates.getMonthlySummary(account.getAccountId(), YearMonth.now().minusMonths(TransactionAggregates.MONTHS_KEPT)));
+
+        PeriodSummary untouched = aggregates.getMonthlySummary(
+            accountService.createAccount("CUST2", AccountType.SAVINGS, Money.ofMinor(5, "GBP")).getAccountId(), YearMonth.now());
+        assertEquals(0, untouched.getTransactionCount());
+        assertEquals("GBP", untouched.getCurrency());
+        assertThrows(InvalidAccountException.class, () -> aggregates.getDailySummary("NON_EXISTENT", now.toLocalDate()));
+    }
+
+    private static Transaction deposit(Account account, LocalDateTime timestamp, long minorUnits) {
+        return new Transaction("TX-" + timestamp + "-" + minorUnits, account.getAccountId(), TransactionType.DEPOSIT,
+            Money.ofMinor(minorUnits, account.getBalance().currency()), timestamp, "deposit", null);
+    }
+
+    @Test
+    void testSeedOnlyReadsKeptPeriods() {
+        Account account = accountService.createAccount("CUST001", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+        String id = account.getAccountId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = TransactionAggregates.retainedSince(now.toLocalDate());
+        transactionService.restoreTransaction(new Transaction(IdGenerators.getDefault().nextId(), id,
+            TransactionType.DEPOSIT, Money.ofMinor(700, "USD"), since.minusNanos(1), "too old", null));
+        transactionService.restoreTransaction(new Transaction(IdGenerators.getDefault().nextId(), id,
+            TransactionType.DEPOSIT, Money.ofMinor(40, "USD"), since, "oldest kept", null));
+        transactionService.restoreTransaction(new Transaction(IdGenerators.getDefault().nextId(), id,
+            TransactionType.DEPOSIT, Money.ofMinor(2, "USD"), now, "today", null));
+
+        aggregates.seed(transactionService);
+
+        assertEquals(LocalDate.of(2024, 4, 1).atStartOfDay(), TransactionAggregates.retainedSince(LocalDate.of(2026, 3, 15)));
+        assertTrue(since.toLocalDate().isBefore(now.toLocalDate().minusDays(TransactionAggregates.DAYS_KEPT)));
+        assertEquals(2, aggregates.getDailySummary(id, now.toLocalDate()).getTotal(TransactionType.DEPOSIT).minorUnits());
+        assertEquals(40, aggregates.getMonthlySummary(id, YearMonth.from(since)).getTotal(TransactionType.DEPOSIT).minorUnits());
+    }
+}
@@ -0,0 +1,303 @@
+package com.banking.transaction.interest;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.metrics.MetricsRegistry;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.AccountCheckpointer;
+import com.banking.transaction.journal.JournalRecovery;
+import com.banking.transaction.journal.TransactionJournal;
+import com.banking.transaction.service.BatchOperation;
+import com.banking.transaction.service.BatchResult;
+import com.banking.transaction.service.TransactionSequencer;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterestAccrualEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private final AccountService accountService = new AccountService();
+    private final TransactionService transactionService = new TransactionService(accountService);
+
+    @Test
+    void testScheduleRoundsDownOnActual365() {
+        InterestRateSchedule schedule = schedule("0.0365", "0");
+        // 1,000.00 at 3.65% for 10 days is exactly 1.00
+        assertEquals(100, schedule.accrue(AccountType.SAVINGS, 100_000, 10));
+        assertEquals(99, schedule.accrue(AccountType.SAVINGS, 99_999, 10));
+        assertEquals(0, schedule.accrue(AccountType.SAVINGS, -5_000, 10));
+        assertEquals(0, schedule.accrue(AccountType.CHECKING, 100_000, 10));
+        assertFalse(schedule.accrues(AccountType.FIXED_DEPOSIT));
+        assertEquals(new BigDecimal("0.0365"), schedule.getAnnualRate(AccountType.SAVINGS));
+        // Large enough to overflow 64-bit intermediates
+        assertEquals(Long.MAX_VALUE / 2 / 1000, schedule.accrue(AccountType.SAVINGS, Long.MAX_VALUE / 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> schedule("0.0000000001", "0"));
+        assertThrows(IllegalArgumentException.class, () -> schedule("-0.01", "0"));
+    }
+
+    @Test
+    void testRunCreditsEligibleAccountsInParallel() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            AccountType type = i % 2 == 0 ? AccountType.SAVINGS : AccountType.CHECKING;
+            accounts.add(accountService.createAccount("CUST" + i, type, Money.ofMinor(36_500 + i, "USD")));
+        }
+        accountService.deactivateAccount(accounts.get(0).getAccountId());
+        InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+            schedule("0.10", "0.01"), null, 4, 64, 16);
+
+        LocalDate today = LocalDate.now();
+        AccrualResult result = engine.run(today, 30);
+
+        assertFalse(result.isAlreadyCompleted());
+        assertEquals(999, result.getCredited());
+        assertEquals(0, result.getFailed());
+        assertEquals(Money.ofMinor(36_500, "USD"), accountService.getBalance(accounts.get(0).getAccountId()));
+        // 365.02 at 10% for 30 days is 3.0001..., 365.03 at 1% is 0.3000...
+        assertEquals(Money.ofMinor(36_502 + 300, "USD"), accountService.getBalance(accounts.get(2).getAccountId()));
+        assertEquals(Money.ofMinor(36_503 + 30, "USD"), accountService.getBalance(accounts.get(3).getAccountId()));
+        Transaction credit = transactionService.getLatestTransactions(accounts.get(2).getAccountId(), 1).get(0);
+        assertEquals(TransactionType.INTEREST_CREDIT, credit.getType());
+        assertEquals(InterestAccrualEngine.descriptionOf(today), credit.getDescription());
+
+        AccrualResult again = engine.run(today, 30);
+        assertTrue(again.isAlreadyCompleted());
+        assertEquals(Money.ofMinor(36_502 + 300, "USD"), accountService.getBalance(accounts.get(2).getAccountId()));
+    }
+
+    @Test
+    void testInterruptedRunResumesWithoutCreditingTwice() throws Exception {
+        LocalDate today = LocalDate.now();
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.SAVINGS, Money.ofMinor(365_000, "EUR")));
+        }
+        // An earlier run got as far as crediting the first three accounts
+        Files.createDirectories(directory);
+        Files.createFile(directory.resolve("interest-" + today + ".started"));
+        List<BatchOperation> earlier = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            earlier.add(BatchOperation.interestCredit(accounts.get(i).getAccountId(), Money.ofMinor(100, "EUR"),
+                InterestAccrualEngine.descriptionOf(today)));
+        }
+        transactionService.creditInterest(earlier);
+
+        InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+            schedule("0.10", "0"), directory);
+        AccrualResult result = engine.run(today, 1);
+
+        assertTrue(result.isResumed());
+        assertEquals(3, result.getAlreadyCredited());
+        assertEquals(7, result.getCredited());
+        assertEquals(Money.ofMinor(365_100, "EUR"), accountService.getBalance(accounts.get(0).getAccountId()));
+        assertEquals(Money.ofMinor(365_100, "EUR"), accountService.getBalance(accounts.get(9).getAccountId()));
+        assertTrue(Files.exists(directory.resolve("interest-" + today + ".completed")));
+
+        // A new engine, as after a restart, sees the completed marker
+        InterestAccrualEngine restarted = new InterestAccrualEngine(accountService, transactionService,
+            schedule("0.10", "0"), directory);
+        assertTrue(restarted.run(today, 1).isAlreadyCompleted());
+        assertThrows(IllegalArgumentException.class, () -> restarted.run(today.plusDays(1), 1));
+    }
+
+    @Test
+    void testRunWithFailedCreditsIsNotCompletedAndRetriesThem() {
+        LocalDate today = LocalDate.now();
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.SAVINGS, Money.ofMinor(365_000, "EUR")));
+        }
+        InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+            schedule("0.10", "0"), directory);
+        // Every credit is rolled back while the journal refuses appends
+        TransactionJournal journal = new TransactionJournal(directory.resolve("tx.journal"), Duration.ZERO);
+        journal.close();
+        transactionService.setJournal(journal);
+        AccrualResult failed = engine.run(today, 1);
+        transactionService.setJournal(null);
+
+        assertEquals(4, failed.getFailed());
+        assertFalse(Files.exists(directory.resolve("interest-" + today + ".completed")));
+        assertEquals(Money.ofMinor(365_000, "EUR"), accountService.getBalance(accounts.get(0).getAccountId()));
+
+        AccrualResult retried = engine.run(today, 1);
+        assertFalse(retried.isAlreadyCompleted());
+        assertTrue(retried.isResumed());
+        assertEquals(4, retried.getCredited());
+        assertTrue(engine.run(today, 1).isAlreadyCompleted());
+        for (Account account : accounts) {
+            assertEquals(Money.ofMinor(365_100, "EUR"), accountService.getBalance(account.getAccountId()));
+        }
+    }
+
+    @Test
+    void testRunInterruptedByACrashResumesFromRecoveredHistory() throws Exception {
+        LocalDate today = LocalDate.now();
+        Path journalFile = directory.resolve("tx.journal");
+        Path snapshots = directory.resolve("snapshots");
+        Path markers = directory.resolve("interest");
+        List<Account> accounts = new ArrayList<>();
+        try (TransactionJournal journal = new TransactionJournal(journalFile, Duration.ZERO)) {
+            accountService.addListener(journal);
+            transactionService.setJournal(journal);
+            for (int i = 0; i < 10; i++) {
+                accounts.add(accountService.createAccount("CUST" + i, AccountType.SAVINGS, Money.ofMinor(365_000, "EUR")));
+            }
+            InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+                schedule("0.10", "0"), markers);
+            assertEquals(10, engine.run(today, 1).getCredited());
+            // The credits are now only in history older than the latest snapshot
+            assertNotNull(new AccountCheckpointer(journal, snapshots).checkpoint());
+        } finally {
+            transactionService.setJournal(null);
+        }
+        // As if the process died after the credits but before the run was marked completed
+        Files.delete(markers.resolve("interest-" + today + ".completed"));
+
+        AccountService recoveredAccounts = new AccountService();
+        TransactionService recoveredTransactions = new TransactionService(recoveredAccounts);
+        JournalRecovery.recover(journalFile, snapshots, recoveredAccounts, recoveredTransactions);
+        InterestAccrualEngine restarted = new InterestAccrualEngine(recoveredAccounts, recoveredTransactions,
+            schedule("0.10", "0"), markers);
+        AccrualResult result = restarted.run(today, 1);
+
+        assertTrue(result.isResumed());
+        assertEquals(10, result.getAlreadyCredited());
+        assertEquals(0, result.getCredited());
+        for (Account account : accounts) {
+            assertEquals(Money.ofMinor(365_100, "EUR"), recoveredAccounts.getBalance(account.getAccountId()));
+        }
+    }
+
+    @Test
+    void testSchedulerAccruesThePreviousMonthOnceAtStart() throws Exception {
+        Account account = accountService.createAccount("CUST1", AccountType.SAVINGS, Money.ofMinor(365_000, "USD"));
+        InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+            schedule("0.10", "0"), directory);
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        try (InterestAccrualScheduler scheduler = new InterestAccrualScheduler(engine)) {
+            scheduler.start(LocalTime.of(1, 0));
+            for (int i = 0; i < 500 && scheduler.getLastResult() == null; i++) {
+                Thread.sleep(10);
+            }
+            assertNull(scheduler.getLastFailure());
+            assertEquals(lastMonth.atEndOfMonth(), scheduler.getLastResult().getAccrualDate());
+            assertEquals(1, scheduler.getLastResult().getCredited());
+            assertTrue(scheduler.runDue().isAlreadyCompleted());
+        }
+        // 3,650.00 at 10% earns exactly 1.00 a day
+        assertEquals(Money.ofMinor(365_000 + 100 * lastMonth.lengthOfMonth(), "USD"),
+            accountService.getBalance(account.getAccountId()));
+    }
+
+    @Test
+    void testSmallBalanceEarnsInterestOverAMonth() {
+        Account account = accountService.createAccount("CUST1", AccountType.SAVINGS, Money.ofMinor(10_000, "USD"));
+        InterestRateSchedule schedule = schedule("0.035", "0");
+        // A day's interest on 100.00 at 3.5% is under a cent, so daily posting would never pay any
+        assertEquals(0, schedule.accrue(AccountType.SAVINGS, 10_000, 1));
+        InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService, schedule, null);
+        Clock midMarch = Clock.fixed(Instant.parse("2025-03-15T12:00:00Z"), ZoneOffset.UTC);
+
+        AccrualResult result = new InterestAccrualScheduler(engine, midMarch).runDue();
+
+        assertEquals(LocalDate.of(2025, 2, 28), result.getAccrualDate());
+        assertEquals(1, result.getCredited());
+        // 100.00 * 3.5% * 28 / 365 = 0.2684...
+        assertEquals(Money.ofMinor(10_026, "USD"), accountService.getBalance(account.getAccountId()));
+    }
+
+    @Test
+    void testDelayUntilNextRunFollowsTheWallClock() {
+        ZonedDateTime evening = ZonedDateTime.of(2025, 3, 29, 22, 0, 0, 0, ZoneId.of("Europe/London"));
+        assertEquals(Duration.ofHours(3), InterestAccrualScheduler.delayUntil(evening, LocalTime.of(1, 0)));
+        assertEquals(Duration.ofHours(23), InterestAccrualScheduler.delayUntil(evening, LocalTime.of(22, 0)));
+        // Clocks go forward overnight, so the next 02:00 is an hour short of a day away
+        ZonedDateTime night = ZonedDateTime.of(2025, 3, 29, 2, 0, 0, 0, ZoneId.of("Europe/London"));
+        assertEquals(Duration.ofHours(23), InterestAccrualScheduler.delayUntil(night, LocalTime.of(2, 0)));
+    }
+
+    @Test
+    void testCreditsGoThroughSequencer() {
+        Account account = accountService.createAccount("CUST1", AccountType.SAVINGS, Money.ofMinor(365_000, "USD"));
+        try (TransactionSequencer sequencer = new TransactionSequencer(transactionService, 2, 64)) {
+            transactionService.setSequencer(sequencer);
+            InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService,
+                schedule("0.10", "0"), null);
+            assertEquals(1, engine.run(LocalDate.now(), 1).getCredited());
+        } finally {
+            transactionService.setSequencer(null);
+        }
+        assertEquals(Money.ofMinor(365_100, "USD"), accountService.getBalance(account.getAccountId()));
+    }
+
+    @Test
+    void testBatchesRejectInterestCreditsAndCreditInterestRejectsOtherOperations() {
+        Account account = accountService.createAccount("CUST1", AccountType.SAVINGS, Money.ofMinor(1_000, "USD"));
+        List<BatchResult> results = transactionService.processBatch(List.of(
+            BatchOperation.interestCredit(account.getAccountId(), Money.ofMinor(10, "USD"), "free money")), false);
+        assertFalse(results.get(0).isSuccess());
+        results = transactionService.creditInterest(List.of(
+            BatchOperation.deposit(account.getAccountId(), Money.ofMinor(10, "USD"), "deposit")));
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(Money.ofMinor(1_000, "USD"), accountService.getBalance(account.getAccountId()));
+    }
+
+    @Test
+    void testThrottleBacksOffWhileForegroundIsSlowAndRecovers() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        ForegroundThrottle throttle = new ForegroundThrottle(metrics, Duration.ofMillis(5));
+        for (int i = 0; i < 100; i++) {
+            metrics.timer("transaction.deposit").record(Duration.ofMillis(50).toNanos());
+        }
+        throttle.check();
+        long first = throttle.getDelayNanos();
+        assertTrue(first > 0);
+        for (int i = 0; i < 100; i++) {
+            metrics.timer("transaction.transfer").record(Duration.ofMillis(50).toNanos());
+        }
+        throttle.check();
+        assertEquals(first * 2, throttle.getDelayNanos());
+
+        // Fast again, or too quiet to judge: the pause halves away
+        for (int i = 0; i < 100; i++) {
+            metrics.timer("transaction.deposit").record(Duration.ofMillis(1).toNanos());
+        }
+        throttle.check();
+        assertEquals(first, throttle.getDelayNanos());
+        throttle.check();
+        assertEquals(0, throttle.getDelayNanos());
+    }
+
+    private static InterestRateSchedule schedule(String savings, String checking) {
+        Map<AccountType, BigDecimal> rates = new EnumMap<>(AccountType.class);
+        rates.put(AccountType.SAVINGS, new BigDecimal(savings));
+        rates.put(AccountType.CHECKING, new BigDecimal(checking));
+        return new InterestRateSchedule(rates);
+    }
+}
@@ -0,0 +1,156 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.id.IdGenerators;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.store.TieredTransactionStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalRecoveryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecoveryFromSnapshotAndTailMatchesLiveState() {
+        Path journalFile = directory.resolve("tx.journal");
+        Path snapshots = directory.resolve("snapshots");
+        AccountService accountService = new AccountService();
+        List<Account> accounts = new ArrayList<>();
+        Transaction tailTransaction;
+        try (TransactionJournal journal = new TransactionJournal(journalFile, Duration.ZERO)) {
+            accountService.addListener(journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            transactionService.setJournal(journal);
+            AccountCheckpointer checkpointer = new AccountCheckpointer(journal, snapshots);
+
+            for (int i = 0; i < 20; i++) {
+                accounts.add(accountService.createAccount("CUST" + (i % 3), AccountType.SAVINGS, Money.ofMinor(10_000, "USD")));
+            }
+            transactionService.transfer(accounts.get(0).getAccountId(), accounts.get(1).getAccountId(), Money.ofMinor(2_500, "USD"), "rent");
+            assertNotNull(checkpointer.checkpoint());
+
+            // Tail: balance changes to snapshotted accounts, a status change and a new account
+            transactionService.withdraw(accounts.get(1).getAccountId(), Money.ofMinor(500, "USD"), "cash");
+            accountService.deactivateAccount(accounts.get(2).getAccountId());
+            accounts.add(accountService.createAccount("CUST9", AccountType.CHECKING, Money.ofMinor(700, "EUR")));
+            tailTransaction = transactionService.deposit(accounts.get(20).getAccountId(), Money.ofMinor(300, "EUR"), "salary");
+            assertNotNull(checkpointer.checkpoint());
+            transactionService.deposit(accounts.get(0).getAccountId(), Money.ofMinor(1, "USD"), "after last snapshot");
+        }
+
+        AccountService recoveredAccounts = new AccountService();
+        TransactionService recoveredTransactions = new TransactionService(recoveredAccounts);
+        JournalRecovery.recover(journalFile, snapshots, recoveredAccounts, recoveredTransactions);
+
+        assertEquals(accounts.size(), recoveredAccounts.getAllAccounts().size());
+        for (Account account : accounts) {
+            Account recovered = recoveredAccounts.getAccount(account.getAccountId());
+            assertEquals(account.getBalance(), recovered.getBalance());
+            assertEquals(account.isActive(), recovered.isActive());
+            assertEquals(account.getCustomerId(), recovered.getCustomerId());
+            assertEquals(account.getAccountType(), recovered.getAccountType());
+        }
+        assertEquals(7, recoveredAccounts.getAccountsByCustomer("CUST0").size());
+        // History before the snapshots is restored too, without being applied to balances again
+        assertEquals(4, recoveredTransactions.getAllTransactions().size());
+        assertEquals(tailTransaction.getAmount(),
+            recoveredTransactions.getTransaction(tailTransaction.getTransactionId()).getAmount());
+    }
+
+    @Test
+    void testTieredHistoryBoundsReplayAndLetsTheJournalBeRetired() {
+        Path journalFile = directory.resolve("tx.journal");
+        Path snapshots = directory.resolve("snapshots");
+        Path history = directory.resolve("history");
+        AccountService accountService = new AccountService();
+        Account account;
+        List<String> ids = new ArrayList<>();
+        long sealedAt;
+        try (TransactionJournal journal = new TransactionJournal(journalFile, Duration.ZERO, 16, 256)) {
+            accountService.addListener(journal);
+            TieredTransactionStore store = new TieredTransactionStore(history);
+            store.setJournalPositions(journal::getAppliedPosition);
+            TransactionService transactionService = new TransactionService(accountService, IdGenerators.getDefault(), store);
+            transactionService.setJournal(journal);
+            AccountCheckpointer checkpointer = new AccountCheckpointer(journal, snapshots);
+            checkpointer.setHistoryPositions(store::getJournalPosition);
+
+            account = accountService.createAccount("CUST1", AccountType.SAVINGS, Money.ofMinor(0, "USD"));
+            for (int i = 0; i < 20; i++) {
+                ids.add(transactionService.deposit(account.getAccountId(), Money.ofMinor(100, "USD"), "sealed").getTransactionId());
+            }
+            assertNotNull(store.seal());
+            sealedAt = store.getJournalPosition();
+            assertEquals(journal.getDurablePosition(), sealedAt);
+            assertNotNull(checkpointer.checkpoint());
+            for (int i = 0; i < 5; i++) {
+                ids.add(transactionService.deposit(account.getAccountId(), Money.ofMinor(10, "USD"), "in memory").getTransactionId());
+            }
+            assertNotNull(checkpointer.checkpoint());
+            for (int i = 0; i < 3; i++) {
+                ids.add(transactionService.deposit(account.getAccountId(), Money.ofMinor(1, "USD"), "tail").getTransactionId());
+            }
+        }
+        long start = JournalReader.startPosition(journalFile);
+        assertTrue(start > 0 && start <= sealedAt);
+
+        AccountService recoveredAccounts = new AccountService();
+        TieredTransactionStore reopened = new TieredTransactionStore(history);
+        assertEquals(sealedAt, reopened.getJournalPosition());
+        TransactionService recoveredTransactions =
+            new TransactionService(recoveredAccounts, IdGenerators.getDefault(), reopened);
+        JournalRecovery.recover(journalFile, snapshots, reopened.getJournalPosition(), recoveredAccounts, recoveredTransactions);
+
+        assertEquals(Money.ofMinor(2_053, "USD"), recoveredAccounts.getAccount(account.getAccountId()).getBalance());
+        assertEquals(ids.size(), recoveredTransactions.getAllTransactions().size());
+        for (String id : ids) {
+            assertNotNull(recoveredTransactions.getTransaction(id));
+        }
+        // The start of the journal is gone, so only the sealed segments still hold that history
+        assertThrows(JournalException.class, () -> JournalReader.replay(journalFile, 0, (transaction, end) -> { }));
+    }
+
+    @Test
+    void testCheckpointRetainsTwoSnapshots() throws Exception {
+        Path journalFile = directory.resolve("tx.journal");
+        Path snapshots = directory.resolve("snapshots");
+        AccountService accountService = new AccountService();
+        try (TransactionJournal journal = new TransactionJournal(journalFile, Duration.ZERO)) {
+            accountService.addListener(journal);
+            AccountCheckpointer checkpointer = new AccountCheckpointer(journal, snapshots);
+            assertNull(checkpointer.checkpoint());
+            for (int i = 0; i < 4; i++) {
+                accountService.createAccount("CUST" + i, AccountType.CHECKING, Money.ofMinor(i, "GBP"));
+                assertNotNull(checkpointer.checkpoint());
+            }
+            assertNull(checkpointer.checkpoint());
+        }
+
+        try (Stream<Path> files = Files.list(snapshots)) {
+            assertEquals(2, files.count());
+        }
+        AccountSnapshot latest = AccountSnapshot.latest(snapshots);
+        assertEquals(4, latest.size());
+        assertEquals(Files.size(journalFile), latest.getJournalPosition());
+        Map<String, Money> balances = new HashMap<>();
+        latest.forEach(account -> balances.put(account.getCustomerId(), account.getBalance()));
+        assertEquals(Money.ofMinor(3, "GBP"), balances.get("CUST3"));
+    }
+}
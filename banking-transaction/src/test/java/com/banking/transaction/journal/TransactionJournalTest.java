@@ -0,0 +1,178 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.BatchOperation;
+import com.banking.transaction.service.BatchResult;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testConcurrentAppendsAreReadBackIntact() throws InterruptedException {
+        Path file = directory.resolve("tx.journal");
+        Map<String, Transaction> written = new ConcurrentHashMap<>();
+        try (TransactionJournal journal = new TransactionJournal(file, Duration.ofMillis(2))) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 400; i++) {
+                int n = i;
+                executor.execute(() -> {
+                    Transaction transaction = new Transaction("ACC" + (n % 7), TransactionType.TRANSFER,
+                        Money.ofMinor(n + 1, "EUR"), n % 2 == 0 ? "payment é " + n : null, "ACC" + (n % 5));
+                    journal.appendDurably(transaction);
+                    written.put(transaction.getTransactionId(), transaction);
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        List<Transaction> read = new ArrayList<>();
+        JournalReader.replay(file, 0, (transaction, end) -> read.add(transaction));
+        assertEquals(400, read.size());
+        for (Transaction transaction : read) {
+            Transaction original = written.get(transaction.getTransactionId());
+            assertEquals(original.getAccountId(), transaction.getAccountId());
+            assertEquals(original.getRelatedAccountId(), transaction.getRelatedAccountId());
+            assertEquals(original.getAmount(), transaction.getAmount());
+            assertEquals(original.getTimestamp(), transaction.getTimestamp());
+            assertEquals(original.getDescription(), transaction.getDescription());
+        }
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnOpen() throws IOException {
+        Path file = directory.resolve("tx.journal");
+        long validEnd;
+        try (TransactionJournal journal = new TransactionJournal(file, Duration.ZERO)) {
+            journal.appendDurably(new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(100, "USD"), "first"));
+            validEnd = journal.getDurablePosition();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[] {0, 0, 0, 50, 1, 2, 3}), validEnd);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, Duration.ZERO)) {
+            assertEquals(validEnd, journal.getDurablePosition());
+            journal.appendDurably(new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(200, "USD"), "second"));
+        }
+        List<String> descriptions = new ArrayList<>();
+        JournalReader.replay(file, 0, (transaction, end) -> descriptions.add(transaction.getDescription()));
+        assertEquals(List.of("first", "second"), descriptions);
+    }
+
+    @Test
+    void testSegmentsRollAndAreRetiredWithoutMovingPositions() throws IOException {
+        Path file = directory.resolve("tx.journal");
+        List<Long> ends = new ArrayList<>();
+        try (TransactionJournal journal = new TransactionJournal(file, Duration.ZERO, 16, 256)) {
+            for (int i = 0; i < 30; i++) {
+                journal.appendDurably(new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(i + 1, "USD"), "n" + i));
+            }
+        }
+        try (TransactionJournal journal = new TransactionJournal(file, Duration.ZERO, 16, 256)) {
+            journal.appendDurably(new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(31, "USD"), "n30"));
+            long durable = journal.getDurablePosition();
+            assertTrue(JournalReader.segments(file).size() > 3);
+            assertEquals(durable, JournalReader.replay(file, 0, (transaction, end) -> ends.add(end)));
+            assertEquals(31, ends.size());
+
+            long retireAt = ends.get(20);
+            assertTrue(journal.retireBefore(retireAt) > 0);
+            long start = JournalReader.startPosition(file);
+            assertTrue(start > 0 && start <= retireAt);
+            assertFalse(java.nio.file.Files.exists(file));
+            assertThrows(JournalException.class, () -> JournalReader.replay(file, 0, (transaction, end) -> { }));
+
+            List<Long> remaining = new ArrayList<>();
+            assertEquals(durable, JournalReader.replay(file, retireAt, (transaction, end) -> remaining.add(end)));
+            assertEquals(ends.subList(21, 31), remaining);
+        }
+    }
+
+    @Test
+    void testAppliedPositionWaitsForTrackedRecords() {
+        try (TransactionJournal journal = new TransactionJournal(directory.resolve("tx.journal"), Duration.ZERO)) {
+            journal.appendDurably(new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(1, "USD"), "untracked"));
+            long untracked = journal.getDurablePosition();
+            long first = journal.appendTracked(
+                new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(2, "USD"), "first")).join();
+            long second = journal.appendTracked(
+                new Transaction("ACC1", TransactionType.DEPOSIT, Money.ofMinor(3, "USD"), "second")).join();
+            assertEquals(untracked, journal.getAppliedPosition());
+
+            journal.markApplied(second);
+            assertEquals(untracked, journal.getAppliedPosition());
+            journal.markApplied(first);
+            assertEquals(second, journal.getAppliedPosition());
+        }
+    }
+
+    @Test
+    void testServiceJournalsTransactionsBeforeReturning() {
+        Path file = directory.resolve("tx.journal");
+        AccountService accountService = new AccountService();
+        TransactionService transactionService = new TransactionService(accountService);
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        try (TransactionJournal journal = new TransactionJournal(file, Duration.ofMillis(1))) {
+            transactionService.setJournal(journal);
+            Transaction deposit = transactionService.deposit(account.getAccountId(), new Money(50.0, "USD"), "Journaled");
+
+            List<String> ids = new ArrayList<>();
+            JournalReader.replay(file, 0, (transaction, end) -> ids.add(transaction.getTransactionId()));
+            assertEquals(List.of(deposit.getTransactionId()), ids);
+            // Indexed before the deposit returned, so nothing holds the applied position back
+            assertEquals(journal.getDurablePosition(), journal.getAppliedPosition());
+        }
+        assertThrows(JournalException.class, () ->
+            transactionService.deposit(account.getAccountId(), new Money(1.0, "USD"), "after close"));
+    }
+
+    @Test
+    void testFailedJournalAppendUndoesBalanceChanges() {
+        AccountService accountService = new AccountService();
+        TransactionService transactionService = new TransactionService(accountService);
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, Money.ofMinor(10_000, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.SAVINGS, Money.ofMinor(0, "USD"));
+        TransactionJournal journal = new TransactionJournal(directory.resolve("tx.journal"), Duration.ZERO);
+        transactionService.setJournal(journal);
+        journal.close();
+
+        assertThrows(JournalException.class, () ->
+            transactionService.deposit(from.getAccountId(), Money.ofMinor(500, "USD"), "lost"));
+        assertThrows(JournalException.class, () ->
+            transactionService.transfer(from.getAccountId(), to.getAccountId(), Money.ofMinor(2_500, "USD"), "lost"));
+        List<BatchResult> results = transactionService.processBatch(List.of(
+            BatchOperation.withdrawal(from.getAccountId(), Money.ofMinor(1_000, "USD"), "lost")), false);
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(Money.ofMinor(10_000, "USD"), from.getBalance());
+        assertEquals(Money.ofMinor(0, "USD"), to.getBalance());
+        assertTrue(transactionService.getAllTransactions().isEmpty());
+        assertEquals(3, transactionService.getMetrics().counter("transaction.rolled-back").sum());
+    }
+}
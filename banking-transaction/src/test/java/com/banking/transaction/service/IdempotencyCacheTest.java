@@ -0,0 +1,107 @@
+package com.banking.transaction.service;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
+import com.banking.core.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private static final Money AMOUNT = Money.ofMinor(100, "USD");
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void testDuplicatesReplayUntilExpiredOrEvicted() {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofSeconds(10), now::get);
+        TransactionResult first = execute(cache, "a");
+        assertSame(first, execute(cache, "a"));
+        assertEquals(1, executions.get());
+        assertEquals(1, cache.getReplays());
+        assertThrows(IdempotencyKeyReusedException.class, () -> cache.execute("a", TransactionType.DEPOSIT, "ACC1",
+            null, Money.ofMinor(999, "USD"), this::declined));
+
+        // Capacity: the oldest key goes first
+        execute(cache, "b");
+        execute(cache, "c");
+        assertEquals(2, cache.size());
+        execute(cache, "a");
+        assertEquals(4, executions.get());
+
+        // Age: everything expires together
+        now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        execute(cache, "c");
+        assertEquals(5, executions.get());
+        assertEquals(1, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> execute(cache, "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1)));
+    }
+
+    @Test
+    void testInFlightDuplicateWaitsAndFailuresAreForgotten() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(16, Duration.ofMinutes(1), now::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<TransactionResult> first = CompletableFuture.supplyAsync(() ->
+            cache.execute("slow", TransactionType.DEPOSIT, "ACC1", null, AMOUNT, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return declined();
+            }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<TransactionResult> duplicate = CompletableFuture.supplyAsync(() -> execute(cache, "slow"));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+        assertSame(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executions.get());
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("broken", TransactionType.DEPOSIT, "ACC1", null,
+            AMOUNT, () -> {
+                throw new IllegalStateException("journal down");
+            }));
+        execute(cache, "broken");
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testFailedKeysDoNotPushOutRememberedResults() {
+        IdempotencyCache cache = new IdempotencyCache(4, Duration.ofMinutes(1), now::get);
+        TransactionResult remembered = execute(cache, "paid");
+        // A retry storm against an unknown account: every attempt throws and is forgotten
+        for (int i = 0; i < 1000; i++) {
+            String key = "unknown-" + i;
+            assertThrows(IllegalArgumentException.class, () -> cache.execute(key, TransactionType.DEPOSIT,
+                "NOPE", null, AMOUNT, () -> {
+                    throw new IllegalArgumentException("Account not found: NOPE");
+                }));
+        }
+        assertEquals(1, cache.size());
+        assertSame(remembered, execute(cache, "paid"));
+        assertEquals(1, executions.get());
+    }
+
+    private TransactionResult execute(IdempotencyCache cache, String key) {
+        return cache.execute(key, TransactionType.DEPOSIT, "ACC1", null, AMOUNT, () -> {
+            executions.incrementAndGet();
+            return declined();
+        });
+    }
+
+    private TransactionResult declined() {
+        return TransactionResult.declined(TransactionOutcome.INACTIVE);
+    }
+}
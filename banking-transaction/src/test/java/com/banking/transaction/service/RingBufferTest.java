@@ -0,0 +1,73 @@
+package com.banking.transaction.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void testOfferFailsWhenFullAndSlotsAreReused() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        for (int lap = 0; lap < 3; lap++) {
+            assertEquals(lap, ring.poll());
+            assertTrue(ring.offer(lap + 4));
+        }
+        assertEquals(3, ring.poll());
+        assertFalse(ring.isEmpty());
+    }
+
+    @Test
+    void testRejectsCapacityThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6));
+    }
+
+    @Test
+    void testEveryElementFromConcurrentProducersIsConsumedOnce() throws InterruptedException {
+        RingBuffer<Integer> ring = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        boolean[] seen = new boolean[producers * perProducer];
+        int[] lastPerProducer = new int[producers];
+        Arrays.fill(lastPerProducer, -1);
+        for (int received = 0; received < seen.length; ) {
+            Integer value = ring.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            assertFalse(seen[value]);
+            seen[value] = true;
+            // Each producer's elements arrive in the order it offered them
+            int producer = value / perProducer;
+            assertTrue(value > lastPerProducer[producer]);
+            lastPerProducer[producer] = value;
+            received++;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,195 @@
+package com.banking.transaction.service;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.transaction.domain.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionSequencerTest {
+
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private TransactionSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        sequencer = new TransactionSequencer(transactionService, 4, 64);
+        transactionService.setSequencer(sequencer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.close();
+    }
+
+    @Test
+    void testFacadeKeepsSynchronousSemantics() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, Money.ofMinor(10_000, "USD"));
+
+        Transaction deposit = transactionService.deposit(account.getAccountId(), Money.ofMinor(500, "USD"), "in");
+        Transaction withdrawal = transactionService.withdraw(account.getAccountId(), Money.ofMinor(300, "USD"), "out");
+
+        assertEquals(TransactionType.DEPOSIT, deposit.getType());
+        assertEquals(TransactionType.WITHDRAWAL, withdrawal.getType());
+        assertEquals(Money.ofMinor(10_200, "USD"), account.getBalance());
+        assertEquals(2, transactionService.getTransactionsByAccount(account.getAccountId()).size());
+        assertThrows(InsufficientFundsException.class,
+            () -> transactionService.withdraw(account.getAccountId(), Money.ofMinor(1_000_000, "USD"), "too much"));
+        assertThrows(InvalidAccountException.class,
+            () -> transactionService.deposit("missing", Money.ofMinor(1, "USD"), "nowhere"));
+    }
+
+    @Test
+    void testRejectedCreditIsRefundedAcrossPartitions() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, Money.ofMinor(1_000, "USD")));
+        }
+        Account target = accounts.get(15);
+        accountService.deactivateAccount(target.getAccountId());
+
+        for (int i = 0; i < 15; i++) {
+            Account source = accounts.get(i);
+            assertThrows(InvalidAccountException.class, () -> transactionService.transfer(
+                source.getAccountId(), target.getAccountId(), Money.ofMinor(100, "USD"), "blocked"));
+            assertEquals(Money.ofMinor(1_000, "USD"), source.getBalance());
+        }
+    }
+
+    @Test
+    void testTryOperationsAreDeclinedThroughSequencer() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, Money.ofMinor(1_000, "USD")));
+        }
+        Account source = accounts.get(0);
+        Account target = accounts.get(7);
+
+        assertEquals(TransactionOutcome.INSUFFICIENT_FUNDS, transactionService.tryWithdraw(
+            source.getAccountId(), Money.ofMinor(5_000, "USD"), "too much").getOutcome());
+        assertEquals(TransactionOutcome.CURRENCY_MISMATCH, transactionService.tryDeposit(
+            source.getAccountId(), Money.ofMinor(5, "EUR"), "wrong currency").getOutcome());
+        assertTrue(transactionService.tryTransfer(
+            source.getAccountId(), target.getAccountId(), Money.ofMinor(400, "USD"), "ok").isSuccess());
+
+        accountService.deactivateAccount(target.getAccountId());
+        assertEquals(TransactionOutcome.INACTIVE, transactionService.tryTransfer(
+            source.getAccountId(), target.getAccountId(), Money.ofMinor(100, "USD"), "blocked").getOutcome());
+        assertEquals(Money.ofMinor(600, "USD"), source.getBalance());
+        assertEquals(Money.ofMinor(1_400, "USD"), target.getBalance());
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoney() throws InterruptedException {
+        int accountCount = 32;
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            accountIds.add(accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                Money.ofMinor(10_000, "USD")).getAccountId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < 2_000; n++) {
+                    String from = accountIds.get(random.nextInt(accountCount));
+                    String to = accountIds.get(random.nextInt(accountCount));
+                    try {
+                        transactionService.transfer(from, to, Money.ofMinor(1 + random.nextInt(500), "USD"), "shuffle");
+                    } catch (InsufficientFundsException e) {
+                        // expected when a source runs dry
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        long total = 0;
+        for (String accountId : accountIds) {
+            total += accountService.getBalance(accountId).minorUnits();
+        }
+        assertEquals(10_000L * accountCount, total);
+    }
+
+    @Test
+    void testClosedSequencerRejectsRequests() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, Money.ofMinor(100, "USD"));
+        sequencer.close();
+
+        assertThrows(IllegalStateException.class,
+            () -> transactionService.deposit(account.getAccountId(), Money.ofMinor(1, "USD"), "late"));
+    }
+
+    @Test
+    void testBatchIsSubmittedThroughSequencer() {
+        Account a = accountService.createAccount("CUST001", AccountType.CHECKING, Money.ofMinor(1_000, "USD"));
+        Account b = accountService.createAccount("CUST002", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            operations.add(BatchOperation.transfer(a.getAccountId(), b.getAccountId(), Money.ofMinor(20, "USD"), "t" + i));
+        }
+        operations.add(BatchOperation.withdrawal(b.getAccountId(), Money.ofMinor(5_000, "USD"), "too much"));
+
+        List<BatchResult> results = transactionService.processBatch(operations, false);
+
+        assertEquals(50, results.stream().limit(100).filter(BatchResult::isSuccess).count());
+        assertFalse(results.get(100).isSuccess());
+        assertEquals(Money.ofMinor(0, "USD"), a.getBalance());
+        assertEquals(Money.ofMinor(1_000, "USD"), b.getBalance());
+    }
+
+    @Test
+    void testSubmitFailsWhenRingStaysFull() throws InterruptedException {
+        AccountService stalledAccounts = new AccountService();
+        TransactionService stalledService = new TransactionService(stalledAccounts);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        stalledService.addListener(transaction -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        TransactionSequencer stalled = new TransactionSequencer(stalledService, 1, 2, Duration.ofMillis(20));
+        Account account = stalledAccounts.createAccount("CUST001", AccountType.SAVINGS, Money.ofMinor(0, "USD"));
+        String id = account.getAccountId();
+        try {
+            // The worker blocks in the listener, and two more requests fill its ring
+            stalled.submitDeposit(id, Money.ofMinor(1, "USD"), "stalls");
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            stalled.submitDeposit(id, Money.ofMinor(1, "USD"), "queued");
+            stalled.submitDeposit(id, Money.ofMinor(1, "USD"), "queued");
+
+            assertThrows(SequencerFullException.class, () -> stalled.submitDeposit(id, Money.ofMinor(1, "USD"), "shed"));
+        } finally {
+            release.countDown();
+            stalled.close();
+        }
+        assertEquals(Money.ofMinor(3, "USD"), account.getBalance());
+    }
+}
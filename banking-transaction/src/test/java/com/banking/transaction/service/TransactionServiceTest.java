@@ -4,11 +4,21 @@ import com.banking.account.domain.Account;
 import com.banking.account.service.AccountService;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionOutcome;
 import com.banking.core.domain.TransactionType;
 import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.metrics.MetricsRegistry;
 import com.banking.transaction.domain.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 class TransactionServiceTest {
@@ -48,6 +58,99 @@ class TransactionServiceTest {
         );
     }
 
+    @Test
+    void testFailingListenerIsCountedWithoutFailingTheTransaction() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        transactionService.setMetrics(metrics);
+        transactionService.addListener(transaction -> {
+            throw new IllegalStateException("listener down");
+        });
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+
+        Transaction deposit = transactionService.deposit(account.getAccountId(), new Money(5.0, "USD"), "Test deposit");
+
+        assertEquals(deposit, transactionService.getTransaction(deposit.getTransactionId()));
+        assertEquals(1L, metrics.getCounters().get("transaction.listener-failures"));
+    }
+
+    @Test
+    void testMetricsRecordLatenciesAndRejectionsByReason() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        transactionService.setMetrics(metrics);
+        accountService.setMetrics(metrics);
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        transactionService.deposit(account.getAccountId(), new Money(50.0, "USD"), "Test deposit");
+        transactionService.withdraw(account.getAccountId(), new Money(10.0, "USD"), "Test withdrawal");
+        assertThrows(InsufficientFundsException.class, () ->
+            transactionService.withdraw(account.getAccountId(), new Money(500.0, "USD"), "Too much"));
+        assertThrows(InvalidAccountException.class, () ->
+            transactionService.deposit("NON_EXISTENT", new Money(1.0, "USD"), "Nowhere"));
+
+        assertEquals(1, metrics.getTimers().get("transaction.deposit").getCount());
+        assertEquals(1, metrics.getTimers().get("transaction.withdraw").getCount());
+        assertEquals(1L, metrics.getCounters().get("transaction.rejected.InsufficientFundsException"));
+        assertEquals(1L, metrics.getCounters().get("transaction.rejected.InvalidAccountException"));
+        assertNull(metrics.getCounters().get("account.rejected.InvalidAccountException"));
+        assertEquals(2L, metrics.getGauges().get("transaction.store-size"));
+    }
+
+    @Test
+    void testTryOperationsReturnOutcomesInsteadOfThrowing() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        transactionService.setMetrics(metrics);
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, Money.ofMinor(10_000, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+
+        TransactionResult declined = transactionService.tryWithdraw(from.getAccountId(), Money.ofMinor(20_000, "USD"), "Too much");
+        assertFalse(declined.isSuccess());
+        assertEquals(TransactionOutcome.INSUFFICIENT_FUNDS, declined.getOutcome());
+        assertNull(declined.getTransaction());
+        assertSame(declined, transactionService.tryTransfer(
+            from.getAccountId(), to.getAccountId(), Money.ofMinor(20_000, "USD"), "Too much"));
+        assertEquals(TransactionOutcome.CURRENCY_MISMATCH,
+            transactionService.tryDeposit(from.getAccountId(), Money.ofMinor(100, "EUR"), "Wrong currency").getOutcome());
+
+        TransactionResult transfer = transactionService.tryTransfer(
+            from.getAccountId(), to.getAccountId(), Money.ofMinor(4_000, "USD"), "Rent");
+        assertTrue(transfer.isSuccess());
+        assertEquals(TransactionType.TRANSFER, transfer.getTransaction().getType());
+        assertEquals(Money.ofMinor(6_000, "USD"), from.getBalance());
+        assertEquals(Money.ofMinor(4_000, "USD"), to.getBalance());
+
+        accountService.deactivateAccount(to.getAccountId());
+        assertEquals(TransactionOutcome.INACTIVE, transactionService.tryTransfer(
+            from.getAccountId(), to.getAccountId(), Money.ofMinor(1_000, "USD"), "Blocked").getOutcome());
+        assertEquals(Money.ofMinor(6_000, "USD"), from.getBalance());
+        assertThrows(InvalidAccountException.class, () ->
+            transactionService.tryWithdraw("NON_EXISTENT", Money.ofMinor(1, "USD"), "Nowhere"));
+
+        assertEquals(1, transactionService.getTransactionsByAccount(from.getAccountId()).size());
+        assertEquals(2L, metrics.getCounters().get("transaction.declined.INSUFFICIENT_FUNDS"));
+        assertEquals(1L, metrics.getCounters().get("transaction.declined.INACTIVE"));
+        assertNull(metrics.getCounters().get("transaction.rejected.InsufficientFundsException"));
+    }
+
+    @Test
+    void testIdempotencyKeyExecutesOnce() {
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, Money.ofMinor(10_000, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+
+        TransactionResult first = transactionService.tryTransfer(
+            from.getAccountId(), to.getAccountId(), Money.ofMinor(4_000, "USD"), "Rent", "key-1");
+        TransactionResult retry = transactionService.tryTransfer(
+            from.getAccountId(), to.getAccountId(), Money.ofMinor(4_000, "USD"), "Rent", "key-1");
+        assertSame(first.getTransaction(), retry.getTransaction());
+        assertEquals(Money.ofMinor(6_000, "USD"), from.getBalance());
+        assertThrows(IdempotencyKeyReusedException.class, () -> transactionService.tryWithdraw(
+            from.getAccountId(), Money.ofMinor(4_000, "USD"), "Rent", "key-1"));
+
+        // Without a key, or with a new one, the operation runs again
+        transactionService.tryWithdraw(from.getAccountId(), Money.ofMinor(1_000, "USD"), "Cash", null);
+        transactionService.tryWithdraw(from.getAccountId(), Money.ofMinor(1_000, "USD"), "Cash", "key-2");
+        assertEquals(Money.ofMinor(4_000, "USD"), from.getBalance());
+        assertEquals(1, transactionService.getIdempotencyCache().getReplays());
+    }
+
     @Test
     void testTransfer() {
         Account fromAccount = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
@@ -75,5 +178,153 @@ class TransactionServiceTest {
         var transactions = transactionService.getTransactionsByAccount(account.getAccountId());
         assertEquals(2, transactions.size());
     }
-}
 
+    @Test
+    void testTransferToInactiveAccountLeavesSourceUntouched() {
+        Account fromAccount = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account toAccount = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(50.0, "USD"));
+        accountService.deactivateAccount(toAccount.getAccountId());
+
+        assertThrows(InvalidAccountException.class, () -> transactionService.transfer(
+            fromAccount.getAccountId(), toAccount.getAccountId(), new Money(40.0, "USD"), "Transfer test"));
+        assertEquals(100.0, fromAccount.getBalance().getAmount().doubleValue());
+        assertEquals(50.0, toAccount.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoney() throws InterruptedException {
+        int accountCount = 4;
+        String[] accountIds = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountIds[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                Money.ofMinor(1_000, "USD")).getAccountId();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    int from = random.nextInt(accountCount);
+                    int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+                    try {
+                        transactionService.transfer(accountIds[from], accountIds[to], Money.ofMinor(7, "USD"), "race");
+                    } catch (InsufficientFundsException expected) {
+                        // source ran dry
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "transfers deadlocked or stalled");
+
+        long total = 0;
+        for (String accountId : accountIds) {
+            long balance = accountService.getBalance(accountId).minorUnits();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(accountCount * 1_000L, total);
+    }
+
+    @Test
+    void testHistoryIncludesBothSidesOfTransfer() {
+        Account fromAccount = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account toAccount = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(50.0, "USD"));
+        Transaction transfer = transactionService.transfer(
+            fromAccount.getAccountId(), toAccount.getAccountId(), new Money(40.0, "USD"), "Transfer test");
+
+        assertEquals(List.of(transfer), transactionService.getTransactionsByAccount(fromAccount.getAccountId()));
+        assertEquals(List.of(transfer), transactionService.getTransactionsByAccount(toAccount.getAccountId()));
+        assertTrue(transactionService.getTransactionsByAccount("UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void testHistoryPagingAndRanges() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        String accountId = account.getAccountId();
+        LocalDateTime start = LocalDateTime.now();
+        Transaction first = transactionService.deposit(accountId, new Money(1.0, "USD"), "1");
+        Transaction second = transactionService.deposit(accountId, new Money(2.0, "USD"), "2");
+        Transaction third = transactionService.deposit(accountId, new Money(3.0, "USD"), "3");
+
+        assertEquals(List.of(third, second, first), transactionService.getTransactionsByAccount(accountId));
+        assertEquals(List.of(third, second), transactionService.getLatestTransactions(accountId, 2));
+        assertEquals(List.of(first), transactionService.getTransactionsBefore(accountId, second.getTransactionId(), 10));
+        assertTrue(transactionService.getTransactionsBefore(accountId, first.getTransactionId(), 10).isEmpty());
+        assertEquals(List.of(third, second, first),
+            transactionService.getTransactionsBetween(accountId, start, LocalDateTime.now().plusSeconds(1)));
+        assertTrue(transactionService.getTransactionsBetween(accountId, start.minusDays(2), start.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testBatchAppliesInOrderAndFailsItemsIndividually() {
+        Account a = accountService.createAccount("CUST001", AccountType.CHECKING, Money.ofMinor(1_000, "USD"));
+        Account b = accountService.createAccount("CUST002", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+
+        List<BatchResult> results = transactionService.processBatch(List.of(
+            BatchOperation.withdrawal(a.getAccountId(), Money.ofMinor(1_500, "USD"), "too much"),
+            BatchOperation.deposit(a.getAccountId(), Money.ofMinor(500, "USD"), "in"),
+            BatchOperation.withdrawal(a.getAccountId(), Money.ofMinor(1_500, "USD"), "now fine"),
+            BatchOperation.transfer(b.getAccountId(), a.getAccountId(), Money.ofMinor(1, "USD"), "empty"),
+            BatchOperation.deposit("UNKNOWN", Money.ofMinor(1, "USD"), "nowhere"),
+            BatchOperation.deposit(b.getAccountId(), Money.ofMinor(1, "EUR"), "wrong currency"),
+            new BatchOperation(TransactionType.INTEREST_CREDIT, a.getAccountId(), null, Money.ofMinor(1, "USD"), "x"),
+            BatchOperation.transfer(a.getAccountId(), b.getAccountId(), null, "no amount")
+        ), false);
+
+        assertEquals(8, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(TransactionType.WITHDRAWAL, results.get(2).getTransaction().getType());
+        assertTrue(results.get(3).getError().startsWith("Insufficient funds"));
+        assertEquals("Account not found: UNKNOWN", results.get(4).getError());
+        assertFalse(results.get(5).isSuccess());
+        assertFalse(results.get(6).isSuccess());
+        assertEquals("Amount cannot be null", results.get(7).getError());
+
+        assertEquals(Money.ofMinor(0, "USD"), a.getBalance());
+        assertEquals(Money.ofMinor(0, "USD"), b.getBalance());
+        assertEquals(2, transactionService.getTransactionsByAccount(a.getAccountId()).size());
+    }
+
+    @Test
+    void testBatchNetsTransfersBetweenTheSameAccounts() {
+        Account a = accountService.createAccount("CUST001", AccountType.CHECKING, Money.ofMinor(100, "USD"));
+        Account b = accountService.createAccount("CUST002", AccountType.CHECKING, Money.ofMinor(0, "USD"));
+        Account c = accountService.createAccount("CUST003", AccountType.CHECKING, Money.ofMinor(50, "USD"));
+
+        // A cannot fund the 500 transfer on its own, but only the net amount leaves it
+        List<BatchResult> results = transactionService.processBatch(List.of(
+            BatchOperation.transfer(a.getAccountId(), b.getAccountId(), Money.ofMinor(500, "USD"), "1"),
+            BatchOperation.transfer(c.getAccountId(), a.getAccountId(), Money.ofMinor(50, "USD"), "2"),
+            BatchOperation.transfer(b.getAccountId(), a.getAccountId(), Money.ofMinor(450, "USD"), "3"),
+            BatchOperation.transfer(a.getAccountId(), c.getAccountId(), Money.ofMinor(30, "USD"), "4"),
+            BatchOperation.transfer(c.getAccountId(), a.getAccountId(), Money.ofMinor(30, "USD"), "5")
+        ), true);
+
+        // A->B 500 and B->A 450 net to A->B 50; A->C 30 and C->A 80 net to C->A 50
+        assertTrue(results.stream().allMatch(BatchResult::isSuccess));
+        assertTrue(results.get(0).isNetted());
+        assertSame(results.get(0).getTransaction(), results.get(2).getTransaction());
+        Transaction net = results.get(0).getTransaction();
+        assertEquals(a.getAccountId(), net.getAccountId());
+        assertEquals(b.getAccountId(), net.getRelatedAccountId());
+        assertEquals(Money.ofMinor(50, "USD"), net.getAmount());
+        assertEquals(c.getAccountId(), results.get(1).getTransaction().getAccountId());
+        assertEquals(Money.ofMinor(50, "USD"), results.get(1).getTransaction().getAmount());
+
+        assertEquals(Money.ofMinor(100, "USD"), a.getBalance());
+        assertEquals(Money.ofMinor(50, "USD"), b.getBalance());
+        assertEquals(Money.ofMinor(0, "USD"), c.getBalance());
+        assertEquals(2, transactionService.getAllTransactions().size());
+
+        List<BatchResult> cancelled = transactionService.processBatch(List.of(
+            BatchOperation.transfer(a.getAccountId(), b.getAccountId(), Money.ofMinor(70, "USD"), "x"),
+            BatchOperation.transfer(b.getAccountId(), a.getAccountId(), Money.ofMinor(70, "USD"), "y")
+        ), true);
+        assertTrue(cancelled.get(0).isSuccess());
+        assertNull(cancelled.get(1).getTransaction());
+        assertEquals(2, transactionService.getAllTransactions().size());
+    }
+}
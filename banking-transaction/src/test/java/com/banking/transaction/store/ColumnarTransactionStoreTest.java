@@ -0,0 +1,165 @@
+package com.banking.transaction.store;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.transaction.domain.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    private final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(1);
+    private final ColumnarTransactionStore store = new ColumnarTransactionStore();
+
+    @Test
+    void testMaterializesEveryField() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_456_000);
+        Transaction transfer = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.TRANSFER,
+            Money.ofMinor(12_345, "EUR"), timestamp, "rent é ✓", "ACC2");
+        Transaction deposit = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.DEPOSIT,
+            Money.ofMinor(5, "JPY"), timestamp, null, null);
+        store.add(transfer);
+        store.add(deposit);
+
+        Transaction read = store.get(transfer.getTransactionId());
+        assertEquals(transfer.getTransactionId(), read.getTransactionId());
+        assertEquals("ACC1", read.getAccountId());
+        assertEquals("ACC2", read.getRelatedAccountId());
+        assertEquals(TransactionType.TRANSFER, read.getType());
+        assertEquals(Money.ofMinor(12_345, "EUR"), read.getAmount());
+        assertEquals(timestamp, read.getTimestamp());
+        assertEquals("rent é ✓", read.getDescription());
+
+        Transaction readDeposit = store.get(deposit.getTransactionId());
+        assertEquals("", readDeposit.getDescription());
+        assertNull(readDeposit.getRelatedAccountId());
+        assertEquals(Money.ofMinor(5, "JPY"), readDeposit.getAmount());
+
+        assertEquals(2, store.latest("ACC1", 10).size());
+        assertEquals(1, store.latest("ACC2", 10).size());
+        assertNull(store.get(idGenerator.nextId()));
+        assertNull(store.get("not-an-id"));
+    }
+
+    @Test
+    void testQueriesMatchInMemoryStoreAcrossChunks() {
+        InMemoryTransactionStore reference = new InMemoryTransactionStore();
+        Random random = new Random(42);
+        for (int i = 0; i < 70_000; i++) {
+            String account = "ACC" + random.nextInt(20);
+            String related = random.nextInt(3) == 0 ? "ACC" + random.nextInt(20) : null;
+            // Timestamps collide and arrive slightly out of order, as with concurrent writers
+            LocalDateTime timestamp = START.plus(i / 3 - random.nextInt(5), ChronoUnit.MILLIS);
+            Transaction transaction = new Transaction(idGenerator.nextId(), account,
+                related == null ? TransactionType.DEPOSIT : TransactionType.TRANSFER,
+                Money.ofMinor(1 + random.nextInt(10_000), "USD"), timestamp, "tx " + i, related);
+            store.add(transaction);
+            reference.add(transaction);
+        }
+        assertEquals(70_000, store.size());
+
+        for (int a = 0; a < 20; a++) {
+            String account = "ACC" + a;
+            assertSameIds(reference.latest(account, 50), store.latest(account, 50));
+            List<Transaction> all = reference.latest(account, Integer.MAX_VALUE);
+            assertSameIds(all, store.latest(account, Integer.MAX_VALUE));
+
+            Transaction cursor = all.get(all.size() / 2);
+            assertSameIds(reference.before(account, cursor, 100),
+                store.before(account, store.get(cursor.getTransactionId()), 100));
+
+            LocalDateTime from = START.plus(3_000, ChronoUnit.MILLIS);
+            LocalDateTime to = START.plus(9_000, ChronoUnit.MILLIS);
+            assertSameIds(reference.between(account, from, to, Integer.MAX_VALUE),
+                store.between(account, from, to, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void testCursorFromAnotherAccountIsRejected() {
+        Transaction first = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.DEPOSIT,
+            Money.ofMinor(1, "USD"), START, "a", null);
+        Transaction second = new Transaction(idGenerator.nextId(), "ACC2", TransactionType.DEPOSIT,
+            Money.ofMinor(1, "USD"), START, "b", null);
+        store.add(first);
+        store.add(second);
+
+        assertNull(store.before("ACC1", second, 10));
+        assertNull(store.before("ACC3", first, 10));
+    }
+
+    @Test
+    void testRejectsDuplicateAndForeignIds() {
+        Transaction transaction = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.DEPOSIT,
+            Money.ofMinor(1, "USD"), START, "a", null);
+        store.add(transaction);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add(transaction));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Transaction(UUID.randomUUID().toString(),
+            "ACC1", TransactionType.DEPOSIT, Money.ofMinor(1, "USD"), START, "a", null)));
+        assertEquals(1, store.size());
+    }
+
+    private static void assertSameIds(List<Transaction> expected, List<Transaction> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTransactionId(), actual.get(i).getTransactionId());
+        }
+    }
+
+    @Test
+    void testReadersSeeConsistentHistoryWhileWriterAdds() throws InterruptedException {
+        int count = 100_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> problem = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            Thread reader = new Thread(() -> {
+                Random random = new Random();
+                while (!done.get() && problem.get() == null) {
+                    String account = "ACC" + random.nextInt(8);
+                    List<Transaction> page = store.latest(account, 50);
+                    for (int i = 0; i < page.size(); i++) {
+                        Transaction transaction = page.get(i);
+                        if (i > 0 && transaction.getTimestamp().isAfter(page.get(i - 1).getTimestamp())) {
+                            problem.set("Page of " + account + " is not newest first");
+                        }
+                    }
+                    if (!page.isEmpty() && store.before(account, page.get(page.size() - 1), 10) == null) {
+                        problem.set("Listed transaction cannot be used as a cursor");
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < count; i++) {
+            // Mostly in order, with some late arrivals that are inserted into the middle of an index
+            LocalDateTime timestamp = START.plus(i - (random.nextInt(10) == 0 ? random.nextInt(100) : 0), ChronoUnit.MILLIS);
+            store.add(new Transaction(idGenerator.nextId(), "ACC" + random.nextInt(8), TransactionType.DEPOSIT,
+                Money.ofMinor(i + 1, "USD"), timestamp, "d" + (i % 50), null));
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(problem.get());
+        assertEquals(count, store.size());
+        assertEquals(count, store.getAll().size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.banking.transaction.store;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.transaction.domain.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTransactionStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    private final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testQueriesMergeMemoryAndSealedSegments() {
+        TieredTransactionStore store = new TieredTransactionStore(directory);
+        InMemoryTransactionStore reference = new InMemoryTransactionStore();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String account = "ACC" + random.nextInt(15);
+            String related = random.nextInt(3) == 0 ? "ACC" + random.nextInt(15) : null;
+            // Timestamps collide and arrive slightly out of order, including across seals
+            LocalDateTime timestamp = START.plus(i / 3 - random.nextInt(5), ChronoUnit.MILLIS);
+            Transaction transaction = new Transaction(idGenerator.nextId(), account,
+                related == null ? TransactionType.DEPOSIT : TransactionType.TRANSFER,
+                Money.ofMinor(1 + random.nextInt(10_000), "USD"), timestamp, "tx é " + i, related);
+            store.add(transaction);
+            reference.add(transaction);
+            if (i % 4_000 == 3_999) {
+                assertNotNull(store.seal());
+            }
+        }
+        assertEquals(5, HistorySegment.list(directory).size());
+        assertEquals(0, store.getInMemorySize());
+        assertNull(store.seal());
+        assertEquals(20_000, store.size());
+        assertEquals(20_000, store.getAll().size());
+
+        for (int a = 0; a < 15; a++) {
+            String account = "ACC" + a;
+            assertSameIds(reference.latest(account, 20), store.latest(account, 20));
+            List<Transaction> all = reference.latest(account, Integer.MAX_VALUE);
+            assertSameIds(all, store.latest(account, Integer.MAX_VALUE));
+
+            for (int c = 0; c < all.size(); c += all.size() / 7) {
+                Transaction cursor = all.get(c);
+                assertSameIds(reference.before(account, cursor, 50),
+                    store.before(account, store.get(cursor.getTransactionId()), 50));
+            }
+
+            LocalDateTime from = START.plus(1_000, ChronoUnit.MILLIS);
+            LocalDateTime to = START.plus(4_500, ChronoUnit.MILLIS);
+            assertSameIds(reference.between(account, from, to, Integer.MAX_VALUE),
+                store.between(account, from, to, Integer.MAX_VALUE));
+        }
+        // Spans a sealed segment boundary; each transaction is visited once, transfers included
+        LocalDateTime since = START.plus(3_000, ChronoUnit.MILLIS);
+        Set<String> expected = new HashSet<>();
+        reference.forEachSince(since, transaction -> expected.add(transaction.getTransactionId()));
+        List<String> visited = new ArrayList<>();
+        store.forEachSince(since, transaction -> visited.add(transaction.getTransactionId()));
+        assertEquals(expected.size(), visited.size());
+        assertEquals(expected, new HashSet<>(visited));
+    }
+
+    @Test
+    void testSealedTransactionsKeepEveryField() {
+        TieredTransactionStore store = new TieredTransactionStore(directory);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_456_789);
+        Transaction transfer = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.TRANSFER,
+            Money.ofMinor(12_345, "EUR"), timestamp, "rent é ✓", "ACC2");
+        Transaction deposit = new Transaction("legacy-id", "ACC1", TransactionType.DEPOSIT,
+            Money.ofMinor(5, "JPY"), timestamp, null, null);
+        store.add(transfer);
+        store.add(deposit);
+        store.seal();
+
+        Transaction read = store.get(transfer.getTransactionId());
+        assertEquals("ACC1", read.getAccountId());
+        assertEquals("ACC2", read.getRelatedAccountId());
+        assertEquals(TransactionType.TRANSFER, read.getType());
+        assertEquals(Money.ofMinor(12_345, "EUR"), read.getAmount());
+        assertEquals(timestamp, read.getTimestamp());
+        assertEquals("rent é ✓", read.getDescription());
+        assertEquals("", store.get("legacy-id").getDescription());
+        assertNull(store.get("missing"));
+
+        assertEquals(1, store.latest("ACC2", 10).size());
+        assertEquals(2, store.latest("ACC1", 10).size());
+        assertNull(store.before("ACC2", store.get("legacy-id"), 10));
+    }
+
+    @Test
+    void testReopensSegmentsAndSkipsReplayedTransactions() {
+        TieredTransactionStore store = new TieredTransactionStore(directory);
+        Transaction sealed = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.DEPOSIT,
+            Money.ofMinor(100, "USD"), START, "old", null);
+        store.add(sealed);
+        store.seal();
+
+        TieredTransactionStore reopened = new TieredTransactionStore(directory);
+        reopened.add(sealed);
+        Transaction recent = new Transaction(idGenerator.nextId(), "ACC1", TransactionType.DEPOSIT,
+            Money.ofMinor(50, "USD"), START.plusDays(1), "new", null);
+        reopened.add(recent);
+
+        assertEquals(2, reopened.size());
+        assertEquals(1, reopened.getInMemorySize());
+        assertSameIds(List.of(recent, sealed), reopened.latest("ACC1", 10));
+        assertTrue(reopened.seal().getFileName().toString().endsWith("00001.seg"));
+    }
+
+    private static void assertSameIds(List<Transaction> expected, List<Transaction> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTransactionId(), actual.get(i).getTransactionId());
+        }
+    }
+}